@@ -0,0 +1,92 @@
+package com.sairajtravels.site.config;
+
+import com.sairajtravels.site.service.CircuitBreaker;
+import com.sairajtravels.site.service.UpstreamClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Outbound HTTP clients, one per upstream. Each gets its own keep-alive connection pool,
+ * connect/read timeouts, executor and circuit breaker, configured under
+ * {@code outbound.<upstream>.*}.
+ */
+@Configuration
+public class OutboundHttpConfig {
+
+    @Bean(name = "orsClient")
+    public UpstreamClient orsClient(Environment env, MeterRegistry meterRegistry) {
+        return build("ors", env, meterRegistry, 3000, 15000, 10);
+    }
+
+    @Bean(name = "nominatimClient")
+    public UpstreamClient nominatimClient(Environment env, MeterRegistry meterRegistry) {
+        return build("nominatim", env, meterRegistry, 3000, 5000, 4);
+    }
+
+    private UpstreamClient build(String name, Environment env, MeterRegistry meterRegistry,
+                                 int defaultConnectMs, int defaultReadMs, int defaultMaxConnections) {
+        String prefix = "outbound." + name + ".";
+        int connectMs = env.getProperty(prefix + "connect-timeout-ms", Integer.class, defaultConnectMs);
+        int readMs = env.getProperty(prefix + "read-timeout-ms", Integer.class, defaultReadMs);
+        int maxConnections = env.getProperty(prefix + "max-connections", Integer.class, defaultMaxConnections);
+        int acquireMs = env.getProperty(prefix + "pool-acquire-timeout-ms", Integer.class, 2000);
+        int failureThreshold = env.getProperty(prefix + "breaker.failure-threshold", Integer.class, 5);
+        long openMs = env.getProperty(prefix + "breaker.open-ms", Long.class, 30000L);
+        int queue = env.getProperty(prefix + "queue-capacity", Integer.class, 100);
+
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readMs))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+
+        Gauge.builder("outbound.http.pool.leased", pool, p -> p.getTotalStats().getLeased())
+                .tag("upstream", name).register(meterRegistry);
+        Gauge.builder("outbound.http.pool.available", pool, p -> p.getTotalStats().getAvailable())
+                .tag("upstream", name).register(meterRegistry);
+        Gauge.builder("outbound.http.pool.pending", pool, p -> p.getTotalStats().getPending())
+                .tag("upstream", name).register(meterRegistry);
+        Gauge.builder("outbound.http.pool.max", pool, p -> p.getTotalStats().getMax())
+                .tag("upstream", name).register(meterRegistry);
+
+        // Async calls beyond the connection limit would only wait on the pool, so size to match
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConnections);
+        executor.setMaxPoolSize(maxConnections);
+        executor.setQueueCapacity(queue);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadNamePrefix("Http-" + name + "-");
+        executor.initialize();
+
+        return new UpstreamClient(name, new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient)),
+                executor, new CircuitBreaker(failureThreshold, openMs), meterRegistry);
+    }
+}
@@ -3,12 +3,15 @@ package com.sairajtravels.site.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling // every @Scheduled background job in the application
 public class PerformanceConfig {
 
     @Bean(name = "taskExecutor")
@@ -21,4 +24,45 @@ public class PerformanceConfig {
         executor.initialize();
         return executor;
     }
+
+    // Endpoint snapping and its Nominatim probes. No queue: when every thread is busy the work
+    // runs on the calling thread, so plans slow down instead of waiting on each other.
+    @Bean(name = "snapProbeExecutor")
+    public ThreadPoolTaskExecutor snapProbeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(32);
+        executor.setQueueCapacity(0);
+        executor.setKeepAliveSeconds(30);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("SnapProbe-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Spring MVC async work: the streaming exports and the batch trip plan stream write their
+    // responses here. Bounded, so a burst of exports queues rather than starting a thread each.
+    @Bean(name = "mvcAsyncExecutor")
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("MvcAsync-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Batch trip planning: point snapping and ORS matrix groups, a few at a time
+    @Bean(name = "tripBatchExecutor")
+    public ThreadPoolTaskExecutor tripBatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(2000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("TripBatch-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -2,6 +2,8 @@ package com.sairajtravels.site.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
@@ -21,12 +23,17 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
+                // Bulk exports: admin credentials over HTTP Basic (spring.security.user.*)
+                .requestMatchers("/api/admin/exports/**").hasRole("ADMIN")
+                // Stats rebuild runs full GROUP BY scans: admins only, the stats read stays open
+                .requestMatchers(HttpMethod.POST, "/api/admin/dashboard/stats/rebuild").hasRole("ADMIN")
                 // Allow all API endpoints
                 .requestMatchers("/api/**").permitAll()
                 .requestMatchers("/images/**").permitAll()
                 .requestMatchers("/static/**").permitAll()
                 .anyRequest().permitAll()
-            );
+            )
+            .httpBasic(Customizer.withDefaults());
         
         return http.build();
     }
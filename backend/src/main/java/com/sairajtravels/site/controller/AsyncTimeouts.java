@@ -0,0 +1,33 @@
+package com.sairajtravels.site.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Per-request async timeouts for streaming endpoints that outlive the container's default
+ * (30 s unless {@code spring.mvc.async.request-timeout} is set), leaving every other request on it.
+ */
+final class AsyncTimeouts {
+
+    private AsyncTimeouts() {
+    }
+
+    /**
+     * Gives the response the handler is about to return {@code timeoutMs} to complete. The
+     * interceptor runs after the async request is created and before it is started.
+     */
+    static void extend(HttpServletRequest request, long timeoutMs) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(AsyncTimeouts.class.getName(),
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        ((AsyncWebRequest) webRequest).setTimeout(timeoutMs);
+                    }
+                });
+    }
+}
@@ -2,6 +2,7 @@ package com.sairajtravels.site.controller;
 
 import com.sairajtravels.site.entity.ContactMessage;
 import com.sairajtravels.site.service.ContactMessageService;
+import com.sairajtravels.site.service.IdempotencyService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,14 +15,21 @@ import java.util.List;
 public class ContactMessageController {
 
     private final ContactMessageService service;
+    private final IdempotencyService idempotencyService;
 
-    public ContactMessageController(ContactMessageService service) {
+    public ContactMessageController(ContactMessageService service, IdempotencyService idempotencyService) {
         this.service = service;
+        this.idempotencyService = idempotencyService;
     }
 
-    // Create
+    // Create; a retry with the same Idempotency-Key gets the first response back
     @PostMapping
-    public ResponseEntity<ContactMessage> saveMessage(@RequestBody ContactMessage message) {
+    public ResponseEntity<?> saveMessage(@RequestBody ContactMessage message,
+                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return idempotencyService.execute("contact-messages", idempotencyKey, message,
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(service.saveMessage(message)));
+        }
         ContactMessage saved = service.saveMessage(message);
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
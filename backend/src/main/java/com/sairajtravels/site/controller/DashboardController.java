@@ -0,0 +1,31 @@
+package com.sairajtravels.site.controller;
+
+import com.sairajtravels.site.service.OperationalRollupService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/dashboard")
+public class DashboardController {
+
+    private final OperationalRollupService rollupService;
+
+    public DashboardController(OperationalRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    /** All dashboard counters (bookings, enquiries, gallery, users, contact messages) from memory. */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(rollupService.getDashboardStats());
+    }
+
+    // Recount from the tables now, e.g. after editing rows directly in the database
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        rollupService.rebuild();
+        return ResponseEntity.ok(rollupService.getDashboardStats());
+    }
+}
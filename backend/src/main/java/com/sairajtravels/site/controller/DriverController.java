@@ -1,20 +1,24 @@
 package com.sairajtravels.site.controller;
 
 import com.sairajtravels.site.dto.DriverDTO;
+import com.sairajtravels.site.service.DriverAssignmentService;
 import com.sairajtravels.site.service.DriverService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/drivers")
 public class DriverController {
 
     private final DriverService driverService;
+    private final DriverAssignmentService driverAssignmentService;
 
-    public DriverController(DriverService driverService) {
+    public DriverController(DriverService driverService, DriverAssignmentService driverAssignmentService) {
         this.driverService = driverService;
+        this.driverAssignmentService = driverAssignmentService;
     }
 
     // ✅ Get all drivers
@@ -23,6 +27,16 @@ public class DriverController {
         return ResponseEntity.ok(driverService.getAllDrivers());
     }
 
+    // Proposed driver for each confirmed booking of the next `days` days (nothing is saved)
+    @GetMapping("/assignments")
+    public ResponseEntity<?> planAssignments(@RequestParam(defaultValue = "7") int days) {
+        try {
+            return ResponseEntity.ok(driverAssignmentService.planAssignments(days));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // ✅ Get driver by ID
     @GetMapping("/{id}")
     public ResponseEntity<DriverDTO> getDriverById(@PathVariable Integer id) {
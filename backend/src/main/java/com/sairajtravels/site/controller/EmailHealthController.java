@@ -1,6 +1,11 @@
 package com.sairajtravels.site.controller;
 
+import com.sairajtravels.site.entity.EmailOutbox;
+import com.sairajtravels.site.service.AdminDigestDispatcher;
+import com.sairajtravels.site.service.EmailOutboxService;
 import com.sairajtravels.site.service.EmailService;
+import com.sairajtravels.site.service.MailSpoolService;
+import com.sairajtravels.site.service.SmtpTransportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
@@ -8,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -18,6 +24,18 @@ public class EmailHealthController {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private SmtpTransportService smtpTransportService;
+
+    @Autowired
+    private MailSpoolService mailSpoolService;
+
+    @Autowired
+    private AdminDigestDispatcher adminDigestDispatcher;
+
     @Value("${spring.mail.host:}")
     private String mailHost;
 
@@ -119,4 +137,49 @@ public class EmailHealthController {
         
         return ResponseEntity.ok(response);
     }
+
+    // Outbox rows that ran out of attempts, newest first (bodies omitted)
+    @GetMapping("/outbox/dead")
+    public ResponseEntity<List<Map<String, Object>>> getDeadLetters(@RequestParam(defaultValue = "50") int limit) {
+        List<Map<String, Object>> rows = emailOutboxService.deadLetters(limit).stream().map(o -> {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", o.getId());
+            row.put("kind", o.getKind());
+            row.put("recipient", o.getRecipient());
+            row.put("subject", o.getSubject());
+            row.put("sourceType", o.getSourceType());
+            row.put("sourceId", o.getSourceId());
+            row.put("attempts", o.getAttempts());
+            row.put("lastError", o.getLastError());
+            row.put("createdAt", o.getCreatedAt());
+            return row;
+        }).toList();
+        return ResponseEntity.ok(rows);
+    }
+
+    @PostMapping("/outbox/{id}/requeue")
+    public ResponseEntity<Map<String, Object>> requeueDeadLetter(@PathVariable Long id) {
+        if (!emailOutboxService.requeue(id)) {
+            return ResponseEntity.status(404).body(Map.of("error", "No dead letter with id " + id));
+        }
+        return ResponseEntity.ok(Map.of("id", id, "status", EmailOutbox.STATUS_PENDING));
+    }
+
+    // Pooled SMTP sessions: open or not, messages sent and failed, (re)connects, throughput, last error
+    @GetMapping("/smtp/sessions")
+    public ResponseEntity<List<Map<String, Object>>> getSmtpSessions() {
+        return ResponseEntity.ok(smtpTransportService.sessions());
+    }
+
+    // Mail spool: per lane, segment files and bytes on disk, messages waiting and given up
+    @GetMapping("/spool")
+    public ResponseEntity<Map<String, Object>> getMailSpool() {
+        return ResponseEntity.ok(mailSpoolService.stats());
+    }
+
+    // Admin notification digests: digests sent, notifications in them, sends saved, waiting per source type
+    @GetMapping("/admin-digest")
+    public ResponseEntity<Map<String, Object>> getAdminDigest() {
+        return ResponseEntity.ok(adminDigestDispatcher.stats());
+    }
 }
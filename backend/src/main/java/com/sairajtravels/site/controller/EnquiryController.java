@@ -2,6 +2,7 @@ package com.sairajtravels.site.controller;
 
 import com.sairajtravels.site.dto.EnquiryDTO;
 import com.sairajtravels.site.service.EnquiryService;
+import com.sairajtravels.site.service.IdempotencyService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,14 +14,21 @@ import java.util.List;
 public class EnquiryController {
 
     private final EnquiryService enquiryService;
+    private final IdempotencyService idempotencyService;
 
-    public EnquiryController(EnquiryService enquiryService) {
+    public EnquiryController(EnquiryService enquiryService, IdempotencyService idempotencyService) {
         this.enquiryService = enquiryService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping
-    public ResponseEntity<EnquiryDTO> createEnquiry(@RequestBody EnquiryDTO enquiry) {
+    public ResponseEntity<?> createEnquiry(@RequestBody EnquiryDTO enquiry,
+                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         try {
+            if (idempotencyKey != null) {
+                return idempotencyService.execute("enquiries", idempotencyKey, enquiry,
+                        () -> ResponseEntity.status(HttpStatus.CREATED).body(enquiryService.createEnquiry(enquiry)));
+            }
             EnquiryDTO saved = enquiryService.createEnquiry(enquiry);
             return ResponseEntity.status(HttpStatus.CREATED).body(saved);
         } catch (Exception e) {
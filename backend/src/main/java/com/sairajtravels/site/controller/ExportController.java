@@ -0,0 +1,116 @@
+package com.sairajtravels.site.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sairajtravels.site.service.ExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Reconciliation exports, streamed row by row:
+ * /api/admin/exports/{bookings|enquiries|contact-messages}?format=csv|ndjson&from=2025-04-01&to=2026-04-01
+ * ({@code to} exclusive; defaults to the year up to today). Admin only, see {@code SecurityConfig}.
+ */
+@RestController
+@RequestMapping("/api/admin/exports")
+public class ExportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportController.class);
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${export.timeout-ms:600000}")
+    private long timeoutMs;
+
+    public ExportController(ExportService exportService, ObjectMapper objectMapper) {
+        this.exportService = exportService;
+        this.objectMapper = objectMapper;
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        long run(OutputStream out, ExportService.Format format, LocalDate from, LocalDate to) throws IOException;
+    }
+
+    @GetMapping("/bookings")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam(defaultValue = "csv") String format,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            HttpServletRequest request) {
+        return export(request, "bookings", format, from, to, (out, f, a, b) ->
+                exportService.exportBookings(out, f, a.atStartOfDay(), b.atStartOfDay()));
+    }
+
+    @GetMapping("/enquiries")
+    public ResponseEntity<StreamingResponseBody> exportEnquiries(@RequestParam(defaultValue = "csv") String format,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             HttpServletRequest request) {
+        return export(request, "enquiries", format, from, to, (out, f, a, b) ->
+                exportService.exportEnquiries(out, f, a.atStartOfDay(), b.atStartOfDay()));
+    }
+
+    @GetMapping("/contact-messages")
+    public ResponseEntity<StreamingResponseBody> exportContactMessages(@RequestParam(defaultValue = "csv") String format,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                   HttpServletRequest request) {
+        return export(request, "contact-messages", format, from, to, (out, f, a, b) ->
+                exportService.exportContactMessages(out, f, a.atStartOfDay(), b.atStartOfDay()));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(HttpServletRequest request, String name, String format,
+                                                         LocalDate from, LocalDate to, Export export) {
+        ExportService.Format f;
+        try {
+            f = ExportService.Format.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return badRequest("format must be csv or ndjson");
+        }
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusYears(1);
+        if (!start.isBefore(end)) {
+            return badRequest("from must be before to");
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                export.run(out, f, start, end);
+            } catch (Exception e) {
+                // Headers are already sent; the truncated body is all the client will see
+                log.warn("Export of {} failed: {}", name, e.toString());
+                throw e;
+            }
+        };
+        // Long exports outlive the container's default async timeout
+        AsyncTimeouts.extend(request, timeoutMs);
+        String filename = name + "-" + start + "_" + end + (f == ExportService.Format.CSV ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(f == ExportService.Format.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    // The streaming return type only takes a StreamingResponseBody, so errors are written through one too
+    private ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, Map.of("error", message)));
+    }
+}
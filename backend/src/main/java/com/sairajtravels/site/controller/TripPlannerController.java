@@ -1,14 +1,28 @@
 package com.sairajtravels.site.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sairajtravels.site.service.FareQuoteService;
+import com.sairajtravels.site.service.RouteGeometryService;
+import com.sairajtravels.site.service.TripMatrixService;
+import com.sairajtravels.site.service.TripPlanningService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestClientResponseException;
-import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/trip")
@@ -16,16 +30,54 @@ public class TripPlannerController {
 
     private static final Logger log = LoggerFactory.getLogger(TripPlannerController.class);
 
-    private final RestTemplate rest = new RestTemplate();
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final long BATCH_STREAM_MARGIN_MS = 30_000;
+
+    private final TripPlanningService tripPlanningService;
+    private final TripMatrixService tripMatrixService;
+    private final FareQuoteService fareQuoteService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${trip.batch.max-pairs:500}")
+    private int maxBatchPairs;
 
-    @Value("${ors.api.key}")
-    private String orsApiKey;
+    @Value("${trip.batch.deadline-ms:60000}")
+    private long batchDeadlineMs;
+
+    public TripPlannerController(TripPlanningService tripPlanningService,
+                                 TripMatrixService tripMatrixService,
+                                 FareQuoteService fareQuoteService,
+                                 ObjectMapper objectMapper) {
+        this.tripPlanningService = tripPlanningService;
+        this.tripMatrixService = tripMatrixService;
+        this.fareQuoteService = fareQuoteService;
+        this.objectMapper = objectMapper;
+    }
 
-    @Value("${nominatim.useragent:saairaj-travels@example.com}")
-    private String nominatimUserAgent;
+    /**
+     * Ranked fares for every vehicle for an already-planned trip (distance and duration are totals).
+     * Optional tripDate/returnDate (inclusive) give the days the vehicle is hired for.
+     */
+    @GetMapping("/quote")
+    public ResponseEntity<?> quote(@RequestParam double distanceMeters,
+                                   @RequestParam double durationSeconds,
+                                   @RequestParam(defaultValue = "0") int passengers,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tripDate,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate returnDate) {
+        if (distanceMeters < 0 || durationSeconds < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "distanceMeters and durationSeconds must be >= 0"));
+        }
+        long days;
+        try {
+            days = calendarDays(tripDate, returnDate);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(fareQuoteService.quoteAll(distanceMeters, durationSeconds, passengers, days));
+    }
 
     @PostMapping("/plan")
-    public ResponseEntity<?> planTrip(@RequestBody Map<String, Object> req) {
+    public CompletableFuture<ResponseEntity<?>> planTrip(@RequestBody Map<String, Object> req) {
         try {
             log.info("➡ Incoming Trip Plan Request: {}", req);
 
@@ -35,12 +87,22 @@ public class TripPlannerController {
             Map<String, Object> to = (Map<String, Object>) req.get("to");
 
             if (from == null || to == null) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Missing from/to in request"));
+                return CompletableFuture.completedFuture(
+                        ResponseEntity.badRequest().body(Map.of("error", "Missing from/to in request")));
             }
 
             // ✅ new roundTrip flag
-            boolean roundTrip = req.get("roundTrip") != null
-                    && Boolean.parseBoolean(req.get("roundTrip").toString());
+            boolean roundTrip = isRoundTrip(req);
+
+            // Optional compact geometry: "geometryFormat": "polyline", "simplifyMeters" or "zoom"
+            RouteGeometryService.Options geometry;
+            try {
+                geometry = RouteGeometryService.Options.parse(
+                        req.get("geometryFormat"), req.get("simplifyMeters"), req.get("zoom"));
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.completedFuture(
+                        ResponseEntity.badRequest().body(Map.of("error", "Invalid geometry options: " + e.getMessage())));
+            }
 
             double fromLat = toDouble(from.get("lat"));
             double fromLng = toDouble(from.get("lng"));
@@ -49,291 +111,160 @@ public class TripPlannerController {
 
             log.info("Original coords - from: {},{}  to: {},{}", fromLat, fromLng, toLat, toLng);
 
-            // Snap endpoints
-            double[] snappedFrom = snapToNearestRoad(fromLat, fromLng);
-            double[] snappedTo = snapToNearestRoad(toLat, toLng);
-
-            if (snappedFrom != null) {
-                fromLat = snappedFrom[0];
-                fromLng = snappedFrom[1];
-            }
-            if (snappedTo != null) {
-                toLat = snappedTo[0];
-                toLng = snappedTo[1];
-            }
-
-            // ORS request
-            String orsUrl = "https://api.openrouteservice.org/v2/directions/driving-car";
-
-            Map<String, Object> body = new HashMap<>();
-            List<List<Double>> coords = Arrays.asList(
-                    Arrays.asList(fromLng, fromLat),
-                    Arrays.asList(toLng, toLat)
-            );
-            body.put("coordinates", coords);
-            body.put("instructions", false);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", orsApiKey);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
+            // Optional ranked fare for every vehicle: "quote": true, "passengers": n, "tripDate"/"returnDate"
+            boolean quote = req.get("quote") != null && Boolean.parseBoolean(req.get("quote").toString());
+            int passengers = (int) toDouble(req.get("passengers"));
+            long days;
             try {
-                @SuppressWarnings("rawtypes")
-                ResponseEntity<Map> orsResp = rest.exchange(orsUrl, HttpMethod.POST, entity, Map.class);
-                @SuppressWarnings("unchecked")
-                Map<String, Object> respBody = orsResp.getBody();
-
-                if (respBody != null) {
-                    log.info("ORS top-level keys: {}", respBody.keySet());
-                    log.info("ORS full response: {}", respBody);
-                }
-
-                Map<String, Object> result = buildResponseFromORS(respBody, roundTrip);
-                log.info("Parsed result from ORS: {}", result);
-
-                if (result == null) result = new HashMap<>();
-                result.put("fallback", false);
-                result.put("message", "ORS success");
-
-                log.info("✅ ORS SUCCESS: Driving route fetched. Distance={}m, Duration={}s",
-                        result.get("distance"), result.get("duration"));
-
-                return ResponseEntity.ok(result);
-            } catch (RestClientResponseException rcre) {
-                log.warn("⚠️ ORS call failed: {} \"{}\"",
-                        rcre.getStatusCode().value(), safeTruncate(rcre.getResponseBodyAsString(), 1000));
-            } catch (Exception ex) {
-                log.error("❌ ORS unexpected error", ex);
-            }
-
-            // --- Fallback ---
-            double km = haversineKm(fromLat, fromLng, toLat, toLng);
-            double meters = km * 1000.0;
-            double durationSec = (km / 60.0) * 3600.0; // assume 60 km/h
-            double fuelPricePerLiter = 100.99;
-            double fuelEfficiencyKmpl = 15.0;
-            double fuelCost = (meters / 1000.0 / fuelEfficiencyKmpl) * fuelPricePerLiter;
-            double tollCost = km * 2.0;
-
-            if (roundTrip) {
-                meters *= 2;
-                durationSec *= 2;
-                fuelCost *= 2;
-                tollCost *= 2;
+                days = calendarDays(toDate(req.get("tripDate")), toDate(req.get("returnDate")));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return CompletableFuture.completedFuture(
+                        ResponseEntity.badRequest().body(Map.of("error", "Invalid trip dates: " + e.getMessage())));
             }
 
-            Map<String, Object> fallback = new HashMap<>();
-            Map<String, Object> geometry = new HashMap<>();
-            geometry.put("type", "LineString");
-            geometry.put("coordinates", Arrays.asList(
-                    Arrays.asList(fromLng, fromLat),
-                    Arrays.asList(toLng, toLat)
-            ));
-
-            fallback.put("geometry", geometry);
-            fallback.put("distance", meters);
-            fallback.put("duration", durationSec);
-            fallback.put("fuelCost", fuelCost);
-            fallback.put("tollCost", tollCost);
-            fallback.put("roundTrip", roundTrip);
-            fallback.put("fallback", true);
-            fallback.put("message", "Fallback straight-line");
-
-            log.warn("⚠️ FALLBACK USED: distance={}m, duration={}s",
-                    meters, durationSec);
-
-            return ResponseEntity.ok(fallback);
+            // Completes off the request thread once routing (or its fallback) is done
+            return tripPlanningService.planAsync(fromLat, fromLng, toLat, toLng, roundTrip, geometry)
+                    .<ResponseEntity<?>>thenApply(result -> {
+                        if (quote) {
+                            result.put("quotes", fareQuoteService.quoteAll(
+                                    toDouble(result.get("distance")), toDouble(result.get("duration")), passengers, days));
+                        }
+                        return ResponseEntity.ok(result);
+                    })
+                    .exceptionally(this::planError);
 
         } catch (Exception e) {
-            log.error("planTrip error", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", e.getMessage()));
+            return CompletableFuture.completedFuture(planError(e));
         }
     }
 
-    // --- Helper methods below (kept intact) ---
+    private ResponseEntity<?> planError(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("planTrip error", cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", String.valueOf(cause.getMessage())));
+    }
 
-    private double[] snapToNearestRoad(double lat, double lon) {
+    /**
+     * Batch planning for many pairs. Accepts either {"pairs": [{"from": {..}, "to": {..}}, ...]}
+     * or {"sources": [..], "destinations": [..]} (every source to every destination), plus an
+     * optional "roundTrip". Streams one NDJSON row per pair as it completes, then a summary line.
+     */
+    @PostMapping("/plan/batch")
+    public ResponseEntity<StreamingResponseBody> planTripBatch(@RequestBody Map<String, Object> req, HttpServletRequest request) {
+        List<double[]> pairs = new ArrayList<>();
         try {
-            Map<String, Object> root = nominatimReverse(lat, lon);
-            if (isRoutablePlace(root)) {
-                return new double[]{lat, lon};
-            }
-
-            int[] radii = new int[]{100, 300, 600, 1000, 2000};
-            for (int r : radii) {
-                for (int i = 0; i < 8; i++) {
-                    double angle = Math.toRadians(i * 45.0);
-                    double dx = r * Math.cos(angle);
-                    double dy = r * Math.sin(angle);
-
-                    double candLat = lat + (dy / 111000.0);
-                    double lonFactor = 111000.0 * Math.cos(Math.toRadians(lat));
-                    double candLon = lon + (dx / lonFactor);
-
-                    Map<String, Object> cand = nominatimReverse(candLat, candLon);
-                    if (isRoutablePlace(cand)) {
-                        if (cand != null && cand.containsKey("lat") && cand.containsKey("lon")) {
-                            double snappedLat = Double.parseDouble(cand.get("lat").toString());
-                            double snappedLon = Double.parseDouble(cand.get("lon").toString());
-                            return new double[]{snappedLat, snappedLon};
-                        } else {
-                            return new double[]{candLat, candLon};
-                        }
+            if (req.get("pairs") instanceof List) {
+                for (Object o : (List<?>) req.get("pairs")) {
+                    Map<?, ?> pair = (Map<?, ?>) o;
+                    double[] from = toPoint(pair.get("from"));
+                    double[] to = toPoint(pair.get("to"));
+                    pairs.add(new double[]{from[0], from[1], to[0], to[1]});
+                }
+            } else if (req.get("sources") instanceof List && req.get("destinations") instanceof List) {
+                // Check the size before expanding, so a large cross product is never built
+                long crossProduct = (long) ((List<?>) req.get("sources")).size() * ((List<?>) req.get("destinations")).size();
+                if (crossProduct > maxBatchPairs) {
+                    return batchSizeError();
+                }
+                for (Object s : (List<?>) req.get("sources")) {
+                    double[] from = toPoint(s);
+                    for (Object d : (List<?>) req.get("destinations")) {
+                        double[] to = toPoint(d);
+                        pairs.add(new double[]{from[0], from[1], to[0], to[1]});
                     }
                 }
+            } else {
+                return batchError("Provide pairs or sources/destinations");
             }
         } catch (Exception e) {
-            log.warn("snapToNearestRoad error", e);
-        }
-        return null;
-    }
-
-    private Map<String, Object> nominatimReverse(double lat, double lon) {
-        try {
-            String url = String.format(
-                    "https://nominatim.openstreetmap.org/reverse?format=jsonv2&lat=%s&lon=%s&zoom=18&addressdetails=1",
-                    lat, lon);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("User-Agent", nominatimUserAgent);
-            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-            @SuppressWarnings("rawtypes")
-            ResponseEntity<Map> resp = rest.exchange(url, HttpMethod.GET, entity, Map.class);
-            if (resp.getStatusCode().is2xxSuccessful()) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> body = resp.getBody();
-                return body;
-            }
-        } catch (Exception e) {
-            log.warn("Nominatim reverse exception", e);
+            return batchError("Invalid point in request: " + e.getMessage());
         }
-        return null;
-    }
 
-    private boolean isRoutablePlace(Map<String, Object> place) {
-        if (place == null) return false;
-        Object cls = place.get("class");
-        Object typ = place.get("type");
-        if (cls != null && "highway".equals(cls.toString())) return true;
-        if (typ != null) {
-            String t = typ.toString();
-            List<String> goodTypes = Arrays.asList(
-                    "residential", "service", "road", "tertiary", "secondary", "primary",
-                    "unclassified", "track", "footway", "pedestrian", "path"
-            );
-            if (goodTypes.contains(t)) return true;
+        if (pairs.isEmpty() || pairs.size() > maxBatchPairs) {
+            return batchSizeError();
         }
-        return false;
-    }
 
-    private Map<String, Object> buildResponseFromORS(Map<String, Object> raw, boolean roundTrip) {
-        Map<String, Object> out = new HashMap<>();
-        if (raw == null) {
-            log.warn("buildResponseFromORS: raw is null");
-            return out;
-        }
+        boolean roundTrip = isRoundTrip(req);
+        log.info("➡ Incoming batch trip plan: {} pairs", pairs.size());
 
-        log.info("buildResponseFromORS: Processing response with keys: {}", raw.keySet());
-        try {
-            if (raw.containsKey("features")) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> features = (List<Map<String, Object>>) raw.get("features");
-                if (!features.isEmpty()) {
-                    Map<String, Object> f0 = features.get(0);
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> geometry = (Map<String, Object>) f0.get("geometry");
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> properties = (Map<String, Object>) f0.get("properties");
-
-                    Double distance = null;
-                    Double duration = null;
-
-                    if (properties != null) {
-                        Object summaryObj = properties.get("summary");
-                        if (summaryObj instanceof Map) {
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> summary = (Map<String, Object>) summaryObj;
-                            distance = asDouble(summary.get("distance"));
-                            duration = asDouble(summary.get("duration"));
-                        }
+        StreamingResponseBody body = out -> {
+            long start = System.currentTimeMillis();
+            int[] written = {0};
+            tripMatrixService.planAll(pairs, roundTrip, row -> {
+                synchronized (out) {
+                    if (writeLine(out, row)) {
+                        written[0]++;
                     }
-
-                    if (distance == null) distance = 0.0;
-                    if (duration == null) duration = 0.0;
-
-                    if (roundTrip) {
-                        distance *= 2;
-                        duration *= 2;
-                    }
-
-                    addCosts(out, geometry, distance, duration, roundTrip);
-                    return out;
                 }
+            });
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("done", true);
+            summary.put("requested", pairs.size());
+            summary.put("returned", written[0]);
+            summary.put("elapsedMs", System.currentTimeMillis() - start);
+            synchronized (out) {
+                writeLine(out, summary);
             }
+        };
+        // Planning may take up to the batch deadline; the margin covers the summary and slow clients
+        AsyncTimeouts.extend(request, batchDeadlineMs + BATCH_STREAM_MARGIN_MS);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
 
-            if (raw.containsKey("routes")) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> routes = (List<Map<String, Object>>) raw.get("routes");
-                if (!routes.isEmpty()) {
-                    Map<String, Object> r0 = routes.get(0);
-
-                    Map<String, Object> geometry;
-                    Double distance = asDouble(r0.get("distance"));
-                    Double duration = asDouble(r0.get("duration"));
-
-                    Object geomObj = r0.get("geometry");
-                    if (geomObj instanceof Map) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> geometryMap = (Map<String, Object>) geomObj;
-                        geometry = geometryMap;
-                    } else {
-                        geometry = new HashMap<>();
-                    }
+    private ResponseEntity<StreamingResponseBody> batchSizeError() {
+        return batchError("Batch must contain between 1 and " + maxBatchPairs + " pairs");
+    }
 
-                    if (distance == null) distance = 0.0;
-                    if (duration == null) duration = 0.0;
+    // The streaming return type only takes a StreamingResponseBody, so errors are written through one too
+    private ResponseEntity<StreamingResponseBody> batchError(String message) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, Map.of("error", message)));
+    }
 
-                    if (roundTrip) {
-                        distance *= 2;
-                        duration *= 2;
-                    }
+    private boolean writeLine(OutputStream out, Map<String, Object> row) {
+        try {
+            out.write(objectMapper.writeValueAsString(row).getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+            out.flush();
+            return true;
+        } catch (IOException e) {
+            log.warn("Batch trip plan stream write failed: {}", e.getMessage());
+            return false;
+        }
+    }
 
-                    addCosts(out, geometry, distance, duration, roundTrip);
-                    return out;
-                }
-            }
-        } catch (Exception e) {
-            log.warn("Error parsing ORS response", e);
+    private boolean isRoundTrip(Map<String, Object> req) {
+        return req.get("roundTrip") != null
+                && Boolean.parseBoolean(req.get("roundTrip").toString());
+    }
+
+    // Days the vehicle is hired, both dates inclusive; 0 when the dates are not given
+    private long calendarDays(LocalDate tripDate, LocalDate returnDate) {
+        if (tripDate == null) {
+            return 0;
         }
-        return out;
+        LocalDate last = returnDate != null ? returnDate : tripDate;
+        if (last.isBefore(tripDate)) {
+            throw new IllegalArgumentException("returnDate must not be before tripDate");
+        }
+        return ChronoUnit.DAYS.between(tripDate, last) + 1;
     }
 
-    private Double asDouble(Object o) {
-        if (o == null) return 0.0;
-        if (o instanceof Number) return ((Number) o).doubleValue();
-        try { return Double.parseDouble(o.toString()); }
-        catch (Exception e) { return 0.0; }
+    private LocalDate toDate(Object o) {
+        return o == null || o.toString().isBlank() ? null : LocalDate.parse(o.toString());
     }
 
-    private void addCosts(Map<String, Object> out, Map<String, Object> geometry,
-                          double distanceMeters, double durationSeconds, boolean roundTrip) {
-        double fuelEfficiency = 15.0;
-        double fuelPrice = 100.99;
-        double fuelCost = (distanceMeters / 1000.0 / fuelEfficiency) * fuelPrice;
-        double tollCost = (distanceMeters / 1000.0) * 2.0;
-
-        out.put("geometry", geometry);
-        out.put("distance", distanceMeters);
-        out.put("duration", durationSeconds);
-        out.put("fuelCost", fuelCost);
-        out.put("tollCost", tollCost);
-        out.put("roundTrip", roundTrip);
+    private double[] toPoint(Object o) {
+        if (!(o instanceof Map)) {
+            throw new IllegalArgumentException("expected {lat, lng}");
+        }
+        Map<?, ?> p = (Map<?, ?>) o;
+        if (p.get("lat") == null || p.get("lng") == null) {
+            throw new IllegalArgumentException("expected {lat, lng}");
+        }
+        return new double[]{toDouble(p.get("lat")), toDouble(p.get("lng"))};
     }
 
     private double toDouble(Object o) {
@@ -342,19 +273,4 @@ public class TripPlannerController {
         try { return Double.parseDouble(o.toString()); }
         catch (Exception e) { return 0.0; }
     }
-
-    private double haversineKm(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371;
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat/2) * Math.sin(dLat/2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(dLon/2) * Math.sin(dLon/2);
-        return R * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1-a));
-    }
-
-    private String safeTruncate(String s, int max) {
-        if (s == null) return null;
-        return s.length() <= max ? s : s.substring(0, max) + "...";
-    }
 }
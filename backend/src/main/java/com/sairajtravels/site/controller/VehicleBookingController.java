@@ -1,20 +1,36 @@
 package com.sairajtravels.site.controller;
 
+import com.sairajtravels.site.dto.BookingStatusUpdateDTO;
 import com.sairajtravels.site.dto.VehicleBookingDTO;
+import com.sairajtravels.site.dto.VehicleBookingFilter;
+import com.sairajtravels.site.service.BookingConflictException;
+import com.sairajtravels.site.service.FleetAvailabilityService;
+import com.sairajtravels.site.service.IdempotencyService;
 import com.sairajtravels.site.service.VehicleBookingService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/vehicle-bookings")
 public class VehicleBookingController {
 
     private final VehicleBookingService vehicleBookingService;
+    private final FleetAvailabilityService fleetAvailabilityService;
+    private final IdempotencyService idempotencyService;
 
-    public VehicleBookingController(VehicleBookingService vehicleBookingService) {
+    public VehicleBookingController(VehicleBookingService vehicleBookingService,
+                                    FleetAvailabilityService fleetAvailabilityService,
+                                    IdempotencyService idempotencyService) {
         this.vehicleBookingService = vehicleBookingService;
+        this.fleetAvailabilityService = fleetAvailabilityService;
+        this.idempotencyService = idempotencyService;
     }
 
     @GetMapping
@@ -22,26 +38,102 @@ public class VehicleBookingController {
         return vehicleBookingService.getAllBookings();
     }
 
+    /**
+     * Keyset-paged listing, newest request first, e.g.
+     * ?limit=50&status=PENDING&vehicleId=3&tripFrom=2025-11-01&tripTo=2025-11-30&phone=..&email=..
+     * Pass the returned nextCursor as cursor for the next page; includeTotal adds a full count.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> listBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer vehicleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tripFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tripTo,
+            @RequestParam(required = false) String phone,
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        VehicleBookingFilter filter = new VehicleBookingFilter(
+                blankToNull(status) != null ? status.trim().toUpperCase() : null,
+                vehicleId, tripFrom, tripTo, blankToNull(phone), blankToNull(email));
+        try {
+            return ResponseEntity.ok(vehicleBookingService.listBookings(filter, cursor, limit, includeTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/vehicle/{vehicleId}")
     public List<VehicleBookingDTO> getBookingsByVehicle(@PathVariable Integer vehicleId) {
         return vehicleBookingService.getBookingsByVehicle(vehicleId);
     }
 
+    /** Vehicles with no active booking on any day from..to (inclusive), e.g. ?from=2025-11-12&to=2025-11-15 */
+    @GetMapping("/availability")
+    public ResponseEntity<?> getAvailableVehicles(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int minCapacity,
+            @RequestParam(required = false) Boolean ac) {
+        try {
+            return ResponseEntity.ok(fleetAvailabilityService.findAvailable(from, to, minCapacity, ac));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * With an Idempotency-Key header, a retried request returns the first response instead of booking twice.
+     * 409 when the vehicle is already allocated on those days.
+     */
     @PostMapping
-    public VehicleBookingDTO createBooking(@RequestBody VehicleBookingDTO dto) {
-        return vehicleBookingService.createBooking(dto);
+    public ResponseEntity<?> createBooking(@RequestBody VehicleBookingDTO dto,
+                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        try {
+            if (idempotencyKey != null) {
+                return idempotencyService.execute("vehicle-bookings", idempotencyKey, dto,
+                        () -> ResponseEntity.ok(vehicleBookingService.createBooking(dto)));
+            }
+            return ResponseEntity.ok(vehicleBookingService.createBooking(dto));
+        } catch (BookingConflictException e) {
+            return conflict(e.getMessage());
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<VehicleBookingDTO> updateBooking(@PathVariable Integer id,
-                                                           @RequestBody VehicleBookingDTO dto) {
+    public ResponseEntity<?> updateBooking(@PathVariable Integer id,
+                                           @RequestBody VehicleBookingDTO dto) {
         System.out.println("=== VEHICLE BOOKING CONTROLLER ===");
         System.out.println("Booking ID: " + id);
         System.out.println("DTO Status: " + dto.getStatus());
         System.out.println("DTO Customer Email: " + dto.getCustomerEmail());
         
-        VehicleBookingDTO updated = vehicleBookingService.updateBooking(id, dto);
-        return (updated != null) ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
+        try {
+            VehicleBookingDTO updated = vehicleBookingService.updateBooking(id, dto);
+            return (updated != null) ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
+        } catch (BookingConflictException e) {
+            return conflict(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return conflict("Booking is being edited concurrently, please reload and retry");
+        }
+    }
+
+    /**
+     * Bulk status change, e.g. {"bookingIds":[12,15,18],"status":"CONFIRMED"}. Returns one result
+     * per booking; customers of changed bookings get the usual status-update email.
+     */
+    @PutMapping("/status")
+    public ResponseEntity<?> updateStatuses(@RequestBody BookingStatusUpdateDTO request) {
+        try {
+            return ResponseEntity.ok(vehicleBookingService.updateStatuses(request.getBookingIds(), request.getStatus()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (BookingConflictException e) {
+            return conflict(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return conflict("Bookings are being edited concurrently, please retry");
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -49,4 +141,12 @@ public class VehicleBookingController {
         vehicleBookingService.deleteBooking(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<Map<String, String>> conflict(String message) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", message));
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
+    }
 }
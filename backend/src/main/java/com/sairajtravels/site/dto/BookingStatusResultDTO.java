@@ -0,0 +1,74 @@
+package com.sairajtravels.site.dto;
+
+/**
+ * Outcome for one booking of a bulk status change: {@code UPDATED} (customer notified),
+ * {@code UNCHANGED} (already in that status), {@code CONFLICT} (its vehicle is already allocated
+ * on those days; {@code message} says by which booking) or {@code NOT_FOUND}.
+ */
+public class BookingStatusResultDTO {
+    public static final String UPDATED = "UPDATED";
+    public static final String UNCHANGED = "UNCHANGED";
+    public static final String CONFLICT = "CONFLICT";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private Integer bookingId;
+    private String result;
+    private String previousStatus;
+    private String status;
+    private String message;
+
+    public BookingStatusResultDTO() {}
+
+    public BookingStatusResultDTO(Integer bookingId, String result, String previousStatus, String status) {
+        this.bookingId = bookingId;
+        this.result = result;
+        this.previousStatus = previousStatus;
+        this.status = status;
+    }
+
+    public BookingStatusResultDTO(Integer bookingId, String result, String previousStatus, String status,
+                                  String message) {
+        this(bookingId, result, previousStatus, status);
+        this.message = message;
+    }
+
+    public Integer getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Integer bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(String previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
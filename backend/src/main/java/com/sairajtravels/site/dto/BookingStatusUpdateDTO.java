@@ -0,0 +1,27 @@
+package com.sairajtravels.site.dto;
+
+import java.util.List;
+
+/** Body of the bulk status change: move every listed booking to {@code status}. */
+public class BookingStatusUpdateDTO {
+    private List<Integer> bookingIds;
+    private String status;
+
+    public BookingStatusUpdateDTO() {}
+
+    public List<Integer> getBookingIds() {
+        return bookingIds;
+    }
+
+    public void setBookingIds(List<Integer> bookingIds) {
+        this.bookingIds = bookingIds;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
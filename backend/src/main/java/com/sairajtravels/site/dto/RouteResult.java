@@ -0,0 +1,62 @@
+package com.sairajtravels.site.dto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-way driving route: distance, duration and the line geometry as interleaved
+ * lon/lat pairs in a flat array. Immutable, so it can be shared out of caches.
+ */
+public final class RouteResult {
+
+    private static final double[] NO_COORDINATES = new double[0];
+
+    private final double distanceMeters;
+    private final double durationSeconds;
+    private final double[] coordinates;
+
+    public RouteResult(double distanceMeters, double durationSeconds, double[] coordinates) {
+        this.distanceMeters = distanceMeters;
+        this.durationSeconds = durationSeconds;
+        this.coordinates = coordinates != null ? coordinates : NO_COORDINATES;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    public double getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /** Interleaved lon0, lat0, lon1, lat1, ... Callers must not modify the array. */
+    public double[] getCoordinates() {
+        return coordinates;
+    }
+
+    public int getPointCount() {
+        return coordinates.length / 2;
+    }
+
+    /** Approximate retained size of the geometry, used for byte-bounded caches. */
+    public long geometryBytes() {
+        return 16L + coordinates.length * 8L;
+    }
+
+    /** GeoJSON LineString as returned to the frontend; empty map when there is no geometry. */
+    public Map<String, Object> toGeoJson() {
+        Map<String, Object> geometry = new HashMap<>();
+        if (coordinates.length == 0) {
+            return geometry;
+        }
+        List<List<Double>> coords = new ArrayList<>(coordinates.length / 2);
+        for (int i = 0; i + 1 < coordinates.length; i += 2) {
+            coords.add(List.of(coordinates[i], coordinates[i + 1]));
+        }
+        geometry.put("type", "LineString");
+        geometry.put("coordinates", coords);
+        return geometry;
+    }
+}
@@ -0,0 +1,11 @@
+package com.sairajtravels.site.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Server-side filters for the paged booking listing. Null fields are not applied; phone and
+ * email are exact matches so they can use their indexes.
+ */
+public record VehicleBookingFilter(String status, Integer vehicleId, LocalDate tripFrom, LocalDate tripTo,
+                                   String customerPhone, String customerEmail) {
+}
@@ -0,0 +1,46 @@
+package com.sairajtravels.site.dto;
+
+import java.util.List;
+
+/**
+ * One page of the booking listing, newest request first. Pass {@code nextCursor} back as
+ * {@code cursor} for the following page; it is null on the last page. {@code total} is only
+ * filled when asked for, since it needs a separate count over every matching row.
+ */
+public class VehicleBookingPageDTO {
+    private List<VehicleBookingDTO> items;
+    private String nextCursor;
+    private Long total;
+
+    public VehicleBookingPageDTO() {}
+
+    public VehicleBookingPageDTO(List<VehicleBookingDTO> items, String nextCursor, Long total) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    public List<VehicleBookingDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<VehicleBookingDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
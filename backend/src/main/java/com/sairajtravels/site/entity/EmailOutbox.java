@@ -0,0 +1,148 @@
+package com.sairajtravels.site.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A notification email written in the same transaction as the booking, enquiry or contact
+ * message that caused it, and delivered later by {@code EmailOutboxDispatcher}.
+ *
+ * Schema (SQL Server): {@code sql/create_email_outbox_table.sql}.
+ */
+@Entity
+@Table(name = "email_outbox",
+        indexes = @Index(name = "ix_email_outbox_due", columnList = "status, next_attempt_at"))
+public class EmailOutbox {
+
+    /**
+     * HTML: customer email to {@code recipient}. ADMIN: admin notification (no recipient).
+     * DIGEST: admin notification held for the next digest of its {@code sourceType}.
+     */
+    public static final String KIND_HTML = "HTML";
+    public static final String KIND_ADMIN = "ADMIN";
+    public static final String KIND_DIGEST = "DIGEST";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_DEAD = "DEAD";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 10)
+    private String kind;
+
+    @Column(length = 200)
+    private String recipient;
+
+    @Column(nullable = false, length = 300)
+    private String subject;
+
+    @Lob
+    @Column(name = "html_body")
+    private String htmlBody;
+
+    @Lob
+    @Column(name = "text_body")
+    private String textBody;
+
+    // What the email is about: booking / enquiry / contact, and that row's id
+    @Column(name = "source_type", length = 20)
+    private String sourceType;
+
+    @Column(name = "source_id")
+    private Integer sourceId;
+
+    @Column(nullable = false, length = 10)
+    private String status = STATUS_PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Lease held by the dispatcher while sending; an expired lease makes the row claimable again
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public EmailOutbox() {}
+
+    public EmailOutbox(String kind, String recipient, String subject, String htmlBody, String textBody,
+                       String sourceType, Integer sourceId) {
+        this.kind = kind;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.htmlBody = htmlBody;
+        this.textBody = textBody;
+        this.sourceType = sourceType;
+        this.sourceId = sourceId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.createdAt;
+        }
+    }
+
+    // --- Getters / Setters ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getHtmlBody() { return htmlBody; }
+    public void setHtmlBody(String htmlBody) { this.htmlBody = htmlBody; }
+
+    public String getTextBody() { return textBody; }
+    public void setTextBody(String textBody) { this.textBody = textBody; }
+
+    public String getSourceType() { return sourceType; }
+    public void setSourceType(String sourceType) { this.sourceType = sourceType; }
+
+    public Integer getSourceId() { return sourceId; }
+    public void setSourceId(Integer sourceId) { this.sourceId = sourceId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(LocalDateTime lockedUntil) { this.lockedUntil = lockedUntil; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
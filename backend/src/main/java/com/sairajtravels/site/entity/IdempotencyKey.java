@@ -0,0 +1,87 @@
+package com.sairajtravels.site.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Stored outcome of a create request sent with an {@code Idempotency-Key} header, so a retry
+ * of the same request replays it instead of creating another row. Written in the same
+ * transaction as the row it created.
+ *
+ * Schema (SQL Server): {@code sql/create_idempotency_keys_table.sql}.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uq_idempotency_scope_key", columnNames = {"scope", "idem_key"}),
+        indexes = @Index(name = "ix_idempotency_expires", columnList = "expires_at"))
+public class IdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Endpoint the key belongs to, e.g. "vehicle-bookings"
+    @Column(nullable = false, length = 40)
+    private String scope;
+
+    @Column(name = "idem_key", nullable = false, length = 100)
+    private String idemKey;
+
+    // SHA-256 of the request body; the same key with a different body is rejected
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "status_code", nullable = false)
+    private int statusCode;
+
+    @Lob
+    @Column(name = "response_body")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyKey() {}
+
+    public IdempotencyKey(String scope, String idemKey, String requestHash, LocalDateTime expiresAt) {
+        this.scope = scope;
+        this.idemKey = idemKey;
+        this.requestHash = requestHash;
+        this.expiresAt = expiresAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+
+    // --- Getters / Setters ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+
+    public String getIdemKey() { return idemKey; }
+    public void setIdemKey(String idemKey) { this.idemKey = idemKey; }
+
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+    public int getStatusCode() { return statusCode; }
+    public void setStatusCode(int statusCode) { this.statusCode = statusCode; }
+
+    public String getResponseBody() { return responseBody; }
+    public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
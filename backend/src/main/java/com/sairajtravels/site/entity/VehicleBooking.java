@@ -4,8 +4,23 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+/**
+ * Booking request for a vehicle. The paged listing seeks on (RequestedAt, BookingId), newest
+ * first; the indexes below keep every page, and each filter, an index seek on SQL Server
+ * ({@code sql/add_vehicle_bookings_listing_indexes.sql}).
+ *
+ * {@code Version} is the optimistic lock column ({@code sql/add_version_to_vehicle_bookings.sql});
+ * a concurrent edit of the same row fails the later commit instead of overwriting the earlier one.
+ */
 @Entity
-@Table(name = "VehicleBookings")
+@Table(name = "VehicleBookings", indexes = {
+        @Index(name = "IX_VehicleBookings_RequestedAt", columnList = "RequestedAt DESC, BookingId DESC"),
+        @Index(name = "IX_VehicleBookings_Status_RequestedAt", columnList = "Status, RequestedAt DESC, BookingId DESC"),
+        @Index(name = "IX_VehicleBookings_Vehicle_RequestedAt", columnList = "VehicleId, RequestedAt DESC, BookingId DESC"),
+        @Index(name = "IX_VehicleBookings_TripDate", columnList = "TripDate"),
+        @Index(name = "IX_VehicleBookings_CustomerPhone", columnList = "CustomerPhone"),
+        @Index(name = "IX_VehicleBookings_CustomerEmail", columnList = "CustomerEmail")
+})
 public class VehicleBooking {
 
     @Id
@@ -61,6 +76,10 @@ public class VehicleBooking {
     @Column(name = "RequestedAt")
     private LocalDateTime requestedAt;
 
+    @Version
+    @Column(name = "Version", nullable = false)
+    private Long version;
+
     // ✅ Constructors
     public VehicleBooking() {}
 
@@ -139,6 +158,10 @@ public class VehicleBooking {
         this.requestedAt = requestedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getCustomerEmail() { return customerEmail; }
     public void setCustomerEmail(String customerEmail) { this.customerEmail = customerEmail; }
 
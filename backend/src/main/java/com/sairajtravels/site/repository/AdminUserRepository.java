@@ -47,6 +47,10 @@ public interface AdminUserRepository extends JpaRepository<AdminUser, Long> {
     // Count active users
     long countByIsActiveTrue();
     
+    // Dashboard rollup rebuild: {isActive, count}
+    @Query("SELECT u.isActive, COUNT(u) FROM AdminUser u GROUP BY u.isActive")
+    List<Object[]> countByActive();
+    
     // Count users by role
     @Query("SELECT COUNT(u) FROM AdminUser u WHERE u.role.id = :roleId")
     long countByRoleId(@Param("roleId") Long roleId);
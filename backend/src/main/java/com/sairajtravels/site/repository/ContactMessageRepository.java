@@ -1,10 +1,24 @@
 package com.sairajtravels.site.repository;
 
 import com.sairajtravels.site.entity.ContactMessage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
 @Repository
 public interface ContactMessageRepository extends JpaRepository<ContactMessage, Integer> {
     // standard CRUD methods available
+
+    // Export: forward-only, read-only rows fetched in chunks; the caller must hold a transaction
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT m FROM ContactMessage m WHERE m.createdAt >= :from AND m.createdAt < :to ORDER BY m.id")
+    Stream<ContactMessage> streamByCreatedAt(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
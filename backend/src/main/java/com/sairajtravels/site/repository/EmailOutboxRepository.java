@@ -0,0 +1,90 @@
+package com.sairajtravels.site.repository;
+
+import com.sairajtravels.site.entity.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Ids ready to send: pending and due, or stuck in SENDING past their lease (digest rows go in digests)
+    @Query("SELECT o.id FROM EmailOutbox o WHERE o.kind <> 'DIGEST' AND ((o.status = 'PENDING' AND o.nextAttemptAt <= :now) " +
+           "OR (o.status = 'SENDING' AND o.lockedUntil < :now)) ORDER BY o.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable page);
+
+    // Due digest rows per category: {sourceType, count, oldest createdAt}
+    @Query("SELECT o.sourceType, COUNT(o), MIN(o.createdAt) FROM EmailOutbox o WHERE o.kind = 'DIGEST' " +
+           "AND ((o.status = 'PENDING' AND o.nextAttemptAt <= :now) OR (o.status = 'SENDING' AND o.lockedUntil < :now)) " +
+           "GROUP BY o.sourceType")
+    List<Object[]> findDueDigestCategories(@Param("now") LocalDateTime now);
+
+    @Query("SELECT o.id FROM EmailOutbox o WHERE o.kind = 'DIGEST' AND o.sourceType = :sourceType " +
+           "AND ((o.status = 'PENDING' AND o.nextAttemptAt <= :now) OR (o.status = 'SENDING' AND o.lockedUntil < :now)) " +
+           "ORDER BY o.createdAt")
+    List<Long> findDueDigestIds(@Param("sourceType") String sourceType, @Param("now") LocalDateTime now, Pageable page);
+
+    // Digest rows not yet delivered per category, due or backing off: {sourceType, count}
+    @Query("SELECT o.sourceType, COUNT(o) FROM EmailOutbox o WHERE o.kind = 'DIGEST' " +
+           "AND o.status IN ('PENDING', 'SENDING') GROUP BY o.sourceType")
+    List<Object[]> countUndeliveredDigestRows();
+
+    // Claim one row for sending; returns 0 when another dispatcher got it first
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.status = 'SENDING', o.lockedUntil = :lease, o.attempts = o.attempts + 1 " +
+           "WHERE o.id = :id AND ((o.status = 'PENDING' AND o.nextAttemptAt <= :now) " +
+           "OR (o.status = 'SENDING' AND o.lockedUntil < :now))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("lease") LocalDateTime lease);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.status = 'SENT', o.sentAt = :now, o.lockedUntil = null, o.lastError = null " +
+           "WHERE o.id = :id")
+    int markSent(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.status = 'PENDING', o.nextAttemptAt = :next, o.lockedUntil = null, " +
+           "o.lastError = :error WHERE o.id = :id")
+    int markRetry(@Param("id") Long id, @Param("next") LocalDateTime next, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.status = 'DEAD', o.lockedUntil = null, o.lastError = :error WHERE o.id = :id")
+    int markDead(@Param("id") Long id, @Param("error") String error);
+
+    // Dead letter back to the queue with a fresh attempt budget
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.status = 'PENDING', o.attempts = 0, o.nextAttemptAt = :now " +
+           "WHERE o.id = :id AND o.status = 'DEAD'")
+    int requeueDead(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOutbox o WHERE o.status = 'SENT' AND o.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Which of these sources already have an email queued: {sourceType, sourceId}
+    @Query("SELECT o.sourceType, o.sourceId FROM EmailOutbox o WHERE o.sourceType IN :types AND o.sourceId IN :ids")
+    List<Object[]> findSources(@Param("types") Collection<String> types, @Param("ids") Collection<Integer> ids);
+
+    long countByStatus(String status);
+
+    @Query("SELECT COUNT(o) FROM EmailOutbox o WHERE o.status IN ('PENDING', 'SENDING')")
+    long countUndelivered();
+
+    @Query("SELECT MIN(o.createdAt) FROM EmailOutbox o WHERE o.status IN ('PENDING', 'SENDING')")
+    LocalDateTime findOldestUndeliveredCreatedAt();
+
+    List<EmailOutbox> findByStatusOrderByCreatedAtDesc(String status, Pageable page);
+}
@@ -1,10 +1,17 @@
 package com.sairajtravels.site.repository;
 
 import com.sairajtravels.site.entity.Enquiry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface EnquiryRepository extends JpaRepository<Enquiry, Integer> {
@@ -16,4 +23,14 @@ public interface EnquiryRepository extends JpaRepository<Enquiry, Integer> {
     List<Enquiry> findByEmail(String email);
     
     List<Enquiry> findByPhone(String phone);
+
+    // Dashboard rollup rebuild: {status, service, count}
+    @Query("SELECT e.status, e.service, COUNT(e) FROM Enquiry e GROUP BY e.status, e.service")
+    List<Object[]> countByStatusAndService();
+
+    // Export: forward-only, read-only rows fetched in chunks; the caller must hold a transaction
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT e FROM Enquiry e WHERE e.createdAt >= :from AND e.createdAt < :to ORDER BY e.enquiryId")
+    Stream<Enquiry> streamByCreatedAt(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -36,4 +36,8 @@ public interface GalleryRepository extends JpaRepository<Gallery, Long> {
     
     // Count all active gallery items
     long countByIsActiveTrue();
+    
+    // Dashboard rollup rebuild: {category, isActive, isFeatured, count}
+    @Query("SELECT g.category, g.isActive, g.isFeatured, COUNT(g) FROM Gallery g GROUP BY g.category, g.isActive, g.isFeatured")
+    List<Object[]> countByCategoryAndFlags();
 }
@@ -1,12 +1,67 @@
 package com.sairajtravels.site.repository;
 
 import com.sairajtravels.site.entity.VehicleBooking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface VehicleBookingRepository extends JpaRepository<VehicleBooking, Integer> {
+public interface VehicleBookingRepository extends JpaRepository<VehicleBooking, Integer>,
+        VehicleBookingRepositoryCustom {
     List<VehicleBooking> findByVehicle_VehicleId(Integer vehicleId);
+
+    // Bulk status change: the bookings and their vehicles (for the emails) in one round trip
+    @Query("SELECT b FROM VehicleBooking b LEFT JOIN FETCH b.vehicle WHERE b.bookingId IN :ids")
+    List<VehicleBooking> findWithVehicleByBookingIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Availability index load: {bookingId, vehicleId, tripDate, returnDate, status} without entities
+    @Query("SELECT b.bookingId, b.vehicle.vehicleId, b.tripDate, b.returnDate, b.status FROM VehicleBooking b " +
+           "WHERE b.vehicle IS NOT NULL AND (b.tripDate >= :since OR b.returnDate >= :since)")
+    List<Object[]> findOccupancySince(@Param("since") LocalDate since);
+
+    // Allocation check: other bookings of the vehicle in the given statuses sharing a day with
+    // [firstDay, lastDay]. No auto-flush, so a bulk change is not flushed row by row.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT b.bookingId FROM VehicleBooking b WHERE b.vehicle.vehicleId = :vehicleId " +
+           "AND b.bookingId <> :excludeId AND b.status IN :statuses " +
+           "AND b.tripDate <= :lastDay AND COALESCE(b.returnDate, b.tripDate) >= :firstDay")
+    List<Integer> findOverlappingIds(@Param("vehicleId") Integer vehicleId, @Param("excludeId") Integer excludeId,
+                                     @Param("statuses") Collection<String> statuses,
+                                     @Param("firstDay") LocalDate firstDay, @Param("lastDay") LocalDate lastDay);
+
+    // Driver planning: bookings in the given statuses with any day in [firstDay, lastDay], earliest first
+    @Query("SELECT b FROM VehicleBooking b LEFT JOIN FETCH b.vehicle WHERE b.status IN :statuses " +
+           "AND b.tripDate <= :lastDay AND COALESCE(b.returnDate, b.tripDate) >= :firstDay " +
+           "ORDER BY b.tripDate, b.bookingId")
+    List<VehicleBooking> findWithVehicleBetween(@Param("statuses") Collection<String> statuses,
+                                                @Param("firstDay") LocalDate firstDay, @Param("lastDay") LocalDate lastDay);
+
+    // Reminder wheel load: {bookingId, tripDate, tripTime, returnDate} of bookings with an email whose
+    // trip has not ended before :since
+    @Query("SELECT b.bookingId, b.tripDate, b.tripTime, b.returnDate FROM VehicleBooking b " +
+           "WHERE b.status IN :statuses AND b.customerEmail IS NOT NULL AND b.tripDate IS NOT NULL " +
+           "AND COALESCE(b.returnDate, b.tripDate) >= :since")
+    List<Object[]> findReminderDatesSince(@Param("statuses") Collection<String> statuses,
+                                          @Param("since") LocalDate since);
+
+    // Dashboard rollup rebuild: {status, request day, count}
+    @Query("SELECT b.status, CAST(b.requestedAt AS LocalDate), COUNT(b) FROM VehicleBooking b " +
+           "GROUP BY b.status, CAST(b.requestedAt AS LocalDate)")
+    List<Object[]> countByStatusAndRequestDay();
+
+    // Export: forward-only, read-only rows fetched in chunks; the caller must hold a transaction
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM VehicleBooking b WHERE b.requestedAt >= :from AND b.requestedAt < :to ORDER BY b.bookingId")
+    Stream<VehicleBooking> streamByRequestedAt(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,23 @@
+package com.sairajtravels.site.repository;
+
+import com.sairajtravels.site.dto.VehicleBookingFilter;
+import com.sairajtravels.site.entity.VehicleBooking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Keyset (seek) queries for the paged booking listing, built from only the filters given. */
+public interface VehicleBookingRepositoryCustom {
+
+    /**
+     * Up to {@code limit} bookings with a RequestedAt, ordered (RequestedAt, BookingId) descending,
+     * strictly after the given key; a null key starts from the newest.
+     */
+    List<VehicleBooking> findPageAfter(VehicleBookingFilter filter, LocalDateTime afterRequestedAt,
+                                       Integer afterBookingId, int limit);
+
+    /** Bookings without a RequestedAt (legacy rows), BookingId descending, after {@code afterBookingId}. */
+    List<VehicleBooking> findUndatedPageAfter(VehicleBookingFilter filter, Integer afterBookingId, int limit);
+
+    long countMatching(VehicleBookingFilter filter);
+}
@@ -0,0 +1,93 @@
+package com.sairajtravels.site.repository;
+
+import com.sairajtravels.site.dto.VehicleBookingFilter;
+import com.sairajtravels.site.entity.VehicleBooking;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Only the filters actually given become predicates, so each query stays sargable on its index
+class VehicleBookingRepositoryImpl implements VehicleBookingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<VehicleBooking> findPageAfter(VehicleBookingFilter filter, LocalDateTime afterRequestedAt,
+                                              Integer afterBookingId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<VehicleBooking> q = cb.createQuery(VehicleBooking.class);
+        Root<VehicleBooking> b = q.from(VehicleBooking.class);
+        Path<LocalDateTime> requestedAt = b.get("requestedAt");
+        Path<Integer> bookingId = b.get("bookingId");
+
+        List<Predicate> where = filters(cb, b, filter);
+        where.add(cb.isNotNull(requestedAt));
+        if (afterRequestedAt != null) {
+            // (RequestedAt, BookingId) < (:t, :id)
+            where.add(cb.or(cb.lessThan(requestedAt, afterRequestedAt),
+                    cb.and(cb.equal(requestedAt, afterRequestedAt), cb.lessThan(bookingId, afterBookingId))));
+        }
+        q.select(b).where(where.toArray(new Predicate[0])).orderBy(cb.desc(requestedAt), cb.desc(bookingId));
+        return entityManager.createQuery(q).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<VehicleBooking> findUndatedPageAfter(VehicleBookingFilter filter, Integer afterBookingId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<VehicleBooking> q = cb.createQuery(VehicleBooking.class);
+        Root<VehicleBooking> b = q.from(VehicleBooking.class);
+        Path<Integer> bookingId = b.get("bookingId");
+
+        List<Predicate> where = filters(cb, b, filter);
+        where.add(cb.isNull(b.get("requestedAt")));
+        if (afterBookingId != null) {
+            where.add(cb.lessThan(bookingId, afterBookingId));
+        }
+        q.select(b).where(where.toArray(new Predicate[0])).orderBy(cb.desc(bookingId));
+        return entityManager.createQuery(q).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public long countMatching(VehicleBookingFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> q = cb.createQuery(Long.class);
+        Root<VehicleBooking> b = q.from(VehicleBooking.class);
+        q.select(cb.count(b)).where(filters(cb, b, filter).toArray(new Predicate[0]));
+        return entityManager.createQuery(q).getSingleResult();
+    }
+
+    private static List<Predicate> filters(CriteriaBuilder cb, Root<VehicleBooking> b, VehicleBookingFilter f) {
+        List<Predicate> where = new ArrayList<>();
+        if (f == null) {
+            return where;
+        }
+        if (f.status() != null) {
+            where.add(cb.equal(b.get("status"), f.status()));
+        }
+        if (f.vehicleId() != null) {
+            where.add(cb.equal(b.get("vehicle").get("vehicleId"), f.vehicleId()));
+        }
+        if (f.tripFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(b.get("tripDate"), f.tripFrom()));
+        }
+        if (f.tripTo() != null) {
+            where.add(cb.lessThanOrEqualTo(b.get("tripDate"), f.tripTo()));
+        }
+        if (f.customerPhone() != null) {
+            where.add(cb.equal(b.get("customerPhone"), f.customerPhone()));
+        }
+        if (f.customerEmail() != null) {
+            where.add(cb.equal(b.get("customerEmail"), f.customerEmail()));
+        }
+        return where;
+    }
+}
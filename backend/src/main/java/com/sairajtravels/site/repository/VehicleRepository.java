@@ -1,9 +1,20 @@
 package com.sairajtravels.site.repository;
 
 import com.sairajtravels.site.entity.Vehicle;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Integer> {
+
+    // Booking allocation: row lock held to commit, serialising bookings of one vehicle across instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vehicle v WHERE v.vehicleId = :id")
+    Optional<Vehicle> lockById(@Param("id") Integer id);
 }
@@ -0,0 +1,179 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.EmailOutbox;
+import com.sairajtravels.site.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sends the admin notifications queued as {@link EmailOutbox#KIND_DIGEST} in digests: one email
+ * per source type (booking, enquiry, contact) once {@code admin-digest.max-size} are waiting or
+ * the oldest has waited {@code admin-digest.window-seconds}, so a burst of bookings from a
+ * campaign costs a handful of sends instead of one each. The rows stay in the outbox until the
+ * digest is out, so a restart loses nothing; a failed digest reschedules all its rows for the same
+ * time on {@link EmailOutboxDispatcher}'s backoff. Types in {@code admin-digest.bypass} are never held.
+ */
+@Component
+public class AdminDigestDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminDigestDispatcher.class);
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailOutboxDispatcher outboxDispatcher;
+    private final EmailService emailService;
+    private final EmailTemplates emailTemplates;
+    private final MeterRegistry meterRegistry;
+
+    private Counter digests;
+    private Counter notifications;
+    private Counter sendsSaved;
+
+    @Value("${admin-digest.window-seconds:600}")
+    private long windowSeconds;
+
+    @Value("${admin-digest.max-size:50}")
+    private int maxSize;
+
+    @Value("${outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public AdminDigestDispatcher(EmailOutboxRepository outboxRepository, EmailOutboxDispatcher outboxDispatcher,
+                                 EmailService emailService, EmailTemplates emailTemplates, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.outboxDispatcher = outboxDispatcher;
+        this.emailService = emailService;
+        this.emailTemplates = emailTemplates;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        digests = Counter.builder("email.admin.digest.sent").register(meterRegistry);
+        notifications = Counter.builder("email.admin.digest.notifications").register(meterRegistry);
+        // One send per notification before digests: every digest of n saves n - 1
+        sendsSaved = Counter.builder("email.admin.digest.sends.saved").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${admin-digest.poll-ms:15000}", initialDelayString = "${admin-digest.poll-ms:15000}")
+    public void poll() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (Object[] category : outboxRepository.findDueDigestCategories(now)) {
+                String sourceType = (String) category[0];
+                long waiting = ((Number) category[1]).longValue();
+                LocalDateTime oldest = (LocalDateTime) category[2];
+                boolean windowClosed = oldest != null && !oldest.isAfter(now.minusSeconds(windowSeconds));
+                if (sourceType == null || (waiting < maxSize && !windowClosed)) {
+                    continue;
+                }
+                // A full digest at a time; once the window closed, everything that is waiting
+                while (flush(sourceType, now) >= maxSize && windowClosed) {
+                    now = LocalDateTime.now();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Admin digest poll failed: {}", e.toString());
+        }
+    }
+
+    // Claims up to max-size due rows of the type and sends them as one email; returns how many were due
+    private int flush(String sourceType, LocalDateTime now) {
+        List<Long> due = outboxRepository.findDueDigestIds(sourceType, now, PageRequest.of(0, maxSize));
+        LocalDateTime lease = now.plusSeconds(leaseSeconds);
+        List<EmailOutbox> rows = new ArrayList<>();
+        for (Long id : due) {
+            if (outboxRepository.claim(id, now, lease) > 0) {
+                outboxRepository.findById(id).ifPresent(rows::add);
+            }
+        }
+        if (rows.isEmpty()) {
+            return due.size();
+        }
+        try {
+            if (rows.size() == 1) {
+                EmailOutbox row = rows.get(0);
+                emailService.deliverAdminNotification(row.getSubject(), row.getHtmlBody(), row.getTextBody());
+            } else {
+                EmailTemplates.Rendered digest = render(sourceType, rows);
+                emailService.deliverAdminEmail("Admin Notification Digest: " + rows.size() + " new " + sourceType
+                        + " notifications", digest.html(), digest.text());
+            }
+        } catch (Exception e) {
+            // One retry time for the whole digest, so its rows come due together and go out as one again
+            int attempts = rows.stream().mapToInt(EmailOutbox::getAttempts).max().orElse(1);
+            LocalDateTime retryAt = LocalDateTime.now().plus(outboxDispatcher.backoff(attempts));
+            rows.forEach(row -> outboxDispatcher.failed(row, e, retryAt));
+            return due.size();
+        }
+        LocalDateTime sentAt = LocalDateTime.now();
+        rows.forEach(row -> outboxRepository.markSent(row.getId(), sentAt));
+        digests.increment();
+        notifications.increment(rows.size());
+        sendsSaved.increment(rows.size() - 1);
+        log.info("Admin digest: {} {} notifications in one email", rows.size(), sourceType);
+        return due.size();
+    }
+
+    private EmailTemplates.Rendered render(String sourceType, List<EmailOutbox> rows) {
+        StringBuilder html = new StringBuilder();
+        StringBuilder text = new StringBuilder();
+        for (EmailOutbox row : rows) {
+            EmailTemplates.Model entry = EmailTemplates.model()
+                    .with("subject", row.getSubject())
+                    .with("receivedAt", row.getCreatedAt().format(TIME));
+            // The HTML part takes each notification's own markup, without its html and body tags
+            html.append(emailTemplates.html("admin-digest-entry", entry.with("body", bodyOf(row.getHtmlBody()))));
+            text.append(emailTemplates.text("admin-digest-entry", entry.with("body", row.getTextBody())));
+        }
+        EmailTemplates.Model digest = EmailTemplates.model()
+                .with("count", rows.size())
+                .with("category", sourceType)
+                .with("first", rows.get(0).getCreatedAt().format(TIME))
+                .with("last", rows.get(rows.size() - 1).getCreatedAt().format(TIME));
+        return new EmailTemplates.Rendered(
+                emailTemplates.html("admin-digest", digest.with("entries", html)),
+                emailTemplates.text("admin-digest", digest.with("entries", text)));
+    }
+
+    static String bodyOf(String html) {
+        if (html == null) {
+            return "";
+        }
+        int open = html.indexOf("<body");
+        int start = open < 0 ? 0 : html.indexOf('>', open) + 1;
+        int end = html.lastIndexOf("</body>");
+        return html.substring(start, end < start ? html.length() : end).strip();
+    }
+
+    /** Sends saved so far and what is waiting for the next digests, per source type. */
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("windowSeconds", windowSeconds);
+        out.put("maxSize", maxSize);
+        out.put("digestsSent", (long) digests.count());
+        out.put("notificationsDigested", (long) notifications.count());
+        out.put("sendsSaved", (long) sendsSaved.count());
+        Map<String, Long> waiting = new TreeMap<>();
+        for (Object[] row : outboxRepository.countUndeliveredDigestRows()) {
+            waiting.put(String.valueOf(row[0]), ((Number) row[1]).longValue());
+        }
+        out.put("waiting", waiting);
+        return out;
+    }
+}
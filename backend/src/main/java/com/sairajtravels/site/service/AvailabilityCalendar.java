@@ -0,0 +1,154 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Day-granularity occupancy of the fleet: one bitmap per vehicle, bit {@code d} set when the
+ * vehicle has a booking on day {@code originDay + d}. A date-range search ANDs a range mask with
+ * every vehicle's bitmap, a word (64 days) at a time.
+ *
+ * Booking intervals are kept per vehicle so removing or moving one booking can restore the bits
+ * of any other booking that overlaps it. Not thread-safe; {@link FleetAvailabilityService} guards it.
+ */
+final class AvailabilityCalendar {
+
+    final long originDay;       // epoch day of bit 0
+    final int maxDays;          // bookings are clipped to [originDay, originDay + maxDays)
+    final long builtAtMillis;
+
+    // Per vehicle slot
+    final int vehicleCount;
+    final int[] vehicleId;
+    final String[] vehicleName;
+    final String[] vehicleType;
+    final int[] capacity;
+    final boolean[] ac;
+    private final long[][] busy;
+    private final List<Map<Integer, int[]>> slotBookings;   // bookingId -> {startOffset, endOffset}
+
+    private final Map<Integer, Integer> slotOfVehicle = new HashMap<>();
+    private final Map<Integer, Integer> slotOfBooking = new HashMap<>();
+
+    AvailabilityCalendar(long originDay, int maxDays, List<Vehicle> vehicles) {
+        this.originDay = originDay;
+        this.maxDays = maxDays;
+        this.builtAtMillis = System.currentTimeMillis();
+        this.vehicleCount = vehicles.size();
+        this.vehicleId = new int[vehicleCount];
+        this.vehicleName = new String[vehicleCount];
+        this.vehicleType = new String[vehicleCount];
+        this.capacity = new int[vehicleCount];
+        this.ac = new boolean[vehicleCount];
+        this.busy = new long[vehicleCount][];
+        this.slotBookings = new ArrayList<>(vehicleCount);
+        for (int s = 0; s < vehicleCount; s++) {
+            Vehicle v = vehicles.get(s);
+            vehicleId[s] = v.getVehicleId();
+            vehicleName[s] = v.getName();
+            vehicleType[s] = v.getType();
+            capacity[s] = v.getCapacity() != null ? v.getCapacity() : 0;
+            ac[s] = Boolean.TRUE.equals(v.getIsAC());
+            busy[s] = new long[0];
+            slotBookings.add(new HashMap<>());
+            slotOfVehicle.put(vehicleId[s], s);
+        }
+    }
+
+    int bookingCount() {
+        return slotOfBooking.size();
+    }
+
+    /**
+     * Adds or moves a booking covering epoch days {@code firstDay..lastDay} (inclusive). Returns
+     * false when the vehicle is unknown or the booking lies wholly outside the window.
+     */
+    boolean put(int bookingId, int vehicle, long firstDay, long lastDay) {
+        remove(bookingId);
+        Integer slot = slotOfVehicle.get(vehicle);
+        long from = Math.max(firstDay, originDay) - originDay;
+        long to = Math.min(Math.max(lastDay, firstDay), originDay + maxDays - 1) - originDay;
+        if (slot == null || to < from) {
+            return false;
+        }
+        slotBookings.get(slot).put(bookingId, new int[]{(int) from, (int) to});
+        slotOfBooking.put(bookingId, slot);
+        setRange(slot, (int) from, (int) to);
+        return true;
+    }
+
+    void remove(int bookingId) {
+        Integer slot = slotOfBooking.remove(bookingId);
+        if (slot == null) {
+            return;
+        }
+        int[] range = slotBookings.get(slot).remove(bookingId);
+        clearRange(busy[slot], range[0], range[1]);
+        // Other bookings of the same vehicle may share some of those days
+        for (int[] other : slotBookings.get(slot).values()) {
+            if (other[0] <= range[1] && other[1] >= range[0]) {
+                setRange(slot, Math.max(other[0], range[0]), Math.min(other[1], range[1]));
+            }
+        }
+    }
+
+    /**
+     * Slots free on every day {@code firstDay..lastDay} that seat at least {@code minCapacity}
+     * and match {@code ac} (null = either), in fleet order.
+     */
+    int[] search(long firstDay, long lastDay, int minCapacity, Boolean ac) {
+        int from = (int) Math.max(0, firstDay - originDay);
+        int to = (int) Math.min(lastDay - originDay, maxDays - 1L);
+        int[] out = new int[vehicleCount];
+        int n = 0;
+        for (int s = 0; s < vehicleCount; s++) {
+            if (capacity[s] < minCapacity || (ac != null && this.ac[s] != ac)) {
+                continue;
+            }
+            if (to < from || !anyInRange(busy[s], from, to)) {
+                out[n++] = s;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private void setRange(int slot, int from, int to) {
+        long[] words = busy[slot];
+        int lastWord = to >>> 6;
+        if (lastWord >= words.length) {
+            // Grow in steps of a year or so, never past the window
+            int size = Math.min(Math.max(lastWord + 1, words.length + 6), (maxDays + 63) >>> 6);
+            words = busy[slot] = Arrays.copyOf(words, size);
+        }
+        for (int w = from >>> 6; w <= lastWord; w++) {
+            words[w] |= wordMask(w, from, to);
+        }
+    }
+
+    private static void clearRange(long[] words, int from, int to) {
+        for (int w = from >>> 6, last = Math.min(to >>> 6, words.length - 1); w <= last; w++) {
+            words[w] &= ~wordMask(w, from, to);
+        }
+    }
+
+    private static boolean anyInRange(long[] words, int from, int to) {
+        for (int w = from >>> 6, last = Math.min(to >>> 6, words.length - 1); w <= last; w++) {
+            if ((words[w] & wordMask(w, from, to)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Bits of word w that fall inside [from, to]
+    private static long wordMask(int w, int from, int to) {
+        int lo = Math.max(from - (w << 6), 0);
+        int hi = Math.min(to - (w << 6), 63);
+        return (-1L >>> (63 - hi)) & (-1L << lo);
+    }
+}
@@ -0,0 +1,12 @@
+package com.sairajtravels.site.service;
+
+/**
+ * A booking write would give a vehicle two allocated bookings on the same day, or could not get
+ * the vehicle's allocation lock in time. Controllers answer 409.
+ */
+public class BookingConflictException extends RuntimeException {
+
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
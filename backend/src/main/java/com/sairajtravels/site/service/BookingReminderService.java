@@ -0,0 +1,341 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.EmailOutbox;
+import com.sairajtravels.site.entity.VehicleBooking;
+import com.sairajtravels.site.repository.EmailOutboxRepository;
+import com.sairajtravels.site.repository.VehicleBookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Trip reminder emails 24 h and 2 h before pickup, and a feedback request the morning after the
+ * return date, for bookings in {@code reminders.statuses} that have a customer email.
+ *
+ * Pending reminders sit in an in-memory {@link TimingWheel}, loaded from the bookings table at
+ * startup and every {@code reminders.rebuild-minutes}, and kept current by VehicleBookingService
+ * (after the booking's transaction commits). When a reminder falls due its booking is read again:
+ * if it moved the reminder is rescheduled, if it no longer qualifies or the reminder is too late
+ * to be useful it is dropped, otherwise the email goes to the outbox. A reminder is sent once per
+ * booking and kind: one already in the outbox is not queued again, which also covers reminders
+ * that fell due while the application was down and were caught up after the restart.
+ */
+@Service
+public class BookingReminderService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingReminderService.class);
+
+    private static final int DELIVERY_CHUNK = 200;
+
+    // "14:30", "9:30", "2:30 PM", "2 PM"
+    private static final List<DateTimeFormatter> TRIP_TIME_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("H:mm"),
+            new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("h:mm[ ]a").toFormatter(Locale.ENGLISH),
+            new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("h[ ]a").toFormatter(Locale.ENGLISH));
+
+    private static final DateTimeFormatter EMAIL_DATE = DateTimeFormatter.ofPattern("EEEE, d MMMM yyyy", Locale.ENGLISH);
+
+    /** What is sent, when, and until when it is still worth sending. */
+    enum Kind {
+        DAY_BEFORE("reminder-24h", Duration.ofHours(-24), Duration.ofHours(12)),
+        TWO_HOURS("reminder-2h", Duration.ofHours(-2), Duration.ofHours(2)),
+        FEEDBACK("feedback", Duration.ZERO, Duration.ofDays(2));
+
+        final String sourceType;        // email_outbox.source_type, with the booking id as source_id
+        final Duration offset;          // from pickup (reminders) or from the feedback time
+        final Duration lateBy;          // dropped when this far past its deadline
+
+        Kind(String sourceType, Duration offset, Duration lateBy) {
+            this.sourceType = sourceType;
+            this.offset = offset;
+            this.lateBy = lateBy;
+        }
+    }
+
+    record Key(int bookingId, Kind kind) {}
+
+    private final VehicleBookingRepository vehicleBookingRepository;
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailOutboxService emailOutboxService;
+    private final EmailTemplates emailTemplates;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private TimingWheel<Key> wheel;     // guarded by this
+
+    private Counter queued;
+    private Counter moved;
+    private Counter dropped;
+
+    @Value("${reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reminders.tick-ms:30000}")
+    private long tickMillis;
+
+    @Value("${reminders.wheel-slots:512}")
+    private int wheelSlots;
+
+    @Value("${reminders.statuses:CONFIRMED,COMPLETED}")
+    private Set<String> statuses;
+
+    @Value("${reminders.default-trip-time:09:00}")
+    private String defaultTripTimeText;
+
+    @Value("${reminders.feedback-time:10:00}")
+    private String feedbackTimeText;
+
+    // Trip dates and times are local to the business, whatever the host's zone
+    @Value("${reminders.zone:Asia/Kolkata}")
+    private ZoneId zone;
+
+    private LocalTime defaultTripTime;
+    private LocalTime feedbackTime;
+
+    public BookingReminderService(VehicleBookingRepository vehicleBookingRepository,
+                                  EmailOutboxRepository outboxRepository,
+                                  EmailOutboxService emailOutboxService,
+                                  EmailTemplates emailTemplates,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.vehicleBookingRepository = vehicleBookingRepository;
+        this.outboxRepository = outboxRepository;
+        this.emailOutboxService = emailOutboxService;
+        this.emailTemplates = emailTemplates;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        wheel = new TimingWheel<>(tickMillis, wheelSlots, System.currentTimeMillis());
+        defaultTripTime = LocalTime.parse(defaultTripTimeText);
+        feedbackTime = LocalTime.parse(feedbackTimeText);
+        queued = Counter.builder("booking.reminders").tag("outcome", "queued").register(meterRegistry);
+        moved = Counter.builder("booking.reminders").tag("outcome", "rescheduled").register(meterRegistry);
+        dropped = Counter.builder("booking.reminders").tag("outcome", "dropped").register(meterRegistry);
+        Gauge.builder("booking.reminders.pending", this, BookingReminderService::pending).register(meterRegistry);
+    }
+
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    /** (Re)schedules the booking's reminders once the surrounding transaction commits. */
+    public void onBookingSaved(VehicleBooking booking) {
+        if (!enabled) {
+            return;
+        }
+        int bookingId = booking.getBookingId();
+        LocalDateTime[] deadlines = deadlines(booking.getStatus(), booking.getCustomerEmail(),
+                booking.getTripDate(), booking.getTripTime(), booking.getReturnDate());
+        LocalDateTime now = LocalDateTime.now(zone);
+        // A rolled-back booking change must not move its reminders
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                for (Kind kind : Kind.values()) {
+                    Key key = new Key(bookingId, kind);
+                    LocalDateTime due = deadlines[kind.ordinal()];
+                    if (due != null && due.plus(kind.lateBy).isAfter(now)) {
+                        wheel.schedule(key, toMillis(due));
+                    } else {
+                        wheel.cancel(key);
+                    }
+                }
+            }
+        });
+    }
+
+    public void onBookingDeleted(Integer bookingId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                for (Kind kind : Kind.values()) {
+                    wheel.cancel(new Key(bookingId, kind));
+                }
+            }
+        });
+    }
+
+    /**
+     * Schedules every qualifying booking whose trip has not long ended. Entries already in the
+     * wheel are moved to the table's dates; anything stale left behind is dropped when it falls due.
+     */
+    @Scheduled(fixedDelayString = "${reminders.rebuild-minutes:360}", timeUnit = TimeUnit.MINUTES)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        LocalDate since = LocalDate.now(zone).minusDays(Kind.FEEDBACK.lateBy.toDays() + 1);
+        List<Object[]> rows = vehicleBookingRepository.findReminderDatesSince(statuses, since);
+        LocalDateTime now = LocalDateTime.now(zone);
+        int scheduled = 0;
+        synchronized (this) {
+            for (Object[] row : rows) {
+                LocalDateTime[] deadlines = deadlines((LocalDate) row[1], (String) row[2], (LocalDate) row[3]);
+                for (Kind kind : Kind.values()) {
+                    LocalDateTime due = deadlines[kind.ordinal()];
+                    if (due.plus(kind.lateBy).isAfter(now)) {
+                        wheel.schedule(new Key((Integer) row[0], kind), toMillis(due));
+                        scheduled++;
+                    }
+                }
+            }
+        }
+        log.info("Reminder wheel loaded: {} reminders for {} bookings in {} ms",
+                scheduled, rows.size(), System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${reminders.tick-ms:30000}", initialDelayString = "${reminders.tick-ms:30000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        List<Key> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), due);
+        }
+        for (int i = 0; i < due.size(); i += DELIVERY_CHUNK) {
+            List<Key> chunk = due.subList(i, Math.min(due.size(), i + DELIVERY_CHUNK));
+            try {
+                transactionTemplate.executeWithoutResult(tx -> deliver(chunk));
+            } catch (Exception e) {
+                log.warn("Queueing {} reminders failed, retrying in a minute: {}", chunk.size(), e.toString());
+                long retryAt = System.currentTimeMillis() + 60_000;
+                synchronized (this) {
+                    chunk.forEach(k -> wheel.schedule(k, retryAt));
+                }
+            }
+        }
+    }
+
+    private void deliver(List<Key> keys) {
+        Set<Integer> ids = keys.stream().map(Key::bookingId).collect(Collectors.toSet());
+        Map<Integer, VehicleBooking> bookings = vehicleBookingRepository.findWithVehicleByBookingIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(VehicleBooking::getBookingId, Function.identity()));
+        Set<String> alreadyQueued = new HashSet<>();
+        for (Object[] row : outboxRepository.findSources(
+                Arrays.stream(Kind.values()).map(k -> k.sourceType).toList(), ids)) {
+            alreadyQueued.add(row[0] + ":" + row[1]);
+        }
+
+        LocalDateTime now = LocalDateTime.now(zone);
+        List<EmailOutbox> emails = new ArrayList<>();
+        for (Key key : keys) {
+            VehicleBooking b = bookings.get(key.bookingId());
+            LocalDateTime due = b == null ? null : deadlines(b.getStatus(), b.getCustomerEmail(),
+                    b.getTripDate(), b.getTripTime(), b.getReturnDate())[key.kind().ordinal()];
+            if (due == null || !due.plus(key.kind().lateBy).isAfter(now)
+                    || alreadyQueued.contains(key.kind().sourceType + ":" + key.bookingId())) {
+                dropped.increment();
+            } else if (due.isAfter(now)) {
+                // Moved since it was scheduled (or scheduled from an old read): wait for the new time
+                synchronized (this) {
+                    wheel.schedule(key, toMillis(due));
+                }
+                moved.increment();
+            } else {
+                emails.add(buildEmail(b, key.kind()));
+            }
+        }
+        if (!emails.isEmpty()) {
+            emailOutboxService.enqueueAll(emails);
+            queued.increment(emails.size());
+        }
+    }
+
+    // Deadline per Kind (by ordinal), all null when the booking gets no reminders
+    private LocalDateTime[] deadlines(String status, String email, LocalDate tripDate, String tripTime,
+                                      LocalDate returnDate) {
+        if (status == null || !statuses.contains(status.trim().toUpperCase())
+                || email == null || email.isBlank() || tripDate == null) {
+            return new LocalDateTime[Kind.values().length];
+        }
+        return deadlines(tripDate, tripTime, returnDate);
+    }
+
+    private LocalDateTime[] deadlines(LocalDate tripDate, String tripTime, LocalDate returnDate) {
+        LocalDateTime pickup = tripDate.atTime(parseTripTime(tripTime));
+        LocalDate lastDay = returnDate != null && returnDate.isAfter(tripDate) ? returnDate : tripDate;
+        LocalDateTime[] out = new LocalDateTime[Kind.values().length];
+        out[Kind.DAY_BEFORE.ordinal()] = pickup.plus(Kind.DAY_BEFORE.offset);
+        out[Kind.TWO_HOURS.ordinal()] = pickup.plus(Kind.TWO_HOURS.offset);
+        out[Kind.FEEDBACK.ordinal()] = lastDay.plusDays(1).atTime(feedbackTime).plus(Kind.FEEDBACK.offset);
+        return out;
+    }
+
+    private LocalTime parseTripTime(String tripTime) {
+        if (tripTime != null && !tripTime.isBlank()) {
+            String t = tripTime.trim();
+            for (DateTimeFormatter f : TRIP_TIME_FORMATS) {
+                try {
+                    return LocalTime.parse(t, f);
+                } catch (DateTimeParseException ignored) {
+                    // try the next format
+                }
+            }
+        }
+        return defaultTripTime;
+    }
+
+    private EmailOutbox buildEmail(VehicleBooking b, Kind kind) {
+        String vehicleName = b.getVehicle() != null ? b.getVehicle().getName() : "your vehicle";
+        String when = b.getTripDate().format(EMAIL_DATE)
+                + (b.getTripTime() != null && !b.getTripTime().isBlank() ? " at " + b.getTripTime().trim() : "");
+        String subject;
+        String heading;
+        String body;
+        if (kind == Kind.FEEDBACK) {
+            subject = "How was your trip? - Sairaj Travels";
+            heading = "Thank you for travelling with Sairaj Travels!";
+            body = "We hope you enjoyed your trip from " + b.getPickupLocation() + " to " + b.getDropLocation()
+                    + ". We would love to hear how it went - please write to admin@sairajtravels.com or call us"
+                    + " with your feedback.";
+        } else {
+            subject = (kind == Kind.DAY_BEFORE ? "Your trip is tomorrow" : "Your trip starts soon")
+                    + " - Booking #" + b.getBookingId() + " - Sairaj Travels";
+            heading = kind == Kind.DAY_BEFORE ? "Your trip is tomorrow" : "Your trip starts in about two hours";
+            body = "This is a reminder of your booking #" + b.getBookingId() + ": " + vehicleName + " from "
+                    + b.getPickupLocation() + " to " + b.getDropLocation() + " on " + when
+                    + ". Please be ready at the pickup point a few minutes early.";
+        }
+        EmailTemplates.Rendered email = emailTemplates.render("booking-reminder", EmailTemplates.model()
+                .with("heading", heading)
+                .with("customerName", b.getCustomerName())
+                .with("body", body));
+        return new EmailOutbox(EmailOutbox.KIND_HTML, b.getCustomerEmail(), subject, email.html(), email.text(),
+                kind.sourceType, b.getBookingId());
+    }
+
+    private long toMillis(LocalDateTime t) {
+        return t.atZone(zone).toInstant().toEpochMilli();
+    }
+}
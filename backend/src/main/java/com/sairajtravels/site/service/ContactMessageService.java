@@ -3,6 +3,7 @@ package com.sairajtravels.site.service;
 import com.sairajtravels.site.entity.ContactMessage;
 import com.sairajtravels.site.repository.ContactMessageRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,25 +12,33 @@ import java.util.Optional;
 public class ContactMessageService {
 
     private final ContactMessageRepository repository;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final OperationalRollupService rollupService;
+    private final EmailTemplates emailTemplates;
 
-    public ContactMessageService(ContactMessageRepository repository, EmailService emailService) {
+    public ContactMessageService(ContactMessageRepository repository, EmailOutboxService emailOutboxService,
+                                 OperationalRollupService rollupService, EmailTemplates emailTemplates) {
         this.repository = repository;
-        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
+        this.rollupService = rollupService;
+        this.emailTemplates = emailTemplates;
     }
 
+    // The message and its emails commit together; the outbox dispatcher sends them afterwards
+    @Transactional
     public ContactMessage saveMessage(ContactMessage message) {
         // save to DB
         ContactMessage saved = repository.save(message);
+        rollupService.changed(null, rollupService.contactMessageKeys());
 
         // 1) Client confirmation (if email provided) - Graceful email handling
         if (saved.getEmail() != null && !saved.getEmail().isBlank()) {
             try {
                 String subject = "Sairaj Travels — We received your message";
-                String plain = buildClientText(saved);
-                String html = buildClientHtml(saved);
-                emailService.sendHtmlEmail(saved.getEmail(), subject, html, plain);
-                System.out.println("✅ Contact confirmation email sent to: " + saved.getEmail());
+                EmailTemplates.Rendered email = emailTemplates.render("contact-received", messageModel(saved, "Customer"));
+                emailOutboxService.enqueueHtml(saved.getEmail(), subject, email.html(), email.text(),
+                        EmailOutboxService.SOURCE_CONTACT, saved.getId());
+                System.out.println("✅ Contact confirmation email queued for: " + saved.getEmail());
             } catch (Exception e) {
                 System.err.println("⚠️ Failed to send contact confirmation email to: " + saved.getEmail());
                 System.err.println("Email content logged for manual sending - Name: " + saved.getName() + ", Email: " + saved.getEmail());
@@ -39,10 +48,10 @@ public class ContactMessageService {
         // 2) Admin notification - Graceful email handling
         try {
             String adminSubject = "New Contact Message from " + (saved.getName() == null ? "Unknown" : saved.getName());
-            String adminPlain = buildAdminText(saved);
-            String adminHtml = buildAdminHtml(saved);
-            emailService.notifyAdmin(adminSubject, adminHtml, adminPlain);
-            System.out.println("✅ Admin notification sent for contact message from: " + saved.getName());
+            EmailTemplates.Rendered admin = emailTemplates.render("contact-admin", messageModel(saved, "N/A"));
+            emailOutboxService.enqueueAdmin(adminSubject, admin.html(), admin.text(),
+                    EmailOutboxService.SOURCE_CONTACT, saved.getId());
+            System.out.println("✅ Admin notification queued for contact message from: " + saved.getName());
         } catch (Exception e) {
             System.err.println("⚠️ Failed to send admin notification for contact message");
             System.err.println("Admin notification content logged for manual sending - Message ID: " + saved.getId());
@@ -54,60 +63,21 @@ public class ContactMessageService {
     // other methods (getAll, getById, delete) remain unchanged
     public List<ContactMessage> getAllMessages() { return repository.findAll(); }
     public Optional<ContactMessage> getMessageById(Integer id) { return repository.findById(id); }
-    public void deleteMessage(Integer id) { repository.deleteById(id); }
-
-    // ---- helpers for email content ----
-    private String buildClientText(ContactMessage m) {
-        String name = (m.getName() == null ? "Customer" : m.getName());
-        return "Dear " + name + ",\n\n"
-                + "Thank you for contacting Sairaj Travels. We have received your message and will get back to you shortly.\n\n"
-                + "Message summary:\n"
-                + "Phone: " + (m.getPhone() == null ? "N/A" : m.getPhone()) + "\n"
-                + "Message: " + (m.getMessage() == null ? "" : m.getMessage()) + "\n\n"
-                + "Warm regards,\nSairaj Travels";
-    }
-
-    private String buildClientHtml(ContactMessage m) {
-        String name = (m.getName() == null ? "Customer" : escapeHtml(m.getName()));
-        return "<html><body>"
-                + "<p>Dear <strong>" + name + "</strong>,</p>"
-                + "<p>Thank you for contacting <strong>Sairaj Travels</strong>. We have received your message and will get back to you shortly.</p>"
-                + "<h4>Message summary</h4>"
-                + "<p><strong>Phone:</strong> " + escapeHtml(m.getPhone()) + "</p>"
-                + "<p><strong>Message:</strong><br/>" + nl2br(escapeHtml(m.getMessage())) + "</p>"
-                + "<p>Warm regards,<br/>Sairaj Travels</p>"
-                + "</body></html>";
-    }
-
-    private String buildAdminText(ContactMessage m) {
-        return "New contact message\n\n"
-                + "ID: " + m.getId() + "\n"
-                + "Name: " + (m.getName() == null ? "N/A" : m.getName()) + "\n"
-                + "Email: " + (m.getEmail() == null ? "N/A" : m.getEmail()) + "\n"
-                + "Phone: " + (m.getPhone() == null ? "N/A" : m.getPhone()) + "\n"
-                + "Message:\n" + (m.getMessage() == null ? "" : m.getMessage()) + "\n";
-    }
-
-    private String buildAdminHtml(ContactMessage m) {
-        return "<html><body>"
-                + "<h3>New contact message</h3>"
-                + "<p><strong>ID:</strong> " + m.getId() + "</p>"
-                + "<p><strong>Name:</strong> " + escapeHtml(m.getName()) + "</p>"
-                + "<p><strong>Email:</strong> " + escapeHtml(m.getEmail()) + "</p>"
-                + "<p><strong>Phone:</strong> " + escapeHtml(m.getPhone()) + "</p>"
-                + "<h4>Message</h4>"
-                + "<p>" + nl2br(escapeHtml(m.getMessage())) + "</p>"
-                + "</body></html>";
+    public void deleteMessage(Integer id) {
+        if (repository.existsById(id)) {
+            repository.deleteById(id);
+            rollupService.changed(rollupService.contactMessageKeys(), null);
+        }
     }
 
-    // small helpers
-    private String escapeHtml(String s) {
-        if (s == null) return "";
-        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
-                .replace("\"", "&quot;").replace("'", "&#39;");
-    }
-    private String nl2br(String s) {
-        if (s == null) return "";
-        return s.replace("\n", "<br/>");
+    // ---- helpers for email content ----
+    // Placeholders of the contact-* email templates; the confirmation greets a nameless sender as "Customer"
+    private EmailTemplates.Model messageModel(ContactMessage m, String missingName) {
+        return EmailTemplates.model()
+                .with("id", m.getId())
+                .with("name", m.getName() == null ? missingName : m.getName())
+                .with("email", m.getEmail() == null ? "N/A" : m.getEmail())
+                .with("phone", m.getPhone() == null ? "N/A" : m.getPhone())
+                .with("message", m.getMessage());
     }
 }
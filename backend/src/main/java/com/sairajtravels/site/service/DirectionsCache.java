@@ -0,0 +1,122 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.dto.RouteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of one-way ORS driving routes keyed by snapped endpoints quantized to ~50 m cells.
+ *
+ * Bounded by the total retained geometry bytes rather than entry count, since a single
+ * Pune-Goa route weighs as much as hundreds of short airport runs. Round trips are
+ * derived from the one-way entry by the caller and are never stored.
+ */
+@Component
+public class DirectionsCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${directions.cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${directions.cache.cell-meters:50}")
+    private double cellMeters;
+
+    @Value("${directions.cache.ttl-hours:24}")
+    private long ttlHours;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private double cellDegrees;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    public DirectionsCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        cellDegrees = cellMeters / 111000.0;
+        hits = Counter.builder("directions.cache.hits").register(meterRegistry);
+        misses = Counter.builder("directions.cache.misses").register(meterRegistry);
+        evictions = Counter.builder("directions.cache.evictions").register(meterRegistry);
+        Gauge.builder("directions.cache.entries", this, c -> c.size()).register(meterRegistry);
+        Gauge.builder("directions.cache.bytes", this, c -> c.bytes()).register(meterRegistry);
+    }
+
+    public Key key(double fromLat, double fromLon, double toLat, double toLon) {
+        return new Key(cell(fromLat), cell(fromLon), cell(toLat), cell(toLon));
+    }
+
+    public synchronized RouteResult get(Key key) {
+        Entry e = entries.get(key);
+        if (e != null && e.expiresAt > System.currentTimeMillis()) {
+            hits.increment();
+            return e.route;
+        }
+        if (e != null) {
+            remove(key);
+        }
+        misses.increment();
+        return null;
+    }
+
+    public synchronized void put(Key key, RouteResult route) {
+        long size = route.geometryBytes();
+        if (size > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(route, System.currentTimeMillis() + ttlHours * 3_600_000L));
+        if (previous != null) {
+            totalBytes -= previous.route.geometryBytes();
+        }
+        totalBytes += size;
+
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            totalBytes -= eldest.getValue().route.geometryBytes();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private void remove(Key key) {
+        Entry e = entries.remove(key);
+        if (e != null) {
+            totalBytes -= e.route.geometryBytes();
+        }
+    }
+
+    private int cell(double degrees) {
+        return (int) Math.round(degrees / cellDegrees);
+    }
+
+    public record Key(int fromLat, int fromLon, int toLat, int toLon) {
+    }
+
+    private record Entry(RouteResult route, long expiresAt) {
+    }
+}
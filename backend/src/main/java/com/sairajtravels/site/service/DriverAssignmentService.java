@@ -0,0 +1,268 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.Driver;
+import com.sairajtravels.site.entity.VehicleBooking;
+import com.sairajtravels.site.repository.DriverRepository;
+import com.sairajtravels.site.repository.VehicleBookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Proposes a driver for each allocated booking of the next few days.
+ *
+ * A driver can take a booking when their licence is valid through its last day and they are not
+ * already on another trip that day. Pairs are scored on rating, experience and whether the driver
+ * speaks the languages the customer asked for in the special requests. Bookings are planned in
+ * waves by start day: each wave is an optimal weighted matching (Hungarian method) between the
+ * bookings starting that day and the drivers free on it, maximising the number of bookings
+ * covered first and the total score second; the chosen drivers are then busy until their trip
+ * ends. The plan is only a proposal; nothing is written.
+ */
+@Service
+public class DriverAssignmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverAssignmentService.class);
+
+    private static final Pattern LANGUAGE_SEPARATORS = Pattern.compile("\\s*(?:[,/;&|]|\\band\\b)\\s*");
+
+    /** A booking to staff: days are epoch days, inclusive. */
+    record Trip(int bookingId, long firstDay, long lastDay, Set<String> languages) {}
+
+    /** A driver: languages lower-case, licence valid through the given epoch day. */
+    record Crew(int driverId, double rating, int experienceYears, Set<String> languages, long licenceValidThrough) {}
+
+    /** Index into the crew list for each trip (-1 = unassigned), with the pair scores. */
+    record Plan(int[] crewOf, double[] score, boolean[] noneEligible, int waves) {}
+
+    private final VehicleBookingRepository vehicleBookingRepository;
+    private final DriverRepository driverRepository;
+
+    @Value("${booking.allocated-statuses:CONFIRMED}")
+    private Set<String> allocatedStatuses;
+
+    @Value("${driver-assignment.max-days:31}")
+    private int maxDays;
+
+    @Value("${driver-assignment.weight.rating:0.5}")
+    private double ratingWeight;
+
+    @Value("${driver-assignment.weight.language:0.3}")
+    private double languageWeight;
+
+    @Value("${driver-assignment.weight.experience:0.2}")
+    private double experienceWeight;
+
+    @Value("${driver-assignment.experience-cap-years:15}")
+    private int experienceCapYears;
+
+    public DriverAssignmentService(VehicleBookingRepository vehicleBookingRepository,
+                                   DriverRepository driverRepository) {
+        this.vehicleBookingRepository = vehicleBookingRepository;
+        this.driverRepository = driverRepository;
+    }
+
+    /** Plan for allocated bookings with any day in the {@code days} days from today. */
+    @Transactional(readOnly = true)
+    public Map<String, Object> planAssignments(int days) {
+        if (days < 1 || days > maxDays) {
+            throw new IllegalArgumentException("days must be between 1 and " + maxDays);
+        }
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(days - 1L);
+        List<VehicleBooking> bookings = vehicleBookingRepository.findWithVehicleBetween(allocatedStatuses, from, to);
+        List<Driver> drivers = driverRepository.findAll();
+
+        long start = System.nanoTime();
+        List<Crew> crews = new ArrayList<>(drivers.size());
+        Set<String> vocabulary = new LinkedHashSet<>();
+        for (Driver d : drivers) {
+            Set<String> spoken = parseLanguages(d.getLanguages(), d.getLanguagesSpoken());
+            vocabulary.addAll(spoken);
+            crews.add(new Crew(d.getDriverId(),
+                    d.getRating() != null ? d.getRating() : 0,
+                    d.getExperienceYears() != null ? d.getExperienceYears() : 0,
+                    spoken,
+                    // No expiry on file is taken as valid: it predates the licence fields
+                    d.getLicenseExpiryDate() != null ? d.getLicenseExpiryDate().toEpochDay() : Long.MAX_VALUE));
+        }
+        List<Pattern> languagePatterns = vocabulary.stream()
+                .map(l -> Pattern.compile("\\b" + Pattern.quote(l) + "\\b", Pattern.CASE_INSENSITIVE))
+                .toList();
+        List<String> languageNames = new ArrayList<>(vocabulary);
+
+        List<Trip> trips = new ArrayList<>(bookings.size());
+        for (VehicleBooking b : bookings) {
+            LocalDate last = b.getReturnDate() != null && b.getReturnDate().isAfter(b.getTripDate())
+                    ? b.getReturnDate() : b.getTripDate();
+            Set<String> wanted = new LinkedHashSet<>();
+            String requests = b.getSpecialRequests();
+            if (requests != null && !requests.isBlank()) {
+                for (int i = 0; i < languagePatterns.size(); i++) {
+                    if (languagePatterns.get(i).matcher(requests).find()) {
+                        wanted.add(languageNames.get(i));
+                    }
+                }
+            }
+            trips.add(new Trip(b.getBookingId(), b.getTripDate().toEpochDay(), last.toEpochDay(), wanted));
+        }
+
+        Plan plan = plan(trips, crews);
+        double solveMs = (System.nanoTime() - start) / 1e6;
+
+        List<Map<String, Object>> assignments = new ArrayList<>();
+        List<Map<String, Object>> unassigned = new ArrayList<>();
+        double total = 0;
+        for (int t = 0; t < trips.size(); t++) {
+            VehicleBooking b = bookings.get(t);
+            Trip trip = trips.get(t);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("bookingId", b.getBookingId());
+            row.put("customerName", b.getCustomerName());
+            row.put("tripDate", b.getTripDate());
+            row.put("returnDate", LocalDate.ofEpochDay(trip.lastDay()));
+            row.put("vehicleName", b.getVehicle() != null ? b.getVehicle().getName() : null);
+            row.put("languagesRequested", trip.languages());
+            int c = plan.crewOf()[t];
+            if (c < 0) {
+                row.put("reason", plan.noneEligible()[t]
+                        ? "No driver with a valid licence is free on these days"
+                        : "All eligible drivers are needed for other bookings");
+                unassigned.add(row);
+                continue;
+            }
+            Driver d = drivers.get(c);
+            Set<String> matched = new LinkedHashSet<>(trip.languages());
+            matched.retainAll(crews.get(c).languages());
+            row.put("driverId", d.getDriverId());
+            row.put("driverName", d.getFullName());
+            row.put("languagesMatched", matched);
+            row.put("score", Math.round(plan.score()[t] * 1000) / 1000.0);
+            total += plan.score()[t];
+            assignments.add(row);
+        }
+        log.info("Driver plan {}..{}: {} of {} bookings assigned from {} drivers in {} ms",
+                from, to, assignments.size(), trips.size(), crews.size(), solveMs);
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("from", from);
+        out.put("to", to);
+        out.put("bookings", trips.size());
+        out.put("drivers", crews.size());
+        out.put("assigned", assignments.size());
+        out.put("totalScore", Math.round(total * 1000) / 1000.0);
+        out.put("solveMs", solveMs);
+        out.put("assignments", assignments);
+        out.put("unassigned", unassigned);
+        return out;
+    }
+
+    /** Trips must be ordered by first day. */
+    Plan plan(List<Trip> trips, List<Crew> crews) {
+        int n = trips.size();
+        int[] crewOf = new int[n];
+        double[] score = new double[n];
+        boolean[] noneEligible = new boolean[n];
+        Arrays.fill(crewOf, -1);
+        long[] freeFrom = new long[crews.size()];     // first epoch day each driver is off trips
+        Arrays.fill(freeFrom, Long.MIN_VALUE);
+        double maxScore = ratingWeight + languageWeight + experienceWeight;
+
+        int waves = 0;
+        for (int lo = 0; lo < n; ) {
+            long day = trips.get(lo).firstDay();
+            int hi = lo;
+            while (hi < n && trips.get(hi).firstDay() == day) {
+                hi++;
+            }
+            waves++;
+            int rows = hi - lo;
+            int[] free = new int[crews.size()];
+            int freeCount = 0;
+            for (int c = 0; c < crews.size(); c++) {
+                if (freeFrom[c] <= day) {
+                    free[freeCount++] = c;
+                }
+            }
+            // Leaving a booking unassigned costs more than any set of real pairs could save, so the
+            // matching covers as many bookings as possible before it looks at scores
+            double unassignedCost = (rows + 1) * (maxScore + 1);
+            double[][] cost = new double[rows][freeCount + rows];
+            double[][] pairScore = new double[rows][freeCount];
+            for (int r = 0; r < rows; r++) {
+                Trip trip = trips.get(lo + r);
+                boolean any = false;
+                for (int k = 0; k < freeCount; k++) {
+                    Crew crew = crews.get(free[k]);
+                    if (crew.licenceValidThrough() >= trip.lastDay()) {
+                        pairScore[r][k] = score(trip, crew);
+                        cost[r][k] = maxScore - pairScore[r][k];
+                        any = true;
+                    } else {
+                        cost[r][k] = unassignedCost;
+                    }
+                }
+                Arrays.fill(cost[r], freeCount, freeCount + rows, unassignedCost);
+                noneEligible[lo + r] = !any;
+            }
+            int[] column = HungarianAssignment.solve(cost);
+            for (int r = 0; r < rows; r++) {
+                int k = column[r];
+                if (k < freeCount && cost[r][k] < unassignedCost) {
+                    int c = free[k];
+                    crewOf[lo + r] = c;
+                    score[lo + r] = pairScore[r][k];
+                    freeFrom[c] = trips.get(lo + r).lastDay() + 1;
+                }
+            }
+            lo = hi;
+        }
+        return new Plan(crewOf, score, noneEligible, waves);
+    }
+
+    double score(Trip trip, Crew crew) {
+        double s = ratingWeight * Math.min(Math.max(crew.rating(), 0), 5) / 5.0
+                + experienceWeight * Math.min(Math.max(crew.experienceYears(), 0), experienceCapYears)
+                        / (double) Math.max(1, experienceCapYears);
+        if (!trip.languages().isEmpty()) {
+            int spoken = 0;
+            for (String l : trip.languages()) {
+                if (crew.languages().contains(l)) {
+                    spoken++;
+                }
+            }
+            s += languageWeight * spoken / trip.languages().size();
+        }
+        return s;
+    }
+
+    // "Hindi, Marathi & English" in either column -> {hindi, marathi, english}
+    private static Set<String> parseLanguages(String... columns) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String column : columns) {
+            if (column == null) {
+                continue;
+            }
+            for (String part : LANGUAGE_SEPARATORS.split(column.toLowerCase(Locale.ROOT))) {
+                String l = part.trim();
+                if (l.length() >= 3) {
+                    out.add(l);
+                }
+            }
+        }
+        return out;
+    }
+}
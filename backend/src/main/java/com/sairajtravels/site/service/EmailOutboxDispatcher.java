@@ -0,0 +1,220 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.EmailOutbox;
+import com.sairajtravels.site.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the email outbox in the background.
+ *
+ * Each poll claims up to a batch of due rows with a conditional update (so several instances can
+ * share the table), marks them SENDING under a lease and sends them: admin notifications one by one,
+ * the rest as one batch so the Gmail fallback reuses a single SMTP session. A failed send is
+ * retried with exponential backoff and jitter; after {@code outbox.max-attempts} the row is DEAD.
+ * A crash between sending and marking SENT leaves the lease to expire and the row is sent again:
+ * delivery is at least once.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final MeterRegistry meterRegistry;
+
+    private Counter sent;
+    private Counter retried;
+    private Counter dead;
+    private Timer sendTimer;
+
+    // Refreshed after every poll so metric scrapes never hit the database
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+
+    @Value("${outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${outbox.retention-days:14}")
+    private int retentionDays;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository, EmailService emailService,
+                                 MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        sent = Counter.builder("email.outbox.delivered").tag("outcome", "sent").register(meterRegistry);
+        retried = Counter.builder("email.outbox.delivered").tag("outcome", "retry").register(meterRegistry);
+        dead = Counter.builder("email.outbox.delivered").tag("outcome", "dead").register(meterRegistry);
+        sendTimer = Timer.builder("email.outbox.send").register(meterRegistry);
+        Gauge.builder("email.outbox.depth", depth, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("email.outbox.oldest.age.seconds", oldestAgeSeconds, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-ms:2000}", initialDelayString = "${outbox.poll-ms:2000}")
+    public void poll() {
+        try {
+            int processed;
+            do {
+                processed = drainBatch();
+            } while (processed >= batchSize);
+        } catch (Exception e) {
+            log.warn("Email outbox poll failed: {}", e.toString());
+        } finally {
+            refreshGauges();
+        }
+    }
+
+    // Old SENT rows are only kept for troubleshooting
+    @Scheduled(cron = "${outbox.purge-cron:0 30 3 * * *}")
+    public void purgeSent() {
+        int removed = outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (removed > 0) {
+            log.info("Email outbox: purged {} sent rows older than {} days", removed, retentionDays);
+        }
+    }
+
+    private int drainBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = outboxRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        LocalDateTime lease = now.plusSeconds(leaseSeconds);
+        List<EmailOutbox> html = new ArrayList<>();
+        for (Long id : due) {
+            if (outboxRepository.claim(id, now, lease) == 0) {
+                continue;   // taken by another instance
+            }
+            outboxRepository.findById(id).ifPresent(row -> {
+                if (EmailOutbox.KIND_ADMIN.equals(row.getKind())) {
+                    deliver(row);
+                } else {
+                    html.add(row);
+                }
+            });
+        }
+        if (!html.isEmpty()) {
+            deliver(html);
+        }
+        return due.size();
+    }
+
+    private void deliver(EmailOutbox row) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            emailService.deliverAdminNotification(row.getSubject(), row.getHtmlBody(), row.getTextBody());
+            outboxRepository.markSent(row.getId(), LocalDateTime.now());
+            sent.increment();
+        } catch (Exception e) {
+            failed(row, e);
+        } finally {
+            sample.stop(sendTimer);
+        }
+    }
+
+    // The claimed HTML rows go out together, so the Gmail fallback sends them over one SMTP session
+    private void deliver(List<EmailOutbox> rows) {
+        long start = System.nanoTime();
+        Map<Integer, Exception> failures;
+        try {
+            failures = emailService.deliverHtmlEmails(rows.stream()
+                    .map(r -> new EmailService.HtmlEmail(r.getRecipient(), r.getSubject(), r.getHtmlBody(), r.getTextBody()))
+                    .toList());
+        } catch (Exception e) {
+            failures = new HashMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                failures.put(i, e);
+            }
+        }
+        // Each row is timed at its share of the batch, so the timer still counts messages
+        long each = (System.nanoTime() - start) / rows.size();
+        for (int i = 0; i < rows.size(); i++) {
+            EmailOutbox row = rows.get(i);
+            Exception e = failures.get(i);
+            if (e == null) {
+                outboxRepository.markSent(row.getId(), LocalDateTime.now());
+                sent.increment();
+            } else {
+                failed(row, e);
+            }
+            sendTimer.record(each, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // row.getAttempts() already counts this attempt (incremented by the claim)
+    void failed(EmailOutbox row, Exception e) {
+        failed(row, e, LocalDateTime.now().plus(backoff(row.getAttempts())));
+    }
+
+    // Retries at the given time unless the row is out of attempts; digest rows share one retry time
+    void failed(EmailOutbox row, Exception e, LocalDateTime nextAttemptAt) {
+        String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage(), 500);
+        if (row.getAttempts() >= maxAttempts) {
+            outboxRepository.markDead(row.getId(), error);
+            dead.increment();
+            log.error("Email outbox #{} ({} {} #{}) dead after {} attempts: {}", row.getId(), row.getKind(),
+                    row.getSourceType(), row.getSourceId(), row.getAttempts(), error);
+            return;
+        }
+        outboxRepository.markRetry(row.getId(), nextAttemptAt, error);
+        retried.increment();
+        log.warn("Email outbox #{} attempt {} failed, retrying in {}s: {}", row.getId(), row.getAttempts(),
+                Duration.between(LocalDateTime.now(), nextAttemptAt).toSeconds(), error);
+    }
+
+    // base * 2^(attempt-1), capped, with +/-20% jitter so a burst of failures does not retry in lockstep
+    Duration backoff(int attempt) {
+        long seconds = backoffBaseSeconds << Math.min(Math.max(attempt - 1, 0), 20);
+        seconds = Math.min(seconds, backoffMaxSeconds);
+        double jitter = 0.8 + 0.4 * ThreadLocalRandom.current().nextDouble();
+        return Duration.ofMillis((long) (seconds * 1000 * jitter));
+    }
+
+    private void refreshGauges() {
+        try {
+            depth.set(outboxRepository.countUndelivered());
+            LocalDateTime oldest = outboxRepository.findOldestUndeliveredCreatedAt();
+            oldestAgeSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()));
+        } catch (Exception e) {
+            log.debug("Email outbox gauges not refreshed: {}", e.toString());
+        }
+    }
+
+    private static String truncate(String s, int max) {
+        return s == null || s.length() <= max ? s : s.substring(0, max);
+    }
+}
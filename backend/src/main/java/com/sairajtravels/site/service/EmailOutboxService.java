@@ -0,0 +1,78 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.EmailOutbox;
+import com.sairajtravels.site.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Queues notification emails in the {@code email_outbox} table. Called inside the transaction that
+ * saves the booking, enquiry or contact message, so the email exists exactly when the row does;
+ * {@link EmailOutboxDispatcher} sends it afterwards.
+ */
+@Service
+public class EmailOutboxService {
+
+    public static final String SOURCE_BOOKING = "booking";
+    public static final String SOURCE_ENQUIRY = "enquiry";
+    public static final String SOURCE_CONTACT = "contact";
+
+    private final EmailOutboxRepository outboxRepository;
+
+    @Value("${admin-digest.enabled:true}")
+    private boolean digestEnabled;
+
+    // Source types whose admin notifications are sent at once, never digested
+    @Value("${admin-digest.bypass:}")
+    private Set<String> digestBypass;
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    /** Customer email, delivered like {@link EmailService#sendHtmlEmail}. */
+    @Transactional
+    public EmailOutbox enqueueHtml(String toEmail, String subject, String htmlContent, String fallbackText,
+                                   String sourceType, Integer sourceId) {
+        return outboxRepository.save(new EmailOutbox(EmailOutbox.KIND_HTML, toEmail, subject,
+                htmlContent, fallbackText, sourceType, sourceId));
+    }
+
+    /**
+     * Admin notification, delivered like {@link EmailService#notifyAdmin} (same argument order), or
+     * held for the next digest of its source type unless digests are off or that type bypasses them.
+     */
+    @Transactional
+    public EmailOutbox enqueueAdmin(String subject, String message, String fallbackText,
+                                    String sourceType, Integer sourceId) {
+        String kind = digested(sourceType) ? EmailOutbox.KIND_DIGEST : EmailOutbox.KIND_ADMIN;
+        return outboxRepository.save(new EmailOutbox(kind, null, subject,
+                message, fallbackText, sourceType, sourceId));
+    }
+
+    private boolean digested(String sourceType) {
+        return digestEnabled && sourceType != null && !digestBypass.contains(sourceType);
+    }
+
+    /** Queues several emails built with {@link EmailOutbox}'s constructor, in one flush. */
+    @Transactional
+    public List<EmailOutbox> enqueueAll(List<EmailOutbox> emails) {
+        return outboxRepository.saveAll(emails);
+    }
+
+    public List<EmailOutbox> deadLetters(int limit) {
+        return outboxRepository.findByStatusOrderByCreatedAtDesc(EmailOutbox.STATUS_DEAD,
+                PageRequest.of(0, Math.max(1, Math.min(limit, 500))));
+    }
+
+    /** Puts a dead letter back in the queue; false when the id is not a dead letter. */
+    public boolean requeue(Long id) {
+        return outboxRepository.requeueDead(id, LocalDateTime.now()) > 0;
+    }
+}
@@ -2,13 +2,19 @@ package com.sairajtravels.site.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class EmailService {
 
@@ -18,27 +24,40 @@ public class EmailService {
     @Autowired
     private SendGridEmailService sendGridEmailService;
     
+    @Autowired
+    private EmailTemplates emailTemplates;
+    
+    // Gmail SMTP over pooled, already authenticated sessions
+    @Autowired
+    private SmtpTransportService smtpTransportService;
+    
+    // Unsent mail waits here (on disk) for MailSpoolDispatcher instead of only being printed
+    @Autowired
+    private MailSpoolService mailSpoolService;
+    
     @Value("${spring.mail.username:admin@sairajtravels.com}")
     private String fromEmail;
     
     @Value("${app.frontend.url:http://localhost:5173}")
     private String frontendUrl;
     
+    // Comma-separated; admin notifications go to the sending account when empty
+    @Value("${app.notification.admin-recipients:}")
+    private String adminRecipients;
+    
     public void sendTemporaryPassword(String toEmail, String fullName, String username, String tempPassword) {
+        String subject = "Welcome to Sairaj Travels Admin Panel - Temporary Password";
+        String htmlContent = buildTemporaryPasswordEmail(fullName, username, tempPassword);
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject("Welcome to Sairaj Travels Admin Panel - Temporary Password");
-            
-            String htmlContent = buildTemporaryPasswordEmail(fullName, username, tempPassword);
-            helper.setText(htmlContent, true);
-            
-            mailSender.send(message);
+            deliverAccountEmail(toEmail, subject, htmlContent, true);
             System.out.println("✅ Temporary password email sent successfully to: " + toEmail);
         } catch (Exception e) {
+            if (mailSpoolService.spool(MailSpoolService.Lane.HIGH, MailSpoolService.Kind.ACCOUNT_HTML,
+                    toEmail, subject, htmlContent, null)) {
+                System.err.println("⚠️ Email service unavailable - temporary password email for " + username + " spooled for retry");
+                System.err.println("Email error: " + e.getMessage());
+                return;
+            }
             System.err.println("⚠️ Email service unavailable - temporary password for " + username + ": " + tempPassword);
             System.err.println("Email error: " + e.getMessage());
             // Don't throw exception - just log the credentials for manual sending
@@ -46,208 +65,85 @@ public class EmailService {
     }
     
     public void sendPasswordResetEmail(String toEmail, String fullName, String resetToken) {
+        String subject = "Sairaj Travels Admin - Password Reset Request";
+        String resetLink = frontendUrl + "/admin/reset-password?token=" + resetToken;
+        String htmlContent = buildPasswordResetEmail(fullName, resetLink);
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject("Sairaj Travels Admin - Password Reset Request");
-            
-            String resetLink = frontendUrl + "/admin/reset-password?token=" + resetToken;
-            String htmlContent = buildPasswordResetEmail(fullName, resetLink);
-            helper.setText(htmlContent, true);
-            
-            mailSender.send(message);
+            deliverAccountEmail(toEmail, subject, htmlContent, true);
             System.out.println("✅ Password reset email sent successfully to: " + toEmail);
         } catch (Exception e) {
+            if (mailSpoolService.spool(MailSpoolService.Lane.HIGH, MailSpoolService.Kind.ACCOUNT_HTML,
+                    toEmail, subject, htmlContent, null)) {
+                System.err.println("⚠️ Email service unavailable - password reset email for " + fullName + " spooled for retry");
+                System.err.println("Email error: " + e.getMessage());
+                return;
+            }
             System.err.println("⚠️ Email service unavailable - password reset token for " + fullName + ": " + resetToken);
-            System.err.println("Reset link: " + frontendUrl + "/admin/reset-password?token=" + resetToken);
+            System.err.println("Reset link: " + resetLink);
             System.err.println("Email error: " + e.getMessage());
             // Don't throw exception - just log the reset token for manual sending
         }
     }
     
     public void sendPasswordChangeNotification(String toEmail, String fullName) {
+        String subject = "Sairaj Travels Admin - Password Changed Successfully";
+        String text = buildPasswordChangeNotification(fullName);
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Sairaj Travels Admin - Password Changed Successfully");
-            message.setText(buildPasswordChangeNotification(fullName));
-            
-            mailSender.send(message);
+            deliverAccountEmail(toEmail, subject, text, false);
         } catch (Exception e) {
             // Don't throw exception for notification emails
             System.err.println("Failed to send password change notification: " + e.getMessage());
+            mailSpoolService.spool(MailSpoolService.Lane.NORMAL, MailSpoolService.Kind.ACCOUNT_TEXT,
+                    toEmail, subject, text, null);
         }
     }
     
+    /** Account emails go over Gmail SMTP only; throws when the message was not sent. */
+    public void deliverAccountEmail(String toEmail, String subject, String body, boolean html) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, html);
+        
+        helper.setFrom(fromEmail);
+        helper.setTo(toEmail);
+        helper.setSubject(subject);
+        helper.setText(body, html);
+        
+        smtpTransportService.send(message);
+    }
+    
     private String buildTemporaryPasswordEmail(String fullName, String username, String tempPassword) {
-        return String.format("""
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <meta charset="UTF-8">
-                <style>
-                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
-                    .header { background: #2563eb; color: white; padding: 20px; text-align: center; border-radius: 8px 8px 0 0; }
-                    .content { background: #f8fafc; padding: 30px; border-radius: 0 0 8px 8px; }
-                    .credentials { background: white; padding: 20px; border-radius: 8px; margin: 20px 0; border-left: 4px solid #2563eb; }
-                    .button { display: inline-block; background: #2563eb; color: white; padding: 12px 24px; text-decoration: none; border-radius: 6px; margin: 20px 0; }
-                    .warning { background: #fef3cd; border: 1px solid #fde68a; padding: 15px; border-radius: 6px; margin: 20px 0; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>🚐 Sairaj Travels</h1>
-                        <h2>Welcome to Admin Panel</h2>
-                    </div>
-                    <div class="content">
-                        <h3>Hello %s,</h3>
-                        <p>Welcome to the Sairaj Travels Admin Panel! Your account has been created successfully.</p>
-                        
-                        <div class="credentials">
-                            <h4>Your Login Credentials:</h4>
-                            <p><strong>Username:</strong> %s</p>
-                            <p><strong>Temporary Password:</strong> <code>%s</code></p>
-                            <p><strong>Login URL:</strong> <a href="%s/admin/login">%s/admin/login</a></p>
-                        </div>
-                        
-                        <div class="warning">
-                            <p><strong>⚠️ Important Security Notice:</strong></p>
-                            <p>This is a temporary password. You will be required to change it upon your first login for security reasons.</p>
-                        </div>
-                        
-                        <a href="%s/admin/login" class="button">Login to Admin Panel</a>
-                        
-                        <p>If you have any questions or need assistance, please contact the system administrator.</p>
-                        
-                        <hr style="margin: 30px 0; border: none; border-top: 1px solid #e5e7eb;">
-                        <p style="font-size: 12px; color: #6b7280;">
-                            This is an automated message from Sairaj Travels Admin System. Please do not reply to this email.
-                        </p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """, fullName, username, tempPassword, frontendUrl, frontendUrl, frontendUrl);
+        return emailTemplates.html("admin-temporary-password", EmailTemplates.model()
+                .with("fullName", fullName)
+                .with("username", username)
+                .with("tempPassword", tempPassword)
+                .with("loginUrl", frontendUrl + "/admin/login"));
     }
     
     private String buildPasswordResetEmail(String fullName, String resetLink) {
-        return String.format("""
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <meta charset="UTF-8">
-                <style>
-                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
-                    .header { background: #dc2626; color: white; padding: 20px; text-align: center; border-radius: 8px 8px 0 0; }
-                    .content { background: #f8fafc; padding: 30px; border-radius: 0 0 8px 8px; }
-                    .button { display: inline-block; background: #dc2626; color: white; padding: 12px 24px; text-decoration: none; border-radius: 6px; margin: 20px 0; }
-                    .warning { background: #fef3cd; border: 1px solid #fde68a; padding: 15px; border-radius: 6px; margin: 20px 0; }
-                    .code { background: white; padding: 15px; border-radius: 6px; font-family: monospace; word-break: break-all; border: 1px solid #e5e7eb; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>🚐 Sairaj Travels</h1>
-                        <h2>Password Reset Request</h2>
-                    </div>
-                    <div class="content">
-                        <h3>Hello %s,</h3>
-                        <p>We received a request to reset your password for the Sairaj Travels Admin Panel.</p>
-                        
-                        <p>Click the button below to reset your password:</p>
-                        <a href="%s" class="button">Reset Password</a>
-                        
-                        <p>Or copy and paste this link in your browser:</p>
-                        <div class="code">%s</div>
-                        
-                        <div class="warning">
-                            <p><strong>⚠️ Security Notice:</strong></p>
-                            <ul>
-                                <li>This link will expire in 1 hour for security reasons</li>
-                                <li>If you didn't request this reset, please ignore this email</li>
-                                <li>Your password will remain unchanged until you create a new one</li>
-                            </ul>
-                        </div>
-                        
-                        <p>If you're having trouble with the button above, copy and paste the URL into your web browser.</p>
-                        
-                        <hr style="margin: 30px 0; border: none; border-top: 1px solid #e5e7eb;">
-                        <p style="font-size: 12px; color: #6b7280;">
-                            This is an automated message from Sairaj Travels Admin System. Please do not reply to this email.<br>
-                            If you didn't request this password reset, please contact the system administrator immediately.
-                        </p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """, fullName, resetLink, resetLink);
+        return emailTemplates.html("admin-password-reset", EmailTemplates.model()
+                .with("fullName", fullName)
+                .with("resetLink", resetLink));
     }
     
     private String buildPasswordChangeNotification(String fullName) {
-        return String.format("""
-            Hello %s,
-            
-            This is a confirmation that your password for the Sairaj Travels Admin Panel has been successfully changed.
-            
-            Change Details:
-            - Date: %s
-            - Account: %s
-            
-            If you did not make this change, please contact the system administrator immediately.
-            
-            For security reasons:
-            - Always use strong, unique passwords
-            - Never share your login credentials
-            - Log out when finished using the system
-            
-            Thank you,
-            Sairaj Travels Admin System
-            
-            ---
-            This is an automated message. Please do not reply to this email.
-            """, fullName, java.time.LocalDateTime.now().toString(), fullName);
+        return emailTemplates.text("admin-password-changed", EmailTemplates.model()
+                .with("fullName", fullName)
+                .with("changedAt", java.time.LocalDateTime.now()));
     }
     
     // Backward compatibility methods for existing services
-    
+
     public void sendHtmlEmail(String toEmail, String subject, String htmlContent, String fallbackText) {
         String timestamp = java.time.LocalDateTime.now().toString();
-        
-        // Try SendGrid first (more reliable on hosting platforms)
-        if (sendGridEmailService.isConfigured()) {
-            boolean sendGridSuccess = sendGridEmailService.sendHtmlEmail(toEmail, subject, htmlContent, fallbackText);
-            if (sendGridSuccess) {
-                System.out.println("✅ [" + timestamp + "] SendGrid HTML email sent successfully to: " + toEmail);
-                return;
-            } else {
-                System.err.println("⚠️ [" + timestamp + "] SendGrid failed, trying Gmail SMTP fallback for: " + toEmail);
-            }
-        } else {
-            System.out.println("ℹ️ [" + timestamp + "] SendGrid not configured, using Gmail SMTP for: " + toEmail);
-        }
-        
-        // Fallback to Gmail SMTP
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject(subject);
-            helper.setText(fallbackText, htmlContent);
-            
-            mailSender.send(message);
-            System.out.println("✅ [" + timestamp + "] Gmail SMTP HTML email sent successfully to: " + toEmail);
-            System.out.println("   Subject: " + subject);
+            deliverHtmlEmail(toEmail, subject, htmlContent, fallbackText);
         } catch (Exception e) {
+            if (mailSpoolService.spool(MailSpoolService.Lane.NORMAL, MailSpoolService.Kind.HTML,
+                    toEmail, subject, htmlContent, fallbackText)) {
+                System.err.println("⚠️ [" + timestamp + "] Both SendGrid and Gmail SMTP failed - HTML email to " + toEmail + " spooled for retry");
+                System.err.println("   Gmail SMTP Error: " + e.getMessage());
+                return;
+            }
             System.err.println("❌ [" + timestamp + "] Both SendGrid and Gmail SMTP failed - failed to send HTML email");
             System.err.println("   To: " + toEmail);
             System.err.println("   Subject: " + subject);
@@ -262,67 +158,165 @@ public class EmailService {
             // Don't throw exception - just log the failure
         }
     }
-    
-    public void notifyAdmin(String subject, String message, String fromEmail) {
+
+    /**
+     * SendGrid, then Gmail SMTP. Throws the SMTP failure when neither delivered, so callers that
+     * retry (the email outbox) can tell a failed send from a sent one.
+     */
+    public void deliverHtmlEmail(String toEmail, String subject, String htmlContent, String fallbackText)
+            throws MessagingException {
         String timestamp = java.time.LocalDateTime.now().toString();
+        if (sentViaSendGrid(toEmail, subject, htmlContent, fallbackText, timestamp)) {
+            return;
+        }
         
-        // Use SendGrid for admin notifications too
-        String adminSubject = "Admin Notification: " + subject;
-        String adminHtml = String.format("""
-            <html><body>
-            <h3>Admin Notification</h3>
-            <p><strong>Subject:</strong> %s</p>
-            <p><strong>From:</strong> %s</p>
-            <h4>Message:</h4>
-            <p>%s</p>
-            <hr>
-            <p><em>This is an automated notification from Sairaj Travels system.</em></p>
-            </body></html>
-            """, subject, fromEmail, message);
-        
-        String adminText = String.format("""
-            Admin Notification
-            
-            Subject: %s
-            From: %s
-            
-            Message:
-            %s
-            
-            ---
-            This is an automated notification from Sairaj Travels system.
-            """, subject, fromEmail, message);
+        // Fallback to Gmail SMTP
+        smtpTransportService.send(htmlMessage(toEmail, subject, htmlContent, fallbackText));
+        System.out.println("✅ [" + timestamp + "] Gmail SMTP HTML email sent successfully to: " + toEmail);
+        System.out.println("   Subject: " + subject);
+    }
+
+    /** One email for {@link #deliverHtmlEmails}. */
+    public record HtmlEmail(String toEmail, String subject, String htmlContent, String fallbackText) {}
+
+    /**
+     * {@link #deliverHtmlEmail} for a drained batch: SendGrid per email, then every email SendGrid
+     * did not take over one pooled Gmail SMTP session. Returns the ones not delivered, by index.
+     */
+    public Map<Integer, Exception> deliverHtmlEmails(List<HtmlEmail> emails) {
+        String timestamp = java.time.LocalDateTime.now().toString();
+        Map<Integer, Exception> failed = new LinkedHashMap<>();
+        List<Integer> pending = new ArrayList<>();
+        List<MimeMessage> messages = new ArrayList<>();
+        for (int i = 0; i < emails.size(); i++) {
+            HtmlEmail email = emails.get(i);
+            try {
+                if (!sentViaSendGrid(email.toEmail(), email.subject(), email.htmlContent(), email.fallbackText(), timestamp)) {
+                    messages.add(htmlMessage(email.toEmail(), email.subject(), email.htmlContent(), email.fallbackText()));
+                    pending.add(i);
+                }
+            } catch (Exception e) {
+                failed.put(i, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return failed;
+        }
         
-        // Try SendGrid first
+        // Fallback to Gmail SMTP, one session for the lot
+        try {
+            smtpTransportService.sendBatch(messages).forEach((j, e) -> failed.put(pending.get(j), e));
+        } catch (MessagingException e) {
+            pending.forEach(i -> failed.put(i, e));     // no session came free
+        }
+        System.out.println("✅ [" + timestamp + "] Gmail SMTP batch: " + (messages.size() - failed.size())
+                + " of " + messages.size() + " HTML emails sent");
+        return failed;
+    }
+
+    private boolean sentViaSendGrid(String toEmail, String subject, String htmlContent, String fallbackText,
+                                    String timestamp) {
+        // Try SendGrid first (more reliable on hosting platforms)
         if (sendGridEmailService.isConfigured()) {
-            boolean sendGridSuccess = sendGridEmailService.sendHtmlEmail(this.fromEmail, adminSubject, adminHtml, adminText);
+            boolean sendGridSuccess = sendGridEmailService.sendHtmlEmail(toEmail, subject, htmlContent, fallbackText);
             if (sendGridSuccess) {
-                System.out.println("✅ [" + timestamp + "] SendGrid admin notification sent successfully");
-                System.out.println("   Subject: " + adminSubject);
-                return;
+                System.out.println("✅ [" + timestamp + "] SendGrid HTML email sent successfully to: " + toEmail);
+                return true;
+            } else {
+                System.err.println("⚠️ [" + timestamp + "] SendGrid failed, trying Gmail SMTP fallback for: " + toEmail);
             }
+        } else {
+            System.out.println("ℹ️ [" + timestamp + "] SendGrid not configured, using Gmail SMTP for: " + toEmail);
         }
+        return false;
+    }
+
+    private MimeMessage htmlMessage(String toEmail, String subject, String htmlContent, String fallbackText)
+            throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
         
-        // Fallback to Gmail SMTP
+        helper.setFrom(fromEmail);
+        helper.setTo(toEmail);
+        helper.setSubject(subject);
+        helper.setText(fallbackText, htmlContent);
+        return message;
+    }
+    
+    public void notifyAdmin(String subject, String message, String fromEmail) {
+        String timestamp = java.time.LocalDateTime.now().toString();
         try {
-            SimpleMailMessage mailMessage = new SimpleMailMessage();
-            mailMessage.setFrom(this.fromEmail);
-            mailMessage.setTo(this.fromEmail); // Send to admin email
-            mailMessage.setSubject(adminSubject);
-            mailMessage.setText(adminText);
-            
-            mailSender.send(mailMessage);
-            System.out.println("✅ [" + timestamp + "] Gmail SMTP admin notification sent successfully");
-            System.out.println("   Subject: " + adminSubject);
+            deliverAdminNotification(subject, message, fromEmail);
         } catch (Exception e) {
+            if (mailSpoolService.spool(MailSpoolService.Lane.LOW, MailSpoolService.Kind.ADMIN,
+                    fromEmail, subject, message, null)) {
+                System.err.println("⚠️ [" + timestamp + "] Both SendGrid and Gmail SMTP failed - admin notification spooled for retry");
+                System.err.println("   Subject: Admin Notification: " + subject);
+                System.err.println("   Error: " + e.getMessage());
+                return;
+            }
             System.err.println("❌ [" + timestamp + "] Both SendGrid and Gmail SMTP failed for admin notification");
-            System.err.println("   Subject: " + adminSubject);
+            System.err.println("   Subject: Admin Notification: " + subject);
             System.err.println("   Error: " + e.getMessage());
             System.err.println("   📧 ADMIN NOTIFICATION FOR MANUAL SENDING:");
             System.err.println("   To: " + this.fromEmail);
-            System.err.println("   Subject: " + adminSubject);
-            System.err.println("   Message: " + adminHtml);
+            System.err.println("   Subject: Admin Notification: " + subject);
+            System.err.println("   Message: " + message);
             System.err.println("   📧 END ADMIN NOTIFICATION");
         }
     }
-}
\ No newline at end of file
+
+    /** {@link #notifyAdmin} without the manual-sending dump; throws when neither channel delivered. */
+    public void deliverAdminNotification(String subject, String message, String fromEmail) throws MessagingException {
+        // Use SendGrid for admin notifications too
+        String adminSubject = "Admin Notification: " + subject;
+        // The message goes into the HTML part as is: callers pass markup they built themselves
+        EmailTemplates.Rendered admin = emailTemplates.render("admin-notification", EmailTemplates.model()
+                .with("subject", subject)
+                .with("from", fromEmail)
+                .with("message", message));
+        deliverAdminEmail(adminSubject, admin.html(), admin.text());
+    }
+
+    /**
+     * An already rendered email to every admin recipient (admin notifications, digests): SendGrid,
+     * then Gmail SMTP for the admins SendGrid could not reach. Throws when SMTP failed too.
+     */
+    public void deliverAdminEmail(String adminSubject, String adminHtml, String adminText) throws MessagingException {
+        String timestamp = java.time.LocalDateTime.now().toString();
+        
+        // Try SendGrid first: every admin in one request
+        List<String> pending = adminRecipients();
+        if (sendGridEmailService.isConfigured()) {
+            List<SendGridEmailService.Recipient> recipients = pending.stream()
+                    .map(SendGridEmailService.Recipient::new).toList();
+            pending = sendGridEmailService.sendBatch(adminSubject, adminHtml, adminText, recipients).stream()
+                    .filter(r -> r.outcome() == SendGridEmailService.Outcome.FAILED)
+                    .map(SendGridEmailService.RecipientResult::email)
+                    .toList();
+            if (pending.isEmpty()) {
+                System.out.println("✅ [" + timestamp + "] SendGrid admin notification sent successfully");
+                System.out.println("   Subject: " + adminSubject);
+                return;
+            }
+        }
+        
+        // Fallback to Gmail SMTP for the admins SendGrid could not reach
+        MimeMessage mailMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mailMessage);
+        helper.setFrom(this.fromEmail);
+        helper.setTo(pending.toArray(new String[0]));
+        helper.setSubject(adminSubject);
+        helper.setText(adminText);
+        
+        smtpTransportService.send(mailMessage);
+        System.out.println("✅ [" + timestamp + "] Gmail SMTP admin notification sent successfully");
+        System.out.println("   Subject: " + adminSubject);
+    }
+
+    private List<String> adminRecipients() {
+        List<String> recipients = Arrays.stream(adminRecipients.split(","))
+                .map(String::trim).filter(r -> !r.isEmpty()).toList();
+        return recipients.isEmpty() ? List.of(fromEmail) : recipients;
+    }
+}
@@ -0,0 +1,186 @@
+package com.sairajtravels.site.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One email template, parsed once into literal and placeholder segments.
+ *
+ * Syntax: {@code {{name}}} inserts a model value (HTML-escaped in an HTML template),
+ * {@code {{name|br}}} also turns line breaks into {@code <br/>}, {@code {{{name}}}} inserts it
+ * unescaped (only for HTML the application built itself), and {@code {{#name}}...{{/name}}}
+ * renders its body only when the value is present (not null, false or ""). A section tag alone
+ * on its line takes the whole line with it, so optional lines leave no blank line behind.
+ * Rendering appends to the caller's builder and allocates nothing else.
+ */
+final class EmailTemplate {
+
+    enum Mode { HTML, TEXT }
+
+    private interface Segment {
+        void render(Map<String, ?> model, StringBuilder out);
+    }
+
+    private record Literal(String text) implements Segment {
+        public void render(Map<String, ?> model, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    private record Value(String name, boolean escape, boolean lineBreaks) implements Segment {
+        public void render(Map<String, ?> model, StringBuilder out) {
+            Object v = model.get(name);
+            if (v == null) {
+                return;
+            }
+            CharSequence s = v instanceof CharSequence cs ? cs : v.toString();
+            if (!escape) {
+                out.append(s);
+                return;
+            }
+            for (int i = 0, n = s.length(); i < n; i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '&' -> out.append("&amp;");
+                    case '<' -> out.append("&lt;");
+                    case '>' -> out.append("&gt;");
+                    case '"' -> out.append("&quot;");
+                    case '\'' -> out.append("&#39;");
+                    case '\n' -> out.append(lineBreaks ? "<br/>" : "\n");
+                    default -> out.append(c);
+                }
+            }
+        }
+    }
+
+    private record Section(String name, Segment[] body) implements Segment {
+        public void render(Map<String, ?> model, StringBuilder out) {
+            Object v = model.get(name);
+            if (v == null || Boolean.FALSE.equals(v) || (v instanceof CharSequence cs && cs.isEmpty())) {
+                return;
+            }
+            for (Segment s : body) {
+                s.render(model, out);
+            }
+        }
+    }
+
+    final String name;
+    final Mode mode;
+    private final Segment[] segments;
+    private final int sizeHint;     // literal characters plus room for values
+
+    private EmailTemplate(String name, Mode mode, Segment[] segments, int literalLength) {
+        this.name = name;
+        this.mode = mode;
+        this.segments = segments;
+        this.sizeHint = literalLength + literalLength / 4 + 64;
+    }
+
+    int sizeHint() {
+        return sizeHint;
+    }
+
+    void render(Map<String, ?> model, StringBuilder out) {
+        out.ensureCapacity(out.length() + sizeHint);
+        for (Segment s : segments) {
+            s.render(model, out);
+        }
+    }
+
+    static EmailTemplate parse(String name, String source, Mode mode) {
+        Deque<String> open = new ArrayDeque<>();
+        Deque<List<Segment>> levels = new ArrayDeque<>();
+        levels.push(new ArrayList<>());
+        StringBuilder literal = new StringBuilder();
+        int literalLength = 0;
+
+        int pos = 0;
+        while (pos < source.length()) {
+            int start = source.indexOf("{{", pos);
+            if (start < 0) {
+                literal.append(source, pos, source.length());
+                break;
+            }
+            literal.append(source, pos, start);
+            boolean raw = source.startsWith("{{{", start);
+            String close = raw ? "}}}" : "}}";
+            int end = source.indexOf(close, start);
+            if (end < 0) {
+                throw new IllegalArgumentException(name + ": unclosed tag at offset " + start);
+            }
+            String tag = source.substring(start + (raw ? 3 : 2), end).trim();
+            pos = end + close.length();
+
+            char kind = tag.isEmpty() ? ' ' : tag.charAt(0);
+            if (!raw && (kind == '#' || kind == '/')) {
+                int lineStart = standaloneLineStart(source, start, pos);
+                if (lineStart >= 0) {
+                    literal.setLength(literal.length() - (start - lineStart));
+                    pos = skipLineEnd(source, pos);
+                }
+            }
+            literalLength += flush(literal, levels.peek());
+
+            if (!raw && kind == '#') {
+                open.push(tag.substring(1).trim());
+                levels.push(new ArrayList<>());
+            } else if (!raw && kind == '/') {
+                String section = tag.substring(1).trim();
+                if (open.isEmpty() || !open.peek().equals(section)) {
+                    throw new IllegalArgumentException(name + ": unexpected {{/" + section + "}}");
+                }
+                open.pop();
+                Segment[] body = levels.pop().toArray(new Segment[0]);
+                levels.peek().add(new Section(section, body));
+            } else {
+                boolean lineBreaks = tag.endsWith("|br");
+                String key = lineBreaks ? tag.substring(0, tag.length() - 3).trim() : tag;
+                if (key.isEmpty()) {
+                    throw new IllegalArgumentException(name + ": empty tag at offset " + start);
+                }
+                levels.peek().add(new Value(key, mode == Mode.HTML && !raw, lineBreaks));
+            }
+        }
+        if (!open.isEmpty()) {
+            throw new IllegalArgumentException(name + ": {{#" + open.peek() + "}} is never closed");
+        }
+        literalLength += flush(literal, levels.peek());
+        return new EmailTemplate(name, mode, levels.pop().toArray(new Segment[0]), literalLength);
+    }
+
+    private static int flush(StringBuilder literal, List<Segment> into) {
+        int n = literal.length();
+        if (n > 0) {
+            into.add(new Literal(literal.toString()));
+            literal.setLength(0);
+        }
+        return n;
+    }
+
+    // Start of the tag's line when only blanks surround the tag on it, else -1
+    private static int standaloneLineStart(String source, int tagStart, int tagEnd) {
+        int i = tagStart;
+        while (i > 0 && (source.charAt(i - 1) == ' ' || source.charAt(i - 1) == '\t')) {
+            i--;
+        }
+        if (i > 0 && source.charAt(i - 1) != '\n') {
+            return -1;
+        }
+        for (int j = tagEnd; j < source.length() && source.charAt(j) != '\n'; j++) {
+            char c = source.charAt(j);
+            if (c != ' ' && c != '\t' && c != '\r') {
+                return -1;
+            }
+        }
+        return i;
+    }
+
+    private static int skipLineEnd(String source, int pos) {
+        int nl = source.indexOf('\n', pos);
+        return nl < 0 ? source.length() : nl + 1;
+    }
+}
@@ -0,0 +1,135 @@
+package com.sairajtravels.site.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The email templates under {@code classpath:email-templates/}, parsed once at startup.
+ *
+ * An email is a pair of files, {@code <name>.html} and {@code <name>.txt}, rendered from the same
+ * {@link Model} so the HTML and plain-text parts cannot drift apart. Files named {@code _<name>.*}
+ * are partials: {@code {{>name}}} in a template of the same type is replaced by the partial when
+ * the templates load, indented like the tag. Each thread renders into its own reused builder,
+ * sized from the template, so a render costs one copy into the result string.
+ */
+@Service
+public class EmailTemplates {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailTemplates.class);
+
+    private static final String LOCATION = "classpath:email-templates/*.*";
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    // {{>name}} alone on its line (groups 1-3: indent, name, line end), or inside a line (group 4)
+    private static final Pattern PARTIAL = Pattern.compile(
+            "(?m)^([ \\t]*)\\{\\{>\\s*([\\w-]+)\\s*}}[ \\t]*(\\r?\\n|\\z)|\\{\\{>\\s*([\\w-]+)\\s*}}");
+
+    /** Values for one email, by placeholder name; null values render as nothing. */
+    public static final class Model extends HashMap<String, Object> {
+        public Model with(String name, Object value) {
+            put(name, value);
+            return this;
+        }
+    }
+
+    /** The two parts of a rendered email. */
+    public record Rendered(String html, String text) {}
+
+    private final Map<String, EmailTemplate> templates = new HashMap<>();
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    public static Model model() {
+        return new Model();
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        Map<String, String> sources = new HashMap<>();
+        for (Resource r : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            String file = r.getFilename();
+            if (file != null && (file.endsWith(".html") || file.endsWith(".txt"))) {
+                try (InputStream in = r.getInputStream()) {
+                    sources.put(file, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        sources.forEach((file, source) -> {
+            if (!file.startsWith("_")) {
+                EmailTemplate.Mode mode = file.endsWith(".html") ? EmailTemplate.Mode.HTML : EmailTemplate.Mode.TEXT;
+                String extension = file.substring(file.lastIndexOf('.'));
+                templates.put(file, EmailTemplate.parse(file, inlinePartials(file, source, extension, sources), mode));
+            }
+        });
+        log.info("Email templates loaded: {}", templates.size());
+    }
+
+    // One level: partials do not include other partials
+    private static String inlinePartials(String file, String source, String extension, Map<String, String> sources) {
+        Matcher m = PARTIAL.matcher(source);
+        StringBuilder out = new StringBuilder(source.length() + 512);
+        while (m.find()) {
+            boolean standalone = m.group(2) != null;
+            String name = standalone ? m.group(2) : m.group(4);
+            String partial = sources.get("_" + name + extension);
+            if (partial == null) {
+                throw new IllegalStateException(file + ": no partial _" + name + extension);
+            }
+            if (standalone) {
+                // Every line of the partial gets the tag's indentation
+                String indent = m.group(1);
+                partial = partial.lines().map(l -> l.isEmpty() ? l : indent + l)
+                        .collect(Collectors.joining("\n", "", m.group(3).isEmpty() ? "" : "\n"));
+            } else if (partial.endsWith("\n")) {
+                partial = partial.substring(0, partial.length() - 1);
+            }
+            m.appendReplacement(out, Matcher.quoteReplacement(partial));
+        }
+        m.appendTail(out);
+        return out.toString();
+    }
+
+    /** Both parts of email {@code name}. */
+    public Rendered render(String name, Map<String, ?> model) {
+        return new Rendered(html(name, model), text(name, model));
+    }
+
+    public String html(String name, Map<String, ?> model) {
+        return render(template(name + ".html"), model);
+    }
+
+    public String text(String name, Map<String, ?> model) {
+        return render(template(name + ".txt"), model);
+    }
+
+    EmailTemplate template(String file) {
+        EmailTemplate t = templates.get(file);
+        if (t == null) {
+            throw new IllegalStateException("No email template " + file);
+        }
+        return t;
+    }
+
+    String render(EmailTemplate template, Map<String, ?> model) {
+        StringBuilder out = buffers.get();
+        out.setLength(0);
+        template.render(model, out);
+        String result = out.toString();
+        if (out.capacity() > MAX_RETAINED_CAPACITY) {
+            buffers.remove();   // one huge email should not pin its buffer to the thread
+        }
+        return result;
+    }
+}
@@ -4,6 +4,7 @@ import com.sairajtravels.site.dto.EnquiryDTO;
 import com.sairajtravels.site.entity.Enquiry;
 import com.sairajtravels.site.repository.EnquiryRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,11 +15,16 @@ import java.util.stream.Collectors;
 public class EnquiryService {
 
     private final EnquiryRepository enquiryRepository;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final OperationalRollupService rollupService;
+    private final EmailTemplates emailTemplates;
 
-    public EnquiryService(EnquiryRepository enquiryRepository, EmailService emailService) {
+    public EnquiryService(EnquiryRepository enquiryRepository, EmailOutboxService emailOutboxService,
+                          OperationalRollupService rollupService, EmailTemplates emailTemplates) {
         this.enquiryRepository = enquiryRepository;
-        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
+        this.rollupService = rollupService;
+        this.emailTemplates = emailTemplates;
     }
 
     private EnquiryDTO convertToDTO(Enquiry enquiry) {
@@ -75,6 +81,7 @@ public class EnquiryService {
         return enquiry.map(this::convertToDTO).orElse(null);
     }
 
+    @Transactional
     public EnquiryDTO createEnquiry(EnquiryDTO dto) {
         // Set default values
         if (dto.getStatus() == null || dto.getStatus().isEmpty()) {
@@ -88,18 +95,21 @@ public class EnquiryService {
         }
 
         Enquiry saved = enquiryRepository.save(convertToEntity(dto));
+        rollupService.changed(null, rollupService.keysOf(saved));
         EnquiryDTO result = convertToDTO(saved);
 
-        // Send email notifications
+        // Queue email notifications (sent by the outbox dispatcher once this commits)
         sendEnquiryNotifications(result);
 
         return result;
     }
 
+    @Transactional
     public EnquiryDTO updateEnquiry(Integer id, EnquiryDTO dto) {
         Optional<Enquiry> existingEnquiryOpt = enquiryRepository.findById(id);
         if (existingEnquiryOpt.isPresent()) {
             Enquiry existingEnquiry = existingEnquiryOpt.get();
+            List<OperationalRollupService.Key> before = rollupService.keysOf(existingEnquiry);
             
             // Update only the fields that are provided in the DTO
             if (dto.getStatus() != null) {
@@ -124,6 +134,7 @@ public class EnquiryService {
             existingEnquiry.setUpdatedAt(LocalDateTime.now());
             
             Enquiry updated = enquiryRepository.save(existingEnquiry);
+            rollupService.changed(before, rollupService.keysOf(updated));
             EnquiryDTO result = convertToDTO(updated);
             
             // Send email notification for status changes
@@ -137,7 +148,9 @@ public class EnquiryService {
     }
 
     public void deleteEnquiry(Integer id) {
+        Optional<Enquiry> existing = enquiryRepository.findById(id);
         enquiryRepository.deleteById(id);
+        existing.ifPresent(e -> rollupService.changed(rollupService.keysOf(e), null));
     }
 
     private void sendEnquiryNotifications(EnquiryDTO enquiry) {
@@ -145,170 +158,33 @@ public class EnquiryService {
             // Send email to customer if email is provided
             if (enquiry.getEmail() != null && !enquiry.getEmail().isEmpty()) {
                 String customerSubject = "Enquiry Received - Sairaj Travels";
-                String customerHtml = buildCustomerEmailHtml(enquiry);
-                String customerText = buildCustomerEmailText(enquiry);
-                emailService.sendHtmlEmail(enquiry.getEmail(), customerSubject, customerHtml, customerText);
+                EmailTemplates.Rendered customer = emailTemplates.render("enquiry-received", enquiryModel(enquiry));
+                emailOutboxService.enqueueHtml(enquiry.getEmail(), customerSubject, customer.html(), customer.text(),
+                        EmailOutboxService.SOURCE_ENQUIRY, enquiry.getEnquiryId());
             }
 
             // Send email to admin
             String adminSubject = "New Enquiry - " + enquiry.getFullName() + " (" + enquiry.getService() + ")";
-            String adminHtml = buildAdminEmailHtml(enquiry);
-            String adminText = buildAdminEmailText(enquiry);
-            emailService.notifyAdmin(adminSubject, adminHtml, adminText);
+            EmailTemplates.Rendered admin = emailTemplates.render("enquiry-admin", enquiryModel(enquiry));
+            emailOutboxService.enqueueAdmin(adminSubject, admin.html(), admin.text(),
+                    EmailOutboxService.SOURCE_ENQUIRY, enquiry.getEnquiryId());
 
         } catch (Exception e) {
             System.err.println("Failed to send enquiry notifications: " + e.getMessage());
         }
     }
 
-    private String buildCustomerEmailHtml(EnquiryDTO enquiry) {
-        return String.format("""
-            <html>
-            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
-                <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
-                    <h2 style="color: #2563eb;">Thank you for your enquiry!</h2>
-                    
-                    <p>Dear %s,</p>
-                    
-                    <p>We have received your enquiry and our team will get back to you within 2 hours with a personalized quote.</p>
-                    
-                    <div style="background: #f8fafc; padding: 20px; border-radius: 8px; margin: 20px 0;">
-                        <h3 style="color: #1e40af; margin-top: 0;">Enquiry Details</h3>
-                        <p><strong>Enquiry ID:</strong> #%d</p>
-                        <p><strong>Service:</strong> %s</p>
-                        <p><strong>Phone:</strong> %s</p>
-                        <p><strong>Message:</strong> %s</p>
-                        <p><strong>Status:</strong> %s</p>
-                    </div>
-                    
-                    <p>Our team will contact you shortly to discuss your requirements and provide you with the best possible quote.</p>
-                    
-                    <p>For immediate assistance, please contact us at:</p>
-                    <ul>
-                        <li>Phone: +91 9850748273</li>
-                        <li>Email: admin@sairajtravels.com</li>
-                    </ul>
-                    
-                    <p>Thank you for choosing Sairaj Travels!</p>
-                    
-                    <hr style="margin: 30px 0; border: none; border-top: 1px solid #e5e7eb;">
-                    <p style="font-size: 12px; color: #6b7280;">
-                        Sairaj Travels - Your Trusted Travel Partner<br>
-                        This is an automated email. Please do not reply.
-                    </p>
-                </div>
-            </body>
-            </html>
-            """, 
-            enquiry.getFullName(),
-            enquiry.getEnquiryId(),
-            enquiry.getService(),
-            enquiry.getPhone(),
-            enquiry.getMessage(),
-            enquiry.getStatus()
-        );
-    }
-
-    private String buildCustomerEmailText(EnquiryDTO enquiry) {
-        return String.format("""
-            Thank you for your enquiry!
-            
-            Dear %s,
-            
-            We have received your enquiry and our team will get back to you within 2 hours with a personalized quote.
-            
-            Enquiry Details:
-            - Enquiry ID: #%d
-            - Service: %s
-            - Phone: %s
-            - Message: %s
-            - Status: %s
-            
-            Our team will contact you shortly to discuss your requirements and provide you with the best possible quote.
-            
-            For immediate assistance, please contact us at:
-            - Phone: +91 9850748273
-            - Email: admin@sairajtravels.com
-            
-            Thank you for choosing Sairaj Travels!
-            
-            ---
-            Sairaj Travels - Your Trusted Travel Partner
-            This is an automated email. Please do not reply.
-            """, 
-            enquiry.getFullName(),
-            enquiry.getEnquiryId(),
-            enquiry.getService(),
-            enquiry.getPhone(),
-            enquiry.getMessage(),
-            enquiry.getStatus()
-        );
-    }
-
-    private String buildAdminEmailHtml(EnquiryDTO enquiry) {
-        return String.format("""
-            <html>
-            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
-                <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
-                    <h2 style="color: #dc2626;">New Enquiry Received</h2>
-                    
-                    <p>A new enquiry has been submitted through the website:</p>
-                    
-                    <div style="background: #fef2f2; padding: 20px; border-radius: 8px; margin: 20px 0; border-left: 4px solid #dc2626;">
-                        <h3 style="color: #dc2626; margin-top: 0;">Enquiry Details</h3>
-                        <p><strong>Enquiry ID:</strong> #%d</p>
-                        <p><strong>Name:</strong> %s</p>
-                        <p><strong>Phone:</strong> %s</p>
-                        <p><strong>Email:</strong> %s</p>
-                        <p><strong>Service:</strong> %s</p>
-                        <p><strong>Message:</strong> %s</p>
-                        <p><strong>Status:</strong> %s</p>
-                        <p><strong>Submitted At:</strong> %s</p>
-                    </div>
-                    
-                    <p style="color: #dc2626; font-weight: bold;">Action Required: Please contact the customer within 2 hours to provide a quote.</p>
-                </div>
-            </body>
-            </html>
-            """, 
-            enquiry.getEnquiryId(),
-            enquiry.getFullName(),
-            enquiry.getPhone(),
-            enquiry.getEmail() != null ? enquiry.getEmail() : "Not provided",
-            enquiry.getService(),
-            enquiry.getMessage(),
-            enquiry.getStatus(),
-            enquiry.getCreatedAt()
-        );
-    }
-
-    private String buildAdminEmailText(EnquiryDTO enquiry) {
-        return String.format("""
-            New Enquiry Received
-            
-            A new enquiry has been submitted through the website:
-            
-            Enquiry Details:
-            - Enquiry ID: #%d
-            - Name: %s
-            - Phone: %s
-            - Email: %s
-            - Service: %s
-            - Message: %s
-            - Status: %s
-            - Submitted At: %s
-            
-            Action Required: Please contact the customer within 2 hours to provide a quote.
-            """, 
-            enquiry.getEnquiryId(),
-            enquiry.getFullName(),
-            enquiry.getPhone(),
-            enquiry.getEmail() != null ? enquiry.getEmail() : "Not provided",
-            enquiry.getService(),
-            enquiry.getMessage(),
-            enquiry.getStatus(),
-            enquiry.getCreatedAt()
-        );
+    // Placeholders of the enquiry-* email templates
+    private EmailTemplates.Model enquiryModel(EnquiryDTO enquiry) {
+        return EmailTemplates.model()
+                .with("enquiryId", enquiry.getEnquiryId())
+                .with("fullName", enquiry.getFullName())
+                .with("phone", enquiry.getPhone())
+                .with("email", enquiry.getEmail() != null ? enquiry.getEmail() : "Not provided")
+                .with("service", enquiry.getService())
+                .with("message", enquiry.getMessage())
+                .with("status", enquiry.getStatus())
+                .with("createdAt", enquiry.getCreatedAt());
     }
 
     private void sendEnquiryUpdateNotification(EnquiryDTO enquiry) {
@@ -316,9 +192,9 @@ public class EnquiryService {
             // Send email to customer about enquiry status change
             if (enquiry.getEmail() != null && !enquiry.getEmail().isEmpty()) {
                 String customerSubject = "Enquiry Status Update - Sairaj Travels";
-                String customerHtml = buildEnquiryUpdateEmailHtml(enquiry);
-                String customerText = buildEnquiryUpdateEmailText(enquiry);
-                emailService.sendHtmlEmail(enquiry.getEmail(), customerSubject, customerHtml, customerText);
+                EmailTemplates.Rendered customer = buildEnquiryUpdateEmail(enquiry);
+                emailOutboxService.enqueueHtml(enquiry.getEmail(), customerSubject, customer.html(), customer.text(),
+                        EmailOutboxService.SOURCE_ENQUIRY, enquiry.getEnquiryId());
             }
 
         } catch (Exception e) {
@@ -326,100 +202,15 @@ public class EnquiryService {
         }
     }
 
-    private String buildEnquiryUpdateEmailHtml(EnquiryDTO enquiry) {
-        String statusColor = getEnquiryStatusColor(enquiry.getStatus());
-        String statusMessage = getEnquiryStatusMessage(enquiry.getStatus());
-        
-        return String.format("""
-            <html>
-            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
-                <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
-                    <h2 style="color: #2563eb;">Enquiry Status Update</h2>
-                    
-                    <p>Dear %s,</p>
-                    
-                    <p>Your enquiry status has been updated. Here are the current details:</p>
-                    
-                    <div style="background: #f8fafc; padding: 20px; border-radius: 8px; margin: 20px 0;">
-                        <h3 style="color: #1e40af; margin-top: 0;">Enquiry Details</h3>
-                        <p><strong>Enquiry ID:</strong> #%d</p>
-                        <p><strong>Service:</strong> %s</p>
-                        <p><strong>Message:</strong> %s</p>
-                        <p><strong>Status:</strong> <span style="color: %s; font-weight: bold;">%s</span></p>
-                        <p><strong>Submitted:</strong> %s</p>
-                    </div>
-                    
-                    <div style="background: %s; padding: 15px; border-radius: 8px; margin: 20px 0;">
-                        <p style="margin: 0; color: %s; font-weight: bold;">%s</p>
-                    </div>
-                    
-                    <p>If you have any questions or need assistance, please contact us:</p>
-                    <ul>
-                        <li>Phone: +91 9850748273</li>
-                        <li>Email: admin@sairajtravels.com</li>
-                    </ul>
-                    
-                    <p>Thank you for choosing Sairaj Travels!</p>
-                    
-                    <hr style="margin: 30px 0; border: none; border-top: 1px solid #e5e7eb;">
-                    <p style="font-size: 12px; color: #6b7280;">
-                        Sairaj Travels - Your Trusted Travel Partner<br>
-                        This is an automated email. Please do not reply.
-                    </p>
-                </div>
-            </body>
-            </html>
-            """, 
-            enquiry.getFullName(),
-            enquiry.getEnquiryId(),
-            enquiry.getService() != null ? enquiry.getService() : "Not specified",
-            enquiry.getMessage() != null ? enquiry.getMessage() : "Not provided",
-            statusColor,
-            enquiry.getStatus(),
-            enquiry.getCreatedAt(),
-            getEnquiryStatusBackgroundColor(enquiry.getStatus()),
-            getEnquiryStatusTextColor(enquiry.getStatus()),
-            statusMessage
-        );
-    }
-
-    private String buildEnquiryUpdateEmailText(EnquiryDTO enquiry) {
-        String statusMessage = getEnquiryStatusMessage(enquiry.getStatus());
-        
-        return String.format("""
-            Enquiry Status Update
-            
-            Dear %s,
-            
-            Your enquiry status has been updated. Here are the current details:
-            
-            Enquiry Details:
-            - Enquiry ID: #%d
-            - Service: %s
-            - Message: %s
-            - Status: %s
-            - Submitted: %s
-            
-            %s
-            
-            If you have any questions or need assistance, please contact us:
-            - Phone: +91 9850748273
-            - Email: admin@sairajtravels.com
-            
-            Thank you for choosing Sairaj Travels!
-            
-            ---
-            Sairaj Travels - Your Trusted Travel Partner
-            This is an automated email. Please do not reply.
-            """, 
-            enquiry.getFullName(),
-            enquiry.getEnquiryId(),
-            enquiry.getService() != null ? enquiry.getService() : "Not specified",
-            enquiry.getMessage() != null ? enquiry.getMessage() : "Not provided",
-            enquiry.getStatus(),
-            enquiry.getCreatedAt(),
-            statusMessage
-        );
+    private EmailTemplates.Rendered buildEnquiryUpdateEmail(EnquiryDTO enquiry) {
+        String status = enquiry.getStatus();
+        return emailTemplates.render("enquiry-status", enquiryModel(enquiry)
+                .with("service", enquiry.getService() != null ? enquiry.getService() : "Not specified")
+                .with("message", enquiry.getMessage() != null ? enquiry.getMessage() : "Not provided")
+                .with("statusColor", getEnquiryStatusColor(status))
+                .with("statusBackground", getEnquiryStatusBackgroundColor(status))
+                .with("statusTextColor", getEnquiryStatusTextColor(status))
+                .with("statusMessage", getEnquiryStatusMessage(status)));
     }
 
     private String getEnquiryStatusColor(String status) {
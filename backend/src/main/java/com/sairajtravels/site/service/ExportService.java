@@ -0,0 +1,235 @@
+package com.sairajtravels.site.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sairajtravels.site.entity.ContactMessage;
+import com.sairajtravels.site.entity.Enquiry;
+import com.sairajtravels.site.entity.Vehicle;
+import com.sairajtravels.site.entity.VehicleBooking;
+import com.sairajtravels.site.repository.ContactMessageRepository;
+import com.sairajtravels.site.repository.EnquiryRepository;
+import com.sairajtravels.site.repository.VehicleBookingRepository;
+import com.sairajtravels.site.repository.VehicleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams bookings, enquiries and contact messages as CSV or NDJSON for reconciliation.
+ *
+ * Rows come from forward-only repository streams (fetched in chunks, read-only) and are written
+ * to the output one at a time; the persistence context is cleared every {@code export.clear-every}
+ * rows, so memory stays flat however many rows are exported.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    /** One exported field: header name and how to read it from the row. */
+    private record Field<T>(String name, Function<T, Object> value) {}
+
+    private static final List<Field<Enquiry>> ENQUIRY_FIELDS = List.of(
+            new Field<>("enquiryId", Enquiry::getEnquiryId),
+            new Field<>("fullName", Enquiry::getFullName),
+            new Field<>("phone", Enquiry::getPhone),
+            new Field<>("email", Enquiry::getEmail),
+            new Field<>("service", Enquiry::getService),
+            new Field<>("message", Enquiry::getMessage),
+            new Field<>("status", Enquiry::getStatus),
+            new Field<>("createdAt", Enquiry::getCreatedAt),
+            new Field<>("updatedAt", Enquiry::getUpdatedAt));
+
+    private static final List<Field<ContactMessage>> CONTACT_FIELDS = List.of(
+            new Field<>("id", ContactMessage::getId),
+            new Field<>("name", ContactMessage::getName),
+            new Field<>("email", ContactMessage::getEmail),
+            new Field<>("phone", ContactMessage::getPhone),
+            new Field<>("message", ContactMessage::getMessage),
+            new Field<>("createdAt", ContactMessage::getCreatedAt));
+
+    private final VehicleBookingRepository vehicleBookingRepository;
+    private final VehicleRepository vehicleRepository;
+    private final EnquiryRepository enquiryRepository;
+    private final ContactMessageRepository contactMessageRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${export.clear-every:500}")
+    private int clearEvery;
+
+    public ExportService(VehicleBookingRepository vehicleBookingRepository,
+                         VehicleRepository vehicleRepository,
+                         EnquiryRepository enquiryRepository,
+                         ContactMessageRepository contactMessageRepository,
+                         ObjectMapper objectMapper) {
+        this.vehicleBookingRepository = vehicleBookingRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.enquiryRepository = enquiryRepository;
+        this.contactMessageRepository = contactMessageRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Bookings requested in [from, to), by id. Returns the number of rows written. */
+    @Transactional(readOnly = true)
+    public long exportBookings(OutputStream out, Format format, LocalDateTime from, LocalDateTime to) throws IOException {
+        // The fleet is small: resolve vehicle names from one lookup instead of a join per row
+        Map<Integer, String> vehicleNames = new HashMap<>();
+        for (Vehicle v : vehicleRepository.findAll()) {
+            vehicleNames.put(v.getVehicleId(), v.getName());
+        }
+        entityManager.clear();
+
+        Function<VehicleBooking, Integer> vehicleId = b -> b.getVehicle() != null ? b.getVehicle().getVehicleId() : null;
+        List<Field<VehicleBooking>> fields = List.of(
+                new Field<>("bookingId", VehicleBooking::getBookingId),
+                new Field<>("vehicleId", vehicleId::apply),
+                new Field<>("vehicleName", b -> vehicleNames.get(vehicleId.apply(b))),
+                new Field<>("packageId", VehicleBooking::getPackageId),
+                new Field<>("customerName", VehicleBooking::getCustomerName),
+                new Field<>("customerPhone", VehicleBooking::getCustomerPhone),
+                new Field<>("customerEmail", VehicleBooking::getCustomerEmail),
+                new Field<>("pickupLocation", VehicleBooking::getPickupLocation),
+                new Field<>("dropLocation", VehicleBooking::getDropLocation),
+                new Field<>("tripDate", VehicleBooking::getTripDate),
+                new Field<>("returnDate", VehicleBooking::getReturnDate),
+                new Field<>("tripTime", VehicleBooking::getTripTime),
+                new Field<>("passengers", VehicleBooking::getPassengers),
+                new Field<>("luggage", VehicleBooking::getLuggage),
+                new Field<>("specialRequests", VehicleBooking::getSpecialRequests),
+                new Field<>("status", VehicleBooking::getStatus),
+                new Field<>("requestedAt", VehicleBooking::getRequestedAt));
+        try (Stream<VehicleBooking> rows = vehicleBookingRepository.streamByRequestedAt(from, to)) {
+            return write(out, format, fields, rows, "bookings");
+        }
+    }
+
+    /** Enquiries created in [from, to), by id. */
+    @Transactional(readOnly = true)
+    public long exportEnquiries(OutputStream out, Format format, LocalDateTime from, LocalDateTime to) throws IOException {
+        try (Stream<Enquiry> rows = enquiryRepository.streamByCreatedAt(from, to)) {
+            return write(out, format, ENQUIRY_FIELDS, rows, "enquiries");
+        }
+    }
+
+    /** Contact messages created in [from, to), by id. */
+    @Transactional(readOnly = true)
+    public long exportContactMessages(OutputStream out, Format format, LocalDateTime from, LocalDateTime to) throws IOException {
+        try (Stream<ContactMessage> rows = contactMessageRepository.streamByCreatedAt(from, to)) {
+            return write(out, format, CONTACT_FIELDS, rows, "contact messages");
+        }
+    }
+
+    private <T> long write(OutputStream out, Format format, List<Field<T>> fields, Stream<T> rows,
+                           String what) throws IOException {
+        long start = System.currentTimeMillis();
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        JsonGenerator json = null;
+        if (format == Format.CSV) {
+            for (int i = 0; i < fields.size(); i++) {
+                if (i > 0) writer.write(',');
+                writer.write(fields.get(i).name());
+            }
+            writer.write("\r\n");
+        } else {
+            json = objectMapper.getFactory().createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setCodec(objectMapper);
+        }
+
+        Iterator<T> it = rows.iterator();
+        while (it.hasNext()) {
+            T row = it.next();
+            if (json != null) {
+                writeJson(json, fields, row);
+            } else {
+                writeCsv(writer, fields, row);
+            }
+            if (++count % clearEvery == 0) {
+                // Drop the rows already written, and push them out to the client
+                entityManager.clear();
+                if (json != null) json.flush();
+                writer.flush();
+            }
+        }
+        if (json != null) json.flush();
+        writer.flush();
+        log.info("Exported {} {} as {} in {} ms", count, what, format, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private static <T> void writeJson(JsonGenerator json, List<Field<T>> fields, T row) throws IOException {
+        json.writeStartObject();
+        for (Field<T> f : fields) {
+            json.writeFieldName(f.name());
+            json.writeObject(f.value().apply(row));
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static <T> void writeCsv(Writer writer, List<Field<T>> fields, T row) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) writer.write(',');
+            Object v = fields.get(i).value().apply(row);
+            if (v != null) {
+                writeCsvValue(writer, v.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote fields holding a comma, quote or line break, doubling inner quotes. Text that
+    // a spreadsheet would evaluate as a formula gets a leading ' (phone numbers like +91 ... do not).
+    private static void writeCsvValue(Writer writer, String s) throws IOException {
+        boolean formula = isFormula(s);
+        boolean quote = formula || s.indexOf(',') >= 0 || s.indexOf('"') >= 0
+                || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(s);
+            return;
+        }
+        writer.write('"');
+        if (formula) writer.write('\'');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') writer.write('"');
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean isFormula(String s) {
+        if (s.isEmpty()) return false;
+        char c = s.charAt(0);
+        if (c == '=' || c == '@') return true;
+        if (c != '+' && c != '-') return false;
+        for (int i = 1; i < s.length(); i++) {
+            if ("0123456789 ().-".indexOf(s.charAt(i)) < 0) return true;
+        }
+        return false;
+    }
+}
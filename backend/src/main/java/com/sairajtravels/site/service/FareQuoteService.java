@@ -0,0 +1,208 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.repository.VehicleChargesRepository;
+import com.sairajtravels.site.repository.VehiclePricingRepository;
+import com.sairajtravels.site.repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prices one trip for every vehicle in the fleet.
+ *
+ * Pricing and charges rows are compiled into a {@link FareTariffTable} (fixed-point paise) that is
+ * rebuilt only after {@link #invalidate()} — called by the pricing, charges and vehicle services on
+ * every write — or once it is older than {@code fare.tariff.refresh-minutes}, which picks up edits
+ * made directly in the database.
+ */
+@Service
+public class FareQuoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(FareQuoteService.class);
+
+    private final VehicleRepository vehicleRepository;
+    private final VehiclePricingRepository vehiclePricingRepository;
+    private final VehicleChargesRepository vehicleChargesRepository;
+
+    private final AtomicLong pricingVersion = new AtomicLong();
+    private volatile FareTariffTable table;
+
+    @Value("${fare.tariff.refresh-minutes:30}")
+    private long refreshMinutes;
+
+    @Value("${trip.cost.fuel-price-per-litre:100.99}")
+    private BigDecimal fuelPricePerLitre;
+
+    @Value("${trip.cost.km-per-litre:15}")
+    private double kmPerLitre;
+
+    @Value("${trip.cost.toll-per-km:2.00}")
+    private BigDecimal tollPerKm;
+
+    public FareQuoteService(VehicleRepository vehicleRepository,
+                            VehiclePricingRepository vehiclePricingRepository,
+                            VehicleChargesRepository vehicleChargesRepository) {
+        this.vehicleRepository = vehicleRepository;
+        this.vehiclePricingRepository = vehiclePricingRepository;
+        this.vehicleChargesRepository = vehicleChargesRepository;
+    }
+
+    /** Marks the tariff table stale; the next quote rebuilds it. */
+    public void invalidate() {
+        pricingVersion.incrementAndGet();
+    }
+
+    /** Estimated fuel cost in paise for a self-fuelled vehicle. */
+    public long fuelEstimatePaise(double meters) {
+        return Math.round(meters / 1000.0 / kmPerLitre * FareTariffTable.paise(fuelPricePerLitre));
+    }
+
+    /** Estimated toll cost in paise when tolls are not part of the fare. */
+    public long tollEstimatePaise(double meters) {
+        return Math.round(meters / 1000.0 * FareTariffTable.paise(tollPerKm));
+    }
+
+    /**
+     * Quotes every vehicle that seats {@code passengers} (0 = any) for a trip of the given total
+     * distance and driving time over {@code calendarDays} hired days, cheapest first. Each vehicle
+     * is priced on its cheapest plan. Per-day charges use the hired days, or the days the driving
+     * alone needs when that is more (or when {@code calendarDays} is 0, i.e. not known).
+     */
+    public List<Map<String, Object>> quoteAll(double distanceMeters, double durationSeconds, int passengers,
+                                              long calendarDays) {
+        FareTariffTable t = currentTable();
+
+        long km = (long) Math.ceil(distanceMeters / 1000.0);
+        long hours = (long) Math.ceil(durationSeconds / 3600.0);
+        long days = Math.max(Math.max(1, calendarDays), (long) Math.ceil(durationSeconds / 86400.0));
+        long nights = days - 1;
+        long toll = tollEstimatePaise(distanceMeters);
+        long fuel = fuelEstimatePaise(distanceMeters);
+
+        int n = t.vehicleCount;
+        long[] best = new long[n];
+        long[] extras = new long[n];
+        int[] bestPlan = new int[n];
+        boolean[] bestIsPackage = new boolean[n];
+        long[] bestChargeableKm = new long[n];
+        int quoted = 0;
+        int[] order = new int[n];
+
+        for (int v = 0; v < n; v++) {
+            best[v] = Long.MAX_VALUE;
+            bestPlan[v] = -1;
+            if (passengers > 0 && t.capacity[v] > 0 && t.capacity[v] < passengers) {
+                continue;
+            }
+            for (int p = t.vehicleStart[v]; p < t.vehicleStart[v + 1]; p++) {
+                if (t.ratePerKmPaise[p] > 0) {
+                    long chargeableKm = Math.max(km, (long) t.minKmPerDay[p] * days);
+                    long base = chargeableKm * t.ratePerKmPaise[p];
+                    if (base < best[v]) {
+                        best[v] = base;
+                        bestPlan[v] = p;
+                        bestIsPackage[v] = false;
+                        bestChargeableKm[v] = chargeableKm;
+                    }
+                }
+                // Packages (e.g. 8 hr / 80 km) are single-day products
+                if (t.packageRatePaise[p] > 0 && days == 1) {
+                    long extraKm = Math.max(0, km - t.packageKm[p]);
+                    long extraHours = t.packageHours[p] > 0 ? Math.max(0, hours - t.packageHours[p]) : 0;
+                    // Over the package with no rate to charge it at: not quotable rather than free
+                    boolean unpriced = (extraKm > 0 && t.extraKmRatePaise[p] == FareTariffTable.NO_RATE)
+                            || (extraHours > 0 && t.extraHourRatePaise[p] == FareTariffTable.NO_RATE);
+                    long base = unpriced ? Long.MAX_VALUE : t.packageRatePaise[p]
+                            + extraKm * t.extraKmRatePaise[p] + extraHours * t.extraHourRatePaise[p];
+                    if (base < best[v]) {
+                        best[v] = base;
+                        bestPlan[v] = p;
+                        bestIsPackage[v] = true;
+                        bestChargeableKm[v] = Math.max(km, t.packageKm[p]);
+                    }
+                }
+            }
+            if (bestPlan[v] >= 0) {
+                extras[v] = t.driverAllowancePaise[v] * days + t.nightChargePaise[v] * nights
+                        + (t.tollIncluded[v] ? 0 : toll) + (t.fuelIncluded[v] ? 0 : fuel);
+                best[v] += extras[v];
+                order[quoted++] = v;
+            }
+        }
+
+        // Insertion sort: the fleet is small and this keeps the pass allocation-free
+        for (int i = 1; i < quoted; i++) {
+            int v = order[i];
+            int j = i - 1;
+            while (j >= 0 && best[order[j]] > best[v]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = v;
+        }
+
+        List<Map<String, Object>> quotes = new ArrayList<>(quoted);
+        for (int i = 0; i < quoted; i++) {
+            int v = order[i];
+            int p = bestPlan[v];
+
+            Map<String, Object> breakdown = new LinkedHashMap<>();
+            breakdown.put("base", rupees(best[v] - extras[v]));
+            breakdown.put("driverAllowance", rupees(t.driverAllowancePaise[v] * days));
+            breakdown.put("nightCharge", rupees(t.nightChargePaise[v] * nights));
+            breakdown.put("tollEstimate", rupees(t.tollIncluded[v] ? 0 : toll));
+            breakdown.put("fuelEstimate", rupees(t.fuelIncluded[v] ? 0 : fuel));
+
+            Map<String, Object> q = new LinkedHashMap<>();
+            q.put("rank", i + 1);
+            q.put("vehicleId", t.vehicleId[v]);
+            q.put("name", t.vehicleName[v]);
+            q.put("type", t.vehicleType[v]);
+            q.put("capacity", t.capacity[v]);
+            q.put("ac", t.ac[v]);
+            q.put("rateType", t.rateType[p]);
+            q.put("pricing", bestIsPackage[v] ? "package" : "per-km");
+            q.put("chargeableKm", bestChargeableKm[v]);
+            q.put("days", days);
+            q.put("total", rupees(best[v]));
+            q.put("breakdown", breakdown);
+            quotes.add(q);
+        }
+        return quotes;
+    }
+
+    private FareTariffTable currentTable() {
+        FareTariffTable t = table;
+        if (t != null && t.version == pricingVersion.get() && !isExpired(t)) {
+            return t;
+        }
+        synchronized (this) {
+            t = table;
+            long version = pricingVersion.get();
+            if (t == null || t.version != version || isExpired(t)) {
+                t = FareTariffTable.build(version, vehicleRepository.findAll(),
+                        vehiclePricingRepository.findAll(), vehicleChargesRepository.findAll());
+                table = t;
+                log.info("Fare tariff table rebuilt: {} vehicles, {} plans (version {})",
+                        t.vehicleCount, t.planCount(), version);
+            }
+            return t;
+        }
+    }
+
+    private boolean isExpired(FareTariffTable t) {
+        return refreshMinutes > 0 && System.currentTimeMillis() - t.builtAtMillis > refreshMinutes * 60_000L;
+    }
+
+    private static BigDecimal rupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+}
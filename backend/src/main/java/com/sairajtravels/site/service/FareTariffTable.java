@@ -0,0 +1,157 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.Vehicle;
+import com.sairajtravels.site.entity.VehicleCharges;
+import com.sairajtravels.site.entity.VehiclePricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, precompiled fleet tariff: one row per VehiclePricing plan, columns held as parallel
+ * primitive arrays with every amount in paise. Rows are grouped by vehicle
+ * ({@code vehicleStart[v]..vehicleStart[v+1]}), so a quote prices the whole fleet in one pass.
+ */
+final class FareTariffTable {
+
+    static final int NO_LIMIT = 0;
+    /** Overage rate that is not set: a package whose trip runs over it cannot be priced. */
+    static final long NO_RATE = -1;
+
+    final long version;
+    final long builtAtMillis;
+
+    // Per vehicle
+    final int vehicleCount;
+    final int[] vehicleId;
+    final String[] vehicleName;
+    final String[] vehicleType;
+    final int[] capacity;
+    final boolean[] ac;
+    final long[] driverAllowancePaise;   // per day
+    final long[] nightChargePaise;       // per night
+    final boolean[] fuelIncluded;
+    final boolean[] tollIncluded;
+    final int[] vehicleStart;
+
+    // Per plan
+    final String[] rateType;
+    final long[] ratePerKmPaise;
+    final int[] minKmPerDay;
+    final long[] packageRatePaise;
+    final int[] packageKm;
+    final int[] packageHours;
+    final long[] extraKmRatePaise;       // NO_RATE when unset and the vehicle has no per-km plan
+    final long[] extraHourRatePaise;     // NO_RATE when unset
+
+    private FareTariffTable(long version, int vehicles, int plans) {
+        this.version = version;
+        this.builtAtMillis = System.currentTimeMillis();
+        this.vehicleCount = vehicles;
+        this.vehicleId = new int[vehicles];
+        this.vehicleName = new String[vehicles];
+        this.vehicleType = new String[vehicles];
+        this.capacity = new int[vehicles];
+        this.ac = new boolean[vehicles];
+        this.driverAllowancePaise = new long[vehicles];
+        this.nightChargePaise = new long[vehicles];
+        this.fuelIncluded = new boolean[vehicles];
+        this.tollIncluded = new boolean[vehicles];
+        this.vehicleStart = new int[vehicles + 1];
+        this.rateType = new String[plans];
+        this.ratePerKmPaise = new long[plans];
+        this.minKmPerDay = new int[plans];
+        this.packageRatePaise = new long[plans];
+        this.packageKm = new int[plans];
+        this.packageHours = new int[plans];
+        this.extraKmRatePaise = new long[plans];
+        this.extraHourRatePaise = new long[plans];
+    }
+
+    int planCount() {
+        return rateType.length;
+    }
+
+    /**
+     * Compiles the table. Vehicles without any usable (active, priced) row are left out; when a
+     * vehicle has several VehicleCharges rows the first one wins.
+     */
+    static FareTariffTable build(long version, List<Vehicle> vehicles, List<VehiclePricing> pricing,
+                                 List<VehicleCharges> charges) {
+        Map<Integer, List<VehiclePricing>> plansByVehicle = new HashMap<>();
+        for (VehiclePricing p : pricing) {
+            if (p.getVehicle() != null && isUsable(p)) {
+                plansByVehicle.computeIfAbsent(p.getVehicle().getVehicleId(), k -> new ArrayList<>()).add(p);
+            }
+        }
+        Map<Integer, VehicleCharges> chargesByVehicle = new HashMap<>();
+        for (VehicleCharges c : charges) {
+            if (c.getVehicle() != null) {
+                chargesByVehicle.putIfAbsent(c.getVehicle().getVehicleId(), c);
+            }
+        }
+
+        List<Vehicle> priced = new ArrayList<>();
+        int plans = 0;
+        for (Vehicle v : vehicles) {
+            List<VehiclePricing> ps = plansByVehicle.get(v.getVehicleId());
+            if (ps != null) {
+                priced.add(v);
+                plans += ps.size();
+            }
+        }
+        priced.sort(Comparator.comparing(Vehicle::getVehicleId));
+
+        FareTariffTable t = new FareTariffTable(version, priced.size(), plans);
+        int row = 0;
+        for (int v = 0; v < priced.size(); v++) {
+            Vehicle vehicle = priced.get(v);
+            t.vehicleId[v] = vehicle.getVehicleId();
+            t.vehicleName[v] = vehicle.getName();
+            t.vehicleType[v] = vehicle.getType();
+            t.capacity[v] = vehicle.getCapacity() != null ? vehicle.getCapacity() : 0;
+            t.ac[v] = Boolean.TRUE.equals(vehicle.getIsAC());
+
+            VehicleCharges c = chargesByVehicle.get(vehicle.getVehicleId());
+            t.driverAllowancePaise[v] = c != null ? paise(c.getDriverAllowance()) : 0;
+            t.nightChargePaise[v] = c != null ? paise(c.getNightCharge()) : 0;
+            // Unknown means the per-km rate is assumed to cover fuel but not tolls
+            t.fuelIncluded[v] = c == null || c.getFuelIncluded() == null || c.getFuelIncluded();
+            t.tollIncluded[v] = c != null && Boolean.TRUE.equals(c.getTollIncluded());
+
+            t.vehicleStart[v] = row;
+            List<VehiclePricing> ps = plansByVehicle.get(vehicle.getVehicleId());
+            // Extra km on a package without its own rate are charged at the vehicle's per-km rate
+            long perKmFallback = ps.stream().mapToLong(p -> paise(p.getRatePerKm()))
+                    .filter(r -> r > 0).min().orElse(NO_RATE);
+            for (VehiclePricing p : ps) {
+                t.rateType[row] = p.getRateType();
+                t.ratePerKmPaise[row] = paise(p.getRatePerKm());
+                t.minKmPerDay[row] = p.getMinKmPerDay() != null ? p.getMinKmPerDay() : NO_LIMIT;
+                t.packageRatePaise[row] = paise(p.getPackageRate());
+                t.packageKm[row] = p.getPackageKm() != null ? p.getPackageKm() : NO_LIMIT;
+                t.packageHours[row] = p.getPackageHours() != null ? p.getPackageHours() : NO_LIMIT;
+                t.extraKmRatePaise[row] = p.getExtraKmRate() != null ? paise(p.getExtraKmRate()) : perKmFallback;
+                t.extraHourRatePaise[row] = p.getExtraHourRate() != null ? paise(p.getExtraHourRate()) : NO_RATE;
+                row++;
+            }
+        }
+        t.vehicleStart[priced.size()] = row;
+        return t;
+    }
+
+    // Rows an admin has deactivated are left out; unset counts as active
+    private static boolean isUsable(VehiclePricing p) {
+        return !Boolean.FALSE.equals(p.getIsActive())
+                && (paise(p.getRatePerKm()) > 0 || paise(p.getPackageRate()) > 0);
+    }
+
+    static long paise(BigDecimal rupees) {
+        return rupees == null ? 0 : rupees.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -0,0 +1,172 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.VehicleBooking;
+import com.sairajtravels.site.repository.VehicleBookingRepository;
+import com.sairajtravels.site.repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Answers "which vehicles are free from day A to day B" from an in-memory {@link AvailabilityCalendar}.
+ *
+ * The calendar is built lazily from the bookings table, kept current by VehicleBookingService
+ * (applied after the booking's transaction commits), rebuilt after {@link #invalidate()} — called
+ * on vehicle writes — and every {@code availability.rebuild-minutes} to pick up direct DB edits.
+ */
+@Service
+public class FleetAvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetAvailabilityService.class);
+
+    private final VehicleRepository vehicleRepository;
+    private final VehicleBookingRepository vehicleBookingRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private AvailabilityCalendar calendar;      // guarded by lock
+    private volatile boolean stale = true;
+
+    @Value("${availability.history-days:400}")
+    private int historyDays;
+
+    @Value("${availability.max-future-days:1100}")
+    private int maxFutureDays;
+
+    @Value("${availability.rebuild-minutes:60}")
+    private long rebuildMinutes;
+
+    @Value("${availability.ignored-statuses:CANCELLED,REJECTED}")
+    private Set<String> ignoredStatuses;
+
+    public FleetAvailabilityService(VehicleRepository vehicleRepository,
+                                    VehicleBookingRepository vehicleBookingRepository) {
+        this.vehicleRepository = vehicleRepository;
+        this.vehicleBookingRepository = vehicleBookingRepository;
+    }
+
+    /** Marks the calendar stale (fleet changed); the next search rebuilds it. */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /** Records a created or updated booking once the surrounding transaction commits. */
+    public void onBookingSaved(VehicleBooking booking) {
+        int bookingId = booking.getBookingId();
+        Integer vehicle = booking.getVehicle() != null ? booking.getVehicle().getVehicleId() : null;
+        LocalDate trip = booking.getTripDate();
+        LocalDate ret = booking.getReturnDate();
+        boolean occupies = vehicle != null && trip != null && occupies(booking.getStatus());
+        // A rolled-back booking must not leave its days marked in the calendar
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                if (calendar == null) {
+                    return;     // nothing built yet; the first search loads it from the table
+                }
+                if (occupies) {
+                    calendar.put(bookingId, vehicle, trip.toEpochDay(), (ret != null ? ret : trip).toEpochDay());
+                } else {
+                    calendar.remove(bookingId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void onBookingDeleted(Integer bookingId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                if (calendar != null) {
+                    calendar.remove(bookingId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Vehicles with no active booking on any day {@code from..to} (inclusive), seating at least
+     * {@code minCapacity}, optionally AC only / non-AC only.
+     */
+    public List<Map<String, Object>> findAvailable(LocalDate from, LocalDate to, int minCapacity, Boolean ac) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        if (from.isBefore(LocalDate.now().minusDays(historyDays))) {
+            throw new IllegalArgumentException("from is older than the " + historyDays + "-day availability window");
+        }
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            AvailabilityCalendar c = calendar;
+            int[] slots = c.search(from.toEpochDay(), to.toEpochDay(), minCapacity, ac);
+            List<Map<String, Object>> out = new ArrayList<>(slots.length);
+            for (int s : slots) {
+                Map<String, Object> v = new LinkedHashMap<>();
+                v.put("vehicleId", c.vehicleId[s]);
+                v.put("name", c.vehicleName[s]);
+                v.put("type", c.vehicleType[s]);
+                v.put("capacity", c.capacity[s]);
+                v.put("ac", c.ac[s]);
+                out.add(v);
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean occupies(String status) {
+        return status == null || !ignoredStatuses.contains(status.trim().toUpperCase());
+    }
+
+    private void ensureCurrent() {
+        if (!needsRebuild()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (needsRebuild()) {
+                stale = false;
+                calendar = load();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean needsRebuild() {
+        AvailabilityCalendar c = calendar;
+        return stale || c == null
+                || (rebuildMinutes > 0 && System.currentTimeMillis() - c.builtAtMillis > rebuildMinutes * 60_000L);
+    }
+
+    private AvailabilityCalendar load() {
+        long start = System.currentTimeMillis();
+        LocalDate origin = LocalDate.now().minusDays(historyDays);
+        AvailabilityCalendar c = new AvailabilityCalendar(origin.toEpochDay(), historyDays + maxFutureDays,
+                vehicleRepository.findAll());
+        for (Object[] row : vehicleBookingRepository.findOccupancySince(origin)) {
+            LocalDate trip = (LocalDate) row[2];
+            LocalDate ret = (LocalDate) row[3];
+            if (trip != null && occupies((String) row[4])) {
+                c.put((Integer) row[0], (Integer) row[1], trip.toEpochDay(), (ret != null ? ret : trip).toEpochDay());
+            }
+        }
+        log.info("Availability calendar built: {} vehicles, {} bookings in {} ms",
+                c.vehicleCount, c.bookingCount(), System.currentTimeMillis() - start);
+        return c;
+    }
+}
@@ -13,9 +13,11 @@ import java.util.stream.Collectors;
 public class GalleryService {
     
     private final GalleryRepository repository;
+    private final OperationalRollupService rollupService;
     
-    public GalleryService(GalleryRepository repository) {
+    public GalleryService(GalleryRepository repository, OperationalRollupService rollupService) {
         this.repository = repository;
+        this.rollupService = rollupService;
     }
     
     // Get all active gallery items for public display
@@ -76,6 +78,7 @@ public class GalleryService {
     public GalleryDTO createGallery(GalleryDTO dto) {
         Gallery gallery = convertToEntity(dto);
         gallery = repository.save(gallery);
+        rollupService.changed(null, rollupService.keysOf(gallery));
         return convertToDTO(gallery);
     }
     
@@ -83,6 +86,7 @@ public class GalleryService {
     public Optional<GalleryDTO> updateGallery(Long id, GalleryDTO dto) {
         return repository.findById(id)
                 .map(existing -> {
+                    List<OperationalRollupService.Key> before = rollupService.keysOf(existing);
                     existing.setTitle(dto.getTitle());
                     existing.setDescription(dto.getDescription());
                     existing.setImagePath(dto.getImagePath());
@@ -92,14 +96,17 @@ public class GalleryService {
                     existing.setIsActive(dto.getIsActive());
                     existing.setSortOrder(dto.getSortOrder());
                     existing = repository.save(existing);
+                    rollupService.changed(before, rollupService.keysOf(existing));
                     return convertToDTO(existing);
                 });
     }
     
     // Delete gallery item
     public boolean deleteGallery(Long id) {
-        if (repository.existsById(id)) {
+        Optional<Gallery> existing = repository.findById(id);
+        if (existing.isPresent()) {
             repository.deleteById(id);
+            rollupService.changed(rollupService.keysOf(existing.get()), null);
             return true;
         }
         return false;
@@ -109,8 +116,10 @@ public class GalleryService {
     public Optional<GalleryDTO> toggleActiveStatus(Long id) {
         return repository.findById(id)
                 .map(gallery -> {
+                    List<OperationalRollupService.Key> before = rollupService.keysOf(gallery);
                     gallery.setIsActive(!gallery.getIsActive());
                     gallery = repository.save(gallery);
+                    rollupService.changed(before, rollupService.keysOf(gallery));
                     return convertToDTO(gallery);
                 });
     }
@@ -119,26 +128,33 @@ public class GalleryService {
     public Optional<GalleryDTO> toggleFeaturedStatus(Long id) {
         return repository.findById(id)
                 .map(gallery -> {
+                    List<OperationalRollupService.Key> before = rollupService.keysOf(gallery);
                     gallery.setIsFeatured(!gallery.getIsFeatured());
                     gallery = repository.save(gallery);
+                    rollupService.changed(before, rollupService.keysOf(gallery));
                     return convertToDTO(gallery);
                 });
     }
     
     // Get gallery statistics
+    // Read from the in-memory rollups instead of seven count queries
     public GalleryStatsDTO getGalleryStats() {
-        long totalItems = repository.countByIsActiveTrue();
-        long fleetCount = repository.countByCategoryAndIsActiveTrue("Fleet");
-        long luxuryCount = repository.countByCategoryAndIsActiveTrue("Luxury");
-        long destinationsCount = repository.countByCategoryAndIsActiveTrue("Destinations");
-        long happyCustomersCount = repository.countByCategoryAndIsActiveTrue("Happy Customers");
-        long interiorsCount = repository.countByCategoryAndIsActiveTrue("Interiors");
-        long driversCount = repository.countByCategoryAndIsActiveTrue("Drivers");
+        long totalItems = rollupService.count(OperationalRollupService.GALLERY_ACTIVE, null);
+        long fleetCount = categoryCount("Fleet");
+        long luxuryCount = categoryCount("Luxury");
+        long destinationsCount = categoryCount("Destinations");
+        long happyCustomersCount = categoryCount("Happy Customers");
+        long interiorsCount = categoryCount("Interiors");
+        long driversCount = categoryCount("Drivers");
         
         return new GalleryStatsDTO(totalItems, fleetCount, luxuryCount, destinationsCount, 
                                  happyCustomersCount, interiorsCount, driversCount);
     }
     
+    private long categoryCount(String category) {
+        return rollupService.count(OperationalRollupService.GALLERY_BY_CATEGORY, category);
+    }
+    
     // Convert Entity to DTO
     private GalleryDTO convertToDTO(Gallery gallery) {
         GalleryDTO dto = new GalleryDTO();
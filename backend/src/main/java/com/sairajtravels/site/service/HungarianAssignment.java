@@ -0,0 +1,88 @@
+package com.sairajtravels.site.service;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost assignment of rows to columns (Hungarian method with row/column potentials,
+ * O(rows² · columns)). Every row gets a distinct column, so there must be at least as many
+ * columns as rows; callers add "leave unassigned" columns when that is not naturally the case.
+ * Infinite cells are never chosen; when no assignment avoids them {@link #solve} throws.
+ */
+final class HungarianAssignment {
+
+    private HungarianAssignment() {
+    }
+
+    /** Column chosen for each row of {@code cost[rows][columns]}, {@code rows <= columns}. */
+    static int[] solve(double[][] cost) {
+        int n = cost.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        int m = cost[0].length;
+        if (m < n) {
+            throw new IllegalArgumentException("Need at least as many columns as rows");
+        }
+        // 1-based: column 0 and p[0] stand for "the row being added"
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];       // row matched to each column, 0 = free
+        int[] way = new int[m + 1];     // previous column on the alternating path
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double[] row = cost[i0 - 1];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double cur = row[j - 1] - u[i0] - v[j];
+                        if (cur < minv[j]) {
+                            minv[j] = cur;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                if (j1 == 0) {
+                    // Only infinite cells left: the search would never reach a free column
+                    throw new IllegalArgumentException("No finite-cost assignment for row " + (i - 1));
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            // Flip the alternating path ending at the free column j0
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] columnOf = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) {
+                columnOf[p[j] - 1] = j - 1;
+            }
+        }
+        return columnOf;
+    }
+}
@@ -0,0 +1,230 @@
+package com.sairajtravels.site.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sairajtravels.site.entity.IdempotencyKey;
+import com.sairajtravels.site.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@code Idempotency-Key} handling for public create endpoints.
+ *
+ * The first request with a key runs inside one transaction that also inserts the key row, so
+ * the created entity, its outbox emails and the stored response commit together. A retry with
+ * the same key and body gets the stored response back (header {@code Idempotent-Replayed: true})
+ * without reaching the service layer. Recent keys are answered from a bounded in-memory LRU; the
+ * {@code (scope, idem_key)} unique constraint settles races between instances.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private record Stored(String requestHash, int status, String body, long expiresAtMillis) {}
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private Counter created;
+    private Counter replayed;
+    private Counter conflicts;
+    private Counter mismatches;
+
+    // scope + '\n' + key -> stored outcome, least recently used first
+    private final LinkedHashMap<String, Stored> recent = new LinkedHashMap<>(256, 0.75f, true);
+    // Keys whose first request is still running in this instance
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${idempotency.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        created = Counter.builder("idempotency.requests").tag("outcome", "created").register(meterRegistry);
+        replayed = Counter.builder("idempotency.requests").tag("outcome", "replayed").register(meterRegistry);
+        conflicts = Counter.builder("idempotency.requests").tag("outcome", "in-progress").register(meterRegistry);
+        mismatches = Counter.builder("idempotency.requests").tag("outcome", "mismatch").register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} once per {@code (scope, key)}. Replays the stored response for a repeat
+     * with the same body; answers 422 for the same key with a different body and 409 while the
+     * first request is still running. Exceptions from {@code action} roll everything back and
+     * leave the key unused.
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = scope + '\n' + key;
+        String hash = hash(request);
+
+        Stored stored = recall(cacheKey);
+        if (stored != null) {
+            return replay(stored, hash);
+        }
+        if (!inFlight.add(cacheKey)) {
+            conflicts.increment();
+            return error(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+        }
+        try {
+            Optional<IdempotencyKey> existing = repository.findByScopeAndIdemKey(scope, key);
+            if (existing.isPresent() && existing.get().getExpiresAt().isAfter(LocalDateTime.now())) {
+                stored = remember(cacheKey, existing.get());
+                return replay(stored, hash);
+            }
+            try {
+                return runOnce(scope, key, hash, cacheKey, existing.orElse(null), action);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance committed this key first
+                Optional<IdempotencyKey> winner = repository.findByScopeAndIdemKey(scope, key);
+                if (winner.isPresent()) {
+                    return replay(remember(cacheKey, winner.get()), hash);
+                }
+                conflicts.increment();
+                return error(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+            }
+        } finally {
+            inFlight.remove(cacheKey);
+        }
+    }
+
+    private ResponseEntity<?> runOnce(String scope, String key, String hash, String cacheKey,
+                                      IdempotencyKey expired, Supplier<ResponseEntity<?>> action) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(ttlHours);
+        IdempotencyKey[] saved = new IdempotencyKey[1];
+        ResponseEntity<?> response = transactionTemplate.execute(tx -> {
+            if (expired != null) {
+                repository.delete(expired);
+                repository.flush();     // Hibernate would otherwise insert before deleting
+            }
+            // Flushed now so a concurrent duplicate blocks on the unique key instead of racing ahead
+            IdempotencyKey row = repository.saveAndFlush(new IdempotencyKey(scope, key, hash, expiresAt));
+            ResponseEntity<?> result = action.get();
+            if (result.getStatusCode().is5xxServerError()) {
+                tx.setRollbackOnly();
+                return result;
+            }
+            row.setStatusCode(result.getStatusCode().value());
+            row.setResponseBody(toJson(result.getBody()));
+            saved[0] = row;
+            return result;
+        });
+        if (saved[0] != null) {
+            remember(cacheKey, saved[0]);
+            created.increment();
+        }
+        return response;
+    }
+
+    // Expired keys are only useful for a day or so of retries
+    @Scheduled(cron = "${idempotency.purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        int removed = repository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("Idempotency keys: purged {} expired", removed);
+        }
+    }
+
+    private ResponseEntity<?> replay(Stored stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            mismatches.increment();
+            return error(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used with a different request body");
+        }
+        replayed.increment();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true");
+        if (stored.body() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(stored.body());
+    }
+
+    private synchronized Stored recall(String cacheKey) {
+        Stored s = recent.get(cacheKey);
+        if (s != null && s.expiresAtMillis() <= System.currentTimeMillis()) {
+            recent.remove(cacheKey);
+            return null;
+        }
+        return s;
+    }
+
+    private synchronized Stored remember(String cacheKey, IdempotencyKey row) {
+        long expiresAtMillis = row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Stored s = new Stored(row.getRequestHash(), row.getStatusCode(), row.getResponseBody(), expiresAtMillis);
+        recent.put(cacheKey, s);
+        while (recent.size() > maxEntries) {
+            recent.remove(recent.keySet().iterator().next());
+        }
+        return s;
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash request for " + HEADER, e);
+        }
+    }
+
+    private String toJson(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return body instanceof String s ? s : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response for " + HEADER, e);
+        }
+    }
+
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("error", message));
+    }
+}
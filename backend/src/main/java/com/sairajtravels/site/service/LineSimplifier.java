@@ -0,0 +1,101 @@
+package com.sairajtravels.site.service;
+
+import java.util.Arrays;
+
+/**
+ * Douglas-Peucker simplification of interleaved lon/lat lines with a tolerance in metres.
+ * Points are projected once onto a local equirectangular plane (accurate enough at route scale)
+ * and the recursion is run with an explicit stack, so long routes cannot overflow.
+ */
+public final class LineSimplifier {
+
+    // Web-mercator ground resolution at zoom 0, metres per 256px tile pixel at the equator
+    private static final double METERS_PER_PIXEL_Z0 = 156543.03392;
+
+    private LineSimplifier() {
+    }
+
+    /** Tolerance of about one screen pixel at the given zoom level and latitude. */
+    public static double toleranceForZoom(int zoom, double lat) {
+        return METERS_PER_PIXEL_Z0 * Math.cos(Math.toRadians(lat)) / Math.pow(2, zoom);
+    }
+
+    /** Returns a simplified copy, or the input itself when nothing can be dropped. */
+    public static double[] simplify(double[] lonLat, double toleranceMeters) {
+        int n = lonLat.length / 2;
+        if (n < 3 || toleranceMeters <= 0) {
+            return lonLat;
+        }
+
+        double lat0 = Math.toRadians(lonLat[1]);
+        double mPerDegLat = 110540.0;
+        double mPerDegLon = 111320.0 * Math.cos(lat0);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = lonLat[2 * i] * mPerDegLon;
+            y[i] = lonLat[2 * i + 1] * mPerDegLat;
+        }
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        double tol2 = toleranceMeters * toleranceMeters;
+
+        int[] stack = new int[64];
+        int sp = 0;
+        stack[sp++] = 0;
+        stack[sp++] = n - 1;
+        while (sp > 0) {
+            int last = stack[--sp];
+            int first = stack[--sp];
+            double maxDist = -1;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double d = segmentDistanceSq(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (d > maxDist) {
+                    maxDist = d;
+                    index = i;
+                }
+            }
+            if (index >= 0 && maxDist > tol2) {
+                keep[index] = true;
+                if (sp + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[sp++] = first;
+                stack[sp++] = index;
+                stack[sp++] = index;
+                stack[sp++] = last;
+            }
+        }
+
+        int kept = 0;
+        for (boolean k : keep) {
+            if (k) kept++;
+        }
+        if (kept == n) {
+            return lonLat;
+        }
+        double[] out = new double[kept * 2];
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                out[j++] = lonLat[2 * i];
+                out[j++] = lonLat[2 * i + 1];
+            }
+        }
+        return out;
+    }
+
+    private static double segmentDistanceSq(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double len2 = dx * dx + dy * dy;
+        double t = len2 == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / len2;
+        t = Math.max(0, Math.min(1, t));
+        double ex = ax + t * dx - px;
+        double ey = ay + t * dy - py;
+        return ex * ex + ey * ey;
+    }
+}
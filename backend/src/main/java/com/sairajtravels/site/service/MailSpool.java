@@ -0,0 +1,457 @@
+package com.sairajtravels.site.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only mail spool on local disk: one chain of fixed-size segment files per lane,
+ * {@code <lane>-<seq>.spool}. Each record is a 20-byte header (state, attempts, reserved, payload
+ * length, CRC32 of the payload, next attempt time) followed by the payload. A record is appended
+ * with its state byte written last and the segment forced, so after a crash recovery stops at the
+ * first record that is unwritten, torn or fails its CRC. Delivery only flips the state byte in place.
+ *
+ * Only the segment being appended to is memory-mapped; sealed segments are read and updated with
+ * positional I/O while they are scanned, and the heap holds a few counters per segment, so memory
+ * stays flat however many messages are waiting. {@link #compact} deletes sealed segments with
+ * nothing pending and moves the pending records of mostly delivered ones to the tail.
+ *
+ * Appends may come from any thread; {@link #due}, {@link #mark} and {@link #compact} are meant for
+ * the one dispatcher thread, so a record handed out by {@code due} stays where it is until marked.
+ */
+final class MailSpool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MailSpool.class);
+
+    static final int HEADER_BYTES = 20;
+    static final byte END = 0;
+    static final byte PENDING = 1;
+    static final byte SENT = 2;
+    static final byte DEAD = 3;
+
+    private static final Pattern FILE_NAME = Pattern.compile("([a-z]+)-(\\d{10})\\.spool");
+
+    /** A pending record handed to the dispatcher. */
+    record Record(int lane, long segment, int offset, int attempts, byte[] payload) {}
+
+    /** Counters of one lane. */
+    record LaneStats(int segments, long bytes, long pending, long dead) {}
+
+    private static final class Segment {
+        final long seq;
+        final Path path;
+        int capacity;
+        int end;                    // first free offset; records live in [0, end)
+        int records;
+        int pending;
+        int dead;
+        long pendingBytes;
+        long nextDueMillis = Long.MAX_VALUE;    // earliest next attempt of a pending record, or earlier
+        FileChannel channel;        // open and mapped only while this is the lane's tail
+        MappedByteBuffer map;
+
+        Segment(long seq, Path path) {
+            this.seq = seq;
+            this.path = path;
+        }
+    }
+
+    private final Path dir;
+    private final List<String> lanes;
+    private final int segmentBytes;
+    private final List<TreeMap<Long, Segment>> segments = new ArrayList<>();
+
+    MailSpool(Path dir, List<String> lanes, int segmentBytes) throws IOException {
+        this.dir = dir;
+        this.lanes = lanes;
+        this.segmentBytes = Math.max(HEADER_BYTES + 1024, segmentBytes);
+        createPrivateDirectory(dir);
+        for (int lane = 0; lane < lanes.size(); lane++) {
+            segments.add(new TreeMap<>());
+        }
+        recover();
+    }
+
+    /** Appends a pending record to the lane's tail segment and forces it to disk. */
+    synchronized void append(int lane, byte[] payload, long nextAttemptMillis) throws IOException {
+        append(lane, payload, 0, nextAttemptMillis);
+    }
+
+    private void append(int lane, byte[] payload, int attempts, long nextAttemptMillis) throws IOException {
+        int length = HEADER_BYTES + payload.length;
+        Segment tail = tail(lane, length);
+        int pos = tail.end;
+        MappedByteBuffer map = tail.map;
+        map.put(pos + 1, (byte) Math.min(attempts, 255));
+        map.putShort(pos + 2, (short) 0);
+        map.putInt(pos + 4, payload.length);
+        map.putInt(pos + 8, crc(payload));
+        map.putLong(pos + 12, nextAttemptMillis);
+        map.put(pos + HEADER_BYTES, payload);
+        map.put(pos, PENDING);
+        map.force(pos, length);
+
+        tail.end = pos + length;
+        tail.records++;
+        tail.pending++;
+        tail.pendingBytes += length;
+        tail.nextDueMillis = Math.min(tail.nextDueMillis, nextAttemptMillis);
+    }
+
+    /** Up to {@code max} pending records of the lane whose next attempt is due, oldest first. */
+    synchronized List<Record> due(int lane, long nowMillis, int max) throws IOException {
+        List<Record> out = new ArrayList<>();
+        for (Segment s : segments.get(lane).values()) {
+            if (out.size() >= max) {
+                break;
+            }
+            if (s.pending == 0 || s.nextDueMillis > nowMillis) {
+                continue;
+            }
+            long nextDue = Long.MAX_VALUE;
+            boolean complete = true;
+            try (Access a = access(s)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                for (int pos = 0; pos < s.end; ) {
+                    a.read(header.clear(), pos);
+                    int length = header.getInt(4);
+                    if (header.get(0) == PENDING) {
+                        long next = header.getLong(12);
+                        if (next > nowMillis) {
+                            nextDue = Math.min(nextDue, next);
+                        } else if (out.size() >= max) {
+                            complete = false;
+                            break;
+                        } else {
+                            byte[] payload = new byte[length];
+                            a.read(ByteBuffer.wrap(payload), pos + HEADER_BYTES);
+                            out.add(new Record(lane, s.seq, pos, header.get(1) & 0xff, payload));
+                            nextDue = Math.min(nextDue, nowMillis);
+                        }
+                    }
+                    pos += HEADER_BYTES + length;
+                }
+            }
+            if (complete) {
+                s.nextDueMillis = nextDue;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Records the outcome of a delivery: {@link #SENT} or {@link #DEAD}, or {@link #PENDING} again
+     * with the attempt count and the time of the next try.
+     */
+    synchronized void mark(Record record, byte state, int attempts, long nextAttemptMillis) throws IOException {
+        Segment s = segments.get(record.lane()).get(record.segment());
+        if (s == null) {
+            return;
+        }
+        ByteBuffer update = ByteBuffer.allocate(HEADER_BYTES);
+        update.put(0, state).put(1, (byte) Math.min(attempts, 255));
+        update.putLong(12, nextAttemptMillis);
+        try (Access a = access(s)) {
+            // next attempt and attempts first, the state byte last
+            a.write(update.slice(12, 8), record.offset() + 12);
+            a.write(update.slice(1, 1), record.offset() + 1);
+            a.write(update.slice(0, 1), record.offset());
+            a.force(record.offset(), HEADER_BYTES);
+        }
+        if (state == PENDING) {
+            s.nextDueMillis = Math.min(s.nextDueMillis, nextAttemptMillis);
+            return;
+        }
+        s.pending--;
+        s.pendingBytes -= HEADER_BYTES + record.payload().length;
+        if (state == DEAD) {
+            s.dead++;
+        }
+    }
+
+    /**
+     * Deletes sealed segments with nothing pending, and moves the pending records of sealed
+     * segments whose pending share of the file is below {@code liveBelow} to the lane's tail before
+     * deleting them. A crash between the move and the delete only sends those records twice.
+     * Returns the number of segments removed.
+     */
+    synchronized int compact(double liveBelow) throws IOException {
+        int removed = 0;
+        for (int lane = 0; lane < lanes.size(); lane++) {
+            TreeMap<Long, Segment> chain = segments.get(lane);
+            for (Segment s : new ArrayList<>(chain.values())) {
+                if (s.map != null) {
+                    continue;       // the tail
+                }
+                if (s.pending > 0) {
+                    if (s.pendingBytes >= liveBelow * s.capacity) {
+                        continue;
+                    }
+                    moveToTail(lane, s);
+                }
+                if (delete(s)) {
+                    chain.remove(s.seq);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private void moveToTail(int lane, Segment s) throws IOException {
+        List<Record> live = new ArrayList<>();
+        List<Long> nextAttempts = new ArrayList<>();
+        try (Access a = access(s)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            for (int pos = 0; pos < s.end; ) {
+                a.read(header.clear(), pos);
+                int length = header.getInt(4);
+                if (header.get(0) == PENDING) {
+                    byte[] payload = new byte[length];
+                    a.read(ByteBuffer.wrap(payload), pos + HEADER_BYTES);
+                    live.add(new Record(lane, s.seq, pos, header.get(1) & 0xff, payload));
+                    nextAttempts.add(header.getLong(12));
+                }
+                pos += HEADER_BYTES + length;
+            }
+        }
+        for (int i = 0; i < live.size(); i++) {
+            append(lane, live.get(i).payload(), live.get(i).attempts(), nextAttempts.get(i));
+        }
+        s.pending = 0;
+        s.pendingBytes = 0;
+    }
+
+    synchronized LaneStats stats(int lane) {
+        long bytes = 0;
+        long pending = 0;
+        long dead = 0;
+        for (Segment s : segments.get(lane).values()) {
+            bytes += s.capacity;
+            pending += s.pending;
+            dead += s.dead;
+        }
+        return new LaneStats(segments.get(lane).size(), bytes, pending, dead);
+    }
+
+    @Override
+    public synchronized void close() {
+        for (TreeMap<Long, Segment> chain : segments) {
+            for (Segment s : chain.values()) {
+                seal(s);
+            }
+        }
+    }
+
+    // The lane's tail segment with room for length bytes; a new one when it is full
+    private Segment tail(int lane, int length) throws IOException {
+        TreeMap<Long, Segment> chain = segments.get(lane);
+        Map.Entry<Long, Segment> last = chain.lastEntry();
+        Segment tail = last == null ? null : last.getValue();
+        if (tail != null && tail.map != null && tail.end + length <= tail.capacity) {
+            return tail;
+        }
+        if (tail != null) {
+            seal(tail);
+        }
+        long seq = tail == null ? 1 : tail.seq + 1;
+        Segment fresh = new Segment(seq, dir.resolve(fileName(lane, seq)));
+        // A message larger than a segment gets a segment of its own
+        fresh.capacity = Math.max(segmentBytes, length);
+        open(fresh);
+        restrictToOwner(fresh.path);
+        chain.put(seq, fresh);
+        return fresh;
+    }
+
+    private void open(Segment s) throws IOException {
+        s.channel = FileChannel.open(s.path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        s.map = s.channel.map(FileChannel.MapMode.READ_WRITE, 0, s.capacity);
+    }
+
+    private static void seal(Segment s) {
+        // The mapping itself goes when the buffer is collected
+        s.map = null;
+        if (s.channel != null) {
+            try {
+                s.channel.close();
+            } catch (IOException ignored) {
+                // nothing was pending in the channel: writes went through the mapping
+            }
+            s.channel = null;
+        }
+    }
+
+    private static boolean delete(Segment s) {
+        try {
+            Files.deleteIfExists(s.path);
+            return true;
+        } catch (IOException e) {
+            // Windows refuses while the old mapping of a former tail is not yet collected: next time
+            log.debug("Mail spool: {} not deleted yet: {}", s.path.getFileName(), e.toString());
+            return false;
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.spool")) {
+            stream.forEach(files::add);
+        }
+        for (Path file : files) {
+            Matcher m = FILE_NAME.matcher(file.getFileName().toString());
+            int lane = m.matches() ? lanes.indexOf(m.group(1)) : -1;
+            if (lane < 0) {
+                log.warn("Mail spool: ignoring unknown file {}", file.getFileName());
+                continue;
+            }
+            Segment s = new Segment(Long.parseLong(m.group(2)), file);
+            s.capacity = (int) Math.min(Files.size(file), Integer.MAX_VALUE);
+            segments.get(lane).put(s.seq, s);
+        }
+        for (int lane = 0; lane < lanes.size(); lane++) {
+            TreeMap<Long, Segment> chain = segments.get(lane);
+            for (Segment s : chain.values()) {
+                boolean torn = scan(s);
+                if (s == chain.lastEntry().getValue()) {
+                    open(s);
+                    if (torn) {
+                        // Clear the torn bytes so that no later append is followed by stale records
+                        for (int i = s.end; i < s.capacity; i++) {
+                            s.map.put(i, END);
+                        }
+                        s.map.force();
+                    }
+                } else if (torn) {
+                    log.warn("Mail spool: {} is damaged after offset {}, later records in it are lost",
+                            s.path.getFileName(), s.end);
+                }
+            }
+            LaneStats stats = stats(lane);
+            if (stats.pending() > 0) {
+                log.info("Mail spool: {} lane recovered {} pending messages in {} segments",
+                        lanes.get(lane), stats.pending(), stats.segments());
+            }
+        }
+    }
+
+    // Counts the records of a segment; true when it stopped at a torn or corrupt record
+    private static boolean scan(Segment s) throws IOException {
+        try (FileChannel channel = FileChannel.open(s.path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            int pos = 0;
+            while (pos + HEADER_BYTES <= s.capacity) {
+                channel.read(header.clear(), pos);
+                byte state = header.get(0);
+                int length = header.getInt(4);
+                if (state == END) {
+                    break;
+                }
+                if (state > DEAD || length < 0 || pos + HEADER_BYTES + (long) length > s.capacity) {
+                    s.end = pos;
+                    return true;
+                }
+                byte[] payload = new byte[length];
+                channel.read(ByteBuffer.wrap(payload), pos + HEADER_BYTES);
+                if (crc(payload) != header.getInt(8)) {
+                    s.end = pos;
+                    return true;
+                }
+                s.records++;
+                if (state == PENDING) {
+                    s.pending++;
+                    s.pendingBytes += HEADER_BYTES + length;
+                    s.nextDueMillis = Math.min(s.nextDueMillis, header.getLong(12));
+                } else if (state == DEAD) {
+                    s.dead++;
+                }
+                pos += HEADER_BYTES + length;
+            }
+            s.end = pos;
+            return false;
+        }
+    }
+
+    private String fileName(int lane, long seq) {
+        return String.format("%s-%010d.spool", lanes.get(lane), seq);
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    // Spooled mail can hold temporary passwords and reset links: owner-only where the platform allows
+    private static void createPrivateDirectory(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        restrictToOwner(dir);
+    }
+
+    private static void restrictToOwner(Path path) throws IOException {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(
+                    Files.isDirectory(path) ? "rwx------" : "rw-------"));
+        }
+    }
+
+    private Access access(Segment s) throws IOException {
+        return s.map != null ? new Access(s.map, null) : new Access(null, FileChannel.open(s.path,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    // Reads and writes at an offset, through the tail's mapping or a sealed segment's channel
+    private record Access(MappedByteBuffer map, FileChannel channel) implements AutoCloseable {
+
+        void read(ByteBuffer dst, int pos) throws IOException {
+            if (map != null) {
+                dst.put(map.slice(pos, dst.remaining()));
+            } else {
+                while (dst.hasRemaining() && channel.read(dst, pos + dst.position()) >= 0) {
+                    // positional reads until full
+                }
+            }
+            dst.flip();
+        }
+
+        void write(ByteBuffer src, int pos) throws IOException {
+            if (map != null) {
+                map.put(pos, src, src.position(), src.remaining());
+            } else {
+                channel.write(src, pos);
+            }
+        }
+
+        void force(int pos, int length) throws IOException {
+            if (map != null) {
+                map.force(pos, length);
+            } else {
+                channel.force(false);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
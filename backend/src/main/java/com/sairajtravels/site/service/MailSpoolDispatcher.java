@@ -0,0 +1,134 @@
+package com.sairajtravels.site.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replays the mail spool. Each poll sends at most {@code mail-spool.max-per-poll} due messages,
+ * taking them from the HIGH lane first, then NORMAL, then LOW, so a backlog of admin notifications
+ * never holds up a password reset and a long outage does not turn into a burst when mail comes
+ * back. A failed send is retried with exponential backoff and jitter; after
+ * {@code mail-spool.max-attempts} the message is dead. Delivered segments are compacted after the
+ * poll. A crash between sending and marking sends the message again: delivery is at least once.
+ */
+@Component
+public class MailSpoolDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailSpoolDispatcher.class);
+
+    private final MailSpoolService mailSpoolService;
+    private final EmailService emailService;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<MailSpoolService.Lane, Counter> sent = new EnumMap<>(MailSpoolService.Lane.class);
+    private final Map<MailSpoolService.Lane, Counter> retried = new EnumMap<>(MailSpoolService.Lane.class);
+    private final Map<MailSpoolService.Lane, Counter> dead = new EnumMap<>(MailSpoolService.Lane.class);
+
+    @Value("${mail-spool.max-per-poll:20}")
+    private int maxPerPoll;
+
+    @Value("${mail-spool.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${mail-spool.backoff-base-seconds:60}")
+    private long backoffBaseSeconds;
+
+    @Value("${mail-spool.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    public MailSpoolDispatcher(MailSpoolService mailSpoolService, EmailService emailService,
+                               MeterRegistry meterRegistry) {
+        this.mailSpoolService = mailSpoolService;
+        this.emailService = emailService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        for (MailSpoolService.Lane lane : MailSpoolService.Lane.values()) {
+            String tag = lane.name().toLowerCase(Locale.ROOT);
+            sent.put(lane, Counter.builder("mail.spool.delivered").tag("lane", tag).tag("outcome", "sent").register(meterRegistry));
+            retried.put(lane, Counter.builder("mail.spool.delivered").tag("lane", tag).tag("outcome", "retry").register(meterRegistry));
+            dead.put(lane, Counter.builder("mail.spool.delivered").tag("lane", tag).tag("outcome", "dead").register(meterRegistry));
+            Gauge.builder("mail.spool.pending", mailSpoolService, s -> s.pending(lane)).tag("lane", tag).register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail-spool.poll-ms:30000}", initialDelayString = "${mail-spool.poll-ms:30000}")
+    public void poll() {
+        if (!mailSpoolService.isEnabled()) {
+            return;
+        }
+        try {
+            int budget = maxPerPoll;
+            for (MailSpoolService.Lane lane : MailSpoolService.Lane.values()) {
+                List<MailSpoolService.SpooledMail> due = mailSpoolService.due(lane, budget);
+                for (MailSpoolService.SpooledMail mail : due) {
+                    deliver(mail);
+                }
+                budget -= due.size();
+            }
+            int removed = mailSpoolService.compact();
+            if (removed > 0) {
+                log.debug("Mail spool: compacted {} segments", removed);
+            }
+        } catch (Exception e) {
+            log.warn("Mail spool poll failed: {}", e.toString());
+        }
+    }
+
+    private void deliver(MailSpoolService.SpooledMail mail) throws Exception {
+        try {
+            switch (mail.kind()) {
+                case HTML -> emailService.deliverHtmlEmail(mail.to(), mail.subject(), mail.body(), mail.text());
+                case ADMIN -> emailService.deliverAdminNotification(mail.subject(), mail.body(), mail.to());
+                case ACCOUNT_HTML -> emailService.deliverAccountEmail(mail.to(), mail.subject(), mail.body(), true);
+                case ACCOUNT_TEXT -> emailService.deliverAccountEmail(mail.to(), mail.subject(), mail.body(), false);
+            }
+        } catch (Exception e) {
+            failed(mail, e);
+            return;
+        }
+        mailSpoolService.delivered(mail);
+        sent.get(mail.lane()).increment();
+    }
+
+    // mail.attempts() does not count this attempt yet
+    private void failed(MailSpoolService.SpooledMail mail, Exception e) throws Exception {
+        int attempts = mail.attempts() + 1;
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (attempts >= maxAttempts) {
+            mailSpoolService.dead(mail);
+            dead.get(mail.lane()).increment();
+            log.error("Mail spool: {} \"{}\" to {} dead after {} attempts: {}", mail.kind(), mail.subject(),
+                    mail.to(), attempts, error);
+            return;
+        }
+        long delayMillis = backoffMillis(attempts);
+        mailSpoolService.retryAt(mail, System.currentTimeMillis() + delayMillis);
+        retried.get(mail.lane()).increment();
+        log.warn("Mail spool: {} \"{}\" attempt {} failed, retrying in {}s: {}", mail.kind(), mail.subject(),
+                attempts, delayMillis / 1000, error);
+    }
+
+    // base * 2^(attempt-1), capped, with +/-20% jitter, as the email outbox backs off
+    private long backoffMillis(int attempt) {
+        long seconds = backoffBaseSeconds << Math.min(Math.max(attempt - 1, 0), 20);
+        seconds = Math.min(seconds, backoffMaxSeconds);
+        double jitter = 0.8 + 0.4 * ThreadLocalRandom.current().nextDouble();
+        return (long) (seconds * 1000 * jitter);
+    }
+}
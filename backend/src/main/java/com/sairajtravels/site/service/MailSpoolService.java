@@ -0,0 +1,200 @@
+package com.sairajtravels.site.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps emails that {@link EmailService} could not send right away (SendGrid and Gmail both down)
+ * in a {@link MailSpool} under {@code mail-spool.dir}, so they survive a restart instead of only
+ * being printed for manual sending. {@link MailSpoolDispatcher} replays them, lane by lane in
+ * priority order. Booking, enquiry and contact emails do not come here: they are queued in the
+ * email outbox table from the start.
+ */
+@Service
+public class MailSpoolService {
+
+    private static final Logger log = LoggerFactory.getLogger(MailSpoolService.class);
+
+    /** Priority classes, drained in this order. */
+    public enum Lane { HIGH, NORMAL, LOW }
+
+    /** How a spooled message is sent again. */
+    public enum Kind {
+        /** {@link EmailService#deliverHtmlEmail}: SendGrid, then Gmail SMTP. */
+        HTML,
+        /** {@link EmailService#deliverAdminNotification}; the recipient field holds the sender. */
+        ADMIN,
+        /** {@link EmailService#deliverAccountEmail} as HTML: Gmail SMTP only, as account emails always were. */
+        ACCOUNT_HTML,
+        /** {@link EmailService#deliverAccountEmail} as plain text. */
+        ACCOUNT_TEXT
+    }
+
+    /** A spooled message handed to the dispatcher. */
+    record SpooledMail(Lane lane, Kind kind, String to, String subject, String body, String text,
+                       long spooledAtMillis, int attempts, MailSpool.Record record) {}
+
+    @Value("${mail-spool.dir:}")
+    private String dir;
+
+    @Value("${mail-spool.segment-kb:4096}")
+    private int segmentKb;
+
+    @Value("${mail-spool.compact-below:0.25}")
+    private double compactBelow;
+
+    private MailSpool spool;
+
+    @PostConstruct
+    void init() {
+        if (dir == null || dir.isBlank()) {
+            return;
+        }
+        List<String> lanes = Arrays.stream(Lane.values()).map(l -> l.name().toLowerCase(Locale.ROOT)).toList();
+        try {
+            spool = new MailSpool(Paths.get(dir), lanes, segmentKb * 1024);
+        } catch (IOException e) {
+            log.warn("Mail spool disabled: cannot open {}: {}", dir, e.toString());
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return spool != null;
+    }
+
+    /**
+     * Writes the message to disk for a later retry. False when the spool is disabled or the write
+     * failed; the caller then falls back to printing it for manual sending.
+     */
+    public boolean spool(Lane lane, Kind kind, String to, String subject, String body, String text) {
+        if (spool == null) {
+            return false;
+        }
+        try {
+            spool.append(lane.ordinal(), encode(kind, to, subject, body, text), System.currentTimeMillis());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Mail spool: could not spool \"{}\" to {}: {}", subject, to, e.toString());
+            return false;
+        }
+    }
+
+    List<SpooledMail> due(Lane lane, int max) throws IOException {
+        List<SpooledMail> out = new ArrayList<>();
+        if (spool == null || max <= 0) {
+            return out;
+        }
+        for (MailSpool.Record r : spool.due(lane.ordinal(), System.currentTimeMillis(), max)) {
+            out.add(decode(lane, r));
+        }
+        return out;
+    }
+
+    void delivered(SpooledMail mail) throws IOException {
+        spool.mark(mail.record(), MailSpool.SENT, mail.attempts() + 1, 0);
+    }
+
+    void retryAt(SpooledMail mail, long nextAttemptMillis) throws IOException {
+        spool.mark(mail.record(), MailSpool.PENDING, mail.attempts() + 1, nextAttemptMillis);
+    }
+
+    void dead(SpooledMail mail) throws IOException {
+        spool.mark(mail.record(), MailSpool.DEAD, mail.attempts() + 1, 0);
+    }
+
+    /** Removes delivered segments; see {@link MailSpool#compact}. */
+    int compact() throws IOException {
+        return spool == null ? 0 : spool.compact(compactBelow);
+    }
+
+    long pending(Lane lane) {
+        return spool == null ? 0 : spool.stats(lane.ordinal()).pending();
+    }
+
+    /** Per lane: segment files, bytes on disk, messages waiting and given up. */
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", spool != null);
+        out.put("dir", dir);
+        if (spool == null) {
+            return out;
+        }
+        for (Lane lane : Lane.values()) {
+            MailSpool.LaneStats s = spool.stats(lane.ordinal());
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("segments", s.segments());
+            m.put("bytes", s.bytes());
+            m.put("pending", s.pending());
+            m.put("dead", s.dead());
+            out.put(lane.name().toLowerCase(Locale.ROOT), m);
+        }
+        return out;
+    }
+
+    private static byte[] encode(Kind kind, String to, String subject, String body, String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + (body == null ? 0 : body.length()));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(kind.ordinal());
+            out.writeLong(System.currentTimeMillis());
+            for (String s : new String[] {to, subject, body, text}) {
+                writeString(out, s);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SpooledMail decode(Lane lane, MailSpool.Record r) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(r.payload()))) {
+            Kind kind = Kind.values()[in.readUnsignedByte()];
+            long spooledAt = in.readLong();
+            return new SpooledMail(lane, kind, readString(in), readString(in), readString(in), readString(in),
+                    spooledAt, r.attempts(), r);
+        }
+    }
+
+    // Length-prefixed UTF-8 (writeUTF stops at 64 KB); -1 for null
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
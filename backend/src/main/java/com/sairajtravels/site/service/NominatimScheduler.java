@@ -0,0 +1,279 @@
+package com.sairajtravels.site.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Outbound scheduler for Nominatim, which allows about one request per second.
+ *
+ * Lookups for the same cache cell share one queued or in-flight call (single flight). Queued
+ * lookups are released by a single dispatcher thread against a global token bucket, lowest
+ * priority value first (centre points before ring probes), then earliest deadline. A lookup whose
+ * deadline has passed, or whose every waiter has given up, is shed without spending a token.
+ */
+@Component
+public class NominatimScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(NominatimScheduler.class);
+
+    /** Centre-point lookups; ring probes use {@code PRIORITY_CENTRE + 1 + ring index}. */
+    public static final int PRIORITY_CENTRE = 0;
+
+    private static final Comparator<Job> JOB_ORDER = Comparator
+            .comparingInt((Job j) -> j.priority)
+            .thenComparingLong(j -> j.deadlineNanos)
+            .thenComparingLong(j -> j.seq);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Job> queue = new PriorityQueue<>(JOB_ORDER);
+    private final Map<Long, Job> pending = new HashMap<>();
+    private long seq;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    private final MeterRegistry meterRegistry;
+    private Counter shedExpired;
+    private Counter shedOverflow;
+    private Counter shedAbandoned;
+    private Counter coalesced;
+    private Counter dispatched;
+    private Timer queueWait;
+
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    @Value("${nominatim.rate-per-second:1.0}")
+    private double ratePerSecond;
+
+    @Value("${nominatim.burst:1}")
+    private int burst;
+
+    @Value("${nominatim.max-queue:200}")
+    private int maxQueue;
+
+    public NominatimScheduler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        shedExpired = Counter.builder("nominatim.scheduler.shed").tag("reason", "expired").register(meterRegistry);
+        shedOverflow = Counter.builder("nominatim.scheduler.shed").tag("reason", "overflow").register(meterRegistry);
+        shedAbandoned = Counter.builder("nominatim.scheduler.shed").tag("reason", "abandoned").register(meterRegistry);
+        coalesced = Counter.builder("nominatim.scheduler.coalesced").register(meterRegistry);
+        dispatched = Counter.builder("nominatim.scheduler.dispatched").register(meterRegistry);
+        queueWait = Timer.builder("nominatim.scheduler.queue.wait").register(meterRegistry);
+        Gauge.builder("nominatim.scheduler.queue.depth", this, NominatimScheduler::queueDepth).register(meterRegistry);
+        Gauge.builder("nominatim.scheduler.inflight", this, NominatimScheduler::inFlight).register(meterRegistry);
+
+        tokens = Math.max(1, burst);
+        lastRefillNanos = System.nanoTime();
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "NominatimScheduler");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        dispatcher.interrupt();
+    }
+
+    /**
+     * Queues a lookup for cache cell {@code key}, or joins the one already pending. The returned
+     * future completes with the place, or null when the call failed or was shed; cancelling it
+     * withdraws this caller, and the lookup is dropped once no caller is left.
+     */
+    public CompletableFuture<Map<String, Object>> schedule(long key, int priority, long deadlineNanos,
+                                                           Supplier<CompletableFuture<Map<String, Object>>> call) {
+        lock.lock();
+        try {
+            Job job = pending.get(key);
+            if (job != null) {
+                coalesced.increment();
+                if (job.queued && (priority < job.priority || deadlineNanos > job.deadlineNanos)) {
+                    queue.remove(job);
+                    job.priority = Math.min(job.priority, priority);
+                    job.deadlineNanos = Math.max(job.deadlineNanos, deadlineNanos);
+                    queue.add(job);
+                    changed.signal();
+                }
+                return join(job);
+            }
+            if (deadlineNanos - System.nanoTime() <= 0) {
+                shedExpired.increment();
+                return CompletableFuture.completedFuture(null);
+            }
+            if (queue.size() >= maxQueue) {
+                shedOverflow.increment();
+                return CompletableFuture.completedFuture(null);
+            }
+            job = new Job(key, priority, deadlineNanos, seq++, call);
+            pending.put(key, job);
+            queue.add(job);
+            changed.signal();
+            return join(job);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return pending.size() - queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private CompletableFuture<Map<String, Object>> join(Job job) {
+        job.waiters++;
+        CompletableFuture<Map<String, Object>> mine = job.result.copy();
+        mine.whenComplete((r, t) -> {
+            if (mine.isCancelled()) {
+                withdraw(job);
+            }
+        });
+        return mine;
+    }
+
+    private void withdraw(Job job) {
+        lock.lock();
+        try {
+            if (--job.waiters <= 0 && job.queued && queue.remove(job)) {
+                job.queued = false;
+                pending.remove(job.key);
+                shedAbandoned.increment();
+                job.result.complete(null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            Job job;
+            lock.lock();
+            try {
+                shedExpiredHead();
+                if (queue.isEmpty()) {
+                    changed.await();
+                    continue;
+                }
+                long wait = nanosUntilToken();
+                if (wait > 0) {
+                    // Re-evaluated on wake-up: a higher-priority lookup may have arrived meanwhile
+                    changed.awaitNanos(wait);
+                    continue;
+                }
+                job = queue.poll();
+                job.queued = false;
+                tokens -= 1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            dispatch(job);
+        }
+    }
+
+    private void dispatch(Job job) {
+        dispatched.increment();
+        queueWait.record(System.nanoTime() - job.enqueuedNanos, TimeUnit.NANOSECONDS);
+        CompletableFuture<Map<String, Object>> call;
+        try {
+            call = job.call.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((place, error) -> {
+            lock.lock();
+            try {
+                pending.remove(job.key);
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) {
+                log.debug("Nominatim lookup failed: {}", error.toString());
+            }
+            job.result.complete(error == null ? place : null);
+        });
+    }
+
+    // Caller holds the lock. Expired lookups deeper in the queue are shed when they reach the head.
+    private void shedExpiredHead() {
+        long now = System.nanoTime();
+        Job head;
+        while ((head = queue.peek()) != null && head.deadlineNanos - now <= 0) {
+            queue.poll();
+            head.queued = false;
+            pending.remove(head.key);
+            shedExpired.increment();
+            head.result.complete(null);
+        }
+    }
+
+    // Caller holds the lock
+    private long nanosUntilToken() {
+        long now = System.nanoTime();
+        tokens = Math.min(Math.max(1, burst), tokens + (now - lastRefillNanos) * ratePerSecond / 1e9);
+        lastRefillNanos = now;
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / ratePerSecond * 1e9);
+    }
+
+    private static final class Job {
+        final long key;
+        final long seq;
+        final long enqueuedNanos = System.nanoTime();
+        final Supplier<CompletableFuture<Map<String, Object>>> call;
+        final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        int priority;
+        long deadlineNanos;
+        int waiters;
+        boolean queued = true;
+
+        Job(long key, int priority, long deadlineNanos, long seq,
+            Supplier<CompletableFuture<Map<String, Object>>> call) {
+            this.key = key;
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+            this.seq = seq;
+            this.call = call;
+        }
+    }
+}
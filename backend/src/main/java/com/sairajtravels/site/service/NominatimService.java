@@ -0,0 +1,108 @@
+package com.sairajtravels.site.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Nominatim reverse geocoding, fronted by {@link ReverseGeocodeCache}. Cache misses are queued on
+ * {@link NominatimScheduler} (single flight, rate budget, priority, deadline shedding) and sent
+ * through the pooled {@code nominatimClient}, so a failing Nominatim trips its breaker and
+ * snapping falls back to raw points quickly.
+ */
+@Service
+public class NominatimService {
+
+    private static final Logger log = LoggerFactory.getLogger(NominatimService.class);
+
+    private static final Set<String> ROUTABLE_TYPES = Set.of(
+            "residential", "service", "road", "tertiary", "secondary", "primary",
+            "unclassified", "track", "footway", "pedestrian", "path"
+    );
+
+    private final UpstreamClient nominatimClient;
+    private final ReverseGeocodeCache geocodeCache;
+    private final NominatimScheduler scheduler;
+
+    @Value("${nominatim.useragent:saairaj-travels@example.com}")
+    private String nominatimUserAgent;
+
+    public NominatimService(@Qualifier("nominatimClient") UpstreamClient nominatimClient,
+                            ReverseGeocodeCache geocodeCache,
+                            NominatimScheduler scheduler) {
+        this.nominatimClient = nominatimClient;
+        this.geocodeCache = geocodeCache;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Reverse-geocodes (lat, lon). Returns null when nothing came back before {@code deadlineNanos}
+     * ({@link System#nanoTime()} based) or the lookup failed or was shed.
+     */
+    public Map<String, Object> reverse(double lat, double lon, int priority, long deadlineNanos) {
+        return geocodeCache.get(lat, lon, () -> awaitLookup(lat, lon, priority, deadlineNanos));
+    }
+
+    private Map<String, Object> awaitLookup(double lat, double lon, int priority, long deadlineNanos) {
+        CompletableFuture<Map<String, Object>> lookup = scheduler.schedule(
+                geocodeCache.cellKey(lat, lon), priority, deadlineNanos,
+                () -> nominatimClient.submit(rest -> fetchReverse(rest, lat, lon)));
+        try {
+            return lookup.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            log.debug("Nominatim lookup missed its deadline");
+        } catch (ExecutionException e) {
+            log.warn("Nominatim reverse exception", e.getCause());
+        }
+        // Withdraw, so the lookup is shed if no other caller is waiting on it
+        lookup.cancel(false);
+        return null;
+    }
+
+    public boolean isRoutablePlace(Map<String, Object> place) {
+        if (place == null) return false;
+        Object cls = place.get("class");
+        Object typ = place.get("type");
+        if (cls != null && "highway".equals(cls.toString())) return true;
+        return typ != null && ROUTABLE_TYPES.contains(typ.toString());
+    }
+
+    private Map<String, Object> fetchReverse(RestTemplate rest, double lat, double lon) {
+        String url = String.format(
+                "https://nominatim.openstreetmap.org/reverse?format=jsonv2&lat=%s&lon=%s&zoom=18&addressdetails=1",
+                lat, lon);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("User-Agent", nominatimUserAgent);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
+
+        @SuppressWarnings("rawtypes")
+        ResponseEntity<Map> resp = rest.exchange(url, HttpMethod.GET, entity, Map.class);
+        if (resp.getStatusCode().is2xxSuccessful()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> body = resp.getBody();
+            return body;
+        }
+        return null;
+    }
+}
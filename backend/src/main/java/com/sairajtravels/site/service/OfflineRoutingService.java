@@ -0,0 +1,335 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.dto.RouteResult;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded router over a pre-extracted {@link RoadGraph}, used when ORS is unavailable.
+ *
+ * Queries run a bidirectional A* on travel time with the symmetric (average) potential
+ * p(v) = (h_t(v) - h_s(v)) / 2, where h is straight-line distance over the fastest edge speed.
+ * Search state lives in a small pool of graph-sized arrays that are reset by version stamping,
+ * so a query allocates nothing proportional to the graph size and memory stays bounded by the
+ * pool size rather than the number of request threads.
+ */
+@Service
+public class OfflineRoutingService {
+
+    private static final Logger log = LoggerFactory.getLogger(OfflineRoutingService.class);
+
+    @Value("${routing.offline.graph-path:}")
+    private String graphPath;
+
+    @Value("${routing.offline.max-snap-meters:2000}")
+    private double maxSnapMeters;
+
+    @Value("${routing.offline.max-concurrent-queries:2}")
+    private int maxConcurrentQueries;
+
+    @Value("${routing.offline.query-wait-ms:2000}")
+    private long queryWaitMs;
+
+    private volatile RoadGraph graph;
+    private BlockingQueue<SearchState> statePool;
+    private final AtomicInteger statesCreated = new AtomicInteger();
+
+    @PostConstruct
+    void init() {
+        if (graphPath == null || graphPath.isBlank()) {
+            log.info("Offline routing disabled (routing.offline.graph-path not set)");
+            return;
+        }
+        Path file = Paths.get(graphPath);
+        if (!Files.exists(file)) {
+            log.warn("Offline routing disabled, graph file not found: {}", file);
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            RoadGraph loaded = RoadGraph.load(file);
+            useGraph(loaded);
+            log.info("Offline road graph loaded: {} nodes, {} edges in {} ms",
+                    loaded.nodeCount(), loaded.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Offline routing disabled, failed to load {}: {}", file, e.getMessage());
+        }
+    }
+
+    void useGraph(RoadGraph g) {
+        statePool = new ArrayBlockingQueue<>(Math.max(1, maxConcurrentQueries));
+        statesCreated.set(0);
+        graph = g;
+    }
+
+    public boolean isAvailable() {
+        return graph != null;
+    }
+
+    /**
+     * Fastest one-way route between the nodes nearest to the two points, or null when the
+     * graph is not loaded, a point is off the graph, or the nodes are not connected.
+     */
+    public RouteResult route(double fromLat, double fromLng, double toLat, double toLng) {
+        RoadGraph g = graph;
+        if (g == null) {
+            return null;
+        }
+        int s = g.nearestNode(fromLat, fromLng, maxSnapMeters);
+        int t = g.nearestNode(toLat, toLng, maxSnapMeters);
+        if (s < 0 || t < 0) {
+            return null;
+        }
+        SearchState state = acquireState(g);
+        if (state == null) {
+            log.warn("Offline routing busy, no search state free within {} ms", queryWaitMs);
+            return null;
+        }
+        try {
+            return state.run(g, s, t);
+        } finally {
+            statePool.offer(state);
+        }
+    }
+
+    private SearchState acquireState(RoadGraph g) {
+        SearchState state = statePool.poll();
+        if (state != null) {
+            return state;
+        }
+        if (statesCreated.incrementAndGet() <= Math.max(1, maxConcurrentQueries)) {
+            return new SearchState(g.nodeCount);
+        }
+        statesCreated.decrementAndGet();
+        try {
+            return statePool.poll(queryWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static final class SearchState {
+        private final int[] stampF;
+        private final int[] stampB;
+        private final double[] distF;
+        private final double[] distB;
+        private final int[] predF;
+        private final int[] predB;
+        private final int[] predEdgeF;
+        private final int[] predEdgeB;
+        private final int[] potStamp;
+        private final double[] pot;
+        private final MinHeap heapF = new MinHeap();
+        private final MinHeap heapB = new MinHeap();
+        private int version;
+
+        // Query endpoints, for the potential function
+        private double sLat, sLon, tLat, tLon;
+        private double speed;
+
+        SearchState(int n) {
+            stampF = new int[n];
+            stampB = new int[n];
+            distF = new double[n];
+            distB = new double[n];
+            predF = new int[n];
+            predB = new int[n];
+            predEdgeF = new int[n];
+            predEdgeB = new int[n];
+            potStamp = new int[n];
+            pot = new double[n];
+        }
+
+        RouteResult run(RoadGraph g, int s, int t) {
+            if (++version == Integer.MAX_VALUE) {
+                Arrays.fill(stampF, 0);
+                Arrays.fill(stampB, 0);
+                Arrays.fill(potStamp, 0);
+                version = 1;
+            }
+            heapF.clear();
+            heapB.clear();
+            sLat = g.lat(s);
+            sLon = g.lon(s);
+            tLat = g.lat(t);
+            tLon = g.lon(t);
+            speed = g.maxSpeed;
+
+            if (s == t) {
+                return new RouteResult(0.0, 0.0, new double[]{sLon, sLat});
+            }
+
+            label(stampF, distF, predF, predEdgeF, s, 0.0, -1, -1);
+            label(stampB, distB, predB, predEdgeB, t, 0.0, -1, -1);
+            heapF.push(potential(g, s), s);
+            heapB.push(-potential(g, t), t);
+
+            double best = Double.POSITIVE_INFINITY;
+            int meet = -1;
+
+            while (!heapF.isEmpty() && !heapB.isEmpty()) {
+                if (heapF.peekKey() + heapB.peekKey() >= best) {
+                    break;
+                }
+                if (heapF.peekKey() <= heapB.peekKey()) {
+                    double key = heapF.peekKey();
+                    int u = heapF.pop();
+                    if (key > distF[u] + potential(g, u) + 1e-9) continue; // stale entry
+                    for (int e = g.firstEdge[u]; e < g.firstEdge[u + 1]; e++) {
+                        int v = g.edgeTarget[e];
+                        double d = distF[u] + g.edgeTime[e];
+                        if (stampF[v] != version || d < distF[v]) {
+                            label(stampF, distF, predF, predEdgeF, v, d, u, e);
+                            heapF.push(d + potential(g, v), v);
+                            if (stampB[v] == version && d + distB[v] < best) {
+                                best = d + distB[v];
+                                meet = v;
+                            }
+                        }
+                    }
+                } else {
+                    double key = heapB.peekKey();
+                    int u = heapB.pop();
+                    if (key > distB[u] - potential(g, u) + 1e-9) continue;
+                    for (int e = g.firstRevEdge[u]; e < g.firstRevEdge[u + 1]; e++) {
+                        int v = g.revEdgeSource[e];
+                        double d = distB[u] + g.revEdgeTime[e];
+                        if (stampB[v] != version || d < distB[v]) {
+                            label(stampB, distB, predB, predEdgeB, v, d, u, e);
+                            heapB.push(d - potential(g, v), v);
+                            if (stampF[v] == version && d + distF[v] < best) {
+                                best = d + distF[v];
+                                meet = v;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (meet < 0) {
+                return null;
+            }
+            return buildRoute(g, meet, best);
+        }
+
+        private RouteResult buildRoute(RoadGraph g, int meet, double timeDs) {
+            int forwardHops = 0;
+            for (int v = meet; predF[v] >= 0; v = predF[v]) forwardHops++;
+            int backwardHops = 0;
+            for (int v = meet; predB[v] >= 0; v = predB[v]) backwardHops++;
+
+            double[] coords = new double[(forwardHops + backwardHops + 1) * 2];
+            long meters = 0;
+
+            int idx = forwardHops;
+            for (int v = meet; ; v = predF[v]) {
+                coords[idx * 2] = g.lon(v);
+                coords[idx * 2 + 1] = g.lat(v);
+                if (predF[v] < 0) break;
+                meters += g.edgeLength[predEdgeF[v]];
+                idx--;
+            }
+            idx = forwardHops;
+            for (int v = meet; predB[v] >= 0; v = predB[v]) {
+                meters += g.revEdgeLength[predEdgeB[v]];
+                idx++;
+                int next = predB[v];
+                coords[idx * 2] = g.lon(next);
+                coords[idx * 2 + 1] = g.lat(next);
+            }
+            return new RouteResult(meters, timeDs / 10.0, coords);
+        }
+
+        private void label(int[] stamp, double[] dist, int[] pred, int[] predEdge, int v, double d, int p, int e) {
+            stamp[v] = version;
+            dist[v] = d;
+            pred[v] = p;
+            predEdge[v] = e;
+        }
+
+        private double potential(RoadGraph g, int v) {
+            if (potStamp[v] == version) {
+                return pot[v];
+            }
+            double lat = g.lat(v);
+            double lon = g.lon(v);
+            double toTarget = GeoMath.haversineMeters(lat, lon, tLat, tLon) / speed;
+            double fromSource = GeoMath.haversineMeters(sLat, sLon, lat, lon) / speed;
+            double p = (toTarget - fromSource) / 2.0;
+            potStamp[v] = version;
+            pot[v] = p;
+            return p;
+        }
+    }
+
+    /** Binary min-heap of (double key, int node) with lazy deletion. */
+    private static final class MinHeap {
+        private double[] keys = new double[1024];
+        private int[] nodes = new int[1024];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double peekKey() {
+            return keys[0];
+        }
+
+        void push(double key, int node) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                keys[i] = keys[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            if (size > 0) {
+                double key = keys[size];
+                int node = nodes[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                    if (keys[child] >= key) break;
+                    keys[i] = keys[child];
+                    nodes[i] = nodes[child];
+                    i = child;
+                }
+                keys[i] = key;
+                nodes[i] = node;
+            }
+            return top;
+        }
+    }
+}
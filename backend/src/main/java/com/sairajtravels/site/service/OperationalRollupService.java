@@ -0,0 +1,317 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.AdminUser;
+import com.sairajtravels.site.entity.Enquiry;
+import com.sairajtravels.site.entity.Gallery;
+import com.sairajtravels.site.entity.VehicleBooking;
+import com.sairajtravels.site.repository.AdminUserRepository;
+import com.sairajtravels.site.repository.ContactMessageRepository;
+import com.sairajtravels.site.repository.EnquiryRepository;
+import com.sairajtravels.site.repository.GalleryRepository;
+import com.sairajtravels.site.repository.VehicleBookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dashboard counters (bookings per status and per request day, enquiries per status and service,
+ * gallery items per category, users, contact messages) kept in memory.
+ *
+ * Services report each write as the counter keys of the row before and after it
+ * ({@link #keysOf} then {@link #changed}), applied once the transaction commits. The counters are
+ * rebuilt from one GROUP BY query per table on first use and every {@code rollup.rebuild-minutes},
+ * which also corrects direct DB edits and any drift from writes that raced a rebuild. The
+ * dashboard snapshot is cached until the next change, so reading it costs nothing.
+ */
+@Service
+public class OperationalRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(OperationalRollupService.class);
+
+    static final String BOOKINGS_BY_STATUS = "bookings.status";
+    static final String BOOKINGS_BY_DAY = "bookings.day";
+    static final String ENQUIRIES_BY_STATUS = "enquiries.status";
+    static final String ENQUIRIES_BY_SERVICE = "enquiries.service";
+    static final String GALLERY_TOTAL = "gallery.total";
+    static final String GALLERY_ACTIVE = "gallery.active";
+    static final String GALLERY_FEATURED = "gallery.featured";
+    static final String GALLERY_BY_CATEGORY = "gallery.category";
+    static final String USERS_TOTAL = "users.total";
+    static final String USERS_ACTIVE = "users.active";
+    static final String CONTACT_MESSAGES = "contact.total";
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    /** One counter: a metric and up to two dimension values. */
+    public record Key(String metric, String a, String b) {
+        static Key of(String metric) {
+            return new Key(metric, null, null);
+        }
+
+        static Key of(String metric, String a) {
+            return new Key(metric, a, null);
+        }
+    }
+
+    private final VehicleBookingRepository vehicleBookingRepository;
+    private final EnquiryRepository enquiryRepository;
+    private final GalleryRepository galleryRepository;
+    private final AdminUserRepository adminUserRepository;
+    private final ContactMessageRepository contactMessageRepository;
+
+    private record Snapshot(long version, Map<String, Object> stats) {}
+
+    private volatile Map<Key, LongAdder> counts;            // null until the first rebuild
+    private final AtomicLong version = new AtomicLong();    // bumped after every change
+    private volatile Snapshot snapshot;
+    private volatile LocalDateTime rebuiltAt;
+
+    @Value("${rollup.booking-days:30}")
+    private int bookingDays;
+
+    public OperationalRollupService(VehicleBookingRepository vehicleBookingRepository,
+                                    EnquiryRepository enquiryRepository,
+                                    GalleryRepository galleryRepository,
+                                    AdminUserRepository adminUserRepository,
+                                    ContactMessageRepository contactMessageRepository) {
+        this.vehicleBookingRepository = vehicleBookingRepository;
+        this.enquiryRepository = enquiryRepository;
+        this.galleryRepository = galleryRepository;
+        this.adminUserRepository = adminUserRepository;
+        this.contactMessageRepository = contactMessageRepository;
+    }
+
+    public List<Key> keysOf(VehicleBooking b) {
+        String status = orUnknown(b.getStatus());
+        if (b.getRequestedAt() == null) {
+            return List.of(Key.of(BOOKINGS_BY_STATUS, status));
+        }
+        return List.of(Key.of(BOOKINGS_BY_STATUS, status),
+                new Key(BOOKINGS_BY_DAY, b.getRequestedAt().toLocalDate().toString(), status));
+    }
+
+    public List<Key> keysOf(Enquiry e) {
+        return List.of(Key.of(ENQUIRIES_BY_STATUS, orUnknown(e.getStatus())),
+                Key.of(ENQUIRIES_BY_SERVICE, orUnknown(e.getService())));
+    }
+
+    public List<Key> keysOf(Gallery g) {
+        return galleryKeys(g.getCategory(), Boolean.TRUE.equals(g.getIsActive()), Boolean.TRUE.equals(g.getIsFeatured()));
+    }
+
+    public List<Key> keysOf(AdminUser u) {
+        return Boolean.TRUE.equals(u.getIsActive())
+                ? List.of(Key.of(USERS_TOTAL), Key.of(USERS_ACTIVE))
+                : List.of(Key.of(USERS_TOTAL));
+    }
+
+    public List<Key> contactMessageKeys() {
+        return List.of(Key.of(CONTACT_MESSAGES));
+    }
+
+    /**
+     * Moves a row's contribution from {@code before} to {@code after} (either may be null for a
+     * create or delete) once the surrounding transaction commits.
+     */
+    public void changed(List<Key> before, List<Key> after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        // A rolled-back write must not move the counters
+        AfterCommit.run(() -> {
+            Map<Key, LongAdder> c = counts;
+            if (c == null) {
+                return;     // nothing built yet; the first read loads it from the tables
+            }
+            if (before != null) {
+                before.forEach(k -> c.computeIfAbsent(k, x -> new LongAdder()).decrement());
+            }
+            if (after != null) {
+                after.forEach(k -> c.computeIfAbsent(k, x -> new LongAdder()).increment());
+            }
+            version.incrementAndGet();
+        });
+    }
+
+    /** Current value of one counter. */
+    public long count(String metric, String a) {
+        LongAdder v = current().get(new Key(metric, a, null));
+        return v != null ? v.sum() : 0;
+    }
+
+    /** Every dashboard number in one map; re-rendered only after a change. */
+    public Map<String, Object> getDashboardStats() {
+        Map<Key, LongAdder> c = current();
+        long v = version.get();
+        Snapshot s = snapshot;
+        if (s == null || s.version() != v) {
+            // A change landing mid-render bumps the version again, so the next read re-renders
+            s = new Snapshot(v, render(c));
+            snapshot = s;
+        }
+        return s.stats();
+    }
+
+    @Scheduled(fixedDelayString = "${rollup.rebuild-minutes:15}", initialDelayString = "${rollup.rebuild-minutes:15}",
+               timeUnit = TimeUnit.MINUTES)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Key, LongAdder> c = new ConcurrentHashMap<>();
+        for (Object[] row : vehicleBookingRepository.countByStatusAndRequestDay()) {
+            String status = orUnknown((String) row[0]);
+            long n = (Long) row[2];
+            add(c, Key.of(BOOKINGS_BY_STATUS, status), n);
+            if (row[1] != null) {
+                add(c, new Key(BOOKINGS_BY_DAY, row[1].toString(), status), n);
+            }
+        }
+        for (Object[] row : enquiryRepository.countByStatusAndService()) {
+            long n = (Long) row[2];
+            add(c, Key.of(ENQUIRIES_BY_STATUS, orUnknown((String) row[0])), n);
+            add(c, Key.of(ENQUIRIES_BY_SERVICE, orUnknown((String) row[1])), n);
+        }
+        for (Object[] row : galleryRepository.countByCategoryAndFlags()) {
+            long n = (Long) row[3];
+            for (Key k : galleryKeys((String) row[0], Boolean.TRUE.equals(row[1]), Boolean.TRUE.equals(row[2]))) {
+                add(c, k, n);
+            }
+        }
+        for (Object[] row : adminUserRepository.countByActive()) {
+            add(c, Key.of(USERS_TOTAL), (Long) row[1]);
+            if (Boolean.TRUE.equals(row[0])) {
+                add(c, Key.of(USERS_ACTIVE), (Long) row[1]);
+            }
+        }
+        add(c, Key.of(CONTACT_MESSAGES), contactMessageRepository.count());
+
+        counts = c;
+        rebuiltAt = LocalDateTime.now();
+        version.incrementAndGet();
+        log.info("Dashboard rollups rebuilt: {} counters in {} ms", c.size(), System.currentTimeMillis() - start);
+    }
+
+    private Map<Key, LongAdder> current() {
+        Map<Key, LongAdder> c = counts;
+        if (c == null) {
+            synchronized (this) {
+                if (counts == null) {
+                    rebuild();
+                }
+                c = counts;
+            }
+        }
+        return c;
+    }
+
+    private Map<String, Object> render(Map<Key, LongAdder> c) {
+        String firstDay = LocalDate.now().minusDays(bookingDays - 1L).toString();
+        Map<String, Long> bookingsByStatus = new TreeMap<>();
+        Map<String, Map<String, Long>> bookingsByDay = new TreeMap<>(Collections.reverseOrder());
+        Map<String, Long> enquiriesByStatus = new TreeMap<>();
+        Map<String, Long> enquiriesByService = new TreeMap<>();
+        Map<String, Long> galleryByCategory = new TreeMap<>();
+        for (Map.Entry<Key, LongAdder> e : c.entrySet()) {
+            Key k = e.getKey();
+            long n = e.getValue().sum();
+            if (n == 0) {
+                continue;
+            }
+            switch (k.metric()) {
+                case BOOKINGS_BY_STATUS -> bookingsByStatus.put(k.a(), n);
+                case BOOKINGS_BY_DAY -> {
+                    // ISO dates compare as strings
+                    if (k.a().compareTo(firstDay) >= 0) {
+                        bookingsByDay.computeIfAbsent(k.a(), d -> new TreeMap<>()).put(k.b(), n);
+                    }
+                }
+                case ENQUIRIES_BY_STATUS -> enquiriesByStatus.put(k.a(), n);
+                case ENQUIRIES_BY_SERVICE -> enquiriesByService.put(k.a(), n);
+                case GALLERY_BY_CATEGORY -> galleryByCategory.put(k.a(), n);
+                default -> { }
+            }
+        }
+
+        Map<String, Object> bookings = new LinkedHashMap<>();
+        bookings.put("total", sum(bookingsByStatus));
+        bookings.put("byStatus", bookingsByStatus);
+        bookings.put("byDay", bookingsByDay);
+
+        Map<String, Object> enquiries = new LinkedHashMap<>();
+        enquiries.put("total", sum(enquiriesByStatus));
+        enquiries.put("byStatus", enquiriesByStatus);
+        enquiries.put("byService", enquiriesByService);
+
+        Map<String, Object> gallery = new LinkedHashMap<>();
+        gallery.put("total", value(c, GALLERY_TOTAL));
+        gallery.put("active", value(c, GALLERY_ACTIVE));
+        gallery.put("featured", value(c, GALLERY_FEATURED));
+        gallery.put("byCategory", galleryByCategory);
+
+        long usersTotal = value(c, USERS_TOTAL);
+        long usersActive = value(c, USERS_ACTIVE);
+        Map<String, Object> users = new LinkedHashMap<>();
+        users.put("total", usersTotal);
+        users.put("active", usersActive);
+        users.put("inactive", usersTotal - usersActive);
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("bookings", bookings);
+        out.put("enquiries", enquiries);
+        out.put("gallery", gallery);
+        out.put("users", users);
+        out.put("contactMessages", Map.of("total", value(c, CONTACT_MESSAGES)));
+        out.put("rebuiltAt", rebuiltAt);
+        out.put("renderedAt", LocalDateTime.now());
+        return Collections.unmodifiableMap(out);
+    }
+
+    // Only active items count per category and as featured, as the gallery stats always did
+    private static List<Key> galleryKeys(String category, boolean active, boolean featured) {
+        List<Key> keys = new ArrayList<>(4);
+        keys.add(Key.of(GALLERY_TOTAL));
+        if (active) {
+            keys.add(Key.of(GALLERY_ACTIVE));
+            keys.add(Key.of(GALLERY_BY_CATEGORY, orUnknown(category)));
+            if (featured) {
+                keys.add(Key.of(GALLERY_FEATURED));
+            }
+        }
+        return keys;
+    }
+
+    private static void add(Map<Key, LongAdder> c, Key k, long n) {
+        c.computeIfAbsent(k, x -> new LongAdder()).add(n);
+    }
+
+    private static long value(Map<Key, LongAdder> c, String metric) {
+        LongAdder v = c.get(Key.of(metric));
+        return v != null ? v.sum() : 0;
+    }
+
+    private static long sum(Map<String, Long> m) {
+        long total = 0;
+        for (long n : m.values()) {
+            total += n;
+        }
+        return total;
+    }
+
+    private static String orUnknown(String s) {
+        return s == null || s.isBlank() ? UNKNOWN : s;
+    }
+}
@@ -0,0 +1,141 @@
+package com.sairajtravels.site.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sairajtravels.site.dto.RouteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * OpenRouteService driving-car directions and matrix client. Returns one-way routes; round trips and
+ * costs are the caller's concern. Calls go through the pooled, circuit-broken {@code orsClient}.
+ */
+@Service
+public class OrsDirectionsService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrsDirectionsService.class);
+
+    private static final String ORS_URL = "https://api.openrouteservice.org/v2/directions/driving-car";
+    private static final String ORS_MATRIX_URL = "https://api.openrouteservice.org/v2/matrix/driving-car";
+
+    private final UpstreamClient orsClient;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ors.api.key}")
+    private String orsApiKey;
+
+    public OrsDirectionsService(@Qualifier("orsClient") UpstreamClient orsClient, ObjectMapper objectMapper) {
+        this.orsClient = orsClient;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Asynchronous {@link #directions}. Completes exceptionally on HTTP/I-O failure, or with
+     * {@link CircuitBreaker.OpenException} straight away while ORS is failing.
+     */
+    public CompletableFuture<RouteResult> directionsAsync(double fromLat, double fromLng, double toLat, double toLng) {
+        HttpEntity<Map<String, Object>> entity = directionsRequest(fromLat, fromLng, toLat, toLng);
+        return orsClient.submit(rest -> exchangeDirections(rest, entity));
+    }
+
+    /**
+     * Fetches the driving route between two points. Returns null when ORS answered but no
+     * route could be read; HTTP and I/O failures propagate to the caller.
+     */
+    public RouteResult directions(double fromLat, double fromLng, double toLat, double toLng) {
+        HttpEntity<Map<String, Object>> entity = directionsRequest(fromLat, fromLng, toLat, toLng);
+        return orsClient.call(rest -> exchangeDirections(rest, entity));
+    }
+
+    private HttpEntity<Map<String, Object>> directionsRequest(double fromLat, double fromLng,
+                                                             double toLat, double toLng) {
+        Map<String, Object> body = new HashMap<>();
+        List<List<Double>> coords = Arrays.asList(
+                Arrays.asList(fromLng, fromLat),
+                Arrays.asList(toLng, toLat)
+        );
+        body.put("coordinates", coords);
+        body.put("instructions", false);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", orsApiKey);
+
+        return new HttpEntity<>(body, headers);
+    }
+
+    // The body is pulled straight off the socket by OrsRouteParser; it is never built as a Map
+    private RouteResult exchangeDirections(RestTemplate rest, HttpEntity<Map<String, Object>> entity) {
+        RouteResult route = rest.execute(ORS_URL, HttpMethod.POST, rest.httpEntityCallback(entity), response -> {
+            try (JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+                return OrsRouteParser.parse(parser);
+            }
+        });
+        if (route == null) {
+            log.warn("ORS response contained no route");
+        }
+        return route;
+    }
+
+    /**
+     * One ORS matrix request. {@code locations} are {lat, lon} pairs; the result is
+     * {distances[s][d] in metres, durations[s][d] in seconds} with NaN for unroutable cells.
+     */
+    public double[][][] matrix(List<double[]> locations, int[] sources, int[] destinations) {
+        List<List<Double>> coords = new ArrayList<>(locations.size());
+        for (double[] p : locations) {
+            coords.add(Arrays.asList(p[1], p[0]));
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("locations", coords);
+        body.put("sources", sources);
+        body.put("destinations", destinations);
+        body.put("metrics", List.of("distance", "duration"));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", orsApiKey);
+
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+        @SuppressWarnings("rawtypes")
+        ResponseEntity<Map> resp = orsClient.call(rest -> rest.exchange(ORS_MATRIX_URL, HttpMethod.POST, entity, Map.class));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> raw = resp.getBody();
+        if (raw == null || !(raw.get("distances") instanceof List) || !(raw.get("durations") instanceof List)) {
+            throw new IllegalStateException("ORS matrix response missing distances/durations");
+        }
+        return new double[][][]{
+                toGrid((List<?>) raw.get("distances"), sources.length, destinations.length),
+                toGrid((List<?>) raw.get("durations"), sources.length, destinations.length)
+        };
+    }
+
+    private double[][] toGrid(List<?> rows, int n, int m) {
+        double[][] grid = new double[n][m];
+        for (int i = 0; i < n; i++) {
+            List<?> row = i < rows.size() ? (List<?>) rows.get(i) : List.of();
+            for (int j = 0; j < m; j++) {
+                Object v = j < row.size() ? row.get(j) : null;
+                grid[i][j] = v instanceof Number ? ((Number) v).doubleValue() : Double.NaN;
+            }
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,158 @@
+package com.sairajtravels.site.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sairajtravels.site.dto.RouteResult;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Pull parser for ORS directions responses. Reads only the first route's summary distance and
+ * duration and its geometry (GeoJSON coordinates, or the encoded polyline of the JSON endpoint)
+ * straight into a primitive buffer; everything else is skipped without being materialised.
+ */
+final class OrsRouteParser {
+
+    private OrsRouteParser() {
+    }
+
+    /** Returns the first route, or null when the body contains none. */
+    static RouteResult parse(JsonParser p) throws IOException {
+        if (p.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        RouteResult route = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if (route == null && value == JsonToken.START_ARRAY
+                    && ("features".equals(field) || "routes".equals(field))) {
+                if (p.nextToken() == JsonToken.START_OBJECT) {
+                    route = readRoute(p);
+                    while (p.nextToken() != JsonToken.END_ARRAY) {
+                        p.skipChildren();
+                    }
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+        return route;
+    }
+
+    // At the START_OBJECT of a GeoJSON feature or a JSON route
+    private static RouteResult readRoute(JsonParser p) throws IOException {
+        double[] summary = {0.0, 0.0};
+        double[] coordinates = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if ("properties".equals(field) && value == JsonToken.START_OBJECT) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String inner = p.getCurrentName();
+                    if (p.nextToken() == JsonToken.START_OBJECT && "summary".equals(inner)) {
+                        readSummary(p, summary);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else if ("summary".equals(field) && value == JsonToken.START_OBJECT) {
+                readSummary(p, summary);
+            } else if ("geometry".equals(field) && value == JsonToken.VALUE_STRING) {
+                coordinates = PolylineCodec.decode(p.getText(), PolylineCodec.DEFAULT_PRECISION, false);
+            } else if ("geometry".equals(field) && value == JsonToken.START_OBJECT) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String inner = p.getCurrentName();
+                    if (p.nextToken() == JsonToken.START_ARRAY && "coordinates".equals(inner)) {
+                        coordinates = readCoordinates(p);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+        return new RouteResult(summary[0], summary[1], coordinates);
+    }
+
+    private static void readSummary(JsonParser p, double[] summary) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if (value.isNumeric() && "distance".equals(field)) {
+                summary[0] = p.getDoubleValue();
+            } else if (value.isNumeric() && "duration".equals(field)) {
+                summary[1] = p.getDoubleValue();
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    // Exactly representable powers of ten for the fast path below
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Reads a number token without the String that {@link JsonParser#getDoubleValue()} builds.
+     * Plain decimals with at most 15 significant digits (every coordinate ORS sends) are converted
+     * as mantissa / 10^k, which is exact-rounded; anything else goes through Jackson.
+     */
+    private static double readDouble(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+            char[] text = p.getTextCharacters();
+            int i = p.getTextOffset();
+            int end = i + p.getTextLength();
+            boolean negative = i < end && text[i] == '-';
+            if (negative) {
+                i++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int scale = 0;
+            boolean fraction = false;
+            for (; i < end; i++) {
+                char c = text[i];
+                if (c >= '0' && c <= '9') {
+                    if (++digits > 15) {
+                        return p.getDoubleValue();
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) {
+                        scale++;
+                    }
+                } else if (c == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    return p.getDoubleValue();
+                }
+            }
+            double v = mantissa / POW10[scale];
+            return negative ? -v : v;
+        }
+        return p.getDoubleValue();
+    }
+
+    // At the START_ARRAY of [[lon, lat(, ele)], ...]
+    private static double[] readCoordinates(JsonParser p) throws IOException {
+        double[] buf = new double[512];
+        int n = 0;
+        while (p.nextToken() == JsonToken.START_ARRAY) {
+            if (n + 2 > buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            p.nextToken();
+            buf[n++] = readDouble(p);
+            p.nextToken();
+            buf[n++] = readDouble(p);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                p.skipChildren();
+            }
+        }
+        return Arrays.copyOf(buf, n);
+    }
+}
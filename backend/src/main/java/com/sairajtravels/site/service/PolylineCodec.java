@@ -0,0 +1,81 @@
+package com.sairajtravels.site.service;
+
+import java.util.Arrays;
+
+/**
+ * Encoded polyline format (Google / ORS): each coordinate is rounded to {@code precision}
+ * decimals, delta-encoded against the previous point and written as 5-bit varint chunks.
+ * Works on flat interleaved lon/lat arrays; the encoded form is lat-first, as the format requires.
+ */
+public final class PolylineCodec {
+
+    public static final int DEFAULT_PRECISION = 5;
+
+    private PolylineCodec() {
+    }
+
+    /** Encodes interleaved lon0, lat0, lon1, lat1, ... */
+    public static String encode(double[] lonLat, int precision) {
+        double factor = Math.pow(10, precision);
+        StringBuilder sb = new StringBuilder(lonLat.length * 3);
+        long prevLat = 0;
+        long prevLon = 0;
+        for (int i = 0; i + 1 < lonLat.length; i += 2) {
+            long lat = Math.round(lonLat[i + 1] * factor);
+            long lon = Math.round(lonLat[i] * factor);
+            writeValue(sb, lat - prevLat);
+            writeValue(sb, lon - prevLon);
+            prevLat = lat;
+            prevLon = lon;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Decodes into interleaved lon/lat. With {@code hasElevation} the third value of each point
+     * (as ORS emits for elevation=true) is skipped.
+     */
+    public static double[] decode(String encoded, int precision, boolean hasElevation) {
+        double factor = Math.pow(10, precision);
+        int dims = hasElevation ? 3 : 2;
+        double[] out = new double[Math.max(4, encoded.length() / 2)];
+        int n = 0;
+        long[] acc = new long[dims];
+        int[] pos = {0};
+        while (pos[0] < encoded.length()) {
+            for (int d = 0; d < dims; d++) {
+                acc[d] += readValue(encoded, pos);
+            }
+            if (n + 2 > out.length) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+            out[n++] = acc[1] / factor;
+            out[n++] = acc[0] / factor;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static void writeValue(StringBuilder sb, long value) {
+        long v = value < 0 ? ~(value << 1) : value << 1;
+        while (v >= 0x20) {
+            sb.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        sb.append((char) (v + 63));
+    }
+
+    private static long readValue(String s, int[] pos) {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (pos[0] >= s.length()) {
+                throw new IllegalArgumentException("Truncated polyline");
+            }
+            b = s.charAt(pos[0]++) - 63;
+            result |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+    }
+}
@@ -0,0 +1,380 @@
+package com.sairajtravels.site.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache for Nominatim reverse lookups.
+ *
+ * Coordinates are quantized to a fixed-precision grid cell (4 decimals ~ 11 m by default),
+ * so repeated plans from the same pickup point and the ring probes around it reuse earlier answers.
+ * Tier 1 is a bounded in-memory LRU with TTL. Tier 2 is an optional append-only file that is
+ * replayed on startup so the cache survives restarts; its index is a larger LRU of its own, and the
+ * file is rewritten with just the live entries as evicted and expired lines pile up. All file I/O
+ * after startup happens on one background writer thread, never under the cache lock.
+ */
+@Component
+public class ReverseGeocodeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ReverseGeocodeCache.class);
+
+    // Only the fields the trip planner actually reads from a Nominatim place
+    private static final String[] KEPT_FIELDS = {"class", "type", "lat", "lon"};
+
+    // Queued ahead of the writer; past this, new lines are dropped (the entry is still cached in memory)
+    private static final int DISK_QUEUE_CAPACITY = 10_000;
+    private static final String STOP = "";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geocode.cache.max-entries:20000}")
+    private int maxEntries;
+
+    @Value("${geocode.cache.ttl-hours:168}")
+    private long ttlHours;
+
+    @Value("${geocode.cache.grid-decimals:4}")
+    private int gridDecimals;
+
+    @Value("${geocode.cache.disk-path:}")
+    private String diskPath;
+
+    @Value("${geocode.cache.disk-max-entries:200000}")
+    private int diskMaxEntries;
+
+    private LinkedHashMap<Long, Entry> memory;
+    private LinkedHashMap<Long, Entry> disk;
+    private double gridScale;
+
+    // Disk tier; diskWriter and diskLines belong to the writer thread once it has started
+    private final BlockingQueue<String> diskQueue = new LinkedBlockingQueue<>(DISK_QUEUE_CAPACITY);
+    private volatile Thread diskWriterThread;
+    private Path diskFile;
+    private BufferedWriter diskWriter;
+    private int diskLines;
+
+    private Counter memoryHits;
+    private Counter diskHits;
+    private Counter misses;
+    private Counter memoryEvictions;
+    private Counter diskEvictions;
+    private Counter expirations;
+    private Counter diskDropped;
+
+    public ReverseGeocodeCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        gridScale = Math.pow(10, gridDecimals);
+
+        memoryHits = Counter.builder("geocode.cache.hits").tag("tier", "memory").register(meterRegistry);
+        diskHits = Counter.builder("geocode.cache.hits").tag("tier", "disk").register(meterRegistry);
+        misses = Counter.builder("geocode.cache.misses").register(meterRegistry);
+        memoryEvictions = Counter.builder("geocode.cache.evictions").tag("tier", "memory").register(meterRegistry);
+        diskEvictions = Counter.builder("geocode.cache.evictions").tag("tier", "disk").register(meterRegistry);
+        expirations = Counter.builder("geocode.cache.expirations").register(meterRegistry);
+        diskDropped = Counter.builder("geocode.cache.disk.dropped").register(meterRegistry);
+        Gauge.builder("geocode.cache.size", this, c -> c.memorySize()).tag("tier", "memory").register(meterRegistry);
+        Gauge.builder("geocode.cache.size", this, c -> c.diskSize()).tag("tier", "disk").register(meterRegistry);
+
+        memory = lru(maxEntries, memoryEvictions);
+        disk = lru(diskMaxEntries, diskEvictions);
+
+        if (diskPath != null && !diskPath.isBlank()) {
+            openDiskTier(Paths.get(diskPath));
+        }
+    }
+
+    /**
+     * Returns the cached place for the grid cell containing (lat, lon), or calls the loader and
+     * caches its result. A null result from the loader (network error, throttling) is not cached.
+     */
+    public Map<String, Object> get(double lat, double lon, Supplier<Map<String, Object>> loader) {
+        long key = cellKey(lat, lon);
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            Entry e = memory.get(key);
+            if (e != null) {
+                if (e.expiresAt > now) {
+                    memoryHits.increment();
+                    return e.place;
+                }
+                memory.remove(key);
+                expirations.increment();
+            }
+            e = disk.get(key);
+            if (e != null) {
+                if (e.expiresAt > now) {
+                    diskHits.increment();
+                    memory.put(key, e);
+                    return e.place;
+                }
+                disk.remove(key);
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        Map<String, Object> loaded = loader.get();
+        if (loaded == null) {
+            return null;
+        }
+
+        Entry fresh = new Entry(trim(loaded), now + ttlHours * 3_600_000L);
+        boolean persist = diskWriterThread != null;
+        synchronized (this) {
+            memory.put(key, fresh);
+            if (persist) {
+                disk.put(key, fresh);
+            }
+        }
+        if (persist) {
+            queueForDisk(key, fresh);
+        }
+        return fresh.place;
+    }
+
+    private LinkedHashMap<Long, Entry> lru(int limit, Counter evicted) {
+        return new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > limit) {
+                    evicted.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized int memorySize() {
+        return memory.size();
+    }
+
+    public synchronized int diskSize() {
+        return disk.size();
+    }
+
+    long cellKey(double lat, double lon) {
+        long latCell = Math.round(lat * gridScale);
+        long lonCell = Math.round(lon * gridScale);
+        return (latCell << 32) | (lonCell & 0xFFFFFFFFL);
+    }
+
+    private Map<String, Object> trim(Map<String, Object> place) {
+        Map<String, Object> out = new HashMap<>(8);
+        for (String f : KEPT_FIELDS) {
+            Object v = place.get(f);
+            if (v != null) out.put(f, v.toString());
+        }
+        return out;
+    }
+
+    // --- Disk tier: one "key \t expiresAt \t json" line per entry, compacted on startup and again
+    // once the file holds twice the live entries (or disk-max-entries lines, whichever is more) ---
+
+    private void openDiskTier(Path file) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            int lines = 0;
+            long now = System.currentTimeMillis();
+            if (Files.exists(file)) {
+                try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = r.readLine()) != null) {
+                        lines++;
+                        String[] parts = line.split("\t", 3);
+                        if (parts.length < 3) continue;
+                        try {
+                            long key = Long.parseLong(parts[0]);
+                            long expiresAt = Long.parseLong(parts[1]);
+                            if (expiresAt <= now) continue;
+                            Map<String, Object> place = mapper.readValue(parts[2], new TypeReference<Map<String, Object>>() {});
+                            disk.put(key, new Entry(place, expiresAt));
+                        } catch (Exception ignored) {
+                            // torn tail write from a crash - skip the line
+                        }
+                    }
+                }
+            }
+
+            diskFile = file;
+            diskLines = lines;
+            if (lines > disk.size()) {
+                compact(liveEntries());
+            }
+            openDiskWriter();
+            log.info("Geocode disk cache loaded {} live entries from {} ({} lines)", disk.size(), file, lines);
+        } catch (IOException e) {
+            log.warn("Geocode disk cache disabled, cannot open {}: {}", file, e.getMessage());
+            diskWriter = null;
+            disk.clear();
+            return;
+        }
+        Thread writer = new Thread(this::writeLoop, "geocode-disk-writer");
+        writer.setDaemon(true);
+        diskWriterThread = writer;
+        writer.start();
+    }
+
+    private void queueForDisk(long key, Entry e) {
+        try {
+            if (!diskQueue.offer(formatLine(key, e))) {
+                diskDropped.increment();
+            }
+        } catch (JsonProcessingException ex) {
+            log.warn("Geocode disk cache entry not written: {}", ex.getMessage());
+        }
+    }
+
+    // The writer thread: appends queued lines, flushing once the queue is drained, and compacts
+    private void writeLoop() {
+        List<String> batch = new ArrayList<>();
+        while (true) {
+            try {
+                String line = diskQueue.poll(1, TimeUnit.SECONDS);
+                if (line == null) {
+                    continue;
+                }
+                batch.add(line);
+                diskQueue.drainTo(batch);
+                boolean stop = batch.remove(STOP);
+                if (diskWriter != null) {
+                    for (String l : batch) {
+                        diskWriter.write(l);
+                    }
+                    diskWriter.flush();
+                    diskLines += batch.size();
+                    if (diskLines > 2 * Math.max(diskSize(), diskMaxEntries / 2)) {
+                        diskWriter.close();
+                        diskWriter = null;
+                        compact(liveEntries());
+                        openDiskWriter();
+                    }
+                }
+                batch.clear();
+                if (stop) {
+                    closeDiskWriter();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                closeDiskWriter();
+                return;
+            } catch (IOException e) {
+                batch.clear();
+                log.warn("Geocode disk cache write failed: {}", e.getMessage());
+                if (diskWriter == null) {
+                    try {
+                        openDiskWriter();
+                    } catch (IOException reopen) {
+                        log.warn("Geocode disk cache writes stopped, cannot reopen {}: {}", diskFile, reopen.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    // Snapshot of the live index, least recently used first so a replay keeps LRU order
+    private synchronized List<Map.Entry<Long, Entry>> liveEntries() {
+        long now = System.currentTimeMillis();
+        disk.values().removeIf(e -> e.expiresAt <= now);
+        List<Map.Entry<Long, Entry>> live = new ArrayList<>(disk.size());
+        for (Map.Entry<Long, Entry> e : disk.entrySet()) {
+            live.add(Map.entry(e.getKey(), e.getValue()));
+        }
+        return live;
+    }
+
+    // Rewrites the file from a snapshot, outside the cache lock
+    private void compact(List<Map.Entry<Long, Entry>> live) throws IOException {
+        Path tmp = diskFile.resolveSibling(diskFile.getFileName() + ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<Long, Entry> e : live) {
+                w.write(formatLine(e.getKey(), e.getValue()));
+            }
+        }
+        Files.move(tmp, diskFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        diskLines = live.size();
+    }
+
+    private void openDiskWriter() throws IOException {
+        diskWriter = Files.newBufferedWriter(diskFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void closeDiskWriter() {
+        if (diskWriter != null) {
+            try {
+                diskWriter.close();
+            } catch (IOException ignored) {
+            }
+            diskWriter = null;
+        }
+    }
+
+    private String formatLine(long key, Entry e) throws JsonProcessingException {
+        return key + "\t" + e.expiresAt + "\t" + mapper.writeValueAsString(e.place) + "\n";
+    }
+
+    // Lets the writer finish what is queued, then closes the file
+    @PreDestroy
+    void close() {
+        Thread writer = diskWriterThread;
+        if (writer == null) {
+            return;
+        }
+        diskWriterThread = null;
+        try {
+            diskQueue.put(STOP);
+            writer.join(10_000);
+        } catch (InterruptedException e) {
+            writer.interrupt();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Entry {
+        final Map<String, Object> place;
+        final long expiresAt;
+
+        Entry(Map<String, Object> place, long expiresAt) {
+            this.place = place;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
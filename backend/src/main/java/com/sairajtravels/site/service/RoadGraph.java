@@ -0,0 +1,203 @@
+package com.sairajtravels.site.service;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Immutable road graph held in primitive arrays.
+ *
+ * Nodes are stored as fixed-point coordinates (degrees * 1e6). Outgoing edges use a CSR layout:
+ * the edges of node {@code v} are {@code [firstEdge[v], firstEdge[v + 1])} in {@code edgeTarget},
+ * {@code edgeLength} (metres) and {@code edgeTime} (deciseconds). A reverse CSR is built on load
+ * for backward searches, plus a uniform grid for nearest-node lookups.
+ *
+ * File format (big-endian, as written by the extraction script):
+ * <pre>
+ *   int magic 'SRG1', int nodeCount, int edgeCount,
+ *   int[nodeCount] latE6, int[nodeCount] lonE6,
+ *   int[nodeCount + 1] firstEdge,
+ *   int[edgeCount] edgeTarget, int[edgeCount] edgeLength, int[edgeCount] edgeTime
+ * </pre>
+ */
+public final class RoadGraph {
+
+    static final int MAGIC = 0x53524731; // "SRG1"
+
+    private static final double GRID_CELL_DEG = 0.02;
+
+    final int nodeCount;
+    final int[] latE6;
+    final int[] lonE6;
+
+    final int[] firstEdge;
+    final int[] edgeTarget;
+    final int[] edgeLength;
+    final int[] edgeTime;
+
+    final int[] firstRevEdge;
+    final int[] revEdgeSource;
+    final int[] revEdgeLength;
+    final int[] revEdgeTime;
+
+    /** Fastest edge in the graph, metres per decisecond; bounds the A* heuristic. */
+    final double maxSpeed;
+
+    // Grid index: node ids sorted by cell, cellKeys/cellStart describe the runs
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+
+    RoadGraph(int[] latE6, int[] lonE6, int[] firstEdge, int[] edgeTarget, int[] edgeLength, int[] edgeTime) {
+        this.nodeCount = latE6.length;
+        this.latE6 = latE6;
+        this.lonE6 = lonE6;
+        this.firstEdge = firstEdge;
+        this.edgeTarget = edgeTarget;
+        this.edgeLength = edgeLength;
+        this.edgeTime = edgeTime;
+
+        int edgeCount = edgeTarget.length;
+        firstRevEdge = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            firstRevEdge[edgeTarget[e] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            firstRevEdge[v + 1] += firstRevEdge[v];
+        }
+        revEdgeSource = new int[edgeCount];
+        revEdgeLength = new int[edgeCount];
+        revEdgeTime = new int[edgeCount];
+        int[] fill = Arrays.copyOf(firstRevEdge, nodeCount);
+        double fastest = 0.0;
+        for (int u = 0; u < nodeCount; u++) {
+            for (int e = firstEdge[u]; e < firstEdge[u + 1]; e++) {
+                int slot = fill[edgeTarget[e]]++;
+                revEdgeSource[slot] = u;
+                revEdgeLength[slot] = edgeLength[e];
+                revEdgeTime[slot] = edgeTime[e];
+                if (edgeTime[e] > 0) {
+                    fastest = Math.max(fastest, (double) edgeLength[e] / edgeTime[e]);
+                }
+            }
+        }
+        maxSpeed = fastest > 0 ? fastest : 1.0;
+
+        // Sort node ids by grid cell
+        long[] keyed = new long[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            keyed[v] = (cellKey(cellOf(latE6[v]), cellOf(lonE6[v])) << 24) | v;
+        }
+        Arrays.sort(keyed);
+        cellNodes = new int[nodeCount];
+        long[] keys = new long[nodeCount];
+        int[] starts = new int[nodeCount + 1];
+        int cells = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            long key = keyed[i] >>> 24;
+            cellNodes[i] = (int) (keyed[i] & 0xFFFFFF);
+            if (cells == 0 || keys[cells - 1] != key) {
+                keys[cells] = key;
+                starts[cells] = i;
+                cells++;
+            }
+        }
+        starts[cells] = nodeCount;
+        cellKeys = Arrays.copyOf(keys, cells);
+        cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+
+    public static RoadGraph load(Path file) throws IOException {
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a road graph file: " + file);
+            }
+            int nodeCount = in.readInt();
+            int edgeCount = in.readInt();
+            if (nodeCount <= 0 || nodeCount > 0xFFFFFF || edgeCount < 0) {
+                throw new IOException("Unsupported graph size: " + nodeCount + " nodes, " + edgeCount + " edges");
+            }
+            int[] lat = readInts(in, nodeCount);
+            int[] lon = readInts(in, nodeCount);
+            int[] first = readInts(in, nodeCount + 1);
+            int[] target = readInts(in, edgeCount);
+            int[] length = readInts(in, edgeCount);
+            int[] time = readInts(in, edgeCount);
+            if (first[nodeCount] != edgeCount) {
+                throw new IOException("Corrupt CSR offsets in " + file);
+            }
+            return new RoadGraph(lat, lon, first, target, length, time);
+        }
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    double lat(int v) {
+        return latE6[v] / 1e6;
+    }
+
+    double lon(int v) {
+        return lonE6[v] / 1e6;
+    }
+
+    /**
+     * Nearest node within {@code maxMeters} of the point, or -1. Searches grid rings outwards.
+     */
+    int nearestNode(double lat, double lon, double maxMeters) {
+        int cLat = cellOf((int) Math.round(lat * 1e6));
+        int cLon = cellOf((int) Math.round(lon * 1e6));
+        int maxRing = (int) Math.ceil(maxMeters / (GRID_CELL_DEG * 111000.0 * Math.cos(Math.toRadians(lat)))) + 1;
+
+        int best = -1;
+        double bestMeters = maxMeters;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                for (int dLon = -ring; dLon <= ring; dLon++) {
+                    if (Math.abs(dLat) != ring && Math.abs(dLon) != ring) continue;
+                    int idx = Arrays.binarySearch(cellKeys, cellKey(cLat + dLat, cLon + dLon));
+                    if (idx < 0) continue;
+                    for (int i = cellStart[idx]; i < cellStart[idx + 1]; i++) {
+                        int v = cellNodes[i];
+                        double m = GeoMath.haversineMeters(lat, lon, lat(v), lon(v));
+                        if (m < bestMeters) {
+                            bestMeters = m;
+                            best = v;
+                        }
+                    }
+                }
+            }
+            // Anything in the next ring is at least one full cell away
+            if (best >= 0 && bestMeters < ring * GRID_CELL_DEG * 111000.0 * Math.cos(Math.toRadians(lat))) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private static int cellOf(int coordE6) {
+        return (int) Math.floor(coordE6 / (GRID_CELL_DEG * 1e6));
+    }
+
+    private static long cellKey(int cLat, int cLon) {
+        return ((long) (cLat + 0x4000) << 15) | (cLon + 0x4000);
+    }
+
+    private static int[] readInts(DataInputStream in, int n) throws IOException {
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = in.readInt();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,165 @@
+package com.sairajtravels.site.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Snaps trip endpoints onto the nearest routable place.
+ *
+ * The centre point is checked first; then each radius ring is probed with all 8 bearings in
+ * parallel on a bounded executor. The first routable hit on the innermost ring wins and the
+ * remaining probes of that ring are cancelled. Both endpoints are snapped concurrently and share
+ * one per-plan deadline, after which the raw point is used. Lookups carry that deadline and a
+ * priority (centre first, then inner rings) to {@link NominatimScheduler}.
+ */
+@Service
+public class RoadSnappingService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoadSnappingService.class);
+
+    private static final int[] RADII = {100, 300, 600, 1000, 2000};
+    private static final int BEARINGS = 8;
+
+    private final NominatimService nominatimService;
+    private final ThreadPoolTaskExecutor probeExecutor;
+
+    @Value("${trip.snap.deadline-ms:8000}")
+    private long deadlineMs;
+
+    public RoadSnappingService(NominatimService nominatimService,
+                               @Qualifier("snapProbeExecutor") ThreadPoolTaskExecutor probeExecutor) {
+        this.nominatimService = nominatimService;
+        this.probeExecutor = probeExecutor;
+    }
+
+    /**
+     * Snaps both endpoints in parallel. Each element of the result is the snapped {lat, lon},
+     * or null when nothing routable was found before the deadline.
+     */
+    public double[][] snapPair(double fromLat, double fromLon, double toLat, double toLon) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        // The pool hands work back to the caller when saturated, so this degrades to serial
+        // snapping under load instead of queueing behind other plans.
+        CompletableFuture<double[]> toFuture =
+                CompletableFuture.supplyAsync(() -> snap(toLat, toLon, deadline), probeExecutor);
+
+        double[] from = snap(fromLat, fromLon, deadline);
+        double[] to;
+        try {
+            to = toFuture.get(Math.max(0, remainingNanos(deadline)), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            toFuture.cancel(true);
+            log.warn("Snapping 'to' endpoint hit the plan deadline, using raw point");
+            to = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            to = null;
+        } catch (ExecutionException e) {
+            log.warn("snapToNearestRoad error", e.getCause());
+            to = null;
+        }
+        return new double[][]{from, to};
+    }
+
+    public double[] snap(double lat, double lon, long deadlineNanos) {
+        try {
+            Map<String, Object> root = nominatimService.reverse(lat, lon,
+                    NominatimScheduler.PRIORITY_CENTRE, deadlineNanos);
+            if (nominatimService.isRoutablePlace(root)) {
+                return new double[]{lat, lon};
+            }
+
+            double lonFactor = 111000.0 * Math.cos(Math.toRadians(lat));
+            for (int ring = 0; ring < RADII.length; ring++) {
+                int r = RADII[ring];
+                if (remainingNanos(deadlineNanos) <= 0) {
+                    log.warn("Snapping deadline reached before ring {}m, using raw point", r);
+                    return null;
+                }
+                double[] hit = probeRing(lat, lon, lonFactor, r, NominatimScheduler.PRIORITY_CENTRE + 1 + ring,
+                        deadlineNanos);
+                if (hit != null) {
+                    return hit;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("snapToNearestRoad error", e);
+        }
+        return null;
+    }
+
+    private double[] probeRing(double lat, double lon, double lonFactor, int radius, int priority,
+                               long deadlineNanos) throws InterruptedException {
+        ExecutorCompletionService<double[]> ring = new ExecutorCompletionService<>(probeExecutor);
+        List<Future<double[]>> futures = new ArrayList<>(BEARINGS);
+
+        try {
+            for (int i = 0; i < BEARINGS; i++) {
+                double angle = Math.toRadians(i * (360.0 / BEARINGS));
+                double candLat = lat + (radius * Math.sin(angle) / 111000.0);
+                double candLon = lon + (radius * Math.cos(angle) / lonFactor);
+                futures.add(ring.submit(() -> probe(candLat, candLon, priority, deadlineNanos)));
+            }
+
+            for (int done = 0; done < futures.size(); done++) {
+                long remaining = remainingNanos(deadlineNanos);
+                if (remaining <= 0) {
+                    return null;
+                }
+                Future<double[]> f = ring.poll(remaining, TimeUnit.NANOSECONDS);
+                if (f == null) {
+                    log.warn("Snapping deadline reached on ring {}m, using raw point", radius);
+                    return null;
+                }
+                try {
+                    double[] hit = f.get();
+                    if (hit != null) {
+                        return hit;
+                    }
+                } catch (ExecutionException e) {
+                    log.debug("Snap probe failed: {}", e.getCause().toString());
+                }
+            }
+            return null;
+        } finally {
+            for (Future<double[]> f : futures) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    private double[] probe(double candLat, double candLon, int priority, long deadlineNanos) {
+        Map<String, Object> cand = nominatimService.reverse(candLat, candLon, priority, deadlineNanos);
+        if (!nominatimService.isRoutablePlace(cand)) {
+            return null;
+        }
+        if (cand.containsKey("lat") && cand.containsKey("lon")) {
+            return new double[]{
+                    Double.parseDouble(cand.get("lat").toString()),
+                    Double.parseDouble(cand.get("lon").toString())
+            };
+        }
+        return new double[]{candLat, candLon};
+    }
+
+    private static long remainingNanos(long deadlineNanos) {
+        return deadlineNanos - System.nanoTime();
+    }
+}
@@ -0,0 +1,67 @@
+package com.sairajtravels.site.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sairajtravels.site.dto.RouteResult;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Shapes route geometry for trip responses: GeoJSON (default) or an encoded polyline, optionally
+ * simplified server-side to a tolerance in metres or to roughly one pixel at a map zoom level.
+ */
+@Service
+public class RouteGeometryService {
+
+    public enum Format { GEOJSON, POLYLINE }
+
+    /** Requested output shape. {@code toleranceMeters} wins over {@code zoom}; both 0/null mean none. */
+    public record Options(Format format, double toleranceMeters, Integer zoom) {
+
+        public static final Options DEFAULT = new Options(Format.GEOJSON, 0, null);
+
+        public static Options parse(Object format, Object toleranceMeters, Object zoom) {
+            Format f = format != null && "polyline".equalsIgnoreCase(format.toString())
+                    ? Format.POLYLINE : Format.GEOJSON;
+            double tol = toleranceMeters instanceof Number n ? n.doubleValue()
+                    : toleranceMeters != null ? Double.parseDouble(toleranceMeters.toString()) : 0;
+            Integer z = zoom instanceof Number n ? Integer.valueOf(n.intValue())
+                    : zoom != null ? Integer.valueOf(zoom.toString()) : null;
+            if (z != null && (z < 0 || z > 22)) {
+                throw new IllegalArgumentException("zoom must be between 0 and 22");
+            }
+            return new Options(f, Math.max(0, tol), z);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    public RouteGeometryService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /** Adds "geometry" (and for polylines "geometryFormat"/"geometryPrecision") to {@code out}. */
+    public void writeGeometry(Map<String, Object> out, RouteResult route, Options options) {
+        double[] coords = simplify(route.getCoordinates(), options);
+        if (options.format() == Format.POLYLINE) {
+            out.put("geometry", PolylineCodec.encode(coords, PolylineCodec.DEFAULT_PRECISION));
+            out.put("geometryFormat", "polyline");
+            out.put("geometryPrecision", PolylineCodec.DEFAULT_PRECISION);
+        } else {
+            out.put("geometry", coords == route.getCoordinates()
+                    ? route.toGeoJson()
+                    : new RouteResult(route.getDistanceMeters(), route.getDurationSeconds(), coords).toGeoJson());
+        }
+    }
+
+    private double[] simplify(double[] coords, Options options) {
+        if (coords.length < 6) {
+            return coords;
+        }
+        double tolerance = options.toleranceMeters();
+        if (tolerance <= 0 && options.zoom() != null) {
+            tolerance = LineSimplifier.toleranceForZoom(options.zoom(), coords[1]);
+        }
+        return tolerance > 0 ? LineSimplifier.simplify(coords, tolerance) : coords;
+    }
+}
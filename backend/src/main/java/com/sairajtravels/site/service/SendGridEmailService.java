@@ -1,5 +1,8 @@
 package com.sairajtravels.site.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sendgrid.Client;
 import com.sendgrid.Method;
 import com.sendgrid.Request;
 import com.sendgrid.Response;
@@ -7,12 +10,47 @@ import com.sendgrid.SendGrid;
 import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
+import com.sendgrid.helpers.mail.objects.Personalization;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SendGrid v3 {@code mail/send} over one pooled HTTP client, created at startup: connections (and
+ * their TLS sessions) are kept alive and reused across messages instead of being opened per email.
+ *
+ * {@link #sendBatch} sends one message to many recipients, up to {@code sendgrid.batch-size}
+ * (at most 1000, SendGrid's limit) personalizations per request, each recipient with its own
+ * substitutions, and reports an {@link Outcome} per recipient.
+ */
 @Service
 public class SendGridEmailService {
 
+    private static final Logger log = LoggerFactory.getLogger(SendGridEmailService.class);
+
+    static final int MAX_PERSONALIZATIONS = 1000;
+
+    // Field of a per-recipient validation error, e.g. "personalizations.12.to.0.email"
+    private static final Pattern PERSONALIZATION_FIELD = Pattern.compile("^personalizations\\.(\\d+)\\.");
+
     @Value("${sendgrid.api.key:}")
     private String sendGridApiKey;
     
@@ -22,6 +60,83 @@ public class SendGridEmailService {
     @Value("${sendgrid.from.name:Sairaj Travels}")
     private String fromName;
 
+    @Value("${sendgrid.host:api.sendgrid.com}")
+    private String host;
+
+    @Value("${sendgrid.max-connections:8}")
+    private int maxConnections;
+
+    @Value("${sendgrid.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${sendgrid.read-timeout-ms:15000}")
+    private int readTimeoutMs;
+
+    @Value("${sendgrid.batch-size:1000}")
+    private int batchSize;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private Client client;
+    private SendGrid sendGrid;
+
+    /** What happened to one recipient of a batch. */
+    public enum Outcome {
+        /** Accepted by SendGrid for delivery. */
+        SENT,
+        /** Refused by SendGrid (bad address, bad message); sending again will not help. */
+        REJECTED,
+        /** Not sent (network error, 429, 5xx, not configured); may be retried. */
+        FAILED
+    }
+
+    /** One recipient of a batch; {@code substitutions} replace their keys in the subject and bodies. */
+    public record Recipient(String email, Map<String, String> substitutions) {
+        public Recipient(String email) {
+            this(email, Collections.emptyMap());
+        }
+    }
+
+    public record RecipientResult(String email, Outcome outcome, String error) {}
+
+    @PostConstruct
+    void init() {
+        client = pooledClient(false, maxConnections);
+        sendGrid = sendGrid(client, host);
+        batchSize = Math.max(1, Math.min(batchSize, MAX_PERSONALIZATIONS));
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    // plainHttp is only for a local stand-in of the API
+    Client pooledClient(boolean plainHttp, int connections) {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+        pool.setMaxTotal(connections);
+        pool.setDefaultMaxPerRoute(connections);
+        pool.setValidateAfterInactivity(2000);
+        CloseableHttpClient http = HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setConnectionRequestTimeout(connectTimeoutMs)
+                        .setSocketTimeout(readTimeoutMs)
+                        .build())
+                .evictIdleConnections(60, TimeUnit.SECONDS)
+                .build();
+        return new Client(http, plainHttp);
+    }
+
+    SendGrid sendGrid(Client httpClient, String apiHost) {
+        SendGrid sg = new SendGrid(sendGridApiKey == null ? "" : sendGridApiKey, httpClient);
+        sg.setHost(apiHost);
+        return sg;
+    }
+
     public boolean sendHtmlEmail(String toEmail, String subject, String htmlContent, String fallbackText) {
         if (sendGridApiKey == null || sendGridApiKey.isEmpty()) {
             System.err.println("❌ SendGrid API key not configured. Email not sent to: " + toEmail);
@@ -35,14 +150,7 @@ public class SendGridEmailService {
             
             Mail mail = new Mail(from, subject, to, content);
             
-            SendGrid sg = new SendGrid(sendGridApiKey);
-            Request request = new Request();
-            
-            request.setMethod(Method.POST);
-            request.setEndpoint("mail/send");
-            request.setBody(mail.build());
-            
-            Response response = sg.api(request);
+            Response response = post(sendGrid, mail);
             
             if (response.getStatusCode() >= 200 && response.getStatusCode() < 300) {
                 System.out.println("✅ SendGrid email sent successfully to: " + toEmail);
@@ -77,14 +185,7 @@ public class SendGridEmailService {
             
             Mail mail = new Mail(from, subject, to, content);
             
-            SendGrid sg = new SendGrid(sendGridApiKey);
-            Request request = new Request();
-            
-            request.setMethod(Method.POST);
-            request.setEndpoint("mail/send");
-            request.setBody(mail.build());
-            
-            Response response = sg.api(request);
+            Response response = post(sendGrid, mail);
             
             if (response.getStatusCode() >= 200 && response.getStatusCode() < 300) {
                 System.out.println("✅ SendGrid text email sent successfully to: " + toEmail);
@@ -106,6 +207,135 @@ public class SendGridEmailService {
         }
     }
 
+    /**
+     * Sends the same message to every recipient, one personalization each, in as few requests as
+     * the batch size allows. Results are in the order of {@code recipients}.
+     */
+    public List<RecipientResult> sendBatch(String subject, String htmlContent, String textContent,
+                                           List<Recipient> recipients) {
+        if (!isConfigured()) {
+            return recipients.stream()
+                    .map(r -> new RecipientResult(r.email(), Outcome.FAILED, "SendGrid API key not configured"))
+                    .toList();
+        }
+        return sendBatch(sendGrid, batchSize, subject, htmlContent, textContent, recipients);
+    }
+
+    List<RecipientResult> sendBatch(SendGrid sg, int perRequest, String subject, String htmlContent,
+                                    String textContent, List<Recipient> recipients) {
+        RecipientResult[] results = new RecipientResult[recipients.size()];
+        for (int from = 0; from < recipients.size(); from += perRequest) {
+            int to = Math.min(from + perRequest, recipients.size());
+            List<Integer> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(i);
+            }
+            sendChunk(sg, subject, htmlContent, textContent, recipients, chunk, results, true);
+        }
+        long sent = Arrays.stream(results).filter(r -> r.outcome() == Outcome.SENT).count();
+        log.info("SendGrid batch: {}/{} recipients accepted - {}", sent, results.length, subject);
+        return Arrays.asList(results);
+    }
+
+    // SendGrid accepts or refuses a request as a whole: when only some personalizations are invalid,
+    // those are rejected and the rest go again in one more request
+    private void sendChunk(SendGrid sg, String subject, String htmlContent, String textContent,
+                           List<Recipient> recipients, List<Integer> chunk, RecipientResult[] results,
+                           boolean retryValid) {
+        Response response;
+        try {
+            response = post(sg, mail(subject, htmlContent, textContent, chunk.stream().map(recipients::get).toList()));
+        } catch (IOException e) {
+            fill(results, recipients, chunk, Outcome.FAILED, e.getClass().getSimpleName() + ": " + e.getMessage());
+            return;
+        }
+        int status = response.getStatusCode();
+        if (status >= 200 && status < 300) {
+            fill(results, recipients, chunk, Outcome.SENT, null);
+            return;
+        }
+        if (status != 400) {
+            fill(results, recipients, chunk, Outcome.FAILED, "HTTP " + status + ": " + truncate(response.getBody()));
+            return;
+        }
+
+        Map<Integer, String> invalid = invalidPersonalizations(response.getBody(), chunk.size());
+        if (invalid.isEmpty() || !retryValid) {
+            fill(results, recipients, chunk, Outcome.REJECTED, "HTTP 400: " + truncate(response.getBody()));
+            return;
+        }
+        List<Integer> valid = new ArrayList<>(chunk.size());
+        for (int k = 0; k < chunk.size(); k++) {
+            int i = chunk.get(k);
+            if (invalid.containsKey(k)) {
+                results[i] = new RecipientResult(recipients.get(i).email(), Outcome.REJECTED, invalid.get(k));
+            } else {
+                valid.add(i);
+            }
+        }
+        if (!valid.isEmpty()) {
+            sendChunk(sg, subject, htmlContent, textContent, recipients, valid, results, false);
+        }
+    }
+
+    // {personalization index -> message} from a 400 body: {"errors":[{"message":..,"field":"personalizations.N..."}]}
+    private Map<Integer, String> invalidPersonalizations(String body, int count) {
+        Map<Integer, String> invalid = new LinkedHashMap<>();
+        try {
+            for (JsonNode error : mapper.readTree(body == null ? "" : body).path("errors")) {
+                Matcher m = PERSONALIZATION_FIELD.matcher(error.path("field").asText(""));
+                if (m.find()) {
+                    int index = Integer.parseInt(m.group(1));
+                    if (index < count) {
+                        invalid.putIfAbsent(index, error.path("message").asText("invalid"));
+                    }
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            invalid.clear();
+        }
+        return invalid;
+    }
+
+    // One personalization per recipient
+    private Mail mail(String subject, String htmlContent, String textContent, List<Recipient> recipients) {
+        Mail mail = new Mail();
+        mail.setFrom(new Email(fromEmail, fromName));
+        mail.setSubject(subject);
+        if (textContent != null) {
+            mail.addContent(new Content("text/plain", textContent));     // text/plain must come first
+        }
+        if (htmlContent != null) {
+            mail.addContent(new Content("text/html", htmlContent));
+        }
+        for (Recipient r : recipients) {
+            Personalization p = new Personalization();
+            p.addTo(new Email(r.email()));
+            r.substitutions().forEach(p::addSubstitution);
+            mail.addPersonalization(p);
+        }
+        return mail;
+    }
+
+    private static void fill(RecipientResult[] results, List<Recipient> recipients, List<Integer> chunk,
+                             Outcome outcome, String error) {
+        for (int i : chunk) {
+            results[i] = new RecipientResult(recipients.get(i).email(), outcome, error);
+        }
+    }
+
+    private static Response post(SendGrid sg, Mail mail) throws IOException {
+        Request request = new Request();
+        request.setMethod(Method.POST);
+        request.setEndpoint("mail/send");
+        request.setBody(mail.build());
+        return sg.api(request);
+    }
+
+    private static String truncate(String s) {
+        return s == null || s.length() <= 300 ? s : s.substring(0, 300);
+    }
+
     public boolean isConfigured() {
         return sendGridApiKey != null && !sendGridApiKey.isEmpty();
     }
@@ -0,0 +1,218 @@
+package com.sairajtravels.site.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed number of SMTP sessions, each a {@link Transport} kept connected (handshake and AUTH
+ * done) between sends. A caller borrows one session for a whole batch of messages.
+ *
+ * A session idle for longer than {@code idleCheckMillis} is probed (NOOP) before use, and one idle
+ * longer than {@code maxIdleMillis}, or that has sent {@code maxMessagesPerConnection}, is
+ * reconnected. When a send fails for anything but a refused recipient, the connection is assumed
+ * lost: it is reopened and the message tried once more. Counters per session feed the metrics.
+ */
+final class SmtpTransportPool implements AutoCloseable {
+
+    /** A message of a batch that was not sent. */
+    record Failure(int index, MessagingException error) {}
+
+    static final class Slot {
+        final int id;
+        volatile Transport transport;
+        long lastUsedMillis;
+        int messagesOnConnection;
+        boolean unreachable;        // the last connect attempt failed
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong connects = new AtomicLong();
+        final AtomicLong reconnects = new AtomicLong();     // after a failed send or a dead probe
+        final AtomicLong sendNanos = new AtomicLong();
+        volatile String lastError;
+
+        Slot(int id) {
+            this.id = id;
+        }
+
+        boolean open() {
+            return transport != null;
+        }
+    }
+
+    private final Session session;
+    private final String protocol;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final long idleCheckMillis;
+    private final long maxIdleMillis;
+    private final int maxMessagesPerConnection;
+    private final List<Slot> slots = new ArrayList<>();
+    private final BlockingQueue<Slot> free;
+
+    SmtpTransportPool(Session session, String protocol, String host, int port, String username, String password,
+                      int sessions, long idleCheckMillis, long maxIdleMillis, int maxMessagesPerConnection) {
+        this.session = session;
+        this.protocol = protocol;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.idleCheckMillis = idleCheckMillis;
+        this.maxIdleMillis = maxIdleMillis;
+        this.maxMessagesPerConnection = Math.max(1, maxMessagesPerConnection);
+        this.free = new ArrayBlockingQueue<>(Math.max(1, sessions));
+        for (int i = 0; i < Math.max(1, sessions); i++) {
+            Slot slot = new Slot(i);
+            slots.add(slot);
+            free.add(slot);
+        }
+    }
+
+    List<Slot> slots() {
+        return slots;
+    }
+
+    /**
+     * Sends every message over one session, in order. Returns the messages that could not be sent;
+     * throws only when no session came free within {@code borrowTimeoutMillis}.
+     */
+    List<Failure> send(List<MimeMessage> messages, long borrowTimeoutMillis) throws MessagingException {
+        Slot slot;
+        try {
+            slot = free.poll(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted waiting for an SMTP session");
+        }
+        if (slot == null) {
+            throw new MessagingException("No SMTP session free within " + borrowTimeoutMillis + " ms");
+        }
+        try {
+            List<Failure> failures = new ArrayList<>();
+            for (int i = 0; i < messages.size(); i++) {
+                MessagingException error = sendOne(slot, messages.get(i));
+                if (error != null) {
+                    failures.add(new Failure(i, error));
+                    if (slot.unreachable) {
+                        // The server cannot be reached: do not wait out a connect timeout per message
+                        for (int j = i + 1; j < messages.size(); j++) {
+                            failures.add(new Failure(j, error));
+                            slot.failed.incrementAndGet();
+                        }
+                        break;
+                    }
+                }
+            }
+            return failures;
+        } finally {
+            slot.lastUsedMillis = System.currentTimeMillis();
+            free.add(slot);
+        }
+    }
+
+    private MessagingException sendOne(Slot slot, MimeMessage message) {
+        long start = System.nanoTime();
+        try {
+            prepare(message);
+            Address[] recipients = message.getAllRecipients();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    ensureConnected(slot);
+                    slot.transport.sendMessage(message, recipients);
+                    slot.messagesOnConnection++;
+                    slot.sent.incrementAndGet();
+                    return null;
+                } catch (MessagingException e) {
+                    if (e instanceof SendFailedException && slot.transport != null && slot.transport.isConnected()) {
+                        // Refused recipients (or message): the server answered and the connection is good
+                        return failed(slot, e);
+                    }
+                    disconnect(slot);
+                    if (attempt >= 2) {
+                        return failed(slot, e);
+                    }
+                    slot.reconnects.incrementAndGet();
+                }
+            }
+        } catch (MessagingException e) {
+            return failed(slot, e);
+        } finally {
+            slot.sendNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private static MessagingException failed(Slot slot, MessagingException e) {
+        slot.failed.incrementAndGet();
+        slot.lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return e;
+    }
+
+    // As JavaMailSenderImpl does: a sent date, headers updated, an explicit Message-ID kept
+    private static void prepare(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId);
+        }
+    }
+
+    private void ensureConnected(Slot slot) throws MessagingException {
+        long idle = System.currentTimeMillis() - slot.lastUsedMillis;
+        if (slot.transport != null && (idle > maxIdleMillis || slot.messagesOnConnection >= maxMessagesPerConnection)) {
+            disconnect(slot);
+        } else if (slot.transport != null && idle > idleCheckMillis && !slot.transport.isConnected()) {
+            disconnect(slot);       // the server dropped it while idle
+            slot.reconnects.incrementAndGet();
+        }
+        if (slot.transport == null) {
+            Transport t = session.getTransport(protocol);
+            try {
+                t.connect(host, port, username, password);
+            } catch (MessagingException e) {
+                slot.unreachable = true;
+                throw e;
+            }
+            slot.unreachable = false;
+            slot.transport = t;
+            slot.messagesOnConnection = 0;
+            slot.connects.incrementAndGet();
+        }
+        slot.lastUsedMillis = System.currentTimeMillis();
+    }
+
+    private static void disconnect(Slot slot) {
+        Transport t = slot.transport;
+        slot.transport = null;
+        if (t != null) {
+            try {
+                t.close();
+            } catch (MessagingException ignored) {
+                // already broken
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Slot slot : slots) {
+            disconnect(slot);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.sairajtravels.site.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SMTP sending (the Gmail fallback) over a {@link SmtpTransportPool} of {@code smtp.pool.sessions}
+ * connections opened with the {@code spring.mail.*} settings, instead of a connect, STARTTLS and
+ * AUTH per message. Per session it exports {@code email.smtp.messages} (sent / failed),
+ * {@code email.smtp.connects}, {@code email.smtp.reconnects}, {@code email.smtp.send.time} and
+ * {@code email.smtp.session.open}.
+ */
+@Service
+public class SmtpTransportService {
+
+    private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smtp.pool.sessions:2}")
+    private int sessions;
+
+    @Value("${smtp.pool.idle-check-ms:10000}")
+    private long idleCheckMs;
+
+    @Value("${smtp.pool.max-idle-ms:120000}")
+    private long maxIdleMs;
+
+    @Value("${smtp.pool.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${smtp.pool.borrow-timeout-ms:10000}")
+    private long borrowTimeoutMs;
+
+    private SmtpTransportPool pool;
+
+    public SmtpTransportService(JavaMailSender mailSender, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!(mailSender instanceof JavaMailSenderImpl impl)) {
+            return;     // an unknown sender: send through it as before
+        }
+        pool = new SmtpTransportPool(impl.getSession(), impl.getProtocol() != null ? impl.getProtocol() : "smtp",
+                impl.getHost(), impl.getPort(), impl.getUsername(), impl.getPassword(),
+                sessions, idleCheckMs, maxIdleMs, maxMessagesPerConnection);
+        for (SmtpTransportPool.Slot slot : pool.slots()) {
+            String id = String.valueOf(slot.id);
+            FunctionCounter.builder("email.smtp.messages", slot.sent, Number::doubleValue)
+                    .tag("session", id).tag("outcome", "sent").register(meterRegistry);
+            FunctionCounter.builder("email.smtp.messages", slot.failed, Number::doubleValue)
+                    .tag("session", id).tag("outcome", "failed").register(meterRegistry);
+            FunctionCounter.builder("email.smtp.connects", slot.connects, Number::doubleValue)
+                    .tag("session", id).register(meterRegistry);
+            FunctionCounter.builder("email.smtp.reconnects", slot.reconnects, Number::doubleValue)
+                    .tag("session", id).register(meterRegistry);
+            FunctionCounter.builder("email.smtp.send.time", slot.sendNanos, n -> n.get() / 1e9)
+                    .tag("session", id).baseUnit("seconds").register(meterRegistry);
+            Gauge.builder("email.smtp.session.open", slot, s -> s.open() ? 1 : 0)
+                    .tag("session", id).register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /** Sends one message over a pooled session; throws when it was not sent. */
+    public void send(MimeMessage message) throws MessagingException {
+        if (pool == null) {
+            mailSender.send(message);
+            return;
+        }
+        List<SmtpTransportPool.Failure> failures = pool.send(List.of(message), borrowTimeoutMs);
+        if (!failures.isEmpty()) {
+            throw failures.get(0).error();
+        }
+    }
+
+    /**
+     * Sends the messages in order over one pooled session. Returns the ones not sent, by index;
+     * throws only when no session came free.
+     */
+    public Map<Integer, MessagingException> sendBatch(List<MimeMessage> messages) throws MessagingException {
+        Map<Integer, MessagingException> failed = new LinkedHashMap<>();
+        if (pool == null) {
+            for (int i = 0; i < messages.size(); i++) {
+                try {
+                    mailSender.send(messages.get(i));
+                } catch (Exception e) {
+                    failed.put(i, new MessagingException(e.getMessage(), e));
+                }
+            }
+            return failed;
+        }
+        for (SmtpTransportPool.Failure f : pool.send(messages, borrowTimeoutMs)) {
+            failed.put(f.index(), f.error());
+        }
+        return failed;
+    }
+
+    /** Per-session counters, for diagnostics. */
+    public List<Map<String, Object>> sessions() {
+        return pool == null ? List.of() : stats(pool);
+    }
+
+    private static List<Map<String, Object>> stats(SmtpTransportPool pool) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (SmtpTransportPool.Slot slot : pool.slots()) {
+            Map<String, Object> s = new LinkedHashMap<>();
+            long sent = slot.sent.get();
+            long nanos = slot.sendNanos.get();
+            s.put("session", slot.id);
+            s.put("open", slot.open());
+            s.put("sent", sent);
+            s.put("failed", slot.failed.get());
+            s.put("connects", slot.connects.get());
+            s.put("reconnects", slot.reconnects.get());
+            s.put("messagesPerSecond", nanos > 0 ? Math.round(sent * 1e9 / nanos) : 0);
+            s.put("lastError", slot.lastError);
+            out.add(s);
+        }
+        return out;
+    }
+}
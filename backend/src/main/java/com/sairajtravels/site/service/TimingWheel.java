@@ -0,0 +1,121 @@
+package com.sairajtravels.site.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel: {@code slots} buckets of {@code tickMillis} each, a deadline further out
+ * than one revolution waiting {@code rounds} passes of its bucket. Scheduling and cancelling are
+ * O(1) (a bucket is a doubly linked list, and each key maps to its node); advancing one tick
+ * touches only that tick's bucket. One pending deadline per key: scheduling a key again moves it.
+ *
+ * Deadlines are rounded up to the next tick, so an entry fires at most one tick late and never
+ * early. Not thread-safe; {@link BookingReminderService} guards it.
+ */
+final class TimingWheel<K> {
+
+    private static final class Node<K> {
+        final K key;
+        final long deadlineMillis;
+        final int slot;
+        long rounds;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key, long deadlineMillis, int slot, long rounds) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+            this.slot = slot;
+            this.rounds = rounds;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final Node<K>[] buckets;
+    private final Map<K, Node<K>> byKey = new HashMap<>();
+    private long nextTick;      // the next tick advance() will process
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int slots, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(2, slots - 1) << 1);     // next power of two
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.mask = size - 1;
+        this.buckets = (Node<K>[]) new Node<?>[size];
+    }
+
+    int size() {
+        return byKey.size();
+    }
+
+    /** Deadline of the pending entry for {@code key}, or null. */
+    Long deadlineOf(K key) {
+        Node<K> n = byKey.get(key);
+        return n != null ? n.deadlineMillis : null;
+    }
+
+    /** Schedules (or moves) {@code key}; a deadline already passed fires on the next advance. */
+    void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long tick = Math.max(ceilDiv(deadlineMillis - startMillis, tickMillis), nextTick);
+        int slot = (int) (tick & mask);
+        Node<K> n = new Node<>(key, deadlineMillis, slot, (tick - nextTick) / buckets.length);
+        n.next = buckets[slot];
+        if (n.next != null) {
+            n.next.prev = n;
+        }
+        buckets[slot] = n;
+        byKey.put(key, n);
+    }
+
+    boolean cancel(K key) {
+        Node<K> n = byKey.remove(key);
+        if (n == null) {
+            return false;
+        }
+        unlink(n);
+        return true;
+    }
+
+    /** Processes every tick up to {@code nowMillis}, adding the keys that fell due to {@code expired}. */
+    void advance(long nowMillis, List<K> expired) {
+        long lastTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        for (; nextTick <= lastTick; nextTick++) {
+            Node<K> n = buckets[(int) (nextTick & mask)];
+            while (n != null) {
+                Node<K> next = n.next;
+                if (n.rounds <= 0) {
+                    unlink(n);
+                    byKey.remove(n.key);
+                    expired.add(n.key);
+                } else {
+                    n.rounds--;
+                }
+                n = next;
+            }
+        }
+    }
+
+    private void unlink(Node<K> n) {
+        if (n.prev != null) {
+            n.prev.next = n.next;
+        } else {
+            buckets[n.slot] = n.next;
+        }
+        if (n.next != null) {
+            n.next.prev = n.prev;
+        }
+        n.prev = null;
+        n.next = null;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+}
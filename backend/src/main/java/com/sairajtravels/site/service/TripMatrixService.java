@@ -0,0 +1,244 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.dto.RouteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Batch trip planning for many origin/destination pairs.
+ *
+ * Every distinct point is snapped once. Pairs already in the directions cache are emitted
+ * straight away; the rest are grouped into ORS matrix requests (bounded by the matrix location
+ * limit) that run with bounded concurrency. A failed matrix group falls back to the offline
+ * graph or straight-line estimate per pair. Rows are handed to the sink as each one completes;
+ * groups still running at the deadline are abandoned and their late rows dropped.
+ */
+@Service
+public class TripMatrixService {
+
+    private static final Logger log = LoggerFactory.getLogger(TripMatrixService.class);
+
+    private final TripPlanningService tripPlanningService;
+    private final RoadSnappingService roadSnappingService;
+    private final OrsDirectionsService orsDirectionsService;
+    private final ThreadPoolTaskExecutor batchExecutor;
+
+    @Value("${trip.batch.matrix-max-locations:50}")
+    private int matrixMaxLocations;
+
+    @Value("${trip.batch.deadline-ms:60000}")
+    private long deadlineMs;
+
+    public TripMatrixService(TripPlanningService tripPlanningService,
+                             RoadSnappingService roadSnappingService,
+                             OrsDirectionsService orsDirectionsService,
+                             @Qualifier("tripBatchExecutor") ThreadPoolTaskExecutor batchExecutor) {
+        this.tripPlanningService = tripPlanningService;
+        this.roadSnappingService = roadSnappingService;
+        this.orsDirectionsService = orsDirectionsService;
+        this.batchExecutor = batchExecutor;
+    }
+
+    /**
+     * Plans every pair ({fromLat, fromLng, toLat, toLng}) and passes one row per pair to
+     * {@code sink}, in completion order. The sink may be called from several threads, but never
+     * after this method returns.
+     */
+    public void planAll(List<double[]> pairs, boolean roundTrip, Consumer<Map<String, Object>> rows) {
+        GatedSink sink = new GatedSink(rows);
+        try {
+            planAll(pairs, roundTrip, sink);
+        } finally {
+            sink.close();
+        }
+    }
+
+    private void planAll(List<double[]> pairs, boolean roundTrip, GatedSink sink) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        // 1. Deduplicate points and snap each one once
+        Map<Long, Integer> pointIndex = new HashMap<>();
+        List<double[]> points = new ArrayList<>();
+        int[][] pairPoints = new int[pairs.size()][2];
+        for (int i = 0; i < pairs.size(); i++) {
+            double[] p = pairs.get(i);
+            pairPoints[i][0] = indexPoint(pointIndex, points, p[0], p[1]);
+            pairPoints[i][1] = indexPoint(pointIndex, points, p[2], p[3]);
+        }
+
+        List<CompletableFuture<double[]>> snaps = new ArrayList<>(points.size());
+        for (double[] p : points) {
+            snaps.add(CompletableFuture.supplyAsync(() -> {
+                double[] s = roadSnappingService.snap(p[0], p[1], deadline);
+                return s != null ? s : p;
+            }, batchExecutor));
+        }
+        List<double[]> snapped = new ArrayList<>(points.size());
+        for (int i = 0; i < snaps.size(); i++) {
+            snapped.add(await(snaps.get(i), deadline, points.get(i)));
+        }
+
+        // 2. Serve cached routes immediately, collect the rest
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            double[] a = snapped.get(pairPoints[i][0]);
+            double[] b = snapped.get(pairPoints[i][1]);
+            RouteResult cached = tripPlanningService.cachedRoute(a[0], a[1], b[0], b[1]);
+            if (cached != null) {
+                sink.accept(row(i, pairs.get(i), cached.getDistanceMeters(), cached.getDurationSeconds(),
+                        roundTrip, "cache"));
+            } else {
+                pending.add(i);
+            }
+        }
+
+        // 3. Matrix requests per group of pairs, with bounded concurrency
+        List<CompletableFuture<Void>> groups = new ArrayList<>();
+        for (List<Integer> group : groupByLocationLimit(pending, pairPoints)) {
+            groups.add(CompletableFuture.runAsync(
+                    () -> planGroup(group, pairs, pairPoints, snapped, roundTrip, sink), batchExecutor));
+        }
+        for (CompletableFuture<Void> g : groups) {
+            await(g, deadline, null);
+        }
+    }
+
+    private void planGroup(List<Integer> group, List<double[]> pairs, int[][] pairPoints,
+                           List<double[]> snapped, boolean roundTrip, Consumer<Map<String, Object>> sink) {
+        // Local location list for this group: distinct sources first, then distinct destinations
+        LinkedHashMap<Integer, Integer> srcSlot = new LinkedHashMap<>();
+        LinkedHashMap<Integer, Integer> dstSlot = new LinkedHashMap<>();
+        for (int i : group) {
+            srcSlot.putIfAbsent(pairPoints[i][0], srcSlot.size());
+            dstSlot.putIfAbsent(pairPoints[i][1], dstSlot.size());
+        }
+        List<double[]> locations = new ArrayList<>(srcSlot.size() + dstSlot.size());
+        int[] sources = new int[srcSlot.size()];
+        int[] destinations = new int[dstSlot.size()];
+        for (Map.Entry<Integer, Integer> e : srcSlot.entrySet()) {
+            sources[e.getValue()] = locations.size();
+            locations.add(snapped.get(e.getKey()));
+        }
+        for (Map.Entry<Integer, Integer> e : dstSlot.entrySet()) {
+            destinations[e.getValue()] = locations.size();
+            locations.add(snapped.get(e.getKey()));
+        }
+
+        double[][][] matrix = null;
+        try {
+            matrix = orsDirectionsService.matrix(locations, sources, destinations);
+        } catch (Exception e) {
+            log.warn("⚠️ ORS matrix failed for {} pairs, using local routing: {}", group.size(), e.getMessage());
+        }
+
+        for (int i : group) {
+            int s = srcSlot.get(pairPoints[i][0]);
+            int d = dstSlot.get(pairPoints[i][1]);
+            if (matrix != null && !Double.isNaN(matrix[0][s][d]) && !Double.isNaN(matrix[1][s][d])) {
+                sink.accept(row(i, pairs.get(i), matrix[0][s][d], matrix[1][s][d], roundTrip, "ors-matrix"));
+                continue;
+            }
+            double[] a = snapped.get(pairPoints[i][0]);
+            double[] b = snapped.get(pairPoints[i][1]);
+            RouteResult local = tripPlanningService.offlineRoute(a[0], a[1], b[0], b[1]);
+            String source = "offline";
+            if (local == null) {
+                local = tripPlanningService.straightLineRoute(a[0], a[1], b[0], b[1]);
+                source = "straight-line";
+            }
+            sink.accept(row(i, pairs.get(i), local.getDistanceMeters(), local.getDurationSeconds(), roundTrip, source));
+        }
+    }
+
+    // Greedy split so each matrix request stays within the ORS location limit
+    private List<List<Integer>> groupByLocationLimit(List<Integer> pending, int[][] pairPoints) {
+        List<List<Integer>> groups = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        Set<Integer> srcs = new HashSet<>();
+        Set<Integer> dsts = new HashSet<>();
+        for (int i : pending) {
+            int extra = (srcs.contains(pairPoints[i][0]) ? 0 : 1) + (dsts.contains(pairPoints[i][1]) ? 0 : 1);
+            if (!current.isEmpty() && srcs.size() + dsts.size() + extra > matrixMaxLocations) {
+                groups.add(current);
+                current = new ArrayList<>();
+                srcs.clear();
+                dsts.clear();
+            }
+            current.add(i);
+            srcs.add(pairPoints[i][0]);
+            dsts.add(pairPoints[i][1]);
+        }
+        if (!current.isEmpty()) {
+            groups.add(current);
+        }
+        return groups;
+    }
+
+    private Map<String, Object> row(int index, double[] pair, double meters, double seconds,
+                                    boolean roundTrip, String source) {
+        Map<String, Object> row = tripPlanningService.costRow(meters, seconds, roundTrip);
+        row.put("index", index);
+        row.put("from", Map.of("lat", pair[0], "lng", pair[1]));
+        row.put("to", Map.of("lat", pair[2], "lng", pair[3]));
+        row.put("source", source);
+        row.put("fallback", !"cache".equals(source) && !"ors-matrix".equals(source));
+        return row;
+    }
+
+    private static int indexPoint(Map<Long, Integer> index, List<double[]> points, double lat, double lng) {
+        long key = (Math.round(lat * 1e6) << 32) ^ (Math.round(lng * 1e6) & 0xFFFFFFFFL);
+        return index.computeIfAbsent(key, k -> {
+            points.add(new double[]{lat, lng});
+            return points.size() - 1;
+        });
+    }
+
+    // Cancelling a group's future does not stop its thread, so rows it produces after the
+    // deadline are discarded here. close() waits for a row being written to finish.
+    private static final class GatedSink implements Consumer<Map<String, Object>> {
+        private final Consumer<Map<String, Object>> delegate;
+        private boolean open = true;
+
+        GatedSink(Consumer<Map<String, Object>> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void accept(Map<String, Object> row) {
+            if (open) {
+                delegate.accept(row);
+            }
+        }
+
+        synchronized void close() {
+            open = false;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> f, long deadlineNanos, T otherwise) {
+        try {
+            return f.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Batch trip task did not complete: {}", e.toString());
+        }
+        f.cancel(true);
+        return otherwise;
+    }
+}
@@ -0,0 +1,193 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.dto.RouteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Trip plan pipeline shared by the single and batch planner endpoints:
+ * snap endpoints, then directions cache, ORS, offline road graph and finally a
+ * straight-line estimate.
+ */
+@Service
+public class TripPlanningService {
+
+    private static final Logger log = LoggerFactory.getLogger(TripPlanningService.class);
+
+    private static final double FALLBACK_SPEED_KMPH = 60.0;
+
+    private final RoadSnappingService roadSnappingService;
+    private final OrsDirectionsService orsDirectionsService;
+    private final DirectionsCache directionsCache;
+    private final OfflineRoutingService offlineRoutingService;
+    private final RouteGeometryService routeGeometryService;
+    private final FareQuoteService fareQuoteService;
+    private final ThreadPoolTaskExecutor snapExecutor;
+
+    public TripPlanningService(RoadSnappingService roadSnappingService,
+                               OrsDirectionsService orsDirectionsService,
+                               DirectionsCache directionsCache,
+                               OfflineRoutingService offlineRoutingService,
+                               RouteGeometryService routeGeometryService,
+                               FareQuoteService fareQuoteService,
+                               @Qualifier("snapProbeExecutor") ThreadPoolTaskExecutor snapExecutor) {
+        this.roadSnappingService = roadSnappingService;
+        this.orsDirectionsService = orsDirectionsService;
+        this.directionsCache = directionsCache;
+        this.offlineRoutingService = offlineRoutingService;
+        this.routeGeometryService = routeGeometryService;
+        this.fareQuoteService = fareQuoteService;
+        this.snapExecutor = snapExecutor;
+    }
+
+    /**
+     * Snaps both endpoints, then routes between them. The ORS call runs on its own pooled
+     * client, so the request thread is not held while ORS answers.
+     */
+    public CompletableFuture<Map<String, Object>> planAsync(double fromLat, double fromLng,
+                                                           double toLat, double toLng, boolean roundTrip,
+                                                           RouteGeometryService.Options geometry) {
+        // Snap endpoints (in parallel, bounded by the per-plan deadline)
+        return CompletableFuture
+                .supplyAsync(() -> roadSnappingService.snapPair(fromLat, fromLng, toLat, toLng), snapExecutor)
+                .thenCompose(snapped -> {
+                    double[] from = snapped[0] != null ? snapped[0] : new double[]{fromLat, fromLng};
+                    double[] to = snapped[1] != null ? snapped[1] : new double[]{toLat, toLng};
+                    return routeSnappedAsync(from[0], from[1], to[0], to[1], roundTrip, geometry);
+                });
+    }
+
+    /** Plans between already-snapped endpoints: directions cache, then ORS, then local fallbacks. */
+    public CompletableFuture<Map<String, Object>> routeSnappedAsync(double fromLat, double fromLng,
+                                                                   double toLat, double toLng, boolean roundTrip,
+                                                                   RouteGeometryService.Options geometry) {
+        DirectionsCache.Key routeKey = directionsCache.key(fromLat, fromLng, toLat, toLng);
+        RouteResult cachedRoute = directionsCache.get(routeKey);
+        if (cachedRoute != null) {
+            return CompletableFuture.completedFuture(orsResponse(cachedRoute, roundTrip, true, geometry));
+        }
+
+        return orsDirectionsService.directionsAsync(fromLat, fromLng, toLat, toLng)
+                .handle((route, error) -> {
+                    if (error != null) {
+                        logOrsFailure(error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error);
+                    } else if (route != null) {
+                        directionsCache.put(routeKey, route);
+                        return orsResponse(route, roundTrip, false, geometry);
+                    }
+                    return localFallback(fromLat, fromLng, toLat, toLng, roundTrip, geometry);
+                });
+    }
+
+    private Map<String, Object> orsResponse(RouteResult route, boolean roundTrip, boolean cached,
+                                            RouteGeometryService.Options geometry) {
+        Map<String, Object> result = buildRouteResponse(route, roundTrip, geometry);
+        result.put("fallback", false);
+        result.put("cached", cached);
+        result.put("message", cached ? "ORS success (cached)" : "ORS success");
+
+        log.info("✅ ORS SUCCESS: Driving route {}. Distance={}m, Duration={}s",
+                cached ? "served from cache" : "fetched", result.get("distance"), result.get("duration"));
+        return result;
+    }
+
+    private void logOrsFailure(Throwable error) {
+        if (error instanceof CircuitBreaker.OpenException) {
+            log.warn("⚠️ ORS skipped: {}", error.getMessage());
+        } else if (error instanceof RestClientResponseException rcre) {
+            log.warn("⚠️ ORS call failed: {} \"{}\"",
+                    rcre.getStatusCode().value(), safeTruncate(rcre.getResponseBodyAsString(), 1000));
+        } else {
+            log.error("❌ ORS unexpected error", error);
+        }
+    }
+
+    private Map<String, Object> localFallback(double fromLat, double fromLng, double toLat, double toLng,
+                                              boolean roundTrip, RouteGeometryService.Options geometry) {
+        // --- Fallback 1: offline road graph ---
+        RouteResult offline = offlineRoute(fromLat, fromLng, toLat, toLng);
+        if (offline != null) {
+            Map<String, Object> result = buildRouteResponse(offline, roundTrip, geometry);
+            result.put("fallback", true);
+            result.put("cached", false);
+            result.put("message", "Fallback offline road graph");
+
+            log.warn("⚠️ OFFLINE ROUTE USED: distance={}m, duration={}s",
+                    result.get("distance"), result.get("duration"));
+            return result;
+        }
+
+        // --- Fallback 2: straight line ---
+        Map<String, Object> fallback = buildRouteResponse(
+                straightLineRoute(fromLat, fromLng, toLat, toLng), roundTrip, geometry);
+        fallback.put("fallback", true);
+        fallback.put("cached", false);
+        fallback.put("message", "Fallback straight-line");
+
+        log.warn("⚠️ FALLBACK USED: distance={}m, duration={}s",
+                fallback.get("distance"), fallback.get("duration"));
+        return fallback;
+    }
+
+    /** Cached one-way route between snapped endpoints, or null. */
+    public RouteResult cachedRoute(double fromLat, double fromLng, double toLat, double toLng) {
+        return directionsCache.get(directionsCache.key(fromLat, fromLng, toLat, toLng));
+    }
+
+    /** Offline road graph route, or null when the graph cannot answer. */
+    public RouteResult offlineRoute(double fromLat, double fromLng, double toLat, double toLng) {
+        return offlineRoutingService.route(fromLat, fromLng, toLat, toLng);
+    }
+
+    /** Straight-line estimate at the assumed fallback speed. */
+    public RouteResult straightLineRoute(double fromLat, double fromLng, double toLat, double toLng) {
+        double km = GeoMath.haversineMeters(fromLat, fromLng, toLat, toLng) / 1000.0;
+        double durationSec = (km / FALLBACK_SPEED_KMPH) * 3600.0;
+        return new RouteResult(km * 1000.0, durationSec, new double[]{fromLng, fromLat, toLng, toLat});
+    }
+
+    // Round trips are derived from the one-way route, which is what the cache holds
+    public Map<String, Object> buildRouteResponse(RouteResult route, boolean roundTrip,
+                                                  RouteGeometryService.Options geometry) {
+        Map<String, Object> out = costRow(route.getDistanceMeters(), route.getDurationSeconds(), roundTrip);
+        routeGeometryService.writeGeometry(out, route, geometry);
+        return out;
+    }
+
+    /** distance/duration/fuelCost/tollCost/roundTrip for a one-way distance and duration. */
+    public Map<String, Object> costRow(double oneWayMeters, double oneWaySeconds, boolean roundTrip) {
+        double distance = roundTrip ? oneWayMeters * 2 : oneWayMeters;
+        double duration = roundTrip ? oneWaySeconds * 2 : oneWaySeconds;
+
+        Map<String, Object> out = new HashMap<>();
+        addCosts(out, distance, duration, roundTrip);
+        return out;
+    }
+
+    // Self-drive fuel and toll estimates; per-vehicle fares come from FareQuoteService
+    private void addCosts(Map<String, Object> out, double distanceMeters, double durationSeconds, boolean roundTrip) {
+        double fuelCost = fareQuoteService.fuelEstimatePaise(distanceMeters) / 100.0;
+        double tollCost = fareQuoteService.tollEstimatePaise(distanceMeters) / 100.0;
+
+        out.put("distance", distanceMeters);
+        out.put("duration", durationSeconds);
+        out.put("fuelCost", fuelCost);
+        out.put("tollCost", tollCost);
+        out.put("roundTrip", roundTrip);
+    }
+
+    private String safeTruncate(String s, int max) {
+        if (s == null) return null;
+        return s.length() <= max ? s : s.substring(0, max) + "...";
+    }
+}
@@ -0,0 +1,157 @@
+package com.sairajtravels.site.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * One outbound HTTP upstream (ORS, Nominatim): a pooled, timeout-bounded {@link RestTemplate},
+ * a small executor for asynchronous calls and a {@link CircuitBreaker}.
+ *
+ * Calls are timed under {@code outbound.http.requests{upstream,outcome}}; breaker rejections are
+ * counted and the breaker state is exported as {@code outbound.http.circuit.state}
+ * (0 closed, 1 half-open, 2 open).
+ */
+public class UpstreamClient {
+
+    private final String name;
+    private final RestTemplate rest;
+    private final ThreadPoolTaskExecutor executor;
+    private final CircuitBreaker breaker;
+
+    private final Timer successTimer;
+    private final Timer errorTimer;
+    private final Counter rejected;
+
+    public UpstreamClient(String name, RestTemplate rest, ThreadPoolTaskExecutor executor,
+                          CircuitBreaker breaker, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.rest = rest;
+        this.executor = executor;
+        this.breaker = breaker;
+
+        this.successTimer = timer(meterRegistry, "success");
+        this.errorTimer = timer(meterRegistry, "error");
+        this.rejected = Counter.builder("outbound.http.rejected")
+                .description("Calls not attempted because the circuit was open or the executor was full")
+                .tag("upstream", name)
+                .register(meterRegistry);
+        Gauge.builder("outbound.http.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("0 = closed, 1 = half-open, 2 = open")
+                .tag("upstream", name)
+                .register(meterRegistry);
+        Gauge.builder("outbound.http.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("upstream", name)
+                .register(meterRegistry);
+    }
+
+    /** Runs the call on the calling thread. Throws {@link CircuitBreaker.OpenException} when open. */
+    public <T> T call(Function<RestTemplate, T> call) {
+        if (!breaker.tryAcquire()) {
+            rejected.increment();
+            throw new CircuitBreaker.OpenException(name);
+        }
+        long start = System.nanoTime();
+        boolean reported = false;
+        try {
+            T result = call.apply(rest);
+            breaker.onSuccess();
+            reported = true;
+            successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            if (countsAsFailure(e)) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+            reported = true;
+            errorTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            // An Error says nothing about the upstream, but a half-open trial slot must not stay taken
+            if (!reported) {
+                breaker.onIgnored();
+            }
+        }
+    }
+
+    /**
+     * Runs the call on this upstream's executor. The future fails fast when the circuit is open
+     * or the executor is saturated; cancelling it drops the call if it has not started yet.
+     */
+    public <T> CompletableFuture<T> submit(Function<RestTemplate, T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (breaker.getState() == CircuitBreaker.State.OPEN) {
+            rejected.increment();
+            result.completeExceptionally(new CircuitBreaker.OpenException(name));
+            return result;
+        }
+        try {
+            Future<?> task = executor.submit(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(call(call));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+            result.whenComplete((r, t) -> {
+                if (result.isCancelled()) {
+                    task.cancel(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /** Stops the executor and closes the connection pool; called on context shutdown. */
+    public void close() throws Exception {
+        executor.shutdown();
+        if (rest.getRequestFactory() instanceof DisposableBean factory) {
+            factory.destroy();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return breaker.getState();
+    }
+
+    // Client errors (bad coordinates, no route) say nothing about upstream health; 429 does
+    private static boolean countsAsFailure(RuntimeException e) {
+        if (e instanceof RestClientResponseException rcre) {
+            int status = rcre.getStatusCode().value();
+            return status >= 500 || status == 429;
+        }
+        return true;
+    }
+
+    private Timer timer(MeterRegistry registry, String outcome) {
+        return Timer.builder("outbound.http.requests")
+                .description("Outbound HTTP call latency")
+                .tag("upstream", name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
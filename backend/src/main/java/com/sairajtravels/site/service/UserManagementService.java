@@ -32,6 +32,9 @@ public class UserManagementService {
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private OperationalRollupService rollupService;
+    
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     
     // User Management Methods
@@ -97,7 +100,9 @@ public class UserManagementService {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
         
-        return userRepository.save(user);
+        AdminUser saved = userRepository.save(user);
+        rollupService.changed(null, rollupService.keysOf(saved));
+        return saved;
     }
     
     public AdminUser updateUser(AdminUser user) {
@@ -117,25 +122,32 @@ public class UserManagementService {
         }
         
         AdminUser existing = existingUser.get();
+        List<OperationalRollupService.Key> before = rollupService.keysOf(existing);
         existing.setUsername(user.getUsername());
         existing.setEmail(user.getEmail());
         existing.setFullName(user.getFullName());
         existing.setRole(user.getRole());
         existing.setIsActive(user.getIsActive());
         
-        return userRepository.save(existing);
+        AdminUser saved = userRepository.save(existing);
+        rollupService.changed(before, rollupService.keysOf(saved));
+        return saved;
     }
     
     public void deleteUser(Long userId) {
+        Optional<AdminUser> existing = userRepository.findById(userId);
         userRepository.deleteById(userId);
+        existing.ifPresent(u -> rollupService.changed(rollupService.keysOf(u), null));
     }
     
     public void deactivateUser(Long userId) {
         Optional<AdminUser> user = userRepository.findById(userId);
         if (user.isPresent()) {
             AdminUser u = user.get();
+            List<OperationalRollupService.Key> before = rollupService.keysOf(u);
             u.setIsActive(false);
             userRepository.save(u);
+            rollupService.changed(before, rollupService.keysOf(u));
         }
     }
     
@@ -143,8 +155,10 @@ public class UserManagementService {
         Optional<AdminUser> user = userRepository.findById(userId);
         if (user.isPresent()) {
             AdminUser u = user.get();
+            List<OperationalRollupService.Key> before = rollupService.keysOf(u);
             u.setIsActive(true);
             userRepository.save(u);
+            rollupService.changed(before, rollupService.keysOf(u));
         }
     }
     
@@ -309,12 +323,13 @@ public class UserManagementService {
         tokenRepository.deleteExpiredTokens(LocalDateTime.now());
     }
     
+    // Both counts come from the in-memory rollups
     public long getUserCount() {
-        return userRepository.count();
+        return rollupService.count(OperationalRollupService.USERS_TOTAL, null);
     }
     
     public long getActiveUserCount() {
-        return userRepository.countByIsActiveTrue();
+        return rollupService.count(OperationalRollupService.USERS_ACTIVE, null);
     }
     
     public List<AdminUser> getUsersByRole(String roleName) {
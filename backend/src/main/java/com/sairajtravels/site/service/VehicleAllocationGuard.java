@@ -0,0 +1,130 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.repository.VehicleBookingRepository;
+import com.sairajtravels.site.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-vehicle critical section for booking allocation, so two writers cannot both give a vehicle
+ * an allocated booking on the same day.
+ *
+ * {@link #lock} takes the vehicles' lock stripes, then their {@code Vehicles} rows
+ * ({@code SELECT ... FOR UPDATE}), and holds both until the current transaction completes; the
+ * overlap check and the write it guards therefore commit before the next writer for that vehicle
+ * looks. Stripes are hashed from the vehicle id, so bookings of different vehicles rarely wait on
+ * each other and there is no global lock; the row lock extends the guarantee across instances.
+ * Stripes and rows are always taken in ascending order, so multi-vehicle callers cannot deadlock.
+ */
+@Component
+public class VehicleAllocationGuard {
+
+    private final VehicleRepository vehicleRepository;
+    private final VehicleBookingRepository vehicleBookingRepository;
+    private final ReentrantLock[] stripes;
+
+    @Value("${booking.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    @Value("${booking.allocated-statuses:CONFIRMED}")
+    private Set<String> allocatedStatuses;
+
+    public VehicleAllocationGuard(VehicleRepository vehicleRepository,
+                                  VehicleBookingRepository vehicleBookingRepository,
+                                  @Value("${booking.lock-stripes:64}") int stripeCount) {
+        this.vehicleRepository = vehicleRepository;
+        this.vehicleBookingRepository = vehicleBookingRepository;
+        // Power of two so the stripe is a mask of the mixed hash
+        int n = Integer.highestOneBit(Math.max(1, Math.min(stripeCount, 1 << 16)) * 2 - 1);
+        this.stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /** True when a booking in this status holds its vehicle for its dates. */
+    public boolean isAllocated(String status) {
+        return status != null && allocatedStatuses.contains(status.trim().toUpperCase());
+    }
+
+    /**
+     * Locks these vehicles for the rest of the current transaction. Must be called inside one;
+     * throws {@link BookingConflictException} when a stripe stays busy past
+     * {@code booking.lock-timeout-ms}.
+     */
+    public void lock(Collection<Integer> vehicleIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Vehicle allocation locks need an active transaction");
+        }
+        TreeSet<Integer> vehicles = new TreeSet<>();
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Integer id : vehicleIds) {
+            if (id != null) {
+                vehicles.add(id);
+                stripeIndexes.add(stripeOf(id));
+            }
+        }
+        List<ReentrantLock> held = new ArrayList<>(stripeIndexes.size());
+        try {
+            for (int i : stripeIndexes) {
+                ReentrantLock stripe = stripes[i];
+                if (!stripe.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new BookingConflictException("Vehicle is being booked by another request, please retry");
+                }
+                held.add(stripe);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unlock(held);
+            throw new BookingConflictException("Interrupted while waiting for the vehicle lock");
+        } catch (RuntimeException e) {
+            unlock(held);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock(held);
+            }
+        });
+        for (Integer id : vehicles) {
+            vehicleRepository.lockById(id);
+        }
+    }
+
+    /**
+     * Throws {@link BookingConflictException} when days {@code tripDate..returnDate} of the vehicle
+     * are already held by another allocated booking. Call after {@link #lock} for the vehicle.
+     */
+    public void checkNoOverlap(Integer bookingId, Integer vehicleId, LocalDate tripDate, LocalDate returnDate) {
+        LocalDate lastDay = returnDate != null && returnDate.isAfter(tripDate) ? returnDate : tripDate;
+        List<Integer> clashes = vehicleBookingRepository.findOverlappingIds(vehicleId,
+                bookingId != null ? bookingId : -1, allocatedStatuses, tripDate, lastDay);
+        if (!clashes.isEmpty()) {
+            throw new BookingConflictException("Vehicle " + vehicleId + " is already booked between "
+                    + tripDate + " and " + lastDay + " (booking #" + clashes.get(0) + ")");
+        }
+    }
+
+    private int stripeOf(int vehicleId) {
+        // Fibonacci hashing spreads consecutive ids over the stripes
+        return (vehicleId * 0x9E3779B9) >>> 16 & (stripes.length - 1);
+    }
+
+    private static void unlock(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+}
@@ -1,30 +1,74 @@
 package com.sairajtravels.site.service;
 
+import com.sairajtravels.site.dto.BookingStatusResultDTO;
 import com.sairajtravels.site.dto.VehicleBookingDTO;
+import com.sairajtravels.site.dto.VehicleBookingFilter;
+import com.sairajtravels.site.dto.VehicleBookingPageDTO;
+import com.sairajtravels.site.entity.EmailOutbox;
 import com.sairajtravels.site.entity.Vehicle;
 import com.sairajtravels.site.entity.VehicleBooking;
 import com.sairajtravels.site.repository.VehicleBookingRepository;
 import com.sairajtravels.site.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class VehicleBookingService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BULK_SIZE = 200;
+
     private final VehicleBookingRepository vehicleBookingRepository;
     private final VehicleRepository vehicleRepository;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final FleetAvailabilityService fleetAvailabilityService;
+    private final OperationalRollupService rollupService;
+    private final VehicleAllocationGuard allocationGuard;
+    private final BookingReminderService reminderService;
+    private final EmailTemplates emailTemplates;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${booking.optimistic-retries:3}")
+    private int optimisticRetries;
 
     public VehicleBookingService(VehicleBookingRepository vehicleBookingRepository,
                                  VehicleRepository vehicleRepository,
-                                 EmailService emailService) {
+                                 EmailOutboxService emailOutboxService,
+                                 FleetAvailabilityService fleetAvailabilityService,
+                                 OperationalRollupService rollupService,
+                                 VehicleAllocationGuard allocationGuard,
+                                 BookingReminderService reminderService,
+                                 EmailTemplates emailTemplates,
+                                 PlatformTransactionManager transactionManager) {
         this.vehicleBookingRepository = vehicleBookingRepository;
         this.vehicleRepository = vehicleRepository;
-        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
+        this.fleetAvailabilityService = fleetAvailabilityService;
+        this.rollupService = rollupService;
+        this.allocationGuard = allocationGuard;
+        this.reminderService = reminderService;
+        this.emailTemplates = emailTemplates;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     private VehicleBookingDTO convertToDTO(VehicleBooking booking) {
@@ -81,6 +125,67 @@ public class VehicleBookingService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of bookings matching {@code filter}, newest request first. {@code cursor} is the
+     * previous page's {@code nextCursor} (null for the first page). Rows without a RequestedAt
+     * come after all dated rows, newest id first.
+     */
+    @Transactional(readOnly = true)
+    public VehicleBookingPageDTO listBookings(VehicleBookingFilter filter, String cursor, int limit,
+                                              boolean includeTotal) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime afterRequestedAt = null;
+        Integer afterId = null;
+        boolean undated = false;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] key = decodeCursor(cursor);
+            undated = key[0].isEmpty();
+            afterRequestedAt = undated ? null : LocalDateTime.parse(key[0]);
+            afterId = Integer.valueOf(key[1]);
+        }
+
+        // Fetch one extra row to learn whether another page follows
+        List<VehicleBooking> rows = new ArrayList<>(size + 1);
+        if (!undated) {
+            rows.addAll(vehicleBookingRepository.findPageAfter(filter, afterRequestedAt, afterId, size + 1));
+        }
+        if (rows.size() <= size) {
+            rows.addAll(vehicleBookingRepository.findUndatedPageAfter(filter, undated ? afterId : null,
+                    size + 1 - rows.size()));
+        }
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            VehicleBooking last = rows.get(size - 1);
+            nextCursor = encodeCursor(last.getRequestedAt(), last.getBookingId());
+        }
+        List<VehicleBookingDTO> items = rows.stream().map(this::convertToDTO).collect(Collectors.toList());
+        Long total = includeTotal ? vehicleBookingRepository.countMatching(filter) : null;
+        return new VehicleBookingPageDTO(items, nextCursor, total);
+    }
+
+    // Opaque to clients: base64url of "requestedAt|bookingId" (requestedAt empty for undated rows)
+    private static String encodeCursor(LocalDateTime requestedAt, Integer bookingId) {
+        String key = (requestedAt != null ? requestedAt.toString() : "") + "|" + bookingId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int bar = key.lastIndexOf('|');
+            String[] parts = {key.substring(0, bar), key.substring(bar + 1)};
+            if (!parts[0].isEmpty()) {
+                LocalDateTime.parse(parts[0]);
+            }
+            Integer.parseInt(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     public List<VehicleBookingDTO> getBookingsByVehicle(Integer vehicleId) {
         return vehicleBookingRepository.findByVehicle_VehicleId(vehicleId)
                 .stream()
@@ -88,6 +193,7 @@ public class VehicleBookingService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public VehicleBookingDTO createBooking(VehicleBookingDTO dto) {
         // Set default values
         if (dto.getStatus() == null || dto.getStatus().isEmpty()) {
@@ -97,22 +203,46 @@ public class VehicleBookingService {
             dto.setRequestedAt(LocalDateTime.now());
         }
 
-        VehicleBooking saved = vehicleBookingRepository.save(convertToEntity(dto));
+        VehicleBooking booking = convertToEntity(dto);
+        if (booking.getVehicle() != null && booking.getTripDate() != null) {
+            // No new booking on days the vehicle is already allocated
+            Integer vehicleId = booking.getVehicle().getVehicleId();
+            allocationGuard.lock(List.of(vehicleId));
+            allocationGuard.checkNoOverlap(null, vehicleId, booking.getTripDate(), booking.getReturnDate());
+        }
+        VehicleBooking saved = vehicleBookingRepository.save(booking);
+        fleetAvailabilityService.onBookingSaved(saved);
+        reminderService.onBookingSaved(saved);
+        rollupService.changed(null, rollupService.keysOf(saved));
         VehicleBookingDTO result = convertToDTO(saved);
 
-        // Send email notifications
+        // Queue email notifications (sent by the outbox dispatcher once this commits)
         sendBookingNotifications(result);
 
         return result;
     }
 
+    /**
+     * Applies the non-null fields of {@code dto}. A concurrent edit of the same booking makes the
+     * later commit fail on the version column; it is then redone on the fresh row, so neither
+     * edit's fields are lost. Confirming, or moving a confirmed booking, checks the vehicle is
+     * free on those days ({@link BookingConflictException} otherwise).
+     */
     public VehicleBookingDTO updateBooking(Integer id, VehicleBookingDTO dto) {
+        return withOptimisticRetry(() -> applyUpdate(id, dto));
+    }
+
+    private VehicleBookingDTO applyUpdate(Integer id, VehicleBookingDTO dto) {
         Optional<VehicleBooking> existingBookingOpt = vehicleBookingRepository.findById(id);
         if (existingBookingOpt.isPresent()) {
             VehicleBooking existingBooking = existingBookingOpt.get();
             
             // Store original status for comparison
             String originalStatus = existingBooking.getStatus();
+            Integer originalVehicleId = existingBooking.getVehicle() != null ? existingBooking.getVehicle().getVehicleId() : null;
+            LocalDate originalTripDate = existingBooking.getTripDate();
+            LocalDate originalReturnDate = existingBooking.getReturnDate();
+            List<OperationalRollupService.Key> before = rollupService.keysOf(existingBooking);
             
             // Update only the fields that are provided in the DTO
             if (dto.getStatus() != null) {
@@ -158,8 +288,22 @@ public class VehicleBookingService {
             if (dto.getPackageId() != null) {
                 existingBooking.setPackageId(dto.getPackageId());
             }
+
+            Integer vehicleId = existingBooking.getVehicle() != null ? existingBooking.getVehicle().getVehicleId() : null;
+            boolean moved = !Objects.equals(vehicleId, originalVehicleId)
+                    || !Objects.equals(existingBooking.getTripDate(), originalTripDate)
+                    || !Objects.equals(existingBooking.getReturnDate(), originalReturnDate);
+            if (vehicleId != null && existingBooking.getTripDate() != null
+                    && allocationGuard.isAllocated(existingBooking.getStatus())
+                    && (moved || !allocationGuard.isAllocated(originalStatus))) {
+                allocationGuard.lock(List.of(vehicleId));
+                allocationGuard.checkNoOverlap(id, vehicleId, existingBooking.getTripDate(), existingBooking.getReturnDate());
+            }
             
             VehicleBooking updated = vehicleBookingRepository.save(existingBooking);
+            fleetAvailabilityService.onBookingSaved(updated);
+            reminderService.onBookingSaved(updated);
+            rollupService.changed(before, rollupService.keysOf(updated));
             VehicleBookingDTO result = convertToDTO(updated);
             
             // Debug logging
@@ -183,8 +327,134 @@ public class VehicleBookingService {
         return null;
     }
 
+    /**
+     * Moves every listed booking to {@code status} in one transaction: one query loads the
+     * bookings with their vehicles, the changed rows are written as batched updates at commit,
+     * and the customer emails for the changed bookings are queued together. Results follow the
+     * order of {@code bookingIds} (duplicates dropped). Confirming holds the vehicles' allocation
+     * locks; a booking whose vehicle is already allocated on its days is left as it was and
+     * reported as {@code CONFLICT}. Retried like {@link #updateBooking} on a concurrent edit.
+     */
+    public List<BookingStatusResultDTO> updateStatuses(List<Integer> bookingIds, String status) {
+        if (bookingIds == null || bookingIds.isEmpty()) {
+            throw new IllegalArgumentException("bookingIds must not be empty");
+        }
+        if (status == null || status.isBlank()) {
+            throw new IllegalArgumentException("status is required");
+        }
+        LinkedHashSet<Integer> ids = new LinkedHashSet<>(bookingIds);
+        ids.remove(null);
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " bookings per request");
+        }
+        String newStatus = status.trim();
+        return withOptimisticRetry(() -> applyStatuses(ids, newStatus));
+    }
+
+    private List<BookingStatusResultDTO> applyStatuses(LinkedHashSet<Integer> ids, String newStatus) {
+        Map<Integer, VehicleBooking> bookings = vehicleBookingRepository.findWithVehicleByBookingIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(VehicleBooking::getBookingId, Function.identity()));
+
+        boolean allocating = allocationGuard.isAllocated(newStatus);
+        // Days allocated earlier in this batch, not yet flushed: vehicleId -> {tripDate, lastDay, bookingId}
+        Map<Integer, List<Object[]>> claimed = new HashMap<>();
+        if (allocating) {
+            allocationGuard.lock(bookings.values().stream()
+                    .filter(b -> b.getVehicle() != null && !newStatus.equals(b.getStatus()))
+                    .map(b -> b.getVehicle().getVehicleId())
+                    .toList());
+        }
+
+        List<BookingStatusResultDTO> results = new ArrayList<>(ids.size());
+        List<EmailOutbox> emails = new ArrayList<>();
+        for (Integer id : ids) {
+            VehicleBooking booking = bookings.get(id);
+            if (booking == null) {
+                results.add(new BookingStatusResultDTO(id, BookingStatusResultDTO.NOT_FOUND, null, null));
+                continue;
+            }
+            String previous = booking.getStatus();
+            if (newStatus.equals(previous)) {
+                results.add(new BookingStatusResultDTO(id, BookingStatusResultDTO.UNCHANGED, previous, previous));
+                continue;
+            }
+            if (allocating && booking.getVehicle() != null && booking.getTripDate() != null) {
+                String clash = findClash(booking, claimed);
+                if (clash != null) {
+                    results.add(new BookingStatusResultDTO(id, BookingStatusResultDTO.CONFLICT, previous, previous, clash));
+                    continue;
+                }
+            }
+            List<OperationalRollupService.Key> before = rollupService.keysOf(booking);
+            booking.setStatus(newStatus);     // written by the batched flush at commit
+            fleetAvailabilityService.onBookingSaved(booking);
+            reminderService.onBookingSaved(booking);
+            rollupService.changed(before, rollupService.keysOf(booking));
+            results.add(new BookingStatusResultDTO(id, BookingStatusResultDTO.UPDATED, previous, newStatus));
+
+            VehicleBookingDTO dto = convertToDTO(booking);
+            if (dto.getCustomerEmail() != null && !dto.getCustomerEmail().isEmpty()) {
+                String vehicleName = booking.getVehicle() != null ? booking.getVehicle().getName() : "Unknown Vehicle";
+                EmailTemplates.Rendered email = buildBookingUpdateEmail(dto, vehicleName);
+                emails.add(new EmailOutbox(EmailOutbox.KIND_HTML, dto.getCustomerEmail(),
+                        "Booking Status Update - Sairaj Travels", email.html(), email.text(),
+                        EmailOutboxService.SOURCE_BOOKING, id));
+            }
+        }
+        if (!emails.isEmpty()) {
+            emailOutboxService.enqueueAll(emails);
+        }
+        return results;
+    }
+
+    // Allocation check for one booking of a bulk confirm, against the table and the batch so far
+    private String findClash(VehicleBooking booking, Map<Integer, List<Object[]>> claimed) {
+        Integer vehicleId = booking.getVehicle().getVehicleId();
+        LocalDate first = booking.getTripDate();
+        LocalDate last = booking.getReturnDate() != null && booking.getReturnDate().isAfter(first)
+                ? booking.getReturnDate() : first;
+        try {
+            allocationGuard.checkNoOverlap(booking.getBookingId(), vehicleId, first, last);
+        } catch (BookingConflictException e) {
+            return e.getMessage();
+        }
+        List<Object[]> taken = claimed.computeIfAbsent(vehicleId, v -> new ArrayList<>());
+        for (Object[] t : taken) {
+            if (!first.isAfter((LocalDate) t[1]) && !last.isBefore((LocalDate) t[0])) {
+                return "Vehicle " + vehicleId + " is already booked between " + t[0] + " and " + t[1]
+                        + " (booking #" + t[2] + ")";
+            }
+        }
+        taken.add(new Object[]{first, last, booking.getBookingId()});
+        return null;
+    }
+
+    // A concurrent edit of the same booking fails our commit on its version; redo the work on fresh rows
+    private <T> T withOptimisticRetry(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(tx -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= optimisticRetries) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(5, 25L * attempt));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
     public void deleteBooking(Integer id) {
+        Optional<VehicleBooking> existing = vehicleBookingRepository.findById(id);
         vehicleBookingRepository.deleteById(id);
+        fleetAvailabilityService.onBookingDeleted(id);
+        reminderService.onBookingDeleted(id);
+        existing.ifPresent(b -> rollupService.changed(rollupService.keysOf(b), null));
     }
 
     private void sendBookingNotifications(VehicleBookingDTO booking) {
@@ -201,206 +471,39 @@ public class VehicleBookingService {
             // Send email to customer
             if (booking.getCustomerEmail() != null && !booking.getCustomerEmail().isEmpty()) {
                 String customerSubject = "Booking Confirmation - Sairaj Travels";
-                String customerHtml = buildCustomerEmailHtml(booking, vehicleName);
-                String customerText = buildCustomerEmailText(booking, vehicleName);
-                emailService.sendHtmlEmail(booking.getCustomerEmail(), customerSubject, customerHtml, customerText);
+                EmailTemplates.Rendered customer = emailTemplates.render("booking-received", bookingModel(booking, vehicleName));
+                emailOutboxService.enqueueHtml(booking.getCustomerEmail(), customerSubject, customer.html(), customer.text(),
+                        EmailOutboxService.SOURCE_BOOKING, booking.getBookingId());
             }
 
             // Send email to admin
             String adminSubject = "New Booking Request - " + booking.getCustomerName();
-            String adminHtml = buildAdminEmailHtml(booking, vehicleName);
-            String adminText = buildAdminEmailText(booking, vehicleName);
-            emailService.notifyAdmin(adminSubject, adminHtml, adminText);
+            EmailTemplates.Rendered admin = emailTemplates.render("booking-admin", bookingModel(booking, vehicleName));
+            emailOutboxService.enqueueAdmin(adminSubject, admin.html(), admin.text(),
+                    EmailOutboxService.SOURCE_BOOKING, booking.getBookingId());
 
         } catch (Exception e) {
             System.err.println("Failed to send booking notifications: " + e.getMessage());
         }
     }
 
-    private String buildCustomerEmailHtml(VehicleBookingDTO booking, String vehicleName) {
-        return String.format("""
-            <html>
-            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
-                <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
-                    <h2 style="color: #2563eb;">Thank you for your booking with Sairaj Travels!</h2>
-                    
-                    <p>Dear %s,</p>
-                    
-                    <p>We have received your booking request and will process it shortly. Here are your booking details:</p>
-                    
-                    <div style="background: #f8fafc; padding: 20px; border-radius: 8px; margin: 20px 0;">
-                        <h3 style="color: #1e40af; margin-top: 0;">Booking Details</h3>
-                        <p><strong>Booking ID:</strong> #%d</p>
-                        <p><strong>Vehicle:</strong> %s</p>
-                        <p><strong>Pickup Location:</strong> %s</p>
-                        <p><strong>Drop Location:</strong> %s</p>
-                        <p><strong>Trip Date:</strong> %s</p>
-                        %s
-                        <p><strong>Passengers:</strong> %d</p>
-                        <p><strong>Status:</strong> %s</p>
-                    </div>
-                    
-                    <p>Our team will contact you within 24 hours to confirm your booking and provide further details.</p>
-                    
-                    <p>For any queries, please contact us at:</p>
-                    <ul>
-                        <li>Phone: +91 9850748273</li>
-                        <li>Email: admin@sairajtravels.com</li>
-                    </ul>
-                    
-                    <p>Thank you for choosing Sairaj Travels!</p>
-                    
-                    <hr style="margin: 30px 0; border: none; border-top: 1px solid #e5e7eb;">
-                    <p style="font-size: 12px; color: #6b7280;">
-                        Sairaj Travels - Your Trusted Travel Partner<br>
-                        This is an automated email. Please do not reply.
-                    </p>
-                </div>
-            </body>
-            </html>
-            """, 
-            booking.getCustomerName(),
-            booking.getBookingId(),
-            vehicleName,
-            booking.getPickupLocation() != null ? booking.getPickupLocation() : "Not specified",
-            booking.getDropLocation() != null ? booking.getDropLocation() : "Not specified",
-            booking.getTripDate(),
-            booking.getReturnDate() != null ? String.format("<p><strong>Return Date:</strong> %s</p>", booking.getReturnDate()) : "",
-            booking.getPassengers() != null ? booking.getPassengers() : 1,
-            booking.getStatus()
-        );
-    }
-
-    private String buildCustomerEmailText(VehicleBookingDTO booking, String vehicleName) {
-        return String.format("""
-            Thank you for your booking with Sairaj Travels!
-            
-            Dear %s,
-            
-            We have received your booking request and will process it shortly. Here are your booking details:
-            
-            Booking Details:
-            - Booking ID: #%d
-            - Vehicle: %s
-            - Pickup Location: %s
-            - Drop Location: %s
-            - Trip Date: %s
-            %s
-            - Passengers: %d
-            - Status: %s
-            
-            Our team will contact you within 24 hours to confirm your booking and provide further details.
-            
-            For any queries, please contact us at:
-            - Phone: +91 9850748273
-            - Email: admin@sairajtravels.com
-            
-            Thank you for choosing Sairaj Travels!
-            
-            ---
-            Sairaj Travels - Your Trusted Travel Partner
-            This is an automated email. Please do not reply.
-            """, 
-            booking.getCustomerName(),
-            booking.getBookingId(),
-            vehicleName,
-            booking.getPickupLocation() != null ? booking.getPickupLocation() : "Not specified",
-            booking.getDropLocation() != null ? booking.getDropLocation() : "Not specified",
-            booking.getTripDate(),
-            booking.getReturnDate() != null ? String.format("- Return Date: %s", booking.getReturnDate()) : "",
-            booking.getPassengers() != null ? booking.getPassengers() : 1,
-            booking.getStatus()
-        );
-    }
-
-    private String buildAdminEmailHtml(VehicleBookingDTO booking, String vehicleName) {
-        return String.format("""
-            <html>
-            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
-                <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
-                    <h2 style="color: #dc2626;">New Booking Request</h2>
-                    
-                    <p>A new booking has been submitted through the website:</p>
-                    
-                    <div style="background: #fef2f2; padding: 20px; border-radius: 8px; margin: 20px 0; border-left: 4px solid #dc2626;">
-                        <h3 style="color: #dc2626; margin-top: 0;">Booking Details</h3>
-                        <p><strong>Booking ID:</strong> #%d</p>
-                        <p><strong>Customer Name:</strong> %s</p>
-                        <p><strong>Phone:</strong> %s</p>
-                        <p><strong>Email:</strong> %s</p>
-                        <p><strong>Vehicle:</strong> %s</p>
-                        <p><strong>Pickup Location:</strong> %s</p>
-                        <p><strong>Drop Location:</strong> %s</p>
-                        <p><strong>Trip Date:</strong> %s</p>
-                        %s
-                        <p><strong>Passengers:</strong> %d</p>
-                        <p><strong>Luggage:</strong> %s</p>
-                        <p><strong>Special Requests:</strong> %s</p>
-                        <p><strong>Status:</strong> %s</p>
-                        <p><strong>Requested At:</strong> %s</p>
-                    </div>
-                    
-                    <p style="color: #dc2626; font-weight: bold;">Action Required: Please contact the customer to confirm the booking.</p>
-                </div>
-            </body>
-            </html>
-            """, 
-            booking.getBookingId(),
-            booking.getCustomerName(),
-            booking.getCustomerPhone(),
-            booking.getCustomerEmail() != null ? booking.getCustomerEmail() : "Not provided",
-            vehicleName,
-            booking.getPickupLocation() != null ? booking.getPickupLocation() : "Not specified",
-            booking.getDropLocation() != null ? booking.getDropLocation() : "Not specified",
-            booking.getTripDate(),
-            booking.getReturnDate() != null ? String.format("<p><strong>Return Date:</strong> %s</p>", booking.getReturnDate()) : "",
-            booking.getPassengers() != null ? booking.getPassengers() : 1,
-            booking.getLuggage() != null ? booking.getLuggage() : "Not specified",
-            booking.getSpecialRequests() != null ? booking.getSpecialRequests() : "None",
-            booking.getStatus(),
-            booking.getRequestedAt()
-        );
-    }
-
-    private String buildAdminEmailText(VehicleBookingDTO booking, String vehicleName) {
-        return String.format("""
-            New Booking Request
-            
-            A new booking has been submitted through the website:
-            
-            Booking Details:
-            - Booking ID: #%d
-            - Customer Name: %s
-            - Phone: %s
-            - Email: %s
-            - Vehicle: %s
-            - Pickup Location: %s
-            - Drop Location: %s
-            - Trip Date: %s
-            %s
-            - Passengers: %d
-            - Luggage: %s
-            - Special Requests: %s
-            - Status: %s
-            - Requested At: %s
-            
-            Action Required: Please contact the customer to confirm the booking.
-            """, 
-            booking.getBookingId(),
-            booking.getCustomerName(),
-            booking.getCustomerPhone(),
-            booking.getCustomerEmail() != null ? booking.getCustomerEmail() : "Not provided",
-            vehicleName,
-            booking.getPickupLocation() != null ? booking.getPickupLocation() : "Not specified",
-            booking.getDropLocation() != null ? booking.getDropLocation() : "Not specified",
-            booking.getTripDate(),
-            booking.getReturnDate() != null ? String.format("- Return Date: %s", booking.getReturnDate()) : "",
-            booking.getPassengers() != null ? booking.getPassengers() : 1,
-            booking.getLuggage() != null ? booking.getLuggage() : "Not specified",
-            booking.getSpecialRequests() != null ? booking.getSpecialRequests() : "None",
-            booking.getStatus(),
-            booking.getRequestedAt()
-        );
+    // Placeholders of the booking-* email templates
+    private EmailTemplates.Model bookingModel(VehicleBookingDTO booking, String vehicleName) {
+        return EmailTemplates.model()
+                .with("bookingId", booking.getBookingId())
+                .with("customerName", booking.getCustomerName())
+                .with("customerPhone", booking.getCustomerPhone())
+                .with("customerEmail", booking.getCustomerEmail() != null ? booking.getCustomerEmail() : "Not provided")
+                .with("vehicleName", vehicleName)
+                .with("pickupLocation", booking.getPickupLocation() != null ? booking.getPickupLocation() : "Not specified")
+                .with("dropLocation", booking.getDropLocation() != null ? booking.getDropLocation() : "Not specified")
+                .with("tripDate", booking.getTripDate())
+                .with("returnDate", booking.getReturnDate())
+                .with("passengers", booking.getPassengers() != null ? booking.getPassengers() : 1)
+                .with("luggage", booking.getLuggage() != null ? booking.getLuggage() : "Not specified")
+                .with("specialRequests", booking.getSpecialRequests() != null ? booking.getSpecialRequests() : "None")
+                .with("status", booking.getStatus())
+                .with("requestedAt", booking.getRequestedAt());
     }
 
     private void sendBookingUpdateNotification(VehicleBookingDTO booking) {
@@ -423,10 +526,10 @@ public class VehicleBookingService {
             if (booking.getCustomerEmail() != null && !booking.getCustomerEmail().isEmpty()) {
                 System.out.println("Sending email to: " + booking.getCustomerEmail());
                 String customerSubject = "Booking Status Update - Sairaj Travels";
-                String customerHtml = buildBookingUpdateEmailHtml(booking, vehicleName);
-                String customerText = buildBookingUpdateEmailText(booking, vehicleName);
-                emailService.sendHtmlEmail(booking.getCustomerEmail(), customerSubject, customerHtml, customerText);
-                System.out.println("Email notification triggered for booking: " + booking.getBookingId());
+                EmailTemplates.Rendered customer = buildBookingUpdateEmail(booking, vehicleName);
+                emailOutboxService.enqueueHtml(booking.getCustomerEmail(), customerSubject, customer.html(), customer.text(),
+                        EmailOutboxService.SOURCE_BOOKING, booking.getBookingId());
+                System.out.println("Email notification queued for booking: " + booking.getBookingId());
             } else {
                 System.out.println("No customer email found for booking: " + booking.getBookingId());
             }
@@ -437,112 +540,13 @@ public class VehicleBookingService {
         }
     }
 
-    private String buildBookingUpdateEmailHtml(VehicleBookingDTO booking, String vehicleName) {
-        String statusColor = getStatusColor(booking.getStatus());
-        String statusMessage = getStatusMessage(booking.getStatus());
-        
-        return String.format("""
-            <html>
-            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
-                <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
-                    <h2 style="color: #2563eb;">Booking Status Update</h2>
-                    
-                    <p>Dear %s,</p>
-                    
-                    <p>Your booking status has been updated. Here are the current details:</p>
-                    
-                    <div style="background: #f8fafc; padding: 20px; border-radius: 8px; margin: 20px 0;">
-                        <h3 style="color: #1e40af; margin-top: 0;">Booking Details</h3>
-                        <p><strong>Booking ID:</strong> #%d</p>
-                        <p><strong>Vehicle:</strong> %s</p>
-                        <p><strong>Pickup Location:</strong> %s</p>
-                        <p><strong>Drop Location:</strong> %s</p>
-                        <p><strong>Trip Date:</strong> %s</p>
-                        %s
-                        <p><strong>Passengers:</strong> %d</p>
-                        <p><strong>Status:</strong> <span style="color: %s; font-weight: bold;">%s</span></p>
-                    </div>
-                    
-                    <div style="background: %s; padding: 15px; border-radius: 8px; margin: 20px 0;">
-                        <p style="margin: 0; color: %s; font-weight: bold;">%s</p>
-                    </div>
-                    
-                    <p>If you have any questions or need assistance, please contact us:</p>
-                    <ul>
-                        <li>Phone: +91 9850748273</li>
-                        <li>Email: admin@sairajtravels.com</li>
-                    </ul>
-                    
-                    <p>Thank you for choosing Sairaj Travels!</p>
-                    
-                    <hr style="margin: 30px 0; border: none; border-top: 1px solid #e5e7eb;">
-                    <p style="font-size: 12px; color: #6b7280;">
-                        Sairaj Travels - Your Trusted Travel Partner<br>
-                        This is an automated email. Please do not reply.
-                    </p>
-                </div>
-            </body>
-            </html>
-            """, 
-            booking.getCustomerName(),
-            booking.getBookingId(),
-            vehicleName,
-            booking.getPickupLocation() != null ? booking.getPickupLocation() : "Not specified",
-            booking.getDropLocation() != null ? booking.getDropLocation() : "Not specified",
-            booking.getTripDate(),
-            booking.getReturnDate() != null ? String.format("<p><strong>Return Date:</strong> %s</p>", booking.getReturnDate()) : "",
-            booking.getPassengers() != null ? booking.getPassengers() : 1,
-            statusColor,
-            booking.getStatus(),
-            getStatusBackgroundColor(booking.getStatus()),
-            getStatusTextColor(booking.getStatus()),
-            statusMessage
-        );
-    }
-
-    private String buildBookingUpdateEmailText(VehicleBookingDTO booking, String vehicleName) {
-        String statusMessage = getStatusMessage(booking.getStatus());
-        
-        return String.format("""
-            Booking Status Update
-            
-            Dear %s,
-            
-            Your booking status has been updated. Here are the current details:
-            
-            Booking Details:
-            - Booking ID: #%d
-            - Vehicle: %s
-            - Pickup Location: %s
-            - Drop Location: %s
-            - Trip Date: %s
-            %s
-            - Passengers: %d
-            - Status: %s
-            
-            %s
-            
-            If you have any questions or need assistance, please contact us:
-            - Phone: +91 9850748273
-            - Email: admin@sairajtravels.com
-            
-            Thank you for choosing Sairaj Travels!
-            
-            ---
-            Sairaj Travels - Your Trusted Travel Partner
-            This is an automated email. Please do not reply.
-            """, 
-            booking.getCustomerName(),
-            booking.getBookingId(),
-            vehicleName,
-            booking.getPickupLocation() != null ? booking.getPickupLocation() : "Not specified",
-            booking.getDropLocation() != null ? booking.getDropLocation() : "Not specified",
-            booking.getTripDate(),
-            booking.getReturnDate() != null ? String.format("- Return Date: %s", booking.getReturnDate()) : "",
-            booking.getPassengers() != null ? booking.getPassengers() : 1,
-            booking.getStatus(),
-            statusMessage
-        );
+    private EmailTemplates.Rendered buildBookingUpdateEmail(VehicleBookingDTO booking, String vehicleName) {
+        String status = booking.getStatus();
+        return emailTemplates.render("booking-status", bookingModel(booking, vehicleName)
+                .with("statusColor", getStatusColor(status))
+                .with("statusBackground", getStatusBackgroundColor(status))
+                .with("statusTextColor", getStatusTextColor(status))
+                .with("statusMessage", getStatusMessage(status)));
     }
 
     private String getStatusColor(String status) {
@@ -16,10 +16,13 @@ public class VehicleChargesService {
 
     private final VehicleChargesRepository vehicleChargesRepository;
     private final VehicleRepository vehicleRepository;
+    private final FareQuoteService fareQuoteService;
 
-    public VehicleChargesService(VehicleChargesRepository vehicleChargesRepository, VehicleRepository vehicleRepository) {
+    public VehicleChargesService(VehicleChargesRepository vehicleChargesRepository, VehicleRepository vehicleRepository,
+            FareQuoteService fareQuoteService) {
         this.vehicleChargesRepository = vehicleChargesRepository;
         this.vehicleRepository = vehicleRepository;
+        this.fareQuoteService = fareQuoteService;
     }
 
     private VehicleChargesDTO convertToDTO(VehicleCharges charges) {
@@ -84,6 +87,7 @@ public class VehicleChargesService {
 
     public VehicleChargesDTO createCharges(VehicleChargesDTO dto) {
         VehicleCharges saved = vehicleChargesRepository.save(convertToEntity(dto));
+        fareQuoteService.invalidate();
         return convertToDTO(saved);
     }
 
@@ -91,6 +95,7 @@ public class VehicleChargesService {
         if (vehicleChargesRepository.existsById(id)) {
             dto.setChargeId(id);
             VehicleCharges updated = vehicleChargesRepository.save(convertToEntity(dto));
+            fareQuoteService.invalidate();
             return convertToDTO(updated);
         }
         return null;
@@ -98,5 +103,6 @@ public class VehicleChargesService {
 
     public void deleteCharges(Integer id) {
         vehicleChargesRepository.deleteById(id);
+        fareQuoteService.invalidate();
     }
 }
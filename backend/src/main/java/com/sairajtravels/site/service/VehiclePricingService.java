@@ -16,10 +16,13 @@ public class VehiclePricingService {
 
     private final VehiclePricingRepository vehiclePricingRepository;
     private final VehicleRepository vehicleRepository;
+    private final FareQuoteService fareQuoteService;
 
-    public VehiclePricingService(VehiclePricingRepository vehiclePricingRepository, VehicleRepository vehicleRepository) {
+    public VehiclePricingService(VehiclePricingRepository vehiclePricingRepository, VehicleRepository vehicleRepository,
+            FareQuoteService fareQuoteService) {
         this.vehiclePricingRepository = vehiclePricingRepository;
         this.vehicleRepository = vehicleRepository;
+        this.fareQuoteService = fareQuoteService;
     }
 
     private VehiclePricingDTO convertToDTO(VehiclePricing pricing) {
@@ -90,6 +93,7 @@ public class VehiclePricingService {
 
     public VehiclePricingDTO createPricing(VehiclePricingDTO dto) {
         VehiclePricing saved = vehiclePricingRepository.save(convertToEntity(dto));
+        fareQuoteService.invalidate();
         return convertToDTO(saved);
     }
 
@@ -97,6 +101,7 @@ public class VehiclePricingService {
         if (vehiclePricingRepository.existsById(id)) {
             dto.setPricingId(id);
             VehiclePricing updated = vehiclePricingRepository.save(convertToEntity(dto));
+            fareQuoteService.invalidate();
             return convertToDTO(updated);
         }
         return null;
@@ -104,5 +109,6 @@ public class VehiclePricingService {
 
     public void deletePricing(Integer id) {
         vehiclePricingRepository.deleteById(id);
+        fareQuoteService.invalidate();
     }
 }
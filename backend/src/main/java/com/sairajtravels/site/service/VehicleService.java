@@ -14,9 +14,14 @@ import java.util.stream.Collectors;
 public class VehicleService {
 
     private final VehicleRepository vehicleRepository;
+    private final FareQuoteService fareQuoteService;
+    private final FleetAvailabilityService fleetAvailabilityService;
 
-    public VehicleService(VehicleRepository vehicleRepository) {
+    public VehicleService(VehicleRepository vehicleRepository, FareQuoteService fareQuoteService,
+                          FleetAvailabilityService fleetAvailabilityService) {
         this.vehicleRepository = vehicleRepository;
+        this.fareQuoteService = fareQuoteService;
+        this.fleetAvailabilityService = fleetAvailabilityService;
     }
 
     // Convert Entity -> DTO
@@ -61,6 +66,7 @@ public class VehicleService {
 
     public VehicleDTO createVehicle(VehicleDTO dto) {
         Vehicle saved = vehicleRepository.save(convertToEntity(dto));
+        fleetAvailabilityService.invalidate();
         return convertToDTO(saved);
     }
 
@@ -68,6 +74,8 @@ public class VehicleService {
         if (vehicleRepository.existsById(id)) {
             dto.setVehicleId(id);
             Vehicle updated = vehicleRepository.save(convertToEntity(dto));
+            fareQuoteService.invalidate();
+            fleetAvailabilityService.invalidate();
             return convertToDTO(updated);
         }
         return null;
@@ -75,6 +83,8 @@ public class VehicleService {
 
     public void deleteVehicle(Integer id) {
         vehicleRepository.deleteById(id);
+        fareQuoteService.invalidate();
+        fleetAvailabilityService.invalidate();
     }
 
     // Get unique vehicle types for dropdown
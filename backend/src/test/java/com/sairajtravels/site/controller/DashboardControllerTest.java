@@ -0,0 +1,44 @@
+package com.sairajtravels.site.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DashboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void rebuildNeedsAdminCredentials() throws Exception {
+        mockMvc.perform(post("/api/admin/dashboard/stats/rebuild"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/admin/dashboard/stats/rebuild").header(HttpHeaders.AUTHORIZATION, basic("admin", "wrong")))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/api/admin/dashboard/stats/rebuild").header(HttpHeaders.AUTHORIZATION, basic("admin", "admin123")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void statsStayReadableWithoutCredentials() throws Exception {
+        mockMvc.perform(get("/api/admin/dashboard/stats"))
+                .andExpect(status().isOk());
+    }
+
+    private static String basic(String user, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
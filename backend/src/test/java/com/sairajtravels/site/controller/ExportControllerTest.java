@@ -0,0 +1,55 @@
+package com.sairajtravels.site.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void exportsNeedAdminCredentials() throws Exception {
+        mockMvc.perform(get("/api/admin/exports/bookings"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/admin/exports/bookings").header(HttpHeaders.AUTHORIZATION, basic("admin", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void exportGetsTheLongTimeoutAndOtherRequestsKeepTheDefault() throws Exception {
+        MvcResult export = mockMvc.perform(get("/api/admin/exports/enquiries").param("format", "ndjson")
+                        .header(HttpHeaders.AUTHORIZATION, basic("admin", "admin123")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(600_000L, export.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(export)).andExpect(status().isOk());
+
+        MvcResult badRequest = mockMvc.perform(get("/api/admin/exports/enquiries").param("format", "xml")
+                        .header(HttpHeaders.AUTHORIZATION, basic("admin", "admin123")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertNotEquals(600_000L, badRequest.getRequest().getAsyncContext().getTimeout());
+    }
+
+    private static String basic(String user, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+package com.sairajtravels.site.controller;
+
+import com.sairajtravels.site.service.TripMatrixService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * A batch that plans for longer than the container's async timeout (scaled down to 1 s here)
+ * still streams every row and the summary: the endpoint sets its own timeout from the batch deadline.
+ * The H2 console servlet is left out, as the security matchers need a single dispatcher servlet.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.h2.console.enabled=false",
+        "spring.mvc.async.request-timeout=1000",
+        "trip.batch.deadline-ms=3000"})
+class TripBatchStreamTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @MockBean
+    private TripMatrixService tripMatrixService;
+
+    @Test
+    void batchRunningPastTheContainerDefaultCompletes() {
+        doAnswer(inv -> {
+            List<double[]> pairs = inv.getArgument(0);
+            Consumer<Map<String, Object>> sink = inv.getArgument(2);
+            for (int i = 0; i < pairs.size(); i++) {
+                Thread.sleep(1000);
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("index", i);
+                sink.accept(row);
+            }
+            return null;
+        }).when(tripMatrixService).planAll(any(), anyBoolean(), any());
+
+        Map<String, Object> req = Map.of(
+                "sources", List.of(Map.of("lat", 18.52, "lng", 73.85)),
+                "destinations", List.of(Map.of("lat", 19.99, "lng", 73.79), Map.of("lat", 19.07, "lng", 72.87)));
+        ResponseEntity<String> response = rest.postForEntity("/api/trip/plan/batch", req, String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String[] lines = response.getBody().strip().split("\n");
+        assertEquals(3, lines.length, response.getBody());
+        assertTrue(lines[2].contains("\"done\":true"), lines[2]);
+        assertTrue(lines[2].contains("\"returned\":2"), lines[2]);
+    }
+}
@@ -0,0 +1,85 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.EmailOutbox;
+import com.sairajtravels.site.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdminDigestDispatcherTest {
+
+    private final EmailOutboxRepository outboxRepository = mock(EmailOutboxRepository.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private AdminDigestDispatcher digestDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EmailOutboxDispatcher outboxDispatcher = new EmailOutboxDispatcher(outboxRepository, emailService, registry);
+        ReflectionTestUtils.setField(outboxDispatcher, "maxAttempts", 8);
+        ReflectionTestUtils.setField(outboxDispatcher, "backoffBaseSeconds", 30L);
+        ReflectionTestUtils.setField(outboxDispatcher, "backoffMaxSeconds", 3600L);
+        outboxDispatcher.registerMeters();
+
+        digestDispatcher = new AdminDigestDispatcher(outboxRepository, outboxDispatcher, emailService,
+                mock(EmailTemplates.class), registry);
+        ReflectionTestUtils.setField(digestDispatcher, "windowSeconds", 600L);
+        ReflectionTestUtils.setField(digestDispatcher, "maxSize", 50);
+        ReflectionTestUtils.setField(digestDispatcher, "leaseSeconds", 300L);
+        digestDispatcher.registerMeters();
+    }
+
+    @Test
+    void failedDigestReschedulesEveryRowForTheSameTime() throws Exception {
+        List<Long> ids = List.of(1L, 2L, 3L, 4L, 5L);
+        when(outboxRepository.findDueDigestCategories(any())).thenReturn(List.<Object[]>of(
+                new Object[]{"booking", (long) ids.size(), LocalDateTime.now().minusHours(1)}));
+        when(outboxRepository.findDueDigestIds(eq("booking"), any(), any())).thenReturn(ids);
+        when(outboxRepository.claim(anyLong(), any(), any())).thenReturn(1);
+        for (Long id : ids) {
+            when(outboxRepository.findById(id)).thenReturn(Optional.of(row(id, id == 3L ? 3 : 2)));
+        }
+        doThrow(new MessagingException("relay down")).when(emailService).deliverAdminEmail(anyString(), any(), any());
+
+        LocalDateTime before = LocalDateTime.now();
+        digestDispatcher.poll();
+
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository, times(ids.size())).markRetry(anyLong(), next.capture(), anyString());
+        assertEquals(1, next.getAllValues().stream().distinct().count(), next.getAllValues()::toString);
+        // Backed off on the most-tried row's attempt count: 30 s << 2, less 20 % jitter
+        assertTrue(next.getValue().isAfter(before.plusSeconds(95)), next.getValue()::toString);
+    }
+
+    private static EmailOutbox row(Long id, int attempts) {
+        EmailOutbox row = new EmailOutbox();
+        row.setId(id);
+        row.setKind(EmailOutbox.KIND_DIGEST);
+        row.setSourceType("booking");
+        row.setSubject("New booking #" + id);
+        row.setHtmlBody("<p>Booking " + id + "</p>");
+        row.setTextBody("Booking " + id);
+        row.setAttempts(attempts);
+        row.setCreatedAt(LocalDateTime.now().minusHours(1));
+        return row;
+    }
+}
@@ -0,0 +1,121 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@link AvailabilityCalendar} searches against a linear scan of the booking list, on a synthetic
+ * fleet with {@code bookings} bookings over the default 1500-day window; setup fails if the two
+ * ever disagree. {@code move} times keeping the calendar current as a booking is edited.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench=AvailabilityCalendarBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityCalendarBenchmark {
+
+    private static final int WINDOW_DAYS = 400 + 1100;
+    private static final long ORIGIN = 19_000;
+
+    @Param({"40"})
+    public int vehicles;
+
+    @Param({"50000"})
+    public int bookings;
+
+    private AvailabilityCalendar calendar;
+    private int[][] list;          // {vehicleId, firstDay, lastDay}
+    private long[][] queries;      // {firstDay, lastDay, minCapacity, ac: 0 any / 1 AC / 2 non-AC}
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rnd = new Random(42);
+        List<Vehicle> fleet = new ArrayList<>(vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            Vehicle v = new Vehicle("Vehicle " + i, i % 3 == 0 ? "Bus" : "Car", 4 + rnd.nextInt(46), rnd.nextBoolean(), null, null, null);
+            v.setVehicleId(i + 1);
+            fleet.add(v);
+        }
+        list = new int[bookings][];
+        calendar = new AvailabilityCalendar(ORIGIN, WINDOW_DAYS, fleet);
+        for (int b = 0; b < bookings; b++) {
+            int first = rnd.nextInt(WINDOW_DAYS);
+            list[b] = new int[]{1 + rnd.nextInt(vehicles), first, first + rnd.nextInt(5)};
+            calendar.put(b, list[b][0], ORIGIN + list[b][1], ORIGIN + list[b][2]);
+        }
+        queries = new long[1024][];
+        for (int i = 0; i < queries.length; i++) {
+            int first = rnd.nextInt(WINDOW_DAYS - 14);
+            queries[i] = new long[]{ORIGIN + first, ORIGIN + first + rnd.nextInt(14), rnd.nextInt(30), rnd.nextInt(3)};
+        }
+        for (long[] q : queries) {
+            Boolean ac = q[3] == 0 ? null : q[3] == 1;
+            if (!Arrays.equals(calendar.search(q[0], q[1], (int) q[2], ac), scan(q[0], q[1], (int) q[2], ac))) {
+                throw new IllegalStateException("Calendar and scan disagree on " + Arrays.toString(q));
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] index() {
+        long[] q = queries[next++ & (queries.length - 1)];
+        return calendar.search(q[0], q[1], (int) q[2], q[3] == 0 ? null : q[3] == 1);
+    }
+
+    @Benchmark
+    public int[] scan() {
+        long[] q = queries[next++ & (queries.length - 1)];
+        return scan(q[0], q[1], (int) q[2], q[3] == 0 ? null : q[3] == 1);
+    }
+
+    // Move a booking a day later and back, as an edit followed by its undo
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void move() {
+        int b = next++ % Math.min(bookings, 10000);
+        calendar.put(b, list[b][0], ORIGIN + list[b][1] + 1, ORIGIN + list[b][2] + 1);
+        calendar.put(b, list[b][0], ORIGIN + list[b][1], ORIGIN + list[b][2]);
+    }
+
+    // What the admin panel did client-side: walk every booking, knock out the vehicles it blocks
+    private int[] scan(long firstDay, long lastDay, int minCapacity, Boolean ac) {
+        Set<Integer> blocked = Arrays.stream(list)
+                .filter(b -> ORIGIN + b[1] <= lastDay && ORIGIN + b[2] >= firstDay)
+                .map(b -> b[0])
+                .collect(Collectors.toSet());
+        AvailabilityCalendar c = calendar;
+        int[] out = new int[c.vehicleCount];
+        int n = 0;
+        for (int s = 0; s < c.vehicleCount; s++) {
+            if (c.capacity[s] >= minCapacity && (ac == null || c.ac[s] == ac) && !blocked.contains(c.vehicleId[s])) {
+                out[n++] = s;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,127 @@
+package com.sairajtravels.site.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assignment planning on a synthetic week for fleets of each size (about five trips per driver,
+ * so drivers run short, some asking for a language, some drivers' licences expiring mid-week),
+ * against a greedy "best free driver, booking by booking" pass. Bookings covered and total score
+ * of both plans are printed at setup.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench=DriverAssignmentBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriverAssignmentBenchmark {
+
+    private static final List<String> LANGUAGES = List.of("hindi", "marathi", "english", "gujarati", "kannada", "telugu");
+
+    @Param({"25", "50", "100", "200", "400"})
+    public int drivers;
+
+    @Param({"7"})
+    public int days;
+
+    private DriverAssignmentService service;
+    private List<DriverAssignmentService.Trip> trips;
+    private List<DriverAssignmentService.Crew> crews;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new DriverAssignmentService(null, null);
+        ReflectionTestUtils.setField(service, "ratingWeight", 0.5);
+        ReflectionTestUtils.setField(service, "languageWeight", 0.3);
+        ReflectionTestUtils.setField(service, "experienceWeight", 0.2);
+        ReflectionTestUtils.setField(service, "experienceCapYears", 15);
+
+        Random rnd = new Random(42 + drivers);
+        crews = new ArrayList<>(drivers);
+        for (int i = 0; i < drivers; i++) {
+            Set<String> spoken = new LinkedHashSet<>(List.of("hindi"));
+            spoken.add(LANGUAGES.get(rnd.nextInt(LANGUAGES.size())));
+            spoken.add(LANGUAGES.get(rnd.nextInt(LANGUAGES.size())));
+            long validThrough = rnd.nextInt(10) == 0 ? rnd.nextInt(days) : Long.MAX_VALUE;
+            crews.add(new DriverAssignmentService.Crew(i + 1, 3 + rnd.nextInt(21) / 10.0, rnd.nextInt(25), spoken, validThrough));
+        }
+        int bookings = drivers * 5;
+        trips = new ArrayList<>(bookings);
+        for (int b = 0; b < bookings; b++) {
+            long first = rnd.nextInt(days);
+            Set<String> wanted = rnd.nextInt(3) == 0
+                    ? Set.of(LANGUAGES.get(rnd.nextInt(LANGUAGES.size()))) : Collections.emptySet();
+            trips.add(new DriverAssignmentService.Trip(b + 1, first, first + (rnd.nextInt(3) == 0 ? rnd.nextInt(3) : 0), wanted));
+        }
+        trips.sort((x, y) -> Long.compare(x.firstDay(), y.firstDay()));
+
+        DriverAssignmentService.Plan matched = plan();
+        DriverAssignmentService.Plan greedy = greedy();
+        System.out.printf("# %d drivers, %d bookings: matching %d assigned (score %.3f), greedy %d assigned (score %.3f)%n",
+                drivers, bookings, assigned(matched), Arrays.stream(matched.score()).sum(),
+                assigned(greedy), Arrays.stream(greedy.score()).sum());
+    }
+
+    @Benchmark
+    public DriverAssignmentService.Plan plan() {
+        return service.plan(trips, crews);
+    }
+
+    // What a dispatcher does by hand: each booking in date order takes the best driver still free
+    @Benchmark
+    public DriverAssignmentService.Plan greedy() {
+        int n = trips.size();
+        int[] crewOf = new int[n];
+        double[] score = new double[n];
+        long[] freeFrom = new long[crews.size()];
+        Arrays.fill(freeFrom, Long.MIN_VALUE);
+        for (int t = 0; t < n; t++) {
+            DriverAssignmentService.Trip trip = trips.get(t);
+            int best = -1;
+            double bestScore = -1;
+            for (int c = 0; c < crews.size(); c++) {
+                DriverAssignmentService.Crew crew = crews.get(c);
+                if (freeFrom[c] <= trip.firstDay() && crew.licenceValidThrough() >= trip.lastDay()) {
+                    double s = service.score(trip, crew);
+                    if (s > bestScore) {
+                        best = c;
+                        bestScore = s;
+                    }
+                }
+            }
+            crewOf[t] = best;
+            if (best >= 0) {
+                score[t] = bestScore;
+                freeFrom[best] = trip.lastDay() + 1;
+            }
+        }
+        return new DriverAssignmentService.Plan(crewOf, score, new boolean[n], 0);
+    }
+
+    private static long assigned(DriverAssignmentService.Plan plan) {
+        return Arrays.stream(plan.crewOf()).filter(c -> c >= 0).count();
+    }
+}
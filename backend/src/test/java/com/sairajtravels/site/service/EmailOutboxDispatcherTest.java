@@ -0,0 +1,123 @@
+package com.sairajtravels.site.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.sairajtravels.site.entity.EmailOutbox;
+import com.sairajtravels.site.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final EmailOutboxRepository outboxRepository = mock(EmailOutboxRepository.class);
+    private SmtpTransportService smtp;
+
+    @AfterEach
+    void tearDown() {
+        if (smtp != null) {
+            smtp.close();
+        }
+    }
+
+    @Test
+    void drainedRowsShareOneSmtpSession() {
+        EmailOutboxDispatcher dispatcher = dispatcher(ServerSetupTest.SMTP.getPort());
+        List<Long> ids = List.of(1L, 2L, 3L, 4L, 5L);
+        due(ids);
+
+        dispatcher.poll();
+
+        assertEquals(5, greenMail.getReceivedMessages().length);
+        assertEquals(1L, smtp.sessions().get(0).get("connects"));
+        for (Long id : ids) {
+            verify(outboxRepository).markSent(eq(id), any());
+        }
+        verify(outboxRepository, never()).markRetry(anyLong(), any(), anyString());
+    }
+
+    @Test
+    void unsentRowsOfTheBatchAreRetried() {
+        EmailOutboxDispatcher dispatcher = dispatcher(1);     // nothing listens there
+        List<Long> ids = List.of(1L, 2L, 3L);
+        due(ids);
+
+        dispatcher.poll();
+
+        verify(outboxRepository, never()).markSent(anyLong(), any());
+        verify(outboxRepository, times(ids.size())).markRetry(anyLong(), any(), anyString());
+    }
+
+    private EmailOutboxDispatcher dispatcher(int port) {
+        Properties props = new Properties();
+        props.put("mail.smtp.connectiontimeout", "2000");
+        props.put("mail.smtp.timeout", "2000");
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setSession(Session.getInstance(props));
+        sender.setHost("127.0.0.1");
+        sender.setPort(port);
+        smtp = new SmtpTransportService(sender, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(smtp, "sessions", 1);
+        ReflectionTestUtils.setField(smtp, "idleCheckMs", 10_000L);
+        ReflectionTestUtils.setField(smtp, "maxIdleMs", 120_000L);
+        ReflectionTestUtils.setField(smtp, "maxMessagesPerConnection", 100);
+        ReflectionTestUtils.setField(smtp, "borrowTimeoutMs", 2_000L);
+        smtp.init();
+
+        EmailService emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "mailSender", sender);
+        ReflectionTestUtils.setField(emailService, "sendGridEmailService", mock(SendGridEmailService.class));
+        ReflectionTestUtils.setField(emailService, "smtpTransportService", smtp);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "bookings@example.com");
+
+        EmailOutboxDispatcher dispatcher = new EmailOutboxDispatcher(outboxRepository, emailService,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 20);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 300L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 8);
+        ReflectionTestUtils.setField(dispatcher, "backoffBaseSeconds", 30L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxSeconds", 3600L);
+        dispatcher.registerMeters();
+        return dispatcher;
+    }
+
+    private void due(List<Long> ids) {
+        when(outboxRepository.findDueIds(any(), any())).thenReturn(ids);
+        when(outboxRepository.claim(anyLong(), any(), any())).thenReturn(1);
+        for (Long id : ids) {
+            EmailOutbox row = new EmailOutbox();
+            row.setId(id);
+            row.setKind(EmailOutbox.KIND_HTML);
+            row.setRecipient("guest" + id + "@example.com");
+            row.setSubject("Booking Status Update - Sairaj Travels");
+            row.setHtmlBody("<p>Your booking <b>#" + id + "</b> is confirmed.</p>");
+            row.setTextBody("Your booking #" + id + " is confirmed.");
+            row.setAttempts(1);
+            row.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+            when(outboxRepository.findById(id)).thenReturn(Optional.of(row));
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.sairajtravels.site.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking confirmations (HTML and text) and admin booking notices rendered from synthetic
+ * bookings with {@link EmailTemplates}, against the {@code String.format} builders they replaced
+ * (copied below). Add {@code -prof gc} for bytes allocated per email.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="EmailTemplatesBenchmark -prof gc"</pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplatesBenchmark {
+
+    private EmailTemplates templates;
+    private EmailTemplate customerHtml;
+    private EmailTemplate customerText;
+    private EmailTemplate adminHtml;
+    private EmailTemplates.Model[] models;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        templates = new EmailTemplates();
+        templates.load();
+        customerHtml = templates.template("booking-received.html");
+        customerText = templates.template("booking-received.txt");
+        adminHtml = templates.template("booking-admin.html");
+
+        Random rnd = new Random(42);
+        String[] names = {"Asha Patil", "Rahul Deshmukh", "Sneha Kulkarni", "Vikram Joshi", "Meera Shah"};
+        String[] places = {"Pune Station", "Mumbai Airport T2", "Shirdi", "Lonavala", "Mahabaleshwar"};
+        models = new EmailTemplates.Model[64];
+        for (int i = 0; i < models.length; i++) {
+            LocalDate trip = LocalDate.now().plusDays(1 + rnd.nextInt(60));
+            models[i] = EmailTemplates.model()
+                    .with("bookingId", 1 + rnd.nextInt(100000))
+                    .with("customerName", names[rnd.nextInt(names.length)])
+                    .with("customerPhone", "98" + (10000000 + rnd.nextInt(90000000)))
+                    .with("customerEmail", "guest" + i + "@example.com")
+                    .with("vehicleName", "Tempo Traveller " + (12 + rnd.nextInt(6)) + " Seater")
+                    .with("pickupLocation", places[rnd.nextInt(places.length)])
+                    .with("dropLocation", places[rnd.nextInt(places.length)])
+                    .with("tripDate", trip)
+                    .with("returnDate", rnd.nextBoolean() ? trip.plusDays(1 + rnd.nextInt(4)) : null)
+                    .with("passengers", 1 + rnd.nextInt(17))
+                    .with("luggage", rnd.nextBoolean() ? "2 suitcases" : "Not specified")
+                    .with("specialRequests", rnd.nextInt(3) == 0 ? "Child seat please" : "None")
+                    .with("status", "PENDING")
+                    .with("requestedAt", LocalDateTime.now());
+        }
+    }
+
+    private EmailTemplates.Model nextModel() {
+        return models[next++ & (models.length - 1)];
+    }
+
+    @Benchmark
+    public EmailTemplates.Rendered customerTemplates() {
+        EmailTemplates.Model m = nextModel();
+        return new EmailTemplates.Rendered(templates.render(customerHtml, m), templates.render(customerText, m));
+    }
+
+    @Benchmark
+    public EmailTemplates.Rendered customerStringFormat() {
+        EmailTemplates.Model m = nextModel();
+        return new EmailTemplates.Rendered(customerHtml(m), customerText(m));
+    }
+
+    @Benchmark
+    public String adminTemplates() {
+        return templates.render(adminHtml, nextModel());
+    }
+
+    @Benchmark
+    public String adminStringFormat() {
+        return adminHtml(nextModel());
+    }
+
+    // The booking emails as EmailService built them before the templates: one String.format per part
+
+    private static String customerHtml(Map<String, ?> m) {
+        return String.format("""
+            <html>
+            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
+                <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
+                    <h2 style="color: #2563eb;">Thank you for your booking with Sairaj Travels!</h2>
+
+                    <p>Dear %s,</p>
+
+                    <p>We have received your booking request and will process it shortly. Here are your booking details:</p>
+
+                    <div style="background: #f8fafc; padding: 20px; border-radius: 8px; margin: 20px 0;">
+                        <h3 style="color: #1e40af; margin-top: 0;">Booking Details</h3>
+                        <p><strong>Booking ID:</strong> #%d</p>
+                        <p><strong>Vehicle:</strong> %s</p>
+                        <p><strong>Pickup Location:</strong> %s</p>
+                        <p><strong>Drop Location:</strong> %s</p>
+                        <p><strong>Trip Date:</strong> %s</p>
+                        %s
+                        <p><strong>Passengers:</strong> %d</p>
+                        <p><strong>Status:</strong> %s</p>
+                    </div>
+
+                    <p>Our team will contact you within 24 hours to confirm your booking and provide further details.</p>
+
+                    <p>For any queries, please contact us at:</p>
+                    <ul>
+                        <li>Phone: +91 9850748273</li>
+                        <li>Email: admin@sairajtravels.com</li>
+                    </ul>
+
+                    <p>Thank you for choosing Sairaj Travels!</p>
+
+                    <hr style="margin: 30px 0; border: none; border-top: 1px solid #e5e7eb;">
+                    <p style="font-size: 12px; color: #6b7280;">
+                        Sairaj Travels - Your Trusted Travel Partner<br>
+                        This is an automated email. Please do not reply.
+                    </p>
+                </div>
+            </body>
+            </html>
+            """,
+            m.get("customerName"),
+            m.get("bookingId"),
+            m.get("vehicleName"),
+            m.get("pickupLocation"),
+            m.get("dropLocation"),
+            m.get("tripDate"),
+            m.get("returnDate") != null ? String.format("<p><strong>Return Date:</strong> %s</p>", m.get("returnDate")) : "",
+            m.get("passengers"),
+            m.get("status")
+        );
+    }
+
+    private static String customerText(Map<String, ?> m) {
+        return String.format("""
+            Thank you for your booking with Sairaj Travels!
+
+            Dear %s,
+
+            We have received your booking request and will process it shortly. Here are your booking details:
+
+            Booking Details:
+            - Booking ID: #%d
+            - Vehicle: %s
+            - Pickup Location: %s
+            - Drop Location: %s
+            - Trip Date: %s
+            %s
+            - Passengers: %d
+            - Status: %s
+
+            Our team will contact you within 24 hours to confirm your booking and provide further details.
+
+            For any queries, please contact us at:
+            - Phone: +91 9850748273
+            - Email: admin@sairajtravels.com
+
+            Thank you for choosing Sairaj Travels!
+
+            ---
+            Sairaj Travels - Your Trusted Travel Partner
+            This is an automated email. Please do not reply.
+            """,
+            m.get("customerName"),
+            m.get("bookingId"),
+            m.get("vehicleName"),
+            m.get("pickupLocation"),
+            m.get("dropLocation"),
+            m.get("tripDate"),
+            m.get("returnDate") != null ? String.format("- Return Date: %s", m.get("returnDate")) : "",
+            m.get("passengers"),
+            m.get("status")
+        );
+    }
+
+    private static String adminHtml(Map<String, ?> m) {
+        return String.format("""
+            <html>
+            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
+                <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
+                    <h2 style="color: #dc2626;">New Booking Request</h2>
+
+                    <p>A new booking has been submitted through the website:</p>
+
+                    <div style="background: #fef2f2; padding: 20px; border-radius: 8px; margin: 20px 0; border-left: 4px solid #dc2626;">
+                        <h3 style="color: #dc2626; margin-top: 0;">Booking Details</h3>
+                        <p><strong>Booking ID:</strong> #%d</p>
+                        <p><strong>Customer Name:</strong> %s</p>
+                        <p><strong>Phone:</strong> %s</p>
+                        <p><strong>Email:</strong> %s</p>
+                        <p><strong>Vehicle:</strong> %s</p>
+                        <p><strong>Pickup Location:</strong> %s</p>
+                        <p><strong>Drop Location:</strong> %s</p>
+                        <p><strong>Trip Date:</strong> %s</p>
+                        %s
+                        <p><strong>Passengers:</strong> %d</p>
+                        <p><strong>Luggage:</strong> %s</p>
+                        <p><strong>Special Requests:</strong> %s</p>
+                        <p><strong>Status:</strong> %s</p>
+                        <p><strong>Requested At:</strong> %s</p>
+                    </div>
+
+                    <p style="color: #dc2626; font-weight: bold;">Action Required: Please contact the customer to confirm the booking.</p>
+                </div>
+            </body>
+            </html>
+            """,
+            m.get("bookingId"),
+            m.get("customerName"),
+            m.get("customerPhone"),
+            m.get("customerEmail"),
+            m.get("vehicleName"),
+            m.get("pickupLocation"),
+            m.get("dropLocation"),
+            m.get("tripDate"),
+            m.get("returnDate") != null ? String.format("<p><strong>Return Date:</strong> %s</p>", m.get("returnDate")) : "",
+            m.get("passengers"),
+            m.get("luggage"),
+            m.get("specialRequests"),
+            m.get("status"),
+            m.get("requestedAt")
+        );
+    }
+}
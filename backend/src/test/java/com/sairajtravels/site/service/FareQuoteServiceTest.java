@@ -0,0 +1,141 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.Vehicle;
+import com.sairajtravels.site.entity.VehicleCharges;
+import com.sairajtravels.site.entity.VehiclePricing;
+import com.sairajtravels.site.repository.VehicleChargesRepository;
+import com.sairajtravels.site.repository.VehiclePricingRepository;
+import com.sairajtravels.site.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FareQuoteServiceTest {
+
+    private final VehicleRepository vehicleRepository = mock(VehicleRepository.class);
+    private final VehiclePricingRepository pricingRepository = mock(VehiclePricingRepository.class);
+    private final VehicleChargesRepository chargesRepository = mock(VehicleChargesRepository.class);
+    private final List<VehiclePricing> pricing = new ArrayList<>();
+    private final List<VehicleCharges> charges = new ArrayList<>();
+    private final Vehicle vehicle = new Vehicle();
+    private FareQuoteService service;
+
+    @BeforeEach
+    void setUp() {
+        vehicle.setVehicleId(1);
+        vehicle.setName("Innova");
+        vehicle.setCapacity(7);
+        when(vehicleRepository.findAll()).thenReturn(List.of(vehicle));
+        when(pricingRepository.findAll()).thenReturn(pricing);
+        when(chargesRepository.findAll()).thenReturn(charges);
+        service = new FareQuoteService(vehicleRepository, pricingRepository, chargesRepository);
+        ReflectionTestUtils.setField(service, "tollPerKm", BigDecimal.ZERO);
+        ReflectionTestUtils.setField(service, "fuelPricePerLitre", new BigDecimal("100.00"));
+        ReflectionTestUtils.setField(service, "kmPerLitre", 15.0);
+    }
+
+    @Test
+    void packageWithoutExtraKmRateIsNotQuotedForKmOverIt() {
+        pricing.add(pkg("2000", 80, 8, null, "150"));
+
+        assertTrue(service.quoteAll(120_000, 3 * 3600, 0, 0).isEmpty());
+        // Within the package, the missing rate does not matter
+        assertEquals(new BigDecimal("2000.00"), only(service.quoteAll(60_000, 3 * 3600, 0, 0)).get("total"));
+    }
+
+    @Test
+    void missingExtraKmRateFallsBackToTheVehiclePerKmRate() {
+        pricing.add(pkg("2000", 80, 8, null, "150"));
+        pricing.add(perKm("12", 250));
+
+        Map<String, Object> quote = only(service.quoteAll(120_000, 3 * 3600, 0, 0));
+
+        assertEquals("package", quote.get("pricing"));
+        assertEquals(new BigDecimal("2480.00"), quote.get("total"));
+    }
+
+    @Test
+    void packageWithoutExtraHourRateIsNotQuotedForHoursOverIt() {
+        pricing.add(pkg("2000", 80, 8, "12", null));
+        pricing.add(perKm("12", 250));
+
+        Map<String, Object> quote = only(service.quoteAll(60_000, 10 * 3600, 0, 0));
+
+        assertEquals("per-km", quote.get("pricing"));
+        assertEquals(new BigDecimal("3000.00"), quote.get("total"));
+    }
+
+    @Test
+    void multiDayTripIsChargedForEveryHiredDay() {
+        pricing.add(pkg("2000", 80, 8, "12", "150"));
+        pricing.add(perKm("12", 250));
+        VehicleCharges c = new VehicleCharges();
+        c.setVehicle(vehicle);
+        c.setDriverAllowance(new BigDecimal("300"));
+        c.setNightCharge(new BigDecimal("200"));
+        c.setFuelIncluded(true);
+        c.setTollIncluded(true);
+        charges.add(c);
+
+        // Five hours of driving spread over three days: packages are out, minimum km and allowances per day
+        Map<String, Object> quote = only(service.quoteAll(300_000, 5 * 3600, 0, 3));
+
+        assertEquals(3L, quote.get("days"));
+        assertEquals("per-km", quote.get("pricing"));
+        assertEquals(750L, quote.get("chargeableKm"));
+        assertEquals(new BigDecimal("10300.00"), quote.get("total"));
+    }
+
+    @Test
+    void deactivatedPricingRowsAreNotQuoted() {
+        VehiclePricing cheapPackage = pkg("1500", 80, 8, "12", "150");
+        cheapPackage.setIsActive(false);
+        pricing.add(cheapPackage);
+        pricing.add(perKm("12", 250));
+
+        Map<String, Object> quote = only(service.quoteAll(60_000, 3 * 3600, 0, 0));
+        assertEquals("per-km", quote.get("pricing"));
+        assertEquals(new BigDecimal("3000.00"), quote.get("total"));
+
+        // A vehicle whose only plan is deactivated drops out of the list
+        pricing.get(1).setIsActive(false);
+        service.invalidate();
+        assertTrue(service.quoteAll(60_000, 3 * 3600, 0, 0).isEmpty());
+    }
+
+    private VehiclePricing pkg(String rate, int km, int hours, String extraKm, String extraHour) {
+        VehiclePricing p = new VehiclePricing();
+        p.setVehicle(vehicle);
+        p.setRateType("LOCAL");
+        p.setPackageRate(new BigDecimal(rate));
+        p.setPackageKm(km);
+        p.setPackageHours(hours);
+        p.setExtraKmRate(extraKm != null ? new BigDecimal(extraKm) : null);
+        p.setExtraHourRate(extraHour != null ? new BigDecimal(extraHour) : null);
+        return p;
+    }
+
+    private VehiclePricing perKm(String rate, int minKmPerDay) {
+        VehiclePricing p = new VehiclePricing();
+        p.setVehicle(vehicle);
+        p.setRateType("OUTSTATION");
+        p.setRatePerKm(new BigDecimal(rate));
+        p.setMinKmPerDay(minKmPerDay);
+        return p;
+    }
+
+    private static Map<String, Object> only(List<Map<String, Object>> quotes) {
+        assertEquals(1, quotes.size());
+        return quotes.get(0);
+    }
+}
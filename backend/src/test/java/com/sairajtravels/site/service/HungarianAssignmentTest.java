@@ -0,0 +1,155 @@
+package com.sairajtravels.site.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** {@link HungarianAssignment#solve} against brute force over every assignment of small matrices. */
+class HungarianAssignmentTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    void matchesBruteForceOnSquareMatrices() {
+        Random random = new Random(7);
+        for (int n = 1; n <= 6; n++) {
+            for (int round = 0; round < 200; round++) {
+                check(matrix(random, n, n, false));
+            }
+        }
+    }
+
+    @Test
+    void matchesBruteForceOnWideMatrices() {
+        Random random = new Random(11);
+        for (int n = 1; n <= 5; n++) {
+            for (int m = n + 1; m <= 7; m++) {
+                for (int round = 0; round < 100; round++) {
+                    check(matrix(random, n, m, false));
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesBruteForceWithTiedCosts() {
+        Random random = new Random(13);
+        for (int round = 0; round < 300; round++) {
+            int n = 1 + random.nextInt(5);
+            double[][] cost = new double[n][n + random.nextInt(3)];
+            for (double[] row : cost) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = random.nextInt(3);
+                }
+            }
+            check(cost);
+        }
+    }
+
+    // How DriverAssignmentService rules a pair out: a cost above any set of real pairs
+    @Test
+    void avoidsForbiddenCellsWhenAnyOtherAssignmentExists() {
+        Random random = new Random(17);
+        for (int round = 0; round < 300; round++) {
+            int n = 1 + random.nextInt(5);
+            double[][] cost = matrix(random, n, n + random.nextInt(3), true);
+            double forbidden = (n + 1) * 100.0;
+            for (double[] row : cost) {
+                for (int j = 0; j < row.length; j++) {
+                    if (Double.isInfinite(row[j])) {
+                        row[j] = forbidden;
+                    }
+                }
+            }
+            check(cost);
+        }
+    }
+
+    @Test
+    void infiniteCellsAreNeverChosenWhenAFiniteAssignmentExists() {
+        Random random = new Random(19);
+        int checked = 0;
+        while (checked < 300) {
+            int n = 1 + random.nextInt(5);
+            double[][] cost = matrix(random, n, n + random.nextInt(3), true);
+            if (Double.isInfinite(bruteForce(cost))) {
+                continue;
+            }
+            check(cost);
+            checked++;
+        }
+    }
+
+    @Test
+    void noFiniteAssignmentIsRejected() {
+        double inf = Double.POSITIVE_INFINITY;
+        // Both rows can only take column 0
+        double[][] cost = {{1, inf, inf}, {2, inf, inf}};
+
+        assertThrows(IllegalArgumentException.class, () -> HungarianAssignment.solve(cost));
+    }
+
+    @Test
+    void smallCasesByHand() {
+        assertArrayEquals(new int[0], HungarianAssignment.solve(new double[0][]));
+        assertArrayEquals(new int[] {1, 0, 2}, HungarianAssignment.solve(new double[][] {
+                {4, 1, 3},
+                {2, 0, 5},
+                {3, 2, 2}}));
+        // The cheapest cell of row 0 is worth giving up for row 1
+        assertArrayEquals(new int[] {1, 0}, HungarianAssignment.solve(new double[][] {
+                {1, 2, 9},
+                {1, 9, 9}}));
+        assertThrows(IllegalArgumentException.class, () -> HungarianAssignment.solve(new double[][] {{1}, {2}}));
+    }
+
+    private static void check(double[][] cost) {
+        int[] column = HungarianAssignment.solve(cost);
+        assertEquals(cost.length, column.length);
+        boolean[] taken = new boolean[cost[0].length];
+        double total = 0;
+        for (int i = 0; i < column.length; i++) {
+            assertTrue(column[i] >= 0 && column[i] < taken.length, "column out of range");
+            assertTrue(!taken[column[i]], "column used twice");
+            taken[column[i]] = true;
+            total += cost[i][column[i]];
+        }
+        assertEquals(bruteForce(cost), total, EPS);
+    }
+
+    // Lowest total over every injective row -> column map
+    private static double bruteForce(double[][] cost) {
+        return bruteForce(cost, 0, new boolean[cost[0].length]);
+    }
+
+    private static double bruteForce(double[][] cost, int row, boolean[] taken) {
+        if (row == cost.length) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < taken.length; j++) {
+            if (!taken[j]) {
+                taken[j] = true;
+                best = Math.min(best, cost[row][j] + bruteForce(cost, row + 1, taken));
+                taken[j] = false;
+            }
+        }
+        return best;
+    }
+
+    // Costs in [0, 100); with holes, about one cell in four is infinite
+    private static double[][] matrix(Random random, int rows, int columns, boolean holes) {
+        double[][] cost = new double[rows][columns];
+        for (double[] row : cost) {
+            for (int j = 0; j < columns; j++) {
+                row[j] = holes && random.nextInt(4) == 0 ? Double.POSITIVE_INFINITY : random.nextDouble() * 100;
+            }
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,171 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.entity.IdempotencyKey;
+import com.sairajtravels.site.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link IdempotencyService} on the local (H2) profile: replay, body mismatch, a duplicate while
+ * the first request runs, and keys left unused by a failed first request.
+ */
+@SpringBootTest
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "test-bookings";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyKeyRepository repository;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void repeatGetsTheStoredResponseWithoutRunningAgain() {
+        String key = key();
+        ResponseEntity<?> first = idempotencyService.execute(SCOPE, key, request("Pune"), created(7));
+        ResponseEntity<?> second = idempotencyService.execute(SCOPE, key, request("Pune"), created(8));
+
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("{\"bookingId\":7}", second.getBody());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void repeatIsReplayedFromTheDatabaseOnceTheCacheForgotIt() {
+        String key = key();
+        idempotencyService.execute(SCOPE, key, request("Pune"), created(7));
+        // As another instance, or this one after a restart, would see it
+        ((Map<?, ?>) ReflectionTestUtils.getField(idempotencyService, "recent")).clear();
+
+        ResponseEntity<?> again = idempotencyService.execute(SCOPE, key, request("Pune"), created(8));
+
+        assertEquals(HttpStatus.CREATED, again.getStatusCode());
+        assertEquals("true", again.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("{\"bookingId\":7}", again.getBody());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void sameKeyWithADifferentBodyIsRejected() {
+        String key = key();
+        idempotencyService.execute(SCOPE, key, request("Pune"), created(7));
+
+        ResponseEntity<?> other = idempotencyService.execute(SCOPE, key, request("Shirdi"), created(8));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, other.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void duplicateWhileTheFirstIsRunningGetsConflict() throws Exception {
+        String key = key();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<ResponseEntity<?>> first = pool.submit(() -> idempotencyService.execute(SCOPE, key, request("Pune"), () -> {
+            running.countDown();
+            await(release);
+            return created(7).get();
+        }));
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+
+        ResponseEntity<?> duplicate = idempotencyService.execute(SCOPE, key, request("Pune"), created(8));
+        release.countDown();
+
+        assertEquals(HttpStatus.CONFLICT, duplicate.getStatusCode());
+        assertEquals(HttpStatus.CREATED, first.get(10, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, calls.get());
+        // Once the first is done the key replays
+        ResponseEntity<?> later = idempotencyService.execute(SCOPE, key, request("Pune"), created(9));
+        assertEquals("true", later.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void serverErrorLeavesTheKeyUnused() {
+        String key = key();
+        ResponseEntity<?> failed = idempotencyService.execute(SCOPE, key, request("Pune"), () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "try later"));
+        });
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failed.getStatusCode());
+        assertFalse(repository.findByScopeAndIdemKey(SCOPE, key).isPresent());
+
+        ResponseEntity<?> retry = idempotencyService.execute(SCOPE, key, request("Pune"), created(7));
+
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertNull(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(2, calls.get());
+        Optional<IdempotencyKey> row = repository.findByScopeAndIdemKey(SCOPE, key);
+        assertTrue(row.isPresent());
+        assertEquals(201, row.get().getStatusCode());
+    }
+
+    @Test
+    void exceptionLeavesTheKeyUnused() {
+        String key = key();
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(SCOPE, key, request("Pune"), () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        ResponseEntity<?> retry = idempotencyService.execute(SCOPE, key, request("Pune"), created(7));
+
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    private Supplier<ResponseEntity<?>> created(int bookingId) {
+        return () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("bookingId", bookingId));
+        };
+    }
+
+    private static Map<String, Object> request(String pickup) {
+        return Map.of("pickupLocation", pickup, "passengers", 4);
+    }
+
+    private static String key() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
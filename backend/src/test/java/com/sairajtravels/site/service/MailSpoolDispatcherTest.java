@@ -0,0 +1,104 @@
+package com.sairajtravels.site.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class MailSpoolDispatcherTest {
+
+    @TempDir
+    Path dir;
+
+    private final EmailService emailService = mock(EmailService.class);
+    private MailSpoolService spoolService;
+
+    @AfterEach
+    void tearDown() {
+        if (spoolService != null) {
+            spoolService.close();
+        }
+    }
+
+    @Test
+    void replayAfterRestartDrainsHigherLanesFirst() throws Exception {
+        spoolService = spoolService();
+        spoolService.spool(MailSpoolService.Lane.LOW, MailSpoolService.Kind.ADMIN,
+                "ops@example.com", "Daily summary", "<p>summary</p>", null);
+        spoolService.spool(MailSpoolService.Lane.NORMAL, MailSpoolService.Kind.HTML,
+                "guest@example.com", "Booking update", "<p>confirmed</p>", "confirmed");
+        spoolService.spool(MailSpoolService.Lane.HIGH, MailSpoolService.Kind.ACCOUNT_HTML,
+                "admin@example.com", "Password reset", "<p>reset</p>", null);
+        spoolService.close();
+        spoolService = spoolService();
+
+        MailSpoolDispatcher dispatcher = dispatcher(2);
+        dispatcher.poll();
+
+        // The budget of two went to HIGH and NORMAL although LOW was spooled first
+        InOrder order = inOrder(emailService);
+        order.verify(emailService).deliverAccountEmail("admin@example.com", "Password reset", "<p>reset</p>", true);
+        order.verify(emailService).deliverHtmlEmail("guest@example.com", "Booking update", "<p>confirmed</p>", "confirmed");
+        verify(emailService, never()).deliverAdminNotification(anyString(), any(), any());
+        assertEquals(1, spoolService.pending(MailSpoolService.Lane.LOW));
+
+        dispatcher.poll();
+        verify(emailService).deliverAdminNotification("Daily summary", "<p>summary</p>", "ops@example.com");
+        assertEquals(0, spoolService.pending(MailSpoolService.Lane.LOW));
+    }
+
+    @Test
+    void failedReplayStaysSpooledForALaterTry() throws Exception {
+        spoolService = spoolService();
+        spoolService.spool(MailSpoolService.Lane.HIGH, MailSpoolService.Kind.ACCOUNT_TEXT,
+                "admin@example.com", "Password changed", "changed", null);
+        doThrow(new MessagingException("relay down")).when(emailService)
+                .deliverAccountEmail(anyString(), anyString(), anyString(), anyBoolean());
+
+        dispatcher(20).poll();
+        spoolService.close();
+        spoolService = spoolService();
+
+        assertEquals(1, spoolService.pending(MailSpoolService.Lane.HIGH));
+        // Backed off, so not due again yet
+        assertTrue(spoolService.due(MailSpoolService.Lane.HIGH, 10).isEmpty());
+        verify(emailService).deliverAccountEmail(eq("admin@example.com"), anyString(), anyString(), eq(false));
+    }
+
+    private MailSpoolService spoolService() {
+        MailSpoolService s = new MailSpoolService();
+        ReflectionTestUtils.setField(s, "dir", dir.toString());
+        ReflectionTestUtils.setField(s, "segmentKb", 64);
+        ReflectionTestUtils.setField(s, "compactBelow", 0.25);
+        s.init();
+        assertTrue(s.isEnabled());
+        return s;
+    }
+
+    private MailSpoolDispatcher dispatcher(int maxPerPoll) {
+        MailSpoolDispatcher d = new MailSpoolDispatcher(spoolService, emailService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(d, "maxPerPoll", maxPerPoll);
+        ReflectionTestUtils.setField(d, "maxAttempts", 10);
+        ReflectionTestUtils.setField(d, "backoffBaseSeconds", 60L);
+        ReflectionTestUtils.setField(d, "backoffMaxSeconds", 3600L);
+        d.registerMeters();
+        return d;
+    }
+}
@@ -0,0 +1,202 @@
+package com.sairajtravels.site.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MailSpoolTest {
+
+    private static final List<String> LANES = List.of("high", "normal", "low");
+    private static final int PAYLOAD = 500;
+    private static final int RECORD = MailSpool.HEADER_BYTES + PAYLOAD;
+
+    @TempDir
+    Path dir;
+
+    private int segmentBytes = RECORD * 8;
+    private MailSpool spool;
+
+    @AfterEach
+    void tearDown() {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    @Test
+    void pendingRecordsSurviveAReopen() throws Exception {
+        spool = open();
+        append(0, 1, 2);
+        spool.mark(spool.due(0, now(), 10).get(0), MailSpool.SENT, 1, 0);
+        reopen();
+
+        assertEquals(List.of(1, 2), dueIds(0));
+    }
+
+    @Test
+    void tornLastRecordIsDroppedOnRecovery() throws Exception {
+        spool = open();
+        append(0, 1, 2, 3);
+        spool.close();
+        // A crash while the third record was half written
+        truncate(segment("high", 1), 2L * RECORD + RECORD / 2);
+        spool = open();
+
+        assertEquals(List.of(0, 1), dueIds(0));
+        // The next append takes the torn record's place
+        append(4);
+        assertEquals(List.of(0, 1, 4), dueIds(0));
+    }
+
+    @Test
+    void recordFailingItsCrcEndsRecovery() throws Exception {
+        spool = open();
+        append(0, 1, 2);
+        spool.close();
+        flipByte(segment("high", 1), RECORD + MailSpool.HEADER_BYTES + 10);
+        spool = open();
+
+        // The damaged record and everything after it are gone
+        assertEquals(List.of(0), dueIds(0));
+        append(3);
+        reopen();
+        assertEquals(List.of(0, 3), dueIds(0));
+    }
+
+    @Test
+    void recordWhoseStateByteWasNotWrittenIsNotReplayed() throws Exception {
+        spool = open();
+        append(0, 1);
+        spool.close();
+        // Header and payload on disk, CRC intact, but the crash came before the state byte
+        writeByte(segment("high", 1), RECORD, MailSpool.END);
+        spool = open();
+
+        assertEquals(List.of(0), dueIds(0));
+    }
+
+    @Test
+    void compactionDropsDeliveredSegmentsAndMovesSparseOnes() throws Exception {
+        segmentBytes = RECORD * 2 + 4;
+        spool = open();
+        append(0, 1, 2, 3, 4, 5);       // segments 1, 2 and 3, two records each
+        assertEquals(3, spool.stats(0).segments());
+        List<MailSpool.Record> due = spool.due(0, now(), 10);
+        for (int i = 0; i < 3; i++) {
+            spool.mark(due.get(i), MailSpool.SENT, 1, 0);
+        }
+
+        // Segment 1 is delivered; segment 2 holds one pending record, under 60 % of its size
+        assertEquals(2, spool.compact(0.6));
+
+        assertEquals(List.of(segment("high", 3), segment("high", 4)), files());
+        assertEquals(3, spool.stats(0).pending());
+        reopen();
+        assertEquals(List.of(4, 5, 3), dueIds(0));
+    }
+
+    @Test
+    void compactionKeepsSegmentsThatAreMostlyPending() throws Exception {
+        segmentBytes = RECORD * 2 + 4;
+        spool = open();
+        append(0, 1, 2, 3, 4, 5);
+        spool.mark(spool.due(0, now(), 10).get(0), MailSpool.SENT, 1, 0);
+
+        assertEquals(0, spool.compact(0.25));
+
+        assertEquals(3, files().size());
+        assertEquals(5, spool.stats(0).pending());
+    }
+
+    @Test
+    void retryTimeIsKeptAcrossAReopen() throws Exception {
+        spool = open();
+        append(0, 1);
+        MailSpool.Record first = spool.due(0, now(), 10).get(0);
+        spool.mark(first, MailSpool.PENDING, 3, now() + 60_000);
+        reopen();
+
+        assertEquals(List.of(1), dueIds(0));
+        List<MailSpool.Record> later = spool.due(0, now() + 120_000, 10);
+        assertEquals(0, id(later.get(0)));
+        assertEquals(3, later.get(0).attempts());
+    }
+
+    private MailSpool open() throws IOException {
+        return new MailSpool(dir, LANES, segmentBytes);
+    }
+
+    private void reopen() throws IOException {
+        spool.close();
+        spool = open();
+    }
+
+    private void append(int... ids) throws IOException {
+        for (int id : ids) {
+            spool.append(0, payload(id), now());
+        }
+    }
+
+    private List<Integer> dueIds(int lane) throws IOException {
+        return spool.due(lane, now(), 100).stream().map(MailSpoolTest::id).toList();
+    }
+
+    private static byte[] payload(int id) {
+        byte[] bytes = new byte[PAYLOAD];
+        byte[] label = ("message-" + id).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(label, 0, bytes, 0, label.length);
+        return bytes;
+    }
+
+    private static int id(MailSpool.Record r) {
+        // trim() also drops the zero padding
+        String label = new String(r.payload(), StandardCharsets.US_ASCII).trim();
+        return Integer.parseInt(label.substring("message-".length()));
+    }
+
+    private Path segment(String lane, long seq) {
+        return dir.resolve(String.format("%s-%010d.spool", lane, seq));
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.sorted().toList();
+        }
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(file.toFile(), "rw")) {
+            f.setLength(size);
+        }
+    }
+
+    private static void flipByte(Path file, long pos) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(file.toFile(), "rw")) {
+            f.seek(pos);
+            int b = f.read();
+            f.seek(pos);
+            f.write(b ^ 0xff);
+        }
+    }
+
+    private static void writeByte(Path file, long pos, byte value) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(file.toFile(), "rw")) {
+            f.seek(pos);
+            f.write(value);
+        }
+    }
+}
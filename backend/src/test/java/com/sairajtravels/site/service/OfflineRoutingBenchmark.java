@@ -0,0 +1,118 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.dto.RouteResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline routing throughput on long routes (endpoints at least {@code minKm} apart). Runs over
+ * the graph in {@code -Dbench.graph=<file>} when given, otherwise over a synthetic grid of roads
+ * around Pune with mixed speeds.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench=OfflineRoutingBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OfflineRoutingBenchmark {
+
+    @Param({"100"})
+    public double minKm;
+
+    @Param({"400"})
+    public int gridSize;
+
+    private OfflineRoutingService service;
+    private double[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String file = System.getProperty("bench.graph");
+        RoadGraph graph = file != null ? RoadGraph.load(Paths.get(file)) : grid(gridSize, 42);
+
+        service = new OfflineRoutingService();
+        ReflectionTestUtils.setField(service, "maxSnapMeters", 2000.0);
+        ReflectionTestUtils.setField(service, "maxConcurrentQueries", 1);
+        ReflectionTestUtils.setField(service, "queryWaitMs", 2000L);
+        service.useGraph(graph);
+
+        SplittableRandom rnd = new SplittableRandom(42);
+        queries = new double[256][];
+        int made = 0;
+        while (made < queries.length) {
+            int s = rnd.nextInt(graph.nodeCount);
+            int t = rnd.nextInt(graph.nodeCount);
+            if (GeoMath.haversineMeters(graph.lat(s), graph.lon(s), graph.lat(t), graph.lon(t)) >= minKm * 1000.0) {
+                queries[made++] = new double[]{graph.lat(s), graph.lon(s), graph.lat(t), graph.lon(t)};
+            }
+        }
+    }
+
+    @Benchmark
+    public RouteResult route() {
+        double[] q = queries[next++ & (queries.length - 1)];
+        return service.route(q[0], q[1], q[2], q[3]);
+    }
+
+    // size x size junctions 0.005 degrees apart, two-way roads to the four neighbours at 30-80 km/h
+    static RoadGraph grid(int size, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        int n = size * size;
+        int[] latE6 = new int[n];
+        int[] lonE6 = new int[n];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                latE6[r * size + c] = 17_500_000 + r * 5_000;
+                lonE6[r * size + c] = 72_800_000 + c * 5_000;
+            }
+        }
+        int[] firstEdge = new int[n + 1];
+        int[] target = new int[n * 4];
+        int[] length = new int[n * 4];
+        int[] time = new int[n * 4];
+        int e = 0;
+        int[][] steps = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+        for (int v = 0; v < n; v++) {
+            firstEdge[v] = e;
+            int r = v / size;
+            int c = v % size;
+            for (int[] step : steps) {
+                int rr = r + step[0];
+                int cc = c + step[1];
+                if (rr < 0 || cc < 0 || rr >= size || cc >= size) {
+                    continue;
+                }
+                int u = rr * size + cc;
+                int metres = (int) GeoMath.haversineMeters(latE6[v] / 1e6, lonE6[v] / 1e6, latE6[u] / 1e6, lonE6[u] / 1e6);
+                double metresPerDecisecond = (30 + rnd.nextInt(51)) / 36.0;
+                target[e] = u;
+                length[e] = metres;
+                time[e] = Math.max(1, (int) (metres / metresPerDecisecond));
+                e++;
+            }
+        }
+        firstEdge[n] = e;
+        return new RoadGraph(latE6, lonE6, firstEdge, Arrays.copyOf(target, e),
+                Arrays.copyOf(length, e), Arrays.copyOf(time, e));
+    }
+}
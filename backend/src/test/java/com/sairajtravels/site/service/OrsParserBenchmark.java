@@ -0,0 +1,122 @@
+package com.sairajtravels.site.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sairajtravels.site.dto.RouteResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrsRouteParser} against the Map-based parse it replaced, on a synthetic ORS GeoJSON
+ * directions body of {@code points} vertices. Add {@code -prof gc} for bytes allocated per parse.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="OrsParserBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrsParserBenchmark {
+
+    @Param({"5000"})
+    public int points;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        body = syntheticGeoJsonBody(points);
+    }
+
+    @Benchmark
+    public RouteResult streaming() throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            return OrsRouteParser.parse(parser);
+        }
+    }
+
+    @Benchmark
+    public RouteResult map() throws IOException {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> raw = objectMapper.readValue(body, Map.class);
+        return parseRoute(raw);
+    }
+
+    private byte[] syntheticGeoJsonBody(int points) throws IOException {
+        List<List<Double>> coords = new ArrayList<>(points);
+        double lat = 18.52;
+        double lon = 73.85;
+        for (int i = 0; i < points; i++) {
+            // ORS emits at most 6 decimals
+            coords.add(List.of(Math.round(lon * 1e6) / 1e6, Math.round(lat * 1e6) / 1e6));
+            lat += 0.0004 * Math.cos(i * 0.01);
+            lon += 0.0004 * Math.sin(i * 0.01);
+        }
+        Map<String, Object> summary = Map.of("distance", points * 45.0, "duration", points * 3.2);
+        Map<String, Object> feature = new LinkedHashMap<>();
+        feature.put("bbox", List.of(73.0, 18.0, 74.0, 19.0));
+        feature.put("type", "Feature");
+        feature.put("properties", Map.of("summary", summary, "way_points", List.of(0, points - 1)));
+        feature.put("geometry", Map.of("type", "LineString", "coordinates", coords));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", "FeatureCollection");
+        body.put("bbox", List.of(73.0, 18.0, 74.0, 19.0));
+        body.put("features", List.of(feature));
+        body.put("metadata", Map.of("service", "routing", "timestamp", 0));
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    // The Map-based parse OrsDirectionsService used before OrsRouteParser (GeoJSON bodies only)
+    private static RouteResult parseRoute(Map<String, Object> raw) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> features = (List<Map<String, Object>>) raw.get("features");
+        if (features == null || features.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> f0 = features.get(0);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> properties = (Map<String, Object>) f0.get("properties");
+        double distance = 0.0;
+        double duration = 0.0;
+        if (properties != null && properties.get("summary") instanceof Map<?, ?> summary) {
+            distance = asDouble(summary.get("distance"));
+            duration = asDouble(summary.get("duration"));
+        }
+        List<?> points = (List<?>) ((Map<?, ?>) f0.get("geometry")).get("coordinates");
+        double[] coords = new double[points.size() * 2];
+        int i = 0;
+        for (Object p : points) {
+            List<?> pair = (List<?>) p;
+            coords[i++] = asDouble(pair.get(0));
+            coords[i++] = asDouble(pair.get(1));
+        }
+        return new RouteResult(distance, duration, coords);
+    }
+
+    private static double asDouble(Object o) {
+        if (o == null) return 0.0;
+        if (o instanceof Number) return ((Number) o).doubleValue();
+        try { return Double.parseDouble(o.toString()); }
+        catch (Exception e) { return 0.0; }
+    }
+}
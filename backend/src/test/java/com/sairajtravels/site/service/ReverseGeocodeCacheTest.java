@@ -0,0 +1,86 @@
+package com.sairajtravels.site.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ReverseGeocodeCacheTest {
+
+    private static final int DISK_MAX = 50;
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReverseGeocodeCache cache;
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    void diskTierStaysWithinItsLimitAndTheFileIsCompactedAtRuntime() throws Exception {
+        Path file = dir.resolve("geocode.log");
+        cache = cache(file);
+
+        for (int i = 0; i < 1000; i++) {
+            load(cache, i);
+        }
+        assertEquals(DISK_MAX, cache.diskSize());
+        assertEquals(1000 - 10, registry.get("geocode.cache.evictions").tag("tier", "memory").counter().count());
+        assertEquals(1000 - DISK_MAX, registry.get("geocode.cache.evictions").tag("tier", "disk").counter().count());
+
+        // Appends and compaction happen on the writer thread; close() waits for it to drain
+        cache.close();
+        assertTrue(lines(file) <= 2 * DISK_MAX, "file has " + lines(file) + " lines");
+    }
+
+    @Test
+    void replayKeepsTheMostRecentlyUsedEntries() throws Exception {
+        Path file = dir.resolve("geocode.log");
+        cache = cache(file);
+        for (int i = 0; i < 1000; i++) {
+            load(cache, i);
+        }
+        cache.close();
+
+        cache = cache(file);
+        assertEquals(DISK_MAX, cache.diskSize());
+        assertEquals("999", cache.get(18.0 + 999 * 0.001, 73.0, () -> fail("should be cached")).get("type"));
+        assertNull(cache.get(18.0, 73.0, () -> null));
+    }
+
+    private static void load(ReverseGeocodeCache cache, int i) {
+        cache.get(18.0 + i * 0.001, 73.0, () -> Map.of("class", "place", "type", String.valueOf(i),
+                "lat", "18.5", "lon", "73.8"));
+    }
+
+    private static long lines(Path file) throws Exception {
+        try (var l = Files.lines(file)) {
+            return l.count();
+        }
+    }
+
+    private ReverseGeocodeCache cache(Path file) {
+        ReverseGeocodeCache c = new ReverseGeocodeCache(registry);
+        ReflectionTestUtils.setField(c, "maxEntries", 10);
+        ReflectionTestUtils.setField(c, "ttlHours", 1L);
+        ReflectionTestUtils.setField(c, "gridDecimals", 4);
+        ReflectionTestUtils.setField(c, "diskPath", file.toString());
+        ReflectionTestUtils.setField(c, "diskMaxEntries", DISK_MAX);
+        c.init();
+        return c;
+    }
+}
@@ -0,0 +1,93 @@
+package com.sairajtravels.site.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sairajtravels.site.dto.RouteResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shaping and serialising trip geometry in each response format, over a synthetic road-like
+ * route ({@code points} vertices about 50 m apart). The payload size of each variant is printed
+ * at setup.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench=RouteGeometryBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteGeometryBenchmark {
+
+    @Param({"6000"})
+    public int points;
+
+    @Param({"geojson", "polyline", "polyline-zoom14", "polyline-zoom10", "geojson-zoom14"})
+    public String variant;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RouteGeometryService service;
+    private RouteResult route;
+    private RouteGeometryService.Options options;
+    private String encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        service = new RouteGeometryService(objectMapper);
+        route = syntheticRoute(points, 42);
+        String[] parts = variant.split("-zoom");
+        options = new RouteGeometryService.Options(
+                "polyline".equals(parts[0]) ? RouteGeometryService.Format.POLYLINE : RouteGeometryService.Format.GEOJSON,
+                0, parts.length > 1 ? Integer.valueOf(parts[1]) : null);
+        encoded = PolylineCodec.encode(route.getCoordinates(), PolylineCodec.DEFAULT_PRECISION);
+        System.out.println("# " + variant + ": " + shapeAndSerialize().length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] shapeAndSerialize() throws Exception {
+        Map<String, Object> response = new LinkedHashMap<>();
+        service.writeGeometry(response, route, options);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public double[] polylineDecode() {
+        return PolylineCodec.decode(encoded, PolylineCodec.DEFAULT_PRECISION, false);
+    }
+
+    // Random walk with gently drifting heading, starting near Pune
+    static RouteResult syntheticRoute(int points, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        double[] coords = new double[Math.max(2, points) * 2];
+        double lat = 18.52;
+        double lon = 73.85;
+        double heading = rnd.nextDouble(0, 2 * Math.PI);
+        double meters = 0;
+        for (int i = 0; i < coords.length / 2; i++) {
+            coords[2 * i] = lon;
+            coords[2 * i + 1] = lat;
+            heading += rnd.nextDouble(-0.15, 0.15);
+            double step = 50.0;
+            lat += step * Math.cos(heading) / 110540.0;
+            lon += step * Math.sin(heading) / (111320.0 * Math.cos(Math.toRadians(lat)));
+            meters += step;
+        }
+        return new RouteResult(meters, meters / (60 / 3.6), coords);
+    }
+}
@@ -0,0 +1,102 @@
+package com.sairajtravels.site.service;
+
+import com.sendgrid.Client;
+import com.sendgrid.SendGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per message for {@value #MESSAGES} emails sent to a local SendGrid stand-in answering after
+ * {@code latencyMillis}, three ways: a new client per message (as the service used to), the pooled
+ * client one request per message, and {@link SendGridEmailService#sendBatch} with {@code perRequest}
+ * recipients per request. Plain HTTP, so the per-connection TLS handshake the real API adds is not
+ * included.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench=SendGridBatchBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SendGridBatchBenchmark {
+
+    static final int MESSAGES = 500;
+
+    private static final String SUBJECT = "Trip update for -name-";
+    private static final String HTML = "<p>Dear -name-, your trip details have changed.</p>";
+    private static final String TEXT = "Dear -name-, your trip details have changed.";
+
+    @Param({"5"})
+    public long latencyMillis;
+
+    @Param({"1000"})
+    public int perRequest;
+
+    private SendGridEmailService service;
+    private SendGridStandIn standIn;
+    private Client pooled;
+    private SendGrid pooledSendGrid;
+    private List<SendGridEmailService.Recipient> recipients;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        service = new SendGridEmailService();
+        ReflectionTestUtils.setField(service, "fromEmail", "bookings@example.com");
+        ReflectionTestUtils.setField(service, "fromName", "Sairaj Travels");
+        ReflectionTestUtils.setField(service, "connectTimeoutMs", 5000);
+        ReflectionTestUtils.setField(service, "readTimeoutMs", 15000);
+        standIn = new SendGridStandIn(latencyMillis, 8);
+        pooled = service.pooledClient(true, 8);
+        pooledSendGrid = service.sendGrid(pooled, standIn.host());
+        recipients = SendGridEmailServiceTest.recipients(MESSAGES, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pooled.close();
+        standIn.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int clientPerMessage() throws Exception {
+        int sent = 0;
+        for (SendGridEmailService.Recipient r : recipients) {
+            try (Client perMessage = new Client(true)) {
+                sent += service.sendBatch(service.sendGrid(perMessage, standIn.host()), 1, SUBJECT, HTML, TEXT,
+                        List.of(r)).size();
+            }
+        }
+        return sent;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int pooledPerMessage() {
+        return service.sendBatch(pooledSendGrid, 1, SUBJECT, HTML, TEXT, recipients).size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int batched() {
+        return service.sendBatch(pooledSendGrid, perRequest, SUBJECT, HTML, TEXT, recipients).size();
+    }
+}
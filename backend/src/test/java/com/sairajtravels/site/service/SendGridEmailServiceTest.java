@@ -0,0 +1,103 @@
+package com.sairajtravels.site.service;
+
+import com.sendgrid.Client;
+import com.sendgrid.SendGrid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SendGridEmailServiceTest {
+
+    private SendGridEmailService service;
+    private SendGridStandIn standIn;
+    private Client client;
+    private SendGrid sendGrid;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new SendGridEmailService();
+        ReflectionTestUtils.setField(service, "fromEmail", "bookings@example.com");
+        ReflectionTestUtils.setField(service, "fromName", "Sairaj Travels");
+        ReflectionTestUtils.setField(service, "connectTimeoutMs", 2000);
+        ReflectionTestUtils.setField(service, "readTimeoutMs", 5000);
+        standIn = new SendGridStandIn(0, 4);
+        client = service.pooledClient(true, 4);
+        sendGrid = service.sendGrid(client, standIn.host());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        standIn.close();
+    }
+
+    @Test
+    void batchSendsOneRequestPerChunkOfPersonalizations() {
+        List<SendGridEmailService.RecipientResult> results = send(2500, 0, 1000);
+
+        assertEquals(2500, results.size());
+        results.forEach(r -> assertEquals(SendGridEmailService.Outcome.SENT, r.outcome()));
+        assertEquals(3, standIn.requests.get());
+        assertEquals(2500, standIn.personalizations.get());
+    }
+
+    @Test
+    void invalidAddressesAreRejectedAndTheRestResentOnce() {
+        List<SendGridEmailService.RecipientResult> results = send(10, 3, 1000);
+
+        for (int i = 0; i < 10; i++) {
+            SendGridEmailService.RecipientResult r = results.get(i);
+            if (i < 7) {
+                assertEquals(SendGridEmailService.Outcome.SENT, r.outcome(), r.email());
+                assertNull(r.error());
+            } else {
+                assertEquals(SendGridEmailService.Outcome.REJECTED, r.outcome(), r.email());
+                assertEquals("Does not contain a valid address.", r.error());
+            }
+        }
+        assertEquals(2, standIn.requests.get());
+        assertEquals(7, standIn.personalizations.get());
+    }
+
+    @Test
+    void pooledClientReusesItsConnection() {
+        send(50, 0, 1);
+
+        assertEquals(50, standIn.requests.get());
+        assertEquals(1, standIn.connections());
+    }
+
+    @Test
+    void unreachableApiFailsEveryRecipient() throws Exception {
+        try (Client unreachable = service.pooledClient(true, 1)) {
+            SendGrid sg = service.sendGrid(unreachable, "127.0.0.1:1");
+            List<SendGridEmailService.RecipientResult> results =
+                    service.sendBatch(sg, 1000, "Subject", "<p>Body</p>", "Body", recipients(3, 0));
+            results.forEach(r -> assertEquals(SendGridEmailService.Outcome.FAILED, r.outcome()));
+        }
+    }
+
+    private List<SendGridEmailService.RecipientResult> send(int count, int invalid, int perRequest) {
+        return service.sendBatch(sendGrid, perRequest, "Trip update for -name-",
+                "<p>Dear -name-, your trip details have changed.</p>", "Dear -name-, your trip details have changed.",
+                recipients(count, invalid));
+    }
+
+    // The last `invalid` addresses are refused by the stand-in
+    static List<SendGridEmailService.Recipient> recipients(int count, int invalid) {
+        List<SendGridEmailService.Recipient> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String domain = i >= count - invalid ? SendGridStandIn.INVALID_DOMAIN : "@example.com";
+            out.add(new SendGridEmailService.Recipient("guest" + i + domain, Map.of("-name-", "Guest " + i)));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,102 @@
+package com.sairajtravels.site.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local HTTP server answering {@code POST /v3/mail/send} like SendGrid, for
+ * {@link SendGridEmailServiceTest} and {@link SendGridBatchBenchmark}: 202 for a valid request
+ * after {@code latencyMillis}, or 400 with one error per personalization whose address ends in
+ * {@code @invalid.test}. Counts the requests, personalizations and client connections it served.
+ */
+final class SendGridStandIn implements AutoCloseable {
+
+    static final String INVALID_DOMAIN = "@invalid.test";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final long latencyMillis;
+
+    final AtomicLong requests = new AtomicLong();
+    final AtomicLong personalizations = new AtomicLong();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    SendGridStandIn(long latencyMillis, int threads) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/v3/mail/send", this::handle);
+        server.start();
+    }
+
+    /** {@code host:port} for {@code SendGrid.setHost}. */
+    String host() {
+        return "127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int connections() {
+        return clientPorts.size();
+    }
+
+    void reset() {
+        requests.set(0);
+        personalizations.set(0);
+        clientPorts.clear();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream in = exchange.getRequestBody()) {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            JsonNode mail = mapper.readTree(in.readAllBytes());
+            requests.incrementAndGet();
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            StringBuilder errors = new StringBuilder();
+            JsonNode list = mail.path("personalizations");
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i).path("to").path(0).path("email").asText("").endsWith(INVALID_DOMAIN)) {
+                    errors.append(errors.isEmpty() ? "" : ",")
+                            .append("{\"message\":\"Does not contain a valid address.\",\"field\":\"personalizations.")
+                            .append(i).append(".to.0.email\"}");
+                }
+            }
+            if (!errors.isEmpty()) {
+                byte[] body = ("{\"errors\":[" + errors + "]}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(400, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+                return;
+            }
+            personalizations.addAndGet(list.size());
+            exchange.sendResponseHeaders(202, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
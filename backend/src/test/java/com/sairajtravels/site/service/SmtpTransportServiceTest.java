@@ -0,0 +1,138 @@
+package com.sairajtravels.site.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SmtpTransportServiceTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final Session session = Session.getInstance(timeouts());
+    private SmtpTransportService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void batchGoesOutOverOneConnection() throws Exception {
+        service = service(1, 100);
+
+        Map<Integer, MessagingException> failed = service.sendBatch(messages(20));
+
+        assertTrue(failed.isEmpty(), failed::toString);
+        assertEquals(20, greenMail.getReceivedMessages().length);
+        Map<String, Object> stats = service.sessions().get(0);
+        assertEquals(20L, stats.get("sent"));
+        assertEquals(1L, stats.get("connects"));
+        assertEquals(true, stats.get("open"));
+    }
+
+    @Test
+    void sessionStaysOpenBetweenSends() throws Exception {
+        service = service(1, 100);
+
+        for (MimeMessage m : messages(5)) {
+            service.send(m);
+        }
+
+        assertEquals(5, greenMail.getReceivedMessages().length);
+        assertEquals(1L, service.sessions().get(0).get("connects"));
+    }
+
+    @Test
+    void reconnectsAfterMaxMessagesPerConnection() throws Exception {
+        service = service(1, 5);
+
+        assertTrue(service.sendBatch(messages(12)).isEmpty());
+
+        assertEquals(12, greenMail.getReceivedMessages().length);
+        assertEquals(3L, service.sessions().get(0).get("connects"));
+    }
+
+    @Test
+    void reopensAConnectionTheServerDropped() throws Exception {
+        service = service(1, 100);
+        assertTrue(service.sendBatch(messages(3)).isEmpty());
+
+        greenMail.stop();
+        greenMail.start();
+        assertTrue(service.sendBatch(messages(3)).isEmpty());
+
+        assertEquals(3, greenMail.getReceivedMessages().length);
+        Map<String, Object> stats = service.sessions().get(0);
+        assertEquals(6L, stats.get("sent"));
+        assertEquals(2L, stats.get("connects"));
+        assertEquals(1L, stats.get("reconnects"));
+    }
+
+    @Test
+    void unreachableServerFailsTheRestOfTheBatchAtOnce() throws Exception {
+        try (SmtpTransportPool pool = new SmtpTransportPool(session, "smtp", "127.0.0.1", 1,
+                null, null, 1, 10_000, 120_000, 100)) {
+            List<SmtpTransportPool.Failure> failures = pool.send(messages(4), 1000);
+
+            assertEquals(4, failures.size());
+            assertEquals(0L, pool.slots().get(0).connects.get());
+            assertEquals(4L, pool.slots().get(0).failed.get());
+        }
+    }
+
+    private SmtpTransportService service(int sessions, int maxMessagesPerConnection) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setSession(session);
+        sender.setHost("127.0.0.1");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        SmtpTransportService s = new SmtpTransportService(sender, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(s, "sessions", sessions);
+        ReflectionTestUtils.setField(s, "idleCheckMs", 10_000L);
+        ReflectionTestUtils.setField(s, "maxIdleMs", 120_000L);
+        ReflectionTestUtils.setField(s, "maxMessagesPerConnection", maxMessagesPerConnection);
+        ReflectionTestUtils.setField(s, "borrowTimeoutMs", 5_000L);
+        s.init();
+        return s;
+    }
+
+    private List<MimeMessage> messages(int count) throws MessagingException {
+        List<MimeMessage> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MimeMessage m = new MimeMessage(session);
+            MimeMessageHelper helper = new MimeMessageHelper(m, true);
+            helper.setFrom("bookings@example.com");
+            helper.setTo("guest" + i + "@example.com");
+            helper.setSubject("Booking Status Update - Sairaj Travels");
+            helper.setText("Your booking #" + i + " is confirmed.", "<p>Your booking <b>#" + i + "</b> is confirmed.</p>");
+            list.add(m);
+        }
+        return list;
+    }
+
+    private static Properties timeouts() {
+        Properties props = new Properties();
+        props.put("mail.smtp.connectiontimeout", "5000");
+        props.put("mail.smtp.timeout", "5000");
+        return props;
+    }
+}
@@ -0,0 +1,97 @@
+package com.sairajtravels.site.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int SLOTS = 8;     // one revolution = 80 ms
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(TICK, SLOTS, 1_000);
+
+    @Test
+    void deadlineSeveralRevolutionsOutFiresOnItsOwnPass() {
+        wheel.schedule("far", 1_000 + 3 * 80 + 25);     // tick 27: slot 3, three revolutions out
+        wheel.schedule("near", 1_000 + 25);              // tick 3: same slot, this revolution
+
+        assertEquals(List.of(), advance(1_000 + 20));
+        assertEquals(List.of("near"), advance(1_000 + 30));
+        // Passes slot 3 twice more without firing "far"
+        assertEquals(List.of(), advance(1_000 + 3 * 80 + 20));
+        assertEquals(List.of("far"), advance(1_000 + 3 * 80 + 30));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void neverFiresEarlyAndAtMostOneTickLate() {
+        wheel.schedule("a", 1_000 + 41);
+
+        assertEquals(List.of(), advance(1_000 + 41));
+        assertEquals(List.of(), advance(1_000 + 49));
+        assertEquals(List.of("a"), advance(1_000 + 50));
+    }
+
+    @Test
+    void cancelledKeysDoNotFire() {
+        wheel.schedule("kept", 1_000 + 20);
+        wheel.schedule("cancelled", 1_000 + 20);
+        wheel.schedule("cancelledFar", 1_000 + 500);
+
+        assertTrue(wheel.cancel("cancelled"));
+        assertTrue(wheel.cancel("cancelledFar"));
+        assertFalse(wheel.cancel("cancelled"));
+        assertNull(wheel.deadlineOf("cancelled"));
+        assertEquals(1, wheel.size());
+
+        assertEquals(List.of("kept"), advance(1_000 + 1_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedulingAKeyAgainMovesIt() {
+        wheel.schedule("k", 1_000 + 20);
+        wheel.schedule("k", 1_000 + 300);
+
+        assertEquals(1, wheel.size());
+        assertEquals(1_300L, wheel.deadlineOf("k"));
+        assertEquals(List.of(), advance(1_000 + 290));
+        assertEquals(List.of("k"), advance(1_000 + 300));
+    }
+
+    @Test
+    void catchesUpAfterALongSchedulerPause() {
+        Set<String> scheduled = new TreeSet<>();
+        for (int i = 0; i < 100; i++) {
+            String key = "k" + i;
+            wheel.schedule(key, 1_000 + i * 37L);     // spread over about 46 revolutions
+            scheduled.add(key);
+        }
+        wheel.schedule("later", 1_000 + 10_000);
+
+        // Nothing advanced the wheel for 5 s; one call catches up every tick in between
+        assertEquals(scheduled, new TreeSet<>(advance(1_000 + 5_000)));
+        assertEquals(1, wheel.size());
+
+        // A deadline already passed when scheduled fires on the next tick
+        wheel.schedule("overdue", 1_000 + 100);
+        assertEquals(List.of("overdue"), advance(1_000 + 5_000 + TICK));
+        assertEquals(List.of(), advance(1_000 + 9_990));
+        assertEquals(List.of("later"), advance(1_000 + 10_000));
+    }
+
+    private List<String> advance(long now) {
+        List<String> expired = new ArrayList<>();
+        wheel.advance(now, expired);
+        return expired;
+    }
+}
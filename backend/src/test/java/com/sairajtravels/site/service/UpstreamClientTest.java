@@ -0,0 +1,57 @@
+package com.sairajtravels.site.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamClientTest {
+
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void errorDuringAHalfOpenTrialFreesTheTrialSlot() {
+        // Opens on the first failure and half-opens straight away
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        UpstreamClient client = client(breaker);
+        assertThrows(IllegalStateException.class, () -> client.call(rest -> {
+            throw new IllegalStateException("upstream down");
+        }));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        assertThrows(StackOverflowError.class, () -> client.call(rest -> {
+            throw new StackOverflowError();
+        }));
+
+        // Without the release every later call would be refused as a second trial
+        assertEquals("ok", client.call(rest -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void openCircuitRefusesCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 60_000);
+        UpstreamClient client = client(breaker);
+        assertThrows(IllegalStateException.class, () -> client.call(rest -> {
+            throw new IllegalStateException("upstream down");
+        }));
+
+        assertThrows(CircuitBreaker.OpenException.class, () -> client.call(rest -> "ok"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private UpstreamClient client(CircuitBreaker breaker) {
+        executor.setCorePoolSize(1);
+        executor.initialize();
+        return new UpstreamClient("test", new RestTemplate(), executor, breaker, new SimpleMeterRegistry());
+    }
+}
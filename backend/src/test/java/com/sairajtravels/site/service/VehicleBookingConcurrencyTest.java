@@ -0,0 +1,193 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.dto.VehicleBookingDTO;
+import com.sairajtravels.site.entity.Vehicle;
+import com.sairajtravels.site.entity.VehicleBooking;
+import com.sairajtravels.site.repository.VehicleBookingRepository;
+import com.sairajtravels.site.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Races parallel bookings of one vehicle for the same days through {@link VehicleBookingService}
+ * and {@link VehicleAllocationGuard} on the local (H2) profile: exactly one may be allocated.
+ */
+@SpringBootTest
+class VehicleBookingConcurrencyTest {
+
+    private static final int WRITERS = 16;
+
+    @Autowired
+    private VehicleBookingService vehicleBookingService;
+
+    @Autowired
+    private VehicleAllocationGuard allocationGuard;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private VehicleBookingRepository vehicleBookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void onlyOneOfParallelBookingsForTheSameVehicleAndDaysSucceeds() throws Exception {
+        Integer vehicleId = vehicle();
+        LocalDate trip = LocalDate.now().plusDays(30);
+
+        List<Callable<Object>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            VehicleBookingDTO dto = booking(vehicleId, i, trip, trip.plusDays(2));
+            writers.add(() -> vehicleBookingService.createBooking(dto));
+        }
+        List<Throwable> failures = race(writers);
+
+        assertEquals(WRITERS - 1, failures.size());
+        failures.forEach(f -> assertInstanceOf(BookingConflictException.class, f));
+        assertEquals(1, allocated(vehicleId, trip, trip.plusDays(2)));
+    }
+
+    @Test
+    void partlyOverlappingRangesAreRefusedToo() throws Exception {
+        Integer vehicleId = vehicle();
+        LocalDate trip = LocalDate.now().plusDays(60);
+
+        // Every range shares day trip + 3 with every other
+        List<Callable<Object>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            VehicleBookingDTO dto = booking(vehicleId, i, trip.plusDays(i % 4), trip.plusDays(3 + i % 3));
+            writers.add(() -> vehicleBookingService.createBooking(dto));
+        }
+        List<Throwable> failures = race(writers);
+
+        assertEquals(WRITERS - 1, failures.size());
+        failures.forEach(f -> assertInstanceOf(BookingConflictException.class, f));
+        assertEquals(1, allocated(vehicleId, trip, trip.plusDays(6)));
+    }
+
+    @Test
+    void differentVehiclesDoNotBlockEachOther() throws Exception {
+        LocalDate trip = LocalDate.now().plusDays(90);
+        List<Integer> vehicles = new ArrayList<>();
+        List<Callable<Object>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            Integer vehicleId = vehicle();
+            vehicles.add(vehicleId);
+            VehicleBookingDTO dto = booking(vehicleId, i, trip, trip);
+            writers.add(() -> vehicleBookingService.createBooking(dto));
+        }
+
+        assertEquals(List.of(), race(writers));
+        for (Integer vehicleId : vehicles) {
+            assertEquals(1, allocated(vehicleId, trip, trip));
+        }
+    }
+
+    // A second guard has its own stripes, as another instance would: only the Vehicles row lock is shared
+    @Test
+    void rowLockSerialisesWritersAcrossInstances() throws Exception {
+        VehicleAllocationGuard otherInstance = new VehicleAllocationGuard(vehicleRepository, vehicleBookingRepository, 64);
+        ReflectionTestUtils.setField(otherInstance, "lockTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(otherInstance, "allocatedStatuses", Set.of("CONFIRMED"));
+        Integer vehicleId = vehicle();
+        LocalDate trip = LocalDate.now().plusDays(120);
+
+        List<Callable<Object>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            VehicleAllocationGuard guard = i % 2 == 0 ? allocationGuard : otherInstance;
+            writers.add(() -> transactionTemplate.execute(status -> {
+                guard.lock(List.of(vehicleId));
+                guard.checkNoOverlap(null, vehicleId, trip, trip);
+                VehicleBooking booking = new VehicleBooking();
+                booking.setVehicle(vehicleRepository.getReferenceById(vehicleId));
+                booking.setTripDate(trip);
+                booking.setStatus("CONFIRMED");
+                booking.setRequestedAt(LocalDateTime.now());
+                return vehicleBookingRepository.save(booking);
+            }));
+        }
+        List<Throwable> failures = race(writers);
+
+        assertEquals(WRITERS - 1, failures.size());
+        failures.forEach(f -> assertInstanceOf(BookingConflictException.class, f));
+        assertEquals(1, allocated(vehicleId, trip, trip));
+    }
+
+    // Starts every writer at once; returns what the failed ones threw
+    private List<Throwable> race(List<Callable<Object>> writers) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+        for (Callable<Object> writer : writers) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return writer.call();
+            }));
+        }
+        start.countDown();
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<Object> result : results) {
+            try {
+                result.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            } catch (TimeoutException e) {
+                throw new AssertionError("A booking writer did not finish", e);
+            }
+        }
+        return failures;
+    }
+
+    private Integer vehicle() {
+        return vehicleRepository.save(new Vehicle("Tempo Traveller", "Tempo", 17, true, null, null,
+                LocalDateTime.now())).getVehicleId();
+    }
+
+    private static VehicleBookingDTO booking(Integer vehicleId, int i, LocalDate trip, LocalDate ret) {
+        VehicleBookingDTO dto = new VehicleBookingDTO();
+        dto.setVehicleId(vehicleId);
+        dto.setCustomerName("Guest " + i);
+        dto.setCustomerPhone("98" + (10000000 + i));
+        dto.setCustomerEmail("guest" + i + "@example.com");
+        dto.setPickupLocation("Pune Station");
+        dto.setDropLocation("Shirdi");
+        dto.setTripDate(trip);
+        dto.setReturnDate(ret);
+        dto.setPassengers(4);
+        dto.setStatus("CONFIRMED");
+        return dto;
+    }
+
+    private int allocated(Integer vehicleId, LocalDate from, LocalDate to) {
+        return vehicleBookingRepository.findOverlappingIds(vehicleId, -1, Set.of("CONFIRMED"), from, to).size();
+    }
+}
@@ -0,0 +1,175 @@
+package com.sairajtravels.site.service;
+
+import com.sairajtravels.site.dto.VehicleBookingDTO;
+import com.sairajtravels.site.dto.VehicleBookingFilter;
+import com.sairajtravels.site.dto.VehicleBookingPageDTO;
+import com.sairajtravels.site.entity.Vehicle;
+import com.sairajtravels.site.entity.VehicleBooking;
+import com.sairajtravels.site.repository.VehicleBookingRepository;
+import com.sairajtravels.site.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Walks {@link VehicleBookingService#listBookings} cursor by cursor over one vehicle's bookings on
+ * the local (H2) profile: every row exactly once, newest request first, ties on RequestedAt by
+ * BookingId, undated rows last.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class VehicleBookingPagingTest {
+
+    @Autowired
+    private VehicleBookingService vehicleBookingService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private VehicleBookingRepository vehicleBookingRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void everyPageSizeWalksEveryRowOnceInOrder() {
+        Integer vehicleId = vehicle();
+        List<VehicleBooking> rows = fixture(vehicleId);
+        List<Integer> expected = rows.stream()
+                .sorted(Comparator.comparing(VehicleBooking::getRequestedAt,
+                                Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                        .thenComparing(VehicleBooking::getBookingId, Comparator.reverseOrder()))
+                .map(VehicleBooking::getBookingId)
+                .toList();
+
+        for (int limit = 1; limit <= rows.size() + 1; limit++) {
+            assertEquals(expected, walk(vehicleId, limit), "limit " + limit);
+        }
+    }
+
+    @Test
+    void pageBoundaryOnATieDoesNotSkipOrRepeat() {
+        Integer vehicleId = vehicle();
+        LocalDateTime at = LocalDateTime.of(2025, 11, 1, 10, 0);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(save(vehicleId, at).getBookingId());
+        }
+
+        // Pages of two cut the five tied rows after the second and the fourth
+        VehicleBookingFilter filter = filter(vehicleId);
+        VehicleBookingPageDTO first = vehicleBookingService.listBookings(filter, null, 2, true);
+        VehicleBookingPageDTO second = vehicleBookingService.listBookings(filter, first.getNextCursor(), 2, false);
+        VehicleBookingPageDTO third = vehicleBookingService.listBookings(filter, second.getNextCursor(), 2, false);
+
+        assertEquals(List.of(ids.get(4), ids.get(3)), ids(first));
+        assertEquals(List.of(ids.get(2), ids.get(1)), ids(second));
+        assertEquals(List.of(ids.get(0)), ids(third));
+        assertNull(third.getNextCursor());
+        assertEquals(5L, first.getTotal());
+        assertNull(second.getTotal());
+    }
+
+    @Test
+    void lastDatedRowAndFirstUndatedRowMeetAcrossAPage() {
+        Integer vehicleId = vehicle();
+        Integer dated = save(vehicleId, LocalDateTime.of(2025, 11, 1, 10, 0)).getBookingId();
+        Integer undatedOld = save(vehicleId, null).getBookingId();
+        Integer undatedNew = save(vehicleId, null).getBookingId();
+
+        VehicleBookingFilter filter = filter(vehicleId);
+        VehicleBookingPageDTO first = vehicleBookingService.listBookings(filter, null, 1, false);
+        VehicleBookingPageDTO second = vehicleBookingService.listBookings(filter, first.getNextCursor(), 1, false);
+        VehicleBookingPageDTO third = vehicleBookingService.listBookings(filter, second.getNextCursor(), 1, false);
+
+        assertEquals(List.of(dated), ids(first));
+        assertEquals(List.of(undatedNew), ids(second));
+        assertEquals(List.of(undatedOld), ids(third));
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    void malformedCursorIsRejected() throws Exception {
+        VehicleBookingFilter filter = filter(vehicle());
+        for (String cursor : List.of("not base64!", encode("no-bar"), encode("yesterday|12"), encode("2025-11-01T10:00|x"))) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> vehicleBookingService.listBookings(filter, cursor, 10, false), cursor);
+        }
+
+        mockMvc.perform(get("/api/vehicle-bookings/page").param("cursor", encode("yesterday|12")))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Dated rows with ties and undated rows, inserted out of order so ids do not follow time
+    private List<VehicleBooking> fixture(Integer vehicleId) {
+        LocalDateTime t = LocalDateTime.of(2025, 11, 1, 10, 0);
+        List<VehicleBooking> rows = new ArrayList<>();
+        for (LocalDateTime at : new LocalDateTime[] {
+                t.minusHours(3), null, t, t.minusHours(1), null, t.minusHours(3), t.minusHours(1),
+                t.plusMinutes(5), null, t.minusHours(1), t.minusDays(2), null, t}) {
+            rows.add(save(vehicleId, at));
+        }
+        return rows;
+    }
+
+    private List<Integer> walk(Integer vehicleId, int limit) {
+        VehicleBookingFilter filter = filter(vehicleId);
+        List<Integer> seen = new ArrayList<>();
+        Set<String> cursors = new HashSet<>();
+        String cursor = null;
+        do {
+            VehicleBookingPageDTO page = vehicleBookingService.listBookings(filter, cursor, limit, false);
+            assertTrue(page.getItems().size() <= limit);
+            seen.addAll(ids(page));
+            cursor = page.getNextCursor();
+            assertTrue(cursor == null || cursors.add(cursor), "cursor repeated");
+        } while (cursor != null);
+        return seen;
+    }
+
+    private VehicleBooking save(Integer vehicleId, LocalDateTime requestedAt) {
+        VehicleBooking booking = new VehicleBooking();
+        booking.setVehicle(vehicleRepository.getReferenceById(vehicleId));
+        booking.setTripDate(LocalDate.now().plusDays(10));
+        booking.setStatus("PENDING");
+        booking.setRequestedAt(requestedAt);
+        return vehicleBookingRepository.save(booking);
+    }
+
+    private Integer vehicle() {
+        return vehicleRepository.save(new Vehicle("Innova Crysta", "SUV", 7, true, null, null,
+                LocalDateTime.now())).getVehicleId();
+    }
+
+    private static VehicleBookingFilter filter(Integer vehicleId) {
+        return new VehicleBookingFilter(null, vehicleId, null, null, null, null);
+    }
+
+    private static List<Integer> ids(VehicleBookingPageDTO page) {
+        return page.getItems().stream().map(VehicleBookingDTO::getBookingId).toList();
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
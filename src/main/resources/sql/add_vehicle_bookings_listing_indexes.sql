@@ -0,0 +1,19 @@
+-- Indexes for the paged booking listing (/api/vehicle-bookings/page): it seeks on
+-- (RequestedAt, BookingId), newest first, and each filter is an index seek
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_VehicleBookings_RequestedAt' AND object_id = OBJECT_ID('VehicleBookings'))
+    CREATE INDEX IX_VehicleBookings_RequestedAt ON VehicleBookings (RequestedAt DESC, BookingId DESC);
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_VehicleBookings_Status_RequestedAt' AND object_id = OBJECT_ID('VehicleBookings'))
+    CREATE INDEX IX_VehicleBookings_Status_RequestedAt ON VehicleBookings (Status, RequestedAt DESC, BookingId DESC);
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_VehicleBookings_Vehicle_RequestedAt' AND object_id = OBJECT_ID('VehicleBookings'))
+    CREATE INDEX IX_VehicleBookings_Vehicle_RequestedAt ON VehicleBookings (VehicleId, RequestedAt DESC, BookingId DESC);
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_VehicleBookings_TripDate' AND object_id = OBJECT_ID('VehicleBookings'))
+    CREATE INDEX IX_VehicleBookings_TripDate ON VehicleBookings (TripDate);
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_VehicleBookings_CustomerPhone' AND object_id = OBJECT_ID('VehicleBookings'))
+    CREATE INDEX IX_VehicleBookings_CustomerPhone ON VehicleBookings (CustomerPhone);
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_VehicleBookings_CustomerEmail' AND object_id = OBJECT_ID('VehicleBookings'))
+    CREATE INDEX IX_VehicleBookings_CustomerEmail ON VehicleBookings (CustomerEmail);
@@ -0,0 +1,5 @@
+-- Add Version column to VehicleBookings table: the optimistic lock column, so a concurrent
+-- edit of the same booking fails the later commit instead of overwriting the earlier one
+IF NOT EXISTS (SELECT * FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'VehicleBookings' AND COLUMN_NAME = 'Version')
+    ALTER TABLE VehicleBookings
+    ADD Version BIGINT NOT NULL CONSTRAINT DF_VehicleBookings_Version DEFAULT 0;
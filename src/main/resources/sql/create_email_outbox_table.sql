@@ -0,0 +1,24 @@
+-- Create email_outbox table: notification emails queued with the booking, enquiry or contact
+-- message that caused them, and sent later by EmailOutboxDispatcher / AdminDigestDispatcher
+IF NOT EXISTS (SELECT * FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'email_outbox')
+CREATE TABLE email_outbox (
+    id              BIGINT IDENTITY(1,1) PRIMARY KEY,
+    kind            VARCHAR(10)    NOT NULL,     -- HTML, ADMIN or DIGEST
+    recipient       VARCHAR(200)   NULL,
+    subject         NVARCHAR(300)  NOT NULL,
+    html_body       NVARCHAR(MAX)  NULL,
+    text_body       NVARCHAR(MAX)  NULL,
+    source_type     VARCHAR(20)    NULL,         -- booking, enquiry or contact
+    source_id       INT            NULL,
+    status          VARCHAR(10)    NOT NULL,     -- PENDING, SENDING, SENT or DEAD
+    attempts        INT            NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME2      NOT NULL,
+    locked_until    DATETIME2      NULL,
+    last_error      NVARCHAR(500)  NULL,
+    created_at      DATETIME2      NOT NULL,
+    sent_at         DATETIME2      NULL
+);
+
+-- Due rows are looked up by status and next attempt on every poll
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_email_outbox_due' AND object_id = OBJECT_ID('email_outbox'))
+CREATE INDEX ix_email_outbox_due ON email_outbox (status, next_attempt_at);
@@ -0,0 +1,18 @@
+-- Create idempotency_keys table: stored outcomes of create requests sent with an
+-- Idempotency-Key header, replayed when the same request is retried
+IF NOT EXISTS (SELECT * FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'idempotency_keys')
+CREATE TABLE idempotency_keys (
+    id            BIGINT IDENTITY(1,1) PRIMARY KEY,
+    scope         VARCHAR(40)    NOT NULL,       -- endpoint, e.g. vehicle-bookings
+    idem_key      VARCHAR(100)   NOT NULL,
+    request_hash  CHAR(64)       NOT NULL,       -- SHA-256 of the request body
+    status_code   INT            NOT NULL,
+    response_body NVARCHAR(MAX)  NULL,
+    created_at    DATETIME2      NOT NULL,
+    expires_at    DATETIME2      NOT NULL,
+    CONSTRAINT uq_idempotency_scope_key UNIQUE (scope, idem_key)
+);
+
+-- Expired keys are purged by expires_at
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_idempotency_expires' AND object_id = OBJECT_ID('idempotency_keys'))
+CREATE INDEX ix_idempotency_expires ON idempotency_keys (expires_at);